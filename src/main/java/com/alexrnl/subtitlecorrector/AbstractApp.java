@@ -2,6 +2,7 @@ package com.alexrnl.subtitlecorrector;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.HashMap;
@@ -9,12 +10,18 @@ import java.util.Map;
 
 import com.alexrnl.commons.translation.Translator;
 import com.alexrnl.subtitlecorrector.correctionstrategy.CheckSpelling;
+import com.alexrnl.subtitlecorrector.correctionstrategy.ConfusionReplacement;
 import com.alexrnl.subtitlecorrector.correctionstrategy.FixPunctuation;
 import com.alexrnl.subtitlecorrector.correctionstrategy.LetterReplacement;
 import com.alexrnl.subtitlecorrector.correctionstrategy.Strategy;
+import com.alexrnl.subtitlecorrector.io.BloomFilter;
+import com.alexrnl.subtitlecorrector.io.CharsetDetector;
+import com.alexrnl.subtitlecorrector.io.DictionarySegment;
 import com.alexrnl.subtitlecorrector.io.SubtitleFormatManager;
 import com.alexrnl.subtitlecorrector.io.subrip.SubRip;
+import com.alexrnl.subtitlecorrector.io.webvtt.WebVTT;
 import com.alexrnl.subtitlecorrector.service.DictionaryManager;
+import com.alexrnl.subtitlecorrector.service.SerializedUserPrompt;
 import com.alexrnl.subtitlecorrector.service.ServiceProvider;
 import com.alexrnl.subtitlecorrector.service.SessionManager;
 import com.alexrnl.subtitlecorrector.service.SubtitleProvider;
@@ -27,7 +34,9 @@ import com.alexrnl.subtitlecorrector.service.UserPrompt;
  */
 public abstract class AbstractApp implements ServiceProvider {
 	/** The name of the program */
-	public static final String			PROGRAM_NAME	= "subtitleCorrector";
+	public static final String			PROGRAM_NAME			= "subtitleCorrector";
+	/** The name of the segment with the locale dictionaries shared by the processes of the host */
+	public static final String			SHARED_SEGMENT_NAME		= "dictionaries";
 	
 	/** The translator to use in the application */
 	private final Translator			translator;
@@ -39,6 +48,8 @@ public abstract class AbstractApp implements ServiceProvider {
 	private final Map<String, Strategy>	strategies;
 	/** The subtitle format manager */
 	private final SubtitleFormatManager	subtitleFormatManager;
+	/** The detector of the character set of the subtitle files */
+	private final CharsetDetector		charsetDetector;
 	/** The subtitle provider */
 	private final SubtitleProvider		subtitleProvider;
 	
@@ -63,25 +74,35 @@ public abstract class AbstractApp implements ServiceProvider {
 		
 		// TODO load language dynamically
 		translator = new Translator(Paths.get(AbstractApp.class.getResource("/locale/en.xml").toURI()));
-		userPrompt.setTranslator(translator);
+		// The files may be corrected by several threads: let one question at a time reach the user
+		final UserPrompt prompt = new SerializedUserPrompt(userPrompt);
+		prompt.setTranslator(translator);
 		
 		sessionManager = new SessionManager();
-		sessionManager.addSessionListener(userPrompt);
+		sessionManager.addSessionListener(prompt);
 		
 		// Load services TODO load custom dictionaries from configuration
-		dictionariesManager = new DictionaryManager(Paths.get(AbstractApp.class.getResource("/dictionary").toURI()),
-				Paths.get(AbstractApp.class.getResource("/locale").toURI()));
+		final Path dictionaryFolder = Paths.get(AbstractApp.class.getResource("/dictionary").toURI());
+		dictionariesManager = new DictionaryManager(dictionaryFolder, Paths.get(AbstractApp.class.getResource("/locale").toURI()),
+				DictionaryManager.DEFAULT_RESIDENT_LOCALE_DICTIONARIES, BloomFilter.DEFAULT_FALSE_POSITIVE_RATE,
+				dictionaryFolder.resolve(SHARED_SEGMENT_NAME + DictionarySegment.SEGMENT_EXTENSION));
 		sessionManager.addSessionListener(dictionariesManager);
+		dictionariesManager.startWatching();
 		
 		strategies = new HashMap<>();
-		addStrategy(new LetterReplacement(dictionariesManager, userPrompt));
+		addStrategy(new LetterReplacement(dictionariesManager, prompt));
 		addStrategy(new FixPunctuation(Paths.get(AbstractApp.class.getResource("/punctuation").toURI())));
-		addStrategy(new CheckSpelling(dictionariesManager, userPrompt));
+		addStrategy(new CheckSpelling(dictionariesManager, prompt));
+		addStrategy(new ConfusionReplacement(dictionariesManager, prompt, Paths.get(AbstractApp.class.getResource(
+				"/confusion").toURI())));
 		
 		subtitleFormatManager = new SubtitleFormatManager();
 		subtitleFormatManager.registerFormat(new SubRip());
+		subtitleFormatManager.registerFormat(new WebVTT());
 		
-		subtitleProvider = new SubtitleProvider(subtitleFormatManager, userPrompt);
+		// Read each file in its own character set, whatever the character set of the format
+		charsetDetector = new CharsetDetector();
+		subtitleProvider = new SubtitleProvider(subtitleFormatManager, prompt, charsetDetector);
 	}
 	
 	@Override
@@ -128,6 +149,14 @@ public abstract class AbstractApp implements ServiceProvider {
 	public SubtitleProvider getSubtitleProvider () {
 		return subtitleProvider;
 	}
+	
+	/**
+	 * Return the attribute charsetDetector.
+	 * @return the detector of the character set of the subtitle files.
+	 */
+	public CharsetDetector getCharsetDetector () {
+		return charsetDetector;
+	}
 
 	/**
 	 * Launch the application.<br />
@@ -5,7 +5,10 @@ import static com.alexrnl.subtitlecorrector.common.TranslationKeys.KEYS;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -19,15 +22,19 @@ import com.alexrnl.commons.arguments.parsers.AbstractParser;
 import com.alexrnl.commons.error.ExceptionUtils;
 import com.alexrnl.commons.io.IOUtils;
 import com.alexrnl.commons.utils.StringUtils;
-import com.alexrnl.subtitlecorrector.common.Subtitle;
 import com.alexrnl.subtitlecorrector.common.SubtitleFile;
 import com.alexrnl.subtitlecorrector.common.TranslationKeys;
 import com.alexrnl.subtitlecorrector.common.TranslationKeys.Console.App;
+import com.alexrnl.subtitlecorrector.correctionstrategy.CompositeStrategy;
 import com.alexrnl.subtitlecorrector.correctionstrategy.Parameter;
 import com.alexrnl.subtitlecorrector.correctionstrategy.Strategy;
 import com.alexrnl.subtitlecorrector.gui.view.ConsoleUserPrompt;
 import com.alexrnl.subtitlecorrector.io.SubtitleFormat;
+import com.alexrnl.subtitlecorrector.io.subrip.MappedSubRipReader;
+import com.alexrnl.subtitlecorrector.io.subrip.SubRip;
 import com.alexrnl.subtitlecorrector.service.SessionParameters;
+import com.alexrnl.subtitlecorrector.service.SubtitleCorrector;
+import com.alexrnl.subtitlecorrector.service.SubtitleCorrector.TargetResolver;
 
 /**
  * Console application for the subtitle corrector.<br />
@@ -36,6 +43,8 @@ import com.alexrnl.subtitlecorrector.service.SessionParameters;
 public class ConsoleApp extends AbstractApp {
 	/** Logger */
 	private static final Logger	LG					= Logger.getLogger(ConsoleApp.class.getName());
+	/** The separator of the strategies in the command line */
+	private static final String	STRATEGY_SEPARATOR	= ",";
 	
 	/** The print stream to use for interacting with the user */
 	private final PrintStream	out;
@@ -44,7 +53,8 @@ public class ConsoleApp extends AbstractApp {
 	@Param(names = { "-i" }, description = "the subtitles file to correct", required = true)
 	private Path				workingFiles;
 	/** The strategy to use to correct the subtitles */
-	@Param(names = { "-s" }, description = "the strategy to use for correcting subtitles", required = true)
+	@Param(names = { "-s" }, description = "the strategies to use for correcting subtitles, separated by '"
+			+ STRATEGY_SEPARATOR + "'", required = true)
 	private Strategy			strategy;
 	/** The locale to use */
 	@Param(names = { "-l" }, description = "the language of the subtitle")
@@ -52,6 +62,18 @@ public class ConsoleApp extends AbstractApp {
 	/** Flag to indicate to overwrite original subtitles file */
 	@Param(names = { "-o" }, description = "overwrite subtitle file while correcting")
 	private boolean				overwrite;
+	/** The number of threads used to correct the files */
+	@Param(names = { "-t" }, description = "the number of files read and corrected in parallel (default: 1)")
+	private Integer				threads;
+	/** Flag to indicate to stream the subtitles instead of loading all the files beforehand */
+	@Param(names = { "-m" }, description = "stream the subtitles while correcting, to keep memory low on large folders")
+	private boolean				streaming;
+	/** Flag to indicate to skip the malformed subtitles instead of the whole file */
+	@Param(names = { "-r" }, description = "recover from malformed subtitles, skipping them instead of the whole file")
+	private boolean				lenient;
+	/** Flag to indicate to map the SubRip files in memory and parse their bytes */
+	@Param(names = { "-b" }, description = "map the SubRip files in memory and parse their bytes (UTF-8 and single byte charsets)")
+	private boolean				mapped;
 	
 	
 	/**
@@ -67,19 +89,25 @@ public class ConsoleApp extends AbstractApp {
 		super(new ConsoleUserPrompt());
 		out = System.out;
 		locale = Locale.getDefault();
+		threads = 1;
 		
 		// Parse arguments
 		final Arguments arguments = new Arguments(PROGRAM_NAME, this, out);
 		arguments.addParameterParser(new AbstractParser<Strategy>(Strategy.class) {
 			@Override
 			public Strategy getValue (final String parameter) {
-				final Strategy strategyParameter = getStrategies().get(parameter);
-				
-				if (strategyParameter == null) {
-					throw new IllegalArgumentException("No strategy with name " + parameter
-							+ ", available strategies are: " + getStrategies().keySet());
+				final List<Strategy> strategies = new ArrayList<>();
+				for (final String name : parameter.split(STRATEGY_SEPARATOR)) {
+					final Strategy strategyParameter = getStrategies().get(name.trim());
+					
+					if (strategyParameter == null) {
+						throw new IllegalArgumentException("No strategy with name " + name.trim()
+								+ ", available strategies are: " + getStrategies().keySet());
+					}
+					strategies.add(strategyParameter);
 				}
-				return strategyParameter;
+				// Apply all the strategies while reading and writing the files once
+				return strategies.size() == 1 ? strategies.get(0) : new CompositeStrategy(strategies);
 			}
 		});
 		arguments.addParameterParser(new AbstractParser<Locale>(Locale.class) {
@@ -88,15 +116,42 @@ public class ConsoleApp extends AbstractApp {
 				return Locale.forLanguageTag(parameter);
 			}
 		});
+		arguments.addParameterParser(new AbstractParser<Integer>(Integer.class) {
+			@Override
+			public Integer getValue (final String parameter) {
+				return Integer.valueOf(parameter);
+			}
+		});
 		arguments.parse(args);
 	}
 	
 	@Override
 	public boolean launch () {
 		final App appKey = TranslationKeys.KEYS.console().app();
+		// Load the dictionary while the subtitles are read and the parameters entered
+		getDictionariesManager().prefetch(locale);
+		if (lenient || mapped) {
+			// Replace the default SubRip format
+			final Charset charset = Charset.defaultCharset();
+			final boolean mappedReader = mapped && MappedSubRipReader.isSupported(charset);
+			if (mapped && !mappedReader) {
+				LG.warning("SubRip files cannot be mapped with the default charset " + charset
+						+ ", they are read with characters");
+			}
+			getSubtitleFormatManager().registerFormat(new SubRip(charset, mappedReader, lenient));
+		}
 		
-		final Map<SubtitleFile, SubtitleFormat> subtitles = getSubtitleProvider().loadSubtitles(workingFiles);
-		if (subtitles.isEmpty()) {
+		// When streaming, the files are only read while they are corrected
+		final Map<Path, SubtitleFormat> files;
+		final Map<SubtitleFile, SubtitleFormat> subtitles;
+		if (streaming) {
+			files = getSubtitleProvider().findSubtitles(workingFiles);
+			subtitles = Collections.emptyMap();
+		} else {
+			subtitles = getSubtitleProvider().loadSubtitles(workingFiles, threads);
+			files = Collections.emptyMap();
+		}
+		if (files.isEmpty() && subtitles.isEmpty()) {
 			return false;
 		}
 		
@@ -140,24 +195,27 @@ public class ConsoleApp extends AbstractApp {
 		// Actually correct subtitles
 		getSessionManager().addSessionListener(strategy);
 		getSessionManager().startSession(parameters);
-		for (final SubtitleFile subtitleFile : subtitles.keySet()) {
-			for (final Subtitle subtitle : subtitleFile) {
-				strategy.correct(subtitle);
+		final SubtitleCorrector corrector = new SubtitleCorrector(threads, getCharsetDetector());
+		if (streaming) {
+			final Map<Path, IOException> failures = corrector.correct(strategy, files, new TargetResolver() {
+				@Override
+				public Path getTarget (final Path file) {
+					return ConsoleApp.this.getTarget(file);
+				}
+			});
+			for (final Entry<Path, IOException> failure : failures.entrySet()) {
+				out.println(getTranslator().get(appKey.subtitleWriteError(), failure.getKey(), failure.getValue().getMessage()));
 			}
+		} else {
+			corrector.correct(strategy, subtitles.keySet());
 		}
 		getSessionManager().stopSession();
 		getSessionManager().removeSessionListener(strategy);
 		
-		// Save subtitles
+		// Save subtitles (already written when streaming)
 		for (final Entry<SubtitleFile, SubtitleFormat> entry : subtitles.entrySet()) {
 			try {
-				Path target = entry.getKey().getFile();
-				if (!overwrite) {
-					target = target.getParent().resolve(IOUtils.getFilename(target)
-									+ IOUtils.FILE_EXTENSION_SEPARATOR + getTranslator().get(KEYS.misc().fileExtension())
-									+ IOUtils.FILE_EXTENSION_SEPARATOR + IOUtils.getFileExtension(target));
-				}
-				entry.getValue().getWriter().writeFile(entry.getKey(), target);
+				entry.getValue().getWriter().writeFile(entry.getKey(), getTarget(entry.getKey().getFile()));
 			} catch (final IOException e) {
 				out.println(getTranslator().get(appKey.subtitleWriteError(), entry.getKey().getFile(), e.getMessage()));
 				// TODO restore a copy of the original file
@@ -168,4 +226,19 @@ public class ConsoleApp extends AbstractApp {
 		return true;
 	}
 	
+	/**
+	 * Return the path where a corrected file is saved.
+	 * @param file
+	 *        the original file.
+	 * @return the original file if it should be overwritten, a file next to it otherwise.
+	 */
+	private Path getTarget (final Path file) {
+		if (overwrite) {
+			return file;
+		}
+		return file.getParent().resolve(IOUtils.getFilename(file)
+				+ IOUtils.FILE_EXTENSION_SEPARATOR + getTranslator().get(KEYS.misc().fileExtension())
+				+ IOUtils.FILE_EXTENSION_SEPARATOR + IOUtils.getFileExtension(file));
+	}
+	
 }
@@ -0,0 +1,165 @@
+package com.alexrnl.subtitlecorrector;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.arguments.Arguments;
+import com.alexrnl.commons.arguments.Param;
+import com.alexrnl.commons.arguments.parsers.AbstractParser;
+import com.alexrnl.commons.error.ExceptionUtils;
+import com.alexrnl.commons.io.IOUtils;
+import com.alexrnl.subtitlecorrector.io.DictionaryCompiler;
+import com.alexrnl.subtitlecorrector.io.DictionarySegment;
+import com.alexrnl.subtitlecorrector.io.WordAutomaton;
+import com.alexrnl.subtitlecorrector.service.DictionaryManager;
+
+/**
+ * Command line application which compiles text dictionaries.<br />
+ * Each text dictionary is compiled in a file located next to it, which is then used by the
+ * application instead of the text file (see {@link DictionaryCompiler}). By default, the
+ * dictionaries are compiled as locale dictionaries: they are case insensitive and the locale is
+ * given by the name of the file.<br />
+ * The dictionaries can also be compiled together in a {@link DictionarySegment shared segment},
+ * which is mapped by all the processes of the host.
+ * @author Alex
+ */
+public final class DictionaryCompilerApp {
+	/** Logger */
+	private static final Logger	LG				= Logger.getLogger(DictionaryCompilerApp.class.getName());
+	
+	/** The print stream to use for interacting with the user */
+	private final PrintStream	out;
+	// Command line parameters
+	/** The dictionary file, or the folder with the dictionaries, to compile */
+	@Param(names = { "-i" }, description = "the dictionary file or folder to compile", required = true)
+	private Path				dictionaries;
+	/** The locale to use instead of the file name */
+	@Param(names = { "-l" }, description = "the locale of the dictionaries (default: name of each file)")
+	private Locale				locale;
+	/** The shared segment to write, instead of compiling each dictionary in its own file */
+	@Param(names = { "-s" }, description = "write all the dictionaries in this shared segment file")
+	private Path				segment;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param args
+	 *        the arguments from the command line.
+	 */
+	public DictionaryCompilerApp (final List<String> args) {
+		super();
+		out = System.out;
+		
+		final Arguments arguments = new Arguments(AbstractApp.PROGRAM_NAME, this, out);
+		arguments.addParameterParser(new AbstractParser<Locale>(Locale.class) {
+			@Override
+			public Locale getValue (final String parameter) {
+				return Locale.forLanguageTag(parameter);
+			}
+		});
+		arguments.parse(args);
+	}
+	
+	/**
+	 * Compile the dictionaries.
+	 * @return <code>true</code> if all the dictionaries were compiled.
+	 */
+	public boolean launch () {
+		final List<Path> files = new ArrayList<>();
+		if (Files.isDirectory(dictionaries)) {
+			try (final DirectoryStream<Path> stream = Files.newDirectoryStream(dictionaries,
+					"*" + DictionaryManager.DICTIONARY_EXTENSION)) {
+				for (final Path file : stream) {
+					files.add(file);
+				}
+			} catch (final IOException e) {
+				out.println("Could not list dictionaries in " + dictionaries + ": " + e.getMessage());
+				LG.warning("Could not list dictionaries in " + dictionaries + ": " + ExceptionUtils.display(e));
+				return false;
+			}
+		} else {
+			files.add(dictionaries);
+		}
+		
+		if (segment != null) {
+			return writeSegment(files);
+		}
+		
+		boolean success = true;
+		for (final Path file : files) {
+			final Locale fileLocale = getLocale(file);
+			try {
+				final WordAutomaton automaton = DictionaryCompiler.compile(file, StandardCharsets.UTF_8, fileLocale);
+				out.println("Compiled " + file + " (" + automaton.size() + " words, " + automaton.byteSize()
+						+ " bytes) into " + DictionaryCompiler.getCompiledFile(file));
+			} catch (final IOException e) {
+				out.println("Could not compile " + file + ": " + e.getMessage());
+				LG.warning("Could not compile " + file + ": " + ExceptionUtils.display(e));
+				success = false;
+			}
+		}
+		return success;
+	}
+	
+	/**
+	 * Return the locale of a dictionary.
+	 * @param file
+	 *        the dictionary file.
+	 * @return the locale of the dictionary.
+	 */
+	private Locale getLocale (final Path file) {
+		return locale == null ? Locale.forLanguageTag(IOUtils.getFilename(file)) : locale;
+	}
+	
+	/**
+	 * Write the dictionaries in the shared segment.
+	 * @param files
+	 *        the dictionary files.
+	 * @return <code>true</code> if the segment was written, <code>false</code> if it could not be
+	 *         written or if several dictionaries have the same locale.
+	 */
+	private boolean writeSegment (final List<Path> files) {
+		final Map<Locale, Path> dictionaryFiles = new LinkedHashMap<>();
+		for (final Path file : files) {
+			final Locale fileLocale = getLocale(file);
+			final Path previous = dictionaryFiles.put(fileLocale, file);
+			if (previous != null) {
+				out.println("Dictionaries " + previous + " and " + file + " have the same locale " + fileLocale
+						+ ", the shared segment can only hold one dictionary per locale");
+				LG.warning("Duplicate locale " + fileLocale + " in shared segment " + segment + ": " + previous
+						+ " and " + file);
+				return false;
+			}
+		}
+		try {
+			DictionarySegment.write(segment, dictionaryFiles, StandardCharsets.UTF_8);
+			out.println("Compiled locales " + dictionaryFiles.keySet() + " into shared segment " + segment);
+			return true;
+		} catch (final IOException e) {
+			out.println("Could not write shared segment " + segment + ": " + e.getMessage());
+			LG.warning("Could not write shared segment " + segment + ": " + ExceptionUtils.display(e));
+			return false;
+		}
+	}
+	
+	/**
+	 * Entry point of the dictionary compiler.
+	 * @param args
+	 *        the arguments from the command line.
+	 */
+	public static void main (final String[] args) {
+		if (!new DictionaryCompilerApp(new ArrayList<>(Arrays.asList(args))).launch()) {
+			System.err.println("Some dictionaries could not be compiled, check logs.");
+		}
+	}
+}
@@ -33,6 +33,8 @@ public final class GUIApp extends AbstractApp {
 	 */
 	public GUIApp (final List<String> args) throws IOException, URISyntaxException {
 		super(new GraphicUserPrompt());
+		// The user is there to choose the format of the files which are not recognized
+		getSubtitleProvider().setAskFormat(true);
 		SwingUtils.setLookAndFeel(new NimbusLookAndFeel().getName());
 	}
 	
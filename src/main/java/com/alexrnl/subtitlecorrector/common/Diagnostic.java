@@ -0,0 +1,59 @@
+package com.alexrnl.subtitlecorrector.common;
+
+import java.io.Serializable;
+
+/**
+ * A problem found while reading a subtitle file, which was recovered from.<br />
+ * The subtitles affected by the problem may have been skipped, the rest of the file was read.
+ * @author Alex
+ */
+public class Diagnostic implements Serializable {
+	/** Serial Version UID */
+	private static final long	serialVersionUID	= 4127913356120371875L;
+	
+	/** The number of the line where the problem was found, starting at 1 */
+	private final int			line;
+	/** The description of the problem */
+	private final String		reason;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param line
+	 *        the number of the line where the problem was found, starting at 1.
+	 * @param reason
+	 *        the description of the problem.
+	 */
+	public Diagnostic (final int line, final String reason) {
+		super();
+		this.line = line;
+		this.reason = reason;
+	}
+	
+	/**
+	 * Return the attribute line.
+	 * @return the attribute line.
+	 */
+	public int getLine () {
+		return line;
+	}
+	
+	/**
+	 * Return the attribute reason.
+	 * @return the attribute reason.
+	 */
+	public String getReason () {
+		return reason;
+	}
+	
+	/**
+	 * Return the text representation of the diagnostic as follow:
+	 * 
+	 * <pre>
+	 * line: reason
+	 * </pre>
+	 */
+	@Override
+	public String toString () {
+		return line + ": " + reason;
+	}
+}
@@ -16,6 +16,8 @@ public class Subtitle implements Comparable<Subtitle>, Cloneable {
 	private long			end;
 	/** The content of the subtitle */
 	private String			content;
+	/** The words of the content, computed on demand */
+	private Tokens			tokens;
 	
 	/**
 	 * Constructor #1.<br />
@@ -95,6 +97,19 @@ public class Subtitle implements Comparable<Subtitle>, Cloneable {
 		this.content = content;
 	}
 	
+	/**
+	 * Return the words of the content.<br />
+	 * The words are computed once per content, so the strategies applied on the subtitle share the
+	 * same tokens until one of them changes the content.
+	 * @return the words of the content.
+	 */
+	public Tokens getTokens () {
+		if (tokens == null || tokens.getContent() != content) {
+			tokens = Tokens.tokenize(content);
+		}
+		return tokens;
+	}
+	
 	/**
 	 * Computes the display duration of the subtitle.
 	 * @return the duration.
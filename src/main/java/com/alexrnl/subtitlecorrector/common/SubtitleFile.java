@@ -4,7 +4,9 @@ import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.TreeSet;
 
 import com.alexrnl.commons.utils.CollectionUtils;
@@ -15,10 +17,12 @@ import com.alexrnl.commons.utils.CollectionUtils;
  */
 public class SubtitleFile extends TreeSet<Subtitle> {
 	/** Serial Version UID */
-	private static final long	serialVersionUID	= -5783605599009372323L;
+	private static final long		serialVersionUID	= -5783605599009372323L;
 	
 	/** The actual file which is represented */
-	private final URI			file;
+	private final URI				file;
+	/** The problems recovered from while reading the file */
+	private final List<Diagnostic>	diagnostics;
 	
 	/**
 	 * Constructor #1.<br />
@@ -28,6 +32,7 @@ public class SubtitleFile extends TreeSet<Subtitle> {
 	public SubtitleFile (final Path file) {
 		super();
 		this.file = file == null ? null : file.toUri();
+		this.diagnostics = new ArrayList<>();
 	}
 	
 	/**
@@ -38,13 +43,30 @@ public class SubtitleFile extends TreeSet<Subtitle> {
 		return file == null ? null : Paths.get(file);
 	}
 	
+	/**
+	 * Return the problems recovered from while reading the file.
+	 * @return the diagnostics, in the order of the file.
+	 */
+	public List<Diagnostic> getDiagnostics () {
+		return Collections.unmodifiableList(diagnostics);
+	}
+	
+	/**
+	 * Add a problem recovered from while reading the file.
+	 * @param diagnostic
+	 *        the diagnostic to add.
+	 */
+	public void addDiagnostic (final Diagnostic diagnostic) {
+		diagnostics.add(Objects.requireNonNull(diagnostic));
+	}
+	
 	/**
 	 * Update the subtitle so the ordering is updated if necessary.
 	 */
 	public void update () {
 		if (CollectionUtils.isSorted(this)) {
 			return;
-		}
+		}
 
 		final List<Subtitle> tmp = new ArrayList<>(this);
 		this.clear();
@@ -0,0 +1,170 @@
+package com.alexrnl.subtitlecorrector.common;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.alexrnl.commons.utils.Word;
+
+/**
+ * The words of a text, located by their offsets in the text.<br />
+ * A word starts with a letter or a digit, and continues with letters, digits, apostrophes and
+ * hyphens (<code>doin'</code>, <code>peut-être</code>). The words are found in a single pass over
+ * the text, and only their offsets are stored: a word is extracted from the text only when
+ * requested, so the strategies can check the words (see
+ * {@link com.alexrnl.subtitlecorrector.service.DictionaryManager#contains(CharSequence, int, int)})
+ * and copy the text between them without allocating a string per word.<br />
+ * The tokens are immutable; the tokens of a subtitle are cached by the subtitle (see
+ * {@link Subtitle#getTokens()}), so several strategies do not tokenize the same content again.
+ * @author Alex
+ */
+public final class Tokens {
+	/** The initial capacity of the offsets array, in words */
+	private static final int	INITIAL_CAPACITY	= 8;
+	
+	/** The text tokenized */
+	private final String		content;
+	/** The start (inclusive) and end (exclusive) offsets of each word, one after the other */
+	private final int[]			offsets;
+	/** The number of words */
+	private final int			size;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param content
+	 *        the text tokenized.
+	 * @param offsets
+	 *        the start and end offsets of each word.
+	 * @param size
+	 *        the number of words.
+	 */
+	private Tokens (final String content, final int[] offsets, final int size) {
+		super();
+		this.content = content;
+		this.offsets = offsets;
+		this.size = size;
+	}
+	
+	/**
+	 * Find the words of a text.
+	 * @param content
+	 *        the text to tokenize.
+	 * @return the words of the text.
+	 */
+	public static Tokens tokenize (final String content) {
+		Objects.requireNonNull(content);
+		int[] offsets = new int[2 * INITIAL_CAPACITY];
+		int size = 0;
+		int index = 0;
+		while (index < content.length()) {
+			int codePoint = content.codePointAt(index);
+			if (!Character.isLetterOrDigit(codePoint)) {
+				index += Character.charCount(codePoint);
+				continue;
+			}
+			final int start = index;
+			do {
+				index += Character.charCount(codePoint);
+				if (index == content.length()) {
+					break;
+				}
+				codePoint = content.codePointAt(index);
+			} while (isWordPart(codePoint));
+			
+			if (2 * size == offsets.length) {
+				offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+			}
+			offsets[2 * size] = start;
+			offsets[2 * size + 1] = index;
+			size++;
+		}
+		return new Tokens(content, offsets, size);
+	}
+	
+	/**
+	 * Check if a code point can be part of a word, after its first character.
+	 * @param codePoint
+	 *        the code point to check.
+	 * @return <code>true</code> if the code point does not end the word.
+	 */
+	private static boolean isWordPart (final int codePoint) {
+		return Character.isLetterOrDigit(codePoint) || codePoint == '\'' || codePoint == '-';
+	}
+	
+	/**
+	 * Return the attribute content.
+	 * @return the attribute content.
+	 */
+	public String getContent () {
+		return content;
+	}
+	
+	/**
+	 * Return the number of words.
+	 * @return the number of words.
+	 */
+	public int size () {
+		return size;
+	}
+	
+	/**
+	 * Return the start offset of a word.
+	 * @param index
+	 *        the index of the word.
+	 * @return the index of the first character of the word in the content (inclusive).
+	 */
+	public int getStart (final int index) {
+		checkIndex(index);
+		return offsets[2 * index];
+	}
+	
+	/**
+	 * Return the end offset of a word.
+	 * @param index
+	 *        the index of the word.
+	 * @return the index of the last character of the word in the content (exclusive).
+	 */
+	public int getEnd (final int index) {
+		checkIndex(index);
+		return offsets[2 * index + 1];
+	}
+	
+	/**
+	 * Extract a word from the content.
+	 * @param index
+	 *        the index of the word.
+	 * @return the word.
+	 */
+	public String getWord (final int index) {
+		return content.substring(getStart(index), getEnd(index));
+	}
+	
+	/**
+	 * Build the {@link Word} of a word, with its offsets in the content.
+	 * @param index
+	 *        the index of the word.
+	 * @return the word.
+	 */
+	public Word toWord (final int index) {
+		return new Word(getWord(index), getStart(index), getEnd(index));
+	}
+	
+	/**
+	 * Check that the index of a word is valid.
+	 * @param index
+	 *        the index to check.
+	 */
+	private void checkIndex (final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("No word at index " + index + ", number of words: " + size);
+		}
+	}
+	
+	@Override
+	public String toString () {
+		final StringBuilder builder = new StringBuilder("[");
+		for (int index = 0; index < size; index++) {
+			builder.append(index == 0 ? "" : ", ").append(getWord(index));
+		}
+		return builder.append(']').toString();
+	}
+}
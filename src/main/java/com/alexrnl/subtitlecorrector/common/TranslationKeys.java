@@ -130,6 +130,14 @@ public final class TranslationKeys {
 			public String promptBeforeCorrecting () {
 				return toString() + HIERARCHY_SEPARATOR + "promptbeforecorrecting";
 			}
+			
+			/**
+			 * The translation for only dictionary replacements parameter.
+			 * @return the only dictionary replacements parameter.
+			 */
+			public String onlyDictionaryReplacements () {
+				return toString() + HIERARCHY_SEPARATOR + "onlydictionaryreplacements";
+			}
 		}
 		
 		/**
@@ -198,6 +206,72 @@ public final class TranslationKeys {
 			return new CheckSpelling(strategyKey);
 		}
 		
+		/**
+		 * The translations for the confusion replacement strategy.
+		 */
+		public static final class ConfusionReplacement extends AbstractStrategy {
+			/** The root key for the confusion replacement strategy */
+			private static final String	CONFUSION_REPLACEMENT_KEY	= "confusionreplacement";
+			
+			/**
+			 * Constructor #1.<br />
+			 * @param parentKey
+			 *        the key from the parent category.
+			 */
+			private ConfusionReplacement (final String parentKey) {
+				super(parentKey, CONFUSION_REPLACEMENT_KEY);
+			}
+			
+			/**
+			 * The translation for the locale parameter.
+			 * @return the translation for the locale parameter.
+			 */
+			public String locale () {
+				return toString() + HIERARCHY_SEPARATOR + "locale";
+			}
+			
+			/**
+			 * The translation for prompt before correcting parameter.
+			 * @return the prompt before correcting parameter.
+			 */
+			public String promptBeforeCorrecting () {
+				return toString() + HIERARCHY_SEPARATOR + "promptbeforecorrecting";
+			}
+		}
+		
+		/**
+		 * The confusion replacement translations.
+		 * @return the confusion replacement translations.
+		 */
+		public ConfusionReplacement confusionReplacement () {
+			return new ConfusionReplacement(strategyKey);
+		}
+		
+		/**
+		 * The translations for the composite strategy.
+		 */
+		public static final class CompositeStrategy extends AbstractStrategy {
+			/** The root key for the composite strategy */
+			private static final String	COMPOSITE_STRATEGY_KEY	= "compositestrategy";
+			
+			/**
+			 * Constructor #1.<br />
+			 * @param parentKey
+			 *        the key from the parent category.
+			 */
+			private CompositeStrategy (final String parentKey) {
+				super(parentKey, COMPOSITE_STRATEGY_KEY);
+			}
+		}
+		
+		/**
+		 * The composite strategy translations.
+		 * @return the composite strategy translations.
+		 */
+		public CompositeStrategy compositeStrategy () {
+			return new CompositeStrategy(strategyKey);
+		}
+		
 	}
 	
 	/**
@@ -260,6 +334,14 @@ public final class TranslationKeys {
 			return subtitleProviderKey + HIERARCHY_SEPARATOR + "choosesubtitleformat";
 		}
 		
+		/**
+		 * Return the translation for the subtitle file whose format is not recognized.
+		 * @return the translation for the unknown subtitle format message.
+		 */
+		public String unknownSubtitleFormat () {
+			return subtitleProviderKey + HIERARCHY_SEPARATOR + "unknownsubtitleformat";
+		}
+		
 		/**
 		 * Return the translation for the subtitle file read error.
 		 * @return the translation for the the subtitle file read error.
@@ -267,6 +349,14 @@ public final class TranslationKeys {
 		public String subtitleFileReadError () {
 			return subtitleProviderKey + HIERARCHY_SEPARATOR + "subtitlefilereaderror";
 		}
+		
+		/**
+		 * Return the translation for the subtitle file read with recovered errors.
+		 * @return the translation for the subtitle file recovered message.
+		 */
+		public String subtitleFileRecovered () {
+			return subtitleProviderKey + HIERARCHY_SEPARATOR + "subtitlefilerecovered";
+		}
 
 		/**
 		 * Return the translation for the no subtitle to correct message.
@@ -2,12 +2,15 @@ package com.alexrnl.subtitlecorrector.correctionstrategy;
 
 import static com.alexrnl.subtitlecorrector.common.TranslationKeys.KEYS;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
 import com.alexrnl.commons.utils.Word;
 import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.common.Tokens;
 import com.alexrnl.subtitlecorrector.service.DictionaryManager;
 import com.alexrnl.subtitlecorrector.service.UserPrompt;
 import com.alexrnl.subtitlecorrector.service.UserPromptAnswer;
@@ -26,6 +29,8 @@ public class CheckSpelling extends AbstractStrategy {
 	private final UserPrompt			prompt;
 	/** The choice which were saved by the user for this session */
 	private final Map<String, String>	savedChoices;
+	/** The lock held while the user is prompted, so a word is not asked twice in parallel */
+	private final Object				promptLock;
 	
 	/**
 	 * Constructor #1.<br />
@@ -38,7 +43,9 @@ public class CheckSpelling extends AbstractStrategy {
 		super(KEYS.strategy().checkSpelling());
 		this.dictionaryManager = dictionaryManager;
 		this.prompt = prompt;
-		savedChoices = new HashMap<>();
+		// Synchronized, as the files may be corrected by several threads
+		savedChoices = Collections.synchronizedMap(new HashMap<String, String>());
+		promptLock = new Object();
 	}
 	
 	@Override
@@ -48,33 +55,41 @@ public class CheckSpelling extends AbstractStrategy {
 			return;
 		}
 		
-		String remaining = subtitle.getContent();
-		final StringBuilder newContent = new StringBuilder();
-		while (!remaining.isEmpty()) {
-			final Word currentWord = Word.getNextWord(remaining);
-			if (currentWord.getBegin() > 0) {
-				newContent.append(remaining.substring(0, currentWord.getBegin()));
-			}
-			remaining = remaining.substring(currentWord.getEnd());
+		final Tokens tokens = subtitle.getTokens();
+		final StringBuilder newContent = new StringBuilder(content.length());
+		int offset = 0;
+		for (int index = 0; index < tokens.size(); index++) {
+			final int start = tokens.getStart(index);
+			final int end = tokens.getEnd(index);
+			newContent.append(content, offset, start);
+			offset = end;
 			
-			if (currentWord.getWord().isEmpty()) {
+			// The word is only extracted when it may have been saved
+			if (!savedChoices.isEmpty() && savedChoices.containsKey(tokens.getWord(index))) {
+				final String replacement = savedChoices.get(tokens.getWord(index));
+				newContent.append(replacement == null ? tokens.getWord(index) : replacement);
 				continue;
 			}
 			
-			if (savedChoices.containsKey(currentWord.getWord())) {
-				final String replacement = savedChoices.get(currentWord.getWord());
-				newContent.append(replacement == null ? currentWord : replacement);
-				continue;
-			}
-			
-			if (dictionaryManager.contains(currentWord.getWord())) {
-				newContent.append(currentWord);
+			if (dictionaryManager.contains(content, start, end)) {
+				newContent.append(content, start, end);
 				continue;
 			}
 			
-			final UserPromptAnswer answer = prompt.confirm(content, currentWord, "");
-			if (answer.isRememberChoice()) {
-				savedChoices.put(currentWord.getWord(), answer.isCancelled() ? null : answer.getAnswer());
+			final Word currentWord = tokens.toWord(index);
+			final List<String> suggestions = dictionaryManager.suggest(currentWord.getWord(), 1);
+			final UserPromptAnswer answer;
+			synchronized (promptLock) {
+				// The choice may have been saved by another thread while waiting for the prompt
+				if (savedChoices.containsKey(currentWord.getWord())) {
+					final String replacement = savedChoices.get(currentWord.getWord());
+					newContent.append(replacement == null ? currentWord.getWord() : replacement);
+					continue;
+				}
+				answer = prompt.confirm(content, currentWord, suggestions.isEmpty() ? "" : suggestions.get(0));
+				if (answer.isRememberChoice()) {
+					savedChoices.put(currentWord.getWord(), answer.isCancelled() ? null : answer.getAnswer());
+				}
 			}
 			if (answer.isCancelled()) {
 				newContent.append(currentWord);
@@ -82,6 +97,7 @@ public class CheckSpelling extends AbstractStrategy {
 				newContent.append(answer.getAnswer());
 			}
 		}
+		newContent.append(content, offset, content.length());
 		subtitle.setContent(newContent.toString().trim());
 	}
 }
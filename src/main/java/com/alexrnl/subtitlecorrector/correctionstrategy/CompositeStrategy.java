@@ -0,0 +1,92 @@
+package com.alexrnl.subtitlecorrector.correctionstrategy;
+
+import static com.alexrnl.subtitlecorrector.common.TranslationKeys.KEYS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.service.SessionParameters;
+
+/**
+ * Strategy which applies several strategies to the subtitles.<br />
+ * The strategies are applied in the order they were given, on each subtitle: each strategy
+ * corrects the content left by the previous one. This allows to correct the subtitle files with
+ * several strategies while reading and writing them only once.<br />
+ * The session is forwarded to all the strategies, and the parameters of the composite strategy are
+ * the parameters of all the strategies.
+ * @author Alex
+ */
+public class CompositeStrategy extends AbstractStrategy {
+	/** Logger */
+	private static final Logger			LG	= Logger.getLogger(CompositeStrategy.class.getName());
+	
+	/** The strategies to apply, in order */
+	private final List<Strategy>		strategies;
+	/** The parameters of all the strategies */
+	private final List<Parameter<?>>	parameters;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param strategies
+	 *        the strategies to apply, in order. A strategy cannot be present twice.
+	 */
+	public CompositeStrategy (final List<? extends Strategy> strategies) {
+		super(KEYS.strategy().compositeStrategy());
+		Objects.requireNonNull(strategies);
+		if (strategies.isEmpty()) {
+			throw new IllegalArgumentException("A composite strategy needs at least one strategy");
+		}
+		if (new HashSet<>(strategies).size() != strategies.size()) {
+			throw new IllegalArgumentException("A strategy cannot be applied twice in a composite strategy: " + strategies);
+		}
+		this.strategies = Collections.unmodifiableList(new ArrayList<Strategy>(strategies));
+		final List<Parameter<?>> allParameters = new ArrayList<>();
+		for (final Strategy strategy : this.strategies) {
+			allParameters.addAll(Objects.requireNonNull(strategy).getParameters());
+		}
+		parameters = Collections.unmodifiableList(allParameters);
+	}
+	
+	/**
+	 * Return the attribute strategies.
+	 * @return the attribute strategies.
+	 */
+	public List<Strategy> getStrategies () {
+		return strategies;
+	}
+	
+	@Override
+	public List<Parameter<?>> getParameters () {
+		return parameters;
+	}
+	
+	@Override
+	public void startSession (final SessionParameters parameters) {
+		for (final Strategy strategy : strategies) {
+			strategy.startSession(parameters);
+		}
+	}
+	
+	@Override
+	public void stopSession () {
+		for (final Strategy strategy : strategies) {
+			strategy.stopSession();
+		}
+	}
+	
+	@Override
+	public void correct (final Subtitle subtitle) {
+		for (final Strategy strategy : strategies) {
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("Applying strategy " + strategy.getTranslationKey() + " on subtitle " + subtitle);
+			}
+			strategy.correct(subtitle);
+		}
+	}
+}
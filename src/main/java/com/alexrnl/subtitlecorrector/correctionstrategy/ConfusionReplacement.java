@@ -0,0 +1,342 @@
+package com.alexrnl.subtitlecorrector.correctionstrategy;
+
+import static com.alexrnl.subtitlecorrector.common.TranslationKeys.KEYS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.error.ExceptionUtils;
+import com.alexrnl.commons.io.IOUtils;
+import com.alexrnl.commons.utils.Word;
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.common.Tokens;
+import com.alexrnl.subtitlecorrector.correctionstrategy.Parameter.Parser;
+import com.alexrnl.subtitlecorrector.correctionstrategy.PatternMatcher.Match;
+import com.alexrnl.subtitlecorrector.service.DictionaryManager;
+import com.alexrnl.subtitlecorrector.service.SessionParameters;
+import com.alexrnl.subtitlecorrector.service.UserPrompt;
+import com.alexrnl.subtitlecorrector.service.UserPromptAnswer;
+
+/**
+ * Strategy which fixes the characters commonly confused when subtitles are extracted by character
+ * recognition (<code>l</code> and <code>I</code>, <code>rn</code> and <code>m</code>, etc.).<br />
+ * The confusions are read from a table per locale: each entry of the table maps a pattern, which
+ * may have several characters, to its possible replacements. All the patterns of the table are
+ * searched in a single pass over the subtitle (see {@link PatternMatcher}). Then, for each word
+ * which contains a pattern and is not in the dictionary, the variants of the word are built by
+ * replacing the occurrences of the patterns, the variants with the fewest replacements first, and
+ * the first variant which is in the dictionary replaces the word. The words without a valid
+ * variant are left untouched.
+ * @author Alex
+ */
+public class ConfusionReplacement extends AbstractStrategy {
+	/** Logger */
+	private static final Logger					LG						= Logger.getLogger(ConfusionReplacement.class.getName());
+	
+	/** The separator of the replacements of a pattern in the confusion tables */
+	private static final String					SEPARATOR				= "\\s+";
+	/** The maximum number of variants checked for a word */
+	private static final int					MAX_VARIANTS			= 256;
+	
+	/** The dictionary manager used in the application */
+	private final DictionaryManager				dictionaryManager;
+	/** The user prompt to use */
+	private final UserPrompt					prompt;
+	/** The choice which were saved by the user for this session */
+	private final Map<String, String>			savedChoices;
+	/** The lock held while the user is prompted, so a word is not asked twice in parallel */
+	private final Object						promptLock;
+	/** The confusion table of each locale */
+	private final Map<Locale, ConfusionTable>	confusionTables;
+	/** The locale parameter */
+	private final Parameter<Locale>				locale;
+	/** Flag indicating to prompt user each time before replacing a word */
+	private final Parameter<Boolean>			promptBeforeCorrecting;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param dictionaryManager
+	 *        the dictionary manager to use.
+	 * @param prompt
+	 *        the prompt to use.
+	 * @param confusionTableFolder
+	 *        the folder where the confusion tables are stored.
+	 * @throws IOException
+	 *         if reading the tables fails.
+	 */
+	public ConfusionReplacement (final DictionaryManager dictionaryManager, final UserPrompt prompt,
+			final Path confusionTableFolder) throws IOException {
+		super(KEYS.strategy().confusionReplacement());
+		Objects.requireNonNull(confusionTableFolder);
+		if (!Files.isDirectory(confusionTableFolder)) {
+			throw new IllegalArgumentException("The path must refer to a folder with the confusion tables");
+		}
+		this.dictionaryManager = dictionaryManager;
+		this.prompt = prompt;
+		// Synchronized, as the files may be corrected by several threads
+		savedChoices = Collections.synchronizedMap(new HashMap<String, String>());
+		promptLock = new Object();
+		confusionTables = new HashMap<>();
+		Files.walkFileTree(confusionTableFolder, new HashSet<FileVisitOption>(), 1, new ConfusionTableFileVisitor());
+		locale = new Parameter<>(ParameterType.LIST, KEYS.strategy().confusionReplacement().locale(), new Parser<Locale>() {
+			@Override
+			public Locale parse (final String value) {
+				return Locale.forLanguageTag(value);
+			}
+		}, confusionTables.keySet());
+		promptBeforeCorrecting = new Parameter<>(ParameterType.BOOLEAN, KEYS.strategy().confusionReplacement().promptBeforeCorrecting(), false, StandardParameterParsers.bool(), false);
+	}
+	
+	@Override
+	public List<Parameter<?>> getParameters () {
+		return Arrays.<Parameter<?>>asList(locale, promptBeforeCorrecting);
+	}
+	
+	@Override
+	public void startSession (final SessionParameters parameters) {
+		if (!savedChoices.isEmpty()) {
+			throw new IllegalStateException("Cannot start session with non-empty saved choices.");
+		}
+	}
+	
+	@Override
+	public void stopSession () {
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("End of session, " + savedChoices.size() + " were saved during the session.");
+		}
+		savedChoices.clear();
+	}
+	
+	@Override
+	public void correct (final Subtitle subtitle) {
+		final ConfusionTable table = confusionTables.get(locale.getValue());
+		if (table == null) {
+			throw new IllegalStateException("No confusion table for locale " + locale.getValue());
+		}
+		final String content = subtitle.getContent();
+		final List<Match> matches = table.matcher.find(content);
+		if (matches.isEmpty()) {
+			// Skip subtitles which are not concerned
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("Skipping subtitle " + subtitle);
+			}
+			return;
+		}
+		
+		final Tokens tokens = subtitle.getTokens();
+		final StringBuilder newContent = new StringBuilder(content.length());
+		int offset = 0;
+		int nextMatch = 0;
+		for (int index = 0; index < tokens.size(); index++) {
+			final int wordStart = tokens.getStart(index);
+			final int wordEnd = tokens.getEnd(index);
+			newContent.append(content, offset, wordStart);
+			offset = wordEnd;
+			
+			// Keep the occurrences located inside the word
+			final List<Match> wordMatches = new ArrayList<>();
+			while (nextMatch < matches.size() && matches.get(nextMatch).getStart() < wordEnd) {
+				final Match match = matches.get(nextMatch++);
+				if (match.getStart() >= wordStart && match.getEnd() <= wordEnd) {
+					wordMatches.add(new Match(match.getPattern(), match.getStart() - wordStart, match.getEnd() - wordStart));
+				}
+			}
+			if (wordMatches.isEmpty()) {
+				newContent.append(content, wordStart, wordEnd);
+			} else {
+				newContent.append(correctWord(subtitle, tokens.toWord(index), table, wordMatches));
+			}
+		}
+		newContent.append(content, offset, content.length());
+		
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Replacing subtitle content '" + content + "' with '" + newContent + "'");
+		}
+		subtitle.setContent(newContent.toString());
+	}
+	
+	/**
+	 * Correct a word of a subtitle.
+	 * @param subtitle
+	 *        the subtitle being corrected.
+	 * @param word
+	 *        the word to correct.
+	 * @param table
+	 *        the confusion table used.
+	 * @param matches
+	 *        the occurrences of the patterns in the word, sorted, cannot be empty.
+	 * @return the corrected word.
+	 */
+	private String correctWord (final Subtitle subtitle, final Word word, final ConfusionTable table,
+			final List<Match> matches) {
+		if (savedChoices.containsKey(word.getWord())) {
+			final String replacement = savedChoices.get(word.getWord());
+			return replacement == null ? word.getWord() : replacement;
+		}
+		if (dictionaryManager.contains(subtitle.getContent(), word.getBegin(), word.getEnd())) {
+			return word.getWord();
+		}
+		
+		String replacement = dictionaryManager.findFirst(table.getVariants(word.getWord(), matches));
+		if (replacement == null) {
+			return word.getWord();
+		}
+		if (promptBeforeCorrecting.getValue()) {
+			final UserPromptAnswer answer;
+			synchronized (promptLock) {
+				// The choice may have been saved by another thread while waiting for the prompt
+				if (savedChoices.containsKey(word.getWord())) {
+					final String savedReplacement = savedChoices.get(word.getWord());
+					return savedReplacement == null ? word.getWord() : savedReplacement;
+				}
+				answer = prompt.confirm(subtitle.getContent(), word, replacement);
+				if (answer.isRememberChoice()) {
+					savedChoices.put(word.getWord(), answer.isCancelled() ? null : answer.getAnswer());
+				}
+			}
+			if (answer.isCancelled()) {
+				return word.getWord();
+			}
+			replacement = answer.getAnswer();
+		}
+		return replacement;
+	}
+	
+	/**
+	 * Confusion table of a locale.
+	 * @author Alex
+	 */
+	private static final class ConfusionTable {
+		/** The matcher of the patterns */
+		private final PatternMatcher		matcher;
+		/** The replacements of each pattern */
+		private final List<List<String>>	replacements;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param rules
+		 *        the replacements of each pattern.
+		 */
+		private ConfusionTable (final Map<String, List<String>> rules) {
+			super();
+			final List<String> patterns = new ArrayList<>(rules.keySet());
+			matcher = new PatternMatcher(patterns);
+			replacements = new ArrayList<>(patterns.size());
+			for (final String pattern : patterns) {
+				replacements.add(rules.get(pattern));
+			}
+		}
+		
+		/**
+		 * Build the variants of a word, by replacing the occurrences of the patterns.<br />
+		 * The occurrences replaced in a variant do not overlap. The variants are sorted by number
+		 * of replacements, and at most {@link ConfusionReplacement#MAX_VARIANTS} are built.
+		 * @param word
+		 *        the word.
+		 * @param matches
+		 *        the occurrences of the patterns in the word, sorted.
+		 * @return the variants of the word.
+		 */
+		private List<String> getVariants (final String word, final List<Match> matches) {
+			final Set<String> variants = new LinkedHashSet<>();
+			for (int replaced = 1; replaced <= matches.size() && variants.size() < MAX_VARIANTS; replaced++) {
+				addVariants(word, matches, 0, 0, new StringBuilder(), replaced, variants);
+			}
+			variants.remove(word);
+			return new ArrayList<>(variants);
+		}
+		
+		/**
+		 * Add the variants of the end of a word with a specific number of replacements.
+		 * @param word
+		 *        the word.
+		 * @param matches
+		 *        the occurrences of the patterns in the word, sorted.
+		 * @param firstMatch
+		 *        the first occurrence which can be replaced.
+		 * @param position
+		 *        the index of the first character of the word which is not in the prefix.
+		 * @param prefix
+		 *        the beginning of the variant, up to the position.
+		 * @param remaining
+		 *        the number of replacements to make.
+		 * @param variants
+		 *        the set where the variants are added.
+		 */
+		private void addVariants (final String word, final List<Match> matches, final int firstMatch,
+				final int position, final StringBuilder prefix, final int remaining, final Set<String> variants) {
+			if (remaining == 0) {
+				variants.add(prefix + word.substring(position));
+				return;
+			}
+			for (int index = firstMatch; index < matches.size() && variants.size() < MAX_VARIANTS; index++) {
+				final Match match = matches.get(index);
+				if (match.getStart() < position) {
+					continue;
+				}
+				final int prefixLength = prefix.length();
+				for (final String replacement : replacements.get(match.getPattern())) {
+					prefix.append(word, position, match.getStart()).append(replacement);
+					addVariants(word, matches, index + 1, match.getEnd(), prefix, remaining - 1, variants);
+					prefix.setLength(prefixLength);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * File visitor to load confusion tables.
+	 * @author Alex
+	 */
+	private class ConfusionTableFileVisitor extends SimpleFileVisitor<Path> {
+		
+		@Override
+		public FileVisitResult visitFile (final Path file, final BasicFileAttributes attrs) throws IOException {
+			final Locale key = Locale.forLanguageTag(IOUtils.getFilename(file));
+			final Properties entries = new Properties();
+			try (final InputStream stream = Files.newInputStream(file)) {
+				entries.loadFromXML(stream);
+			}
+			final Map<String, List<String>> rules = new HashMap<>();
+			for (final String pattern : entries.stringPropertyNames()) {
+				final String value = entries.getProperty(pattern).trim();
+				if (pattern.isEmpty() || value.isEmpty()) {
+					LG.warning("Ignoring confusion rule '" + pattern + "' of file " + file);
+					continue;
+				}
+				rules.put(pattern, Arrays.asList(value.split(SEPARATOR)));
+			}
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Loaded " + rules.size() + " confusion rules for locale " + key);
+			}
+			confusionTables.put(key, new ConfusionTable(rules));
+			return FileVisitResult.CONTINUE;
+		}
+		
+		@Override
+		public FileVisitResult visitFileFailed (final Path file, final IOException exc) throws IOException {
+			LG.warning("Could not open or read the file " + file + ": " + ExceptionUtils.display(exc));
+			return FileVisitResult.CONTINUE;
+		}
+	}
+}
@@ -2,7 +2,9 @@ package com.alexrnl.subtitlecorrector.correctionstrategy;
 
 import static com.alexrnl.subtitlecorrector.common.TranslationKeys.KEYS;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,18 +13,28 @@ import java.util.logging.Logger;
 
 import com.alexrnl.commons.utils.Word;
 import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.common.Tokens;
 import com.alexrnl.subtitlecorrector.service.DictionaryManager;
 import com.alexrnl.subtitlecorrector.service.SessionParameters;
 import com.alexrnl.subtitlecorrector.service.UserPrompt;
 import com.alexrnl.subtitlecorrector.service.UserPromptAnswer;
 
 /**
- * Strategy for replacing a letter by an other in subtitles.
+ * Strategy for replacing a letter by an other in subtitles.<br />
+ * When the replacements are restricted to the words of the dictionary, the occurrences of the
+ * letter are not all replaced blindly: every combination of the occurrences is tried, starting
+ * with the ones replacing the most occurrences, and the first combination which gives a word of
+ * the dictionary is used. If no combination is in the dictionary, the word is left untouched.
  * @author Alex
  */
 public class LetterReplacement extends AbstractStrategy {
 	/** Logger */
 	private static final Logger			LG	= Logger.getLogger(LetterReplacement.class.getName());
+	/**
+	 * The maximum number of occurrences of the letter in a word for which all the combinations are
+	 * tried; above, only the replacement of all the occurrences is checked
+	 */
+	private static final int			MAX_COMBINED_OCCURRENCES	= 8;
 	
 	/** The dictionary manager used in the application */
 	private final DictionaryManager		dictionaryManager;
@@ -30,6 +42,8 @@ public class LetterReplacement extends AbstractStrategy {
 	private final UserPrompt			prompt;
 	/** The choice which were saved by the user for this session */
 	private final Map<String, String>	savedChoices;
+	/** The lock held while the user is prompted, so a word is not asked twice in parallel */
+	private final Object				promptLock;
 	/** The original letter to replace */
 	private final Parameter<Character>	originalLetter;
 	/** The new letter to put */
@@ -38,6 +52,8 @@ public class LetterReplacement extends AbstractStrategy {
 	private final Parameter<Boolean>	onlyMissingFromDictionary;
 	/** Flag indicating to prompt user each time before replacing the letter */
 	private final Parameter<Boolean>	promptBeforeCorrecting;
+	/** Flag indicating to replace only when the new word is in the dictionary */
+	private final Parameter<Boolean>	onlyDictionaryReplacements;
 
 	/**
 	 * Constructor #1.<br />
@@ -50,16 +66,19 @@ public class LetterReplacement extends AbstractStrategy {
 		super(KEYS.strategy().letterReplacement());
 		this.dictionaryManager = dictionaryManager;
 		this.prompt = prompt;
-		savedChoices = new HashMap<>();
+		// Synchronized, as the files may be corrected by several threads
+		savedChoices = Collections.synchronizedMap(new HashMap<String, String>());
+		promptLock = new Object();
 		originalLetter = new Parameter<>(ParameterType.FREE, KEYS.strategy().letterReplacement().originalLetter(), StandardParameterParsers.character());
 		newLetter = new Parameter<>(ParameterType.FREE, KEYS.strategy().letterReplacement().newLetter(), StandardParameterParsers.character());
 		onlyMissingFromDictionary = new Parameter<>(ParameterType.BOOLEAN, KEYS.strategy().letterReplacement().onlyMissingFromDictionary(), false, StandardParameterParsers.bool(), true);
 		promptBeforeCorrecting = new Parameter<>(ParameterType.BOOLEAN, KEYS.strategy().letterReplacement().promptBeforeCorrecting(), false, StandardParameterParsers.bool(), true);
+		onlyDictionaryReplacements = new Parameter<>(ParameterType.BOOLEAN, KEYS.strategy().letterReplacement().onlyDictionaryReplacements(), false, StandardParameterParsers.bool(), false);
 	}
 
 	@Override
 	public List<Parameter<?>> getParameters () {
-		return Arrays.<Parameter<?>>asList(originalLetter, newLetter, onlyMissingFromDictionary, promptBeforeCorrecting);
+		return Arrays.<Parameter<?>>asList(originalLetter, newLetter, onlyMissingFromDictionary, promptBeforeCorrecting, onlyDictionaryReplacements);
 	}
 	
 	@Override
@@ -88,40 +107,63 @@ public class LetterReplacement extends AbstractStrategy {
 			return;
 		}
 		
-		String remaining = subtitle.getContent();
-		final StringBuilder newContent = new StringBuilder();
-		while (!remaining.isEmpty()) {
-			final Word currentWord = Word.getNextWord(remaining);
-			if (currentWord.getBegin() > 0) {
-				newContent.append(remaining.substring(0, currentWord.getBegin()));
-			}
-			remaining = remaining.substring(currentWord.getEnd());
+		final String content = subtitle.getContent();
+		final char letter = originalLetter.getValue();
+		final Tokens tokens = subtitle.getTokens();
+		final StringBuilder newContent = new StringBuilder(content.length());
+		int offset = 0;
+		for (int index = 0; index < tokens.size(); index++) {
+			final int start = tokens.getStart(index);
+			final int end = tokens.getEnd(index);
+			newContent.append(content, offset, start);
+			offset = end;
 			
-			if (!currentWord.getWord().contains(originalLetter.getValue().toString())) {
+			final int letterIndex = content.indexOf(letter, start);
+			if (letterIndex < 0 || letterIndex >= end) {
 				// The letter to replace is not in the word
-				newContent.append(currentWord);
+				newContent.append(content, start, end);
 				continue;
 			}
 			
+			final Word currentWord = tokens.toWord(index);
 			if (savedChoices.containsKey(currentWord.getWord())) {
 				final String replacement = savedChoices.get(currentWord.getWord());
 				newContent.append(replacement == null ? currentWord : replacement);
 				continue;
 			}
 			
-			if (onlyMissingFromDictionary.getValue() && dictionaryManager.contains(currentWord.getWord())) {
+			if (onlyMissingFromDictionary.getValue() && dictionaryManager.contains(content, start, end)) {
 				// The current word is in the dictionary
 				newContent.append(currentWord);
 				continue;
 			}
 			
-			String replacement = currentWord.getWord().replaceAll(
-					originalLetter.getValue().toString(), newLetter.getValue().toString());
+			String replacement;
+			if (onlyDictionaryReplacements.getValue()) {
+				replacement = findDictionaryReplacement(currentWord.getWord());
+				if (replacement == null) {
+					// No replacement gives a word of the dictionary
+					newContent.append(currentWord);
+					continue;
+				}
+			} else {
+				replacement = currentWord.getWord().replaceAll(
+						originalLetter.getValue().toString(), newLetter.getValue().toString());
+			}
 			
 			if (promptBeforeCorrecting.getValue()) {
-				final UserPromptAnswer answer = prompt.confirm(subtitle.getContent(), currentWord, replacement);
-				if (answer.isRememberChoice()) {
-					savedChoices.put(currentWord.getWord(), answer.isCancelled() ? null : answer.getAnswer());
+				final UserPromptAnswer answer;
+				synchronized (promptLock) {
+					// The choice may have been saved by another thread while waiting for the prompt
+					if (savedChoices.containsKey(currentWord.getWord())) {
+						final String savedReplacement = savedChoices.get(currentWord.getWord());
+						newContent.append(savedReplacement == null ? currentWord : savedReplacement);
+						continue;
+					}
+					answer = prompt.confirm(subtitle.getContent(), currentWord, replacement);
+					if (answer.isRememberChoice()) {
+						savedChoices.put(currentWord.getWord(), answer.isCancelled() ? null : answer.getAnswer());
+					}
 				}
 				
 				if (answer.isCancelled()) {
@@ -132,6 +174,7 @@ public class LetterReplacement extends AbstractStrategy {
 			}
 			newContent.append(replacement);
 		}
+		newContent.append(content, offset, content.length());
 		
 		if (LG.isLoggable(Level.FINE)) {
 			LG.fine("Replacing subtitle content '" + subtitle.getContent() + "' with '" + newContent + "'");
@@ -139,4 +182,43 @@ public class LetterReplacement extends AbstractStrategy {
 		
 		subtitle.setContent(newContent.toString());
 	}
+	
+	/**
+	 * Find the replacement of a word which is in the dictionary.<br />
+	 * The replacements are built by replacing every combination of the occurrences of the original
+	 * letter, the combinations replacing the most occurrences first. All the replacements are then
+	 * looked up in a single call to the dictionary manager.
+	 * @param word
+	 *        the word to correct.
+	 * @return the replacement in the dictionary, <code>null</code> if there is none.
+	 */
+	private String findDictionaryReplacement (final String word) {
+		final char original = originalLetter.getValue();
+		final char replacement = newLetter.getValue();
+		final List<Integer> occurrences = new ArrayList<>();
+		for (int index = word.indexOf(original); index >= 0; index = word.indexOf(original, index + 1)) {
+			occurrences.add(index);
+		}
+		if (occurrences.size() > MAX_COMBINED_OCCURRENCES) {
+			return dictionaryManager.findFirst(Arrays.asList(word.replace(original, replacement)));
+		}
+		
+		final int allOccurrences = (1 << occurrences.size()) - 1;
+		final List<String> candidates = new ArrayList<>(allOccurrences);
+		for (int replaced = occurrences.size(); replaced > 0; replaced--) {
+			for (int combination = allOccurrences; combination > 0; combination--) {
+				if (Integer.bitCount(combination) != replaced) {
+					continue;
+				}
+				final char[] candidate = word.toCharArray();
+				for (int occurrence = 0; occurrence < occurrences.size(); occurrence++) {
+					if ((combination & 1 << occurrence) != 0) {
+						candidate[occurrences.get(occurrence)] = replacement;
+					}
+				}
+				candidates.add(new String(candidate));
+			}
+		}
+		return dictionaryManager.findFirst(candidates);
+	}
 }
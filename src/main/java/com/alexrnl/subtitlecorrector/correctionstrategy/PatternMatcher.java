@@ -0,0 +1,223 @@
+package com.alexrnl.subtitlecorrector.correctionstrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * Matcher which finds the occurrences of several patterns in a text in a single pass.<br />
+ * The matcher is an Aho-Corasick automaton: the patterns are stored in a trie, and each state of
+ * the trie has a failure link to the state of the longest suffix of its path which is also in the
+ * trie. The text is read one character at a time, following the failure links when there is no
+ * transition, so the cost of a search does not depend on the number of patterns. Patterns may
+ * overlap, all the occurrences are reported.<br />
+ * The matcher is immutable once built, and can be shared between threads.
+ * @author Alex
+ */
+final class PatternMatcher {
+	/** The root state of the automaton */
+	private static final int					ROOT		= 0;
+	
+	/** The patterns matched */
+	private final List<String>					patterns;
+	/** The transitions of each state */
+	private final List<Map<Character, Integer>>	transitions;
+	/** The failure link of each state */
+	private final int[]							failures;
+	/** The patterns which end on each state, including through the failure links */
+	private final int[][]						outputs;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param patterns
+	 *        the patterns to match, they cannot be empty.
+	 */
+	PatternMatcher (final List<String> patterns) {
+		super();
+		this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+		transitions = new ArrayList<>();
+		transitions.add(new HashMap<Character, Integer>());
+		final List<List<Integer>> ends = new ArrayList<>();
+		ends.add(new ArrayList<Integer>());
+		for (int index = 0; index < this.patterns.size(); index++) {
+			final String pattern = Objects.requireNonNull(this.patterns.get(index));
+			if (pattern.isEmpty()) {
+				throw new IllegalArgumentException("Cannot match an empty pattern");
+			}
+			int state = ROOT;
+			for (int position = 0; position < pattern.length(); position++) {
+				final Integer next = transitions.get(state).get(pattern.charAt(position));
+				if (next == null) {
+					transitions.get(state).put(pattern.charAt(position), transitions.size());
+					state = transitions.size();
+					transitions.add(new HashMap<Character, Integer>());
+					ends.add(new ArrayList<Integer>());
+				} else {
+					state = next;
+				}
+			}
+			ends.get(state).add(index);
+		}
+		
+		// Breadth first traversal, so the failure link of a state is computed before its children
+		failures = new int[transitions.size()];
+		outputs = new int[transitions.size()][];
+		outputs[ROOT] = new int[0];
+		final Queue<Integer> queue = new LinkedList<>();
+		for (final Integer child : transitions.get(ROOT).values()) {
+			failures[child] = ROOT;
+			queue.add(child);
+		}
+		while (!queue.isEmpty()) {
+			final int state = queue.remove();
+			final List<Integer> stateEnds = ends.get(state);
+			final int[] inherited = outputs[failures[state]];
+			outputs[state] = Arrays.copyOf(inherited, stateEnds.size() + inherited.length);
+			for (int index = 0; index < stateEnds.size(); index++) {
+				outputs[state][inherited.length + index] = stateEnds.get(index);
+			}
+			for (final Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+				failures[transition.getValue()] = next(failures[state], transition.getKey());
+				queue.add(transition.getValue());
+			}
+		}
+	}
+	
+	/**
+	 * Follow the transition of a state, or of its failure links if it has none.
+	 * @param state
+	 *        the current state.
+	 * @param character
+	 *        the character read.
+	 * @return the next state.
+	 */
+	private int next (final int state, final char character) {
+		int current = state;
+		Integer next = transitions.get(current).get(character);
+		while (next == null && current != ROOT) {
+			current = failures[current];
+			next = transitions.get(current).get(character);
+		}
+		return next == null ? ROOT : next;
+	}
+	
+	/**
+	 * Return the patterns matched.
+	 * @return the patterns.
+	 */
+	List<String> getPatterns () {
+		return patterns;
+	}
+	
+	/**
+	 * Find all the occurrences of the patterns in a text.
+	 * @param text
+	 *        the text to search.
+	 * @return the matches, sorted by start index, then by end index.
+	 */
+	List<Match> find (final CharSequence text) {
+		final List<Match> matches = new ArrayList<>();
+		int state = ROOT;
+		for (int index = 0; index < text.length(); index++) {
+			state = next(state, text.charAt(index));
+			for (final int pattern : outputs[state]) {
+				matches.add(new Match(pattern, index + 1 - patterns.get(pattern).length(), index + 1));
+			}
+		}
+		Collections.sort(matches);
+		return matches;
+	}
+	
+	/**
+	 * Occurrence of a pattern in a text.
+	 * @author Alex
+	 */
+	static final class Match implements Comparable<Match> {
+		/** The index of the pattern */
+		private final int	pattern;
+		/** The index of the first character of the occurrence (inclusive) */
+		private final int	start;
+		/** The index of the last character of the occurrence (exclusive) */
+		private final int	end;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param pattern
+		 *        the index of the pattern.
+		 * @param start
+		 *        the index of the first character of the occurrence (inclusive).
+		 * @param end
+		 *        the index of the last character of the occurrence (exclusive).
+		 */
+		Match (final int pattern, final int start, final int end) {
+			super();
+			this.pattern = pattern;
+			this.start = start;
+			this.end = end;
+		}
+		
+		/**
+		 * Return the attribute pattern.
+		 * @return the attribute pattern.
+		 */
+		int getPattern () {
+			return pattern;
+		}
+		
+		/**
+		 * Return the attribute start.
+		 * @return the attribute start.
+		 */
+		int getStart () {
+			return start;
+		}
+		
+		/**
+		 * Return the attribute end.
+		 * @return the attribute end.
+		 */
+		int getEnd () {
+			return end;
+		}
+		
+		@Override
+		public int compareTo (final Match other) {
+			if (start != other.start) {
+				return start < other.start ? -1 : 1;
+			}
+			if (end != other.end) {
+				return end < other.end ? -1 : 1;
+			}
+			return Integer.compare(pattern, other.pattern);
+		}
+		
+		@Override
+		public int hashCode () {
+			return Objects.hash(pattern, start, end);
+		}
+		
+		@Override
+		public boolean equals (final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Match)) {
+				return false;
+			}
+			final Match other = (Match) obj;
+			return pattern == other.pattern && start == other.start && end == other.end;
+		}
+		
+		@Override
+		public String toString () {
+			return pattern + "[" + start + ", " + end + "[";
+		}
+	}
+}
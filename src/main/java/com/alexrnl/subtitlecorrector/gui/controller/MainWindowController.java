@@ -70,7 +70,7 @@ public class MainWindowController extends AbstractController {
 	 * @return the set with the locales.
 	 */
 	public Set<Locale> getAvailableLocales () {;
-		return Collections.unmodifiableSet(serviceProvider.getDictionariesManager().getLocaleDictionaries().keySet());
+		return Collections.unmodifiableSet(serviceProvider.getDictionariesManager().getAvailableLocales());
 	}
 	
 	/**
@@ -102,12 +102,17 @@ public class MainWindowController extends AbstractController {
 	}
 	
 	/**
-	 * Change the value of the locale property.
+	 * Change the value of the locale property.<br />
+	 * The dictionary of the locale is loaded in the background, so it is ready when the correction
+	 * starts.
 	 * @param locale
 	 *        the new locale property.
 	 */
 	public void changeLocale (final Locale locale) {
 		setModelProperty(LOCALE_PROPERTY, locale);
+		if (locale != null) {
+			serviceProvider.getDictionariesManager().prefetch(locale);
+		}
 	}
 	
 	private enum Result {
@@ -0,0 +1,297 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Probabilistic set of words.<br />
+ * A Bloom filter answers whether a word <em>may</em> be in the set: a negative answer is always
+ * right, whereas a positive answer is wrong with a probability close to the false positive rate
+ * requested, as long as no more words than expected have been added.<br />
+ * Words are hashed once, with {@link #hash(CharSequence)}, over their UTF-8 encoding; the hash
+ * can then be used to query several filters without hashing the word again.<br />
+ * The filter is thread-safe: words can be added while other threads query the filter, without any
+ * lock.
+ * @author Alex
+ */
+public final class BloomFilter {
+	/** The default false positive rate */
+	public static final double		DEFAULT_FALSE_POSITIVE_RATE	= 0.01;
+	/** The offset basis of the FNV-1a hash */
+	private static final long		FNV_OFFSET_BASIS			= 0xCBF29CE484222325L;
+	/** The prime of the FNV-1a hash */
+	private static final long		FNV_PRIME					= 0x100000001B3L;
+	/** The character used when encoding an unpaired surrogate (same as the JDK encoder) */
+	private static final int		REPLACEMENT_CHARACTER		= '?';
+	/** The number of bits in a word of the bit array */
+	private static final int		BITS_PER_WORD				= Long.SIZE;
+	
+	/** The bits of the filter */
+	private final AtomicLongArray	bits;
+	/** The number of bits of the filter */
+	private final long				bitCount;
+	/** The number of hash functions */
+	private final int				hashCount;
+	/** The number of words the filter has been sized for */
+	private final int				capacity;
+	/** The number of words added to the filter */
+	private final AtomicInteger		count;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param capacity
+	 *        the number of words expected in the filter.
+	 * @param falsePositiveRate
+	 *        the expected false positive rate, once the filter contains <code>capacity</code>
+	 *        words.
+	 */
+	public BloomFilter (final int capacity, final double falsePositiveRate) {
+		super();
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+		}
+		if (!(falsePositiveRate > 0.0 && falsePositiveRate < 1.0)) {
+			throw new IllegalArgumentException("False positive rate must be between 0 and 1 (exclusive): "
+					+ falsePositiveRate);
+		}
+		this.capacity = capacity;
+		final double ln2 = Math.log(2);
+		final long optimalBitCount = (long) Math.ceil(-Math.max(capacity, 1) * Math.log(falsePositiveRate) / (ln2 * ln2));
+		final long wordCount = Math.min((optimalBitCount + BITS_PER_WORD - 1) / BITS_PER_WORD, Integer.MAX_VALUE - 8);
+		bits = new AtomicLongArray((int) wordCount);
+		bitCount = wordCount * BITS_PER_WORD;
+		hashCount = (int) Math.max(1, Math.round((double) bitCount / Math.max(capacity, 1) * ln2));
+		count = new AtomicInteger();
+	}
+	
+	/**
+	 * Compute the hash of a word, to use with {@link #add(long)} and {@link #mightContain(long)}.
+	 * @param word
+	 *        the word.
+	 * @return the hash of the word.
+	 */
+	public static long hash (final CharSequence word) {
+		return hash(word, 0, word.length());
+	}
+	
+	/**
+	 * Compute the hash of the word located between the specified indexes of the sequence.<br />
+	 * The hash is computed on the UTF-8 encoding of the word, without allocating any object.
+	 * @param sequence
+	 *        the sequence with the word.
+	 * @param start
+	 *        the index of the first character of the word (inclusive).
+	 * @param end
+	 *        the index of the last character of the word (exclusive).
+	 * @return the hash of the word.
+	 */
+	public static long hash (final CharSequence sequence, final int start, final int end) {
+		return hash(sequence, start, end, null);
+	}
+	
+	/**
+	 * Compute the hash of the word located between the specified indexes of the sequence, once
+	 * made lower case.<br />
+	 * The result is the same as {@link #hash(CharSequence)} on the word made lower case with
+	 * {@link String#toLowerCase(Locale)}, but the characters are made lower case while hashing, so
+	 * no object is allocated (except for the few words which require the specific rules of
+	 * {@link String#toLowerCase(Locale)}).
+	 * @param sequence
+	 *        the sequence with the word.
+	 * @param start
+	 *        the index of the first character of the word (inclusive).
+	 * @param end
+	 *        the index of the last character of the word (exclusive).
+	 * @param caseInsensitive
+	 *        the locale used to make the word lower case, <code>null</code> to hash the word as
+	 *        is.
+	 * @return the hash of the word in lower case.
+	 */
+	public static long hash (final CharSequence sequence, final int start, final int end, final Locale caseInsensitive) {
+		if (caseInsensitive != null && !CaseFolding.isFoldable(sequence, start, end, caseInsensitive)) {
+			return hash(sequence.subSequence(start, end).toString().toLowerCase(caseInsensitive));
+		}
+		final boolean lowerCase = caseInsensitive != null;
+		long hash = FNV_OFFSET_BASIS;
+		int index = start;
+		while (index < end) {
+			final char current = sequence.charAt(index++);
+			int codePoint = current;
+			if (Character.isHighSurrogate(current) && index < end && Character.isLowSurrogate(sequence.charAt(index))) {
+				codePoint = Character.toCodePoint(current, sequence.charAt(index++));
+			} else if (Character.isSurrogate(current)) {
+				codePoint = REPLACEMENT_CHARACTER;
+			}
+			if (lowerCase) {
+				codePoint = CaseFolding.toLowerCase(codePoint);
+			}
+			
+			if (codePoint < 0x80) {
+				hash = update(hash, codePoint);
+				continue;
+			}
+			int shift;
+			if (codePoint < 0x800) {
+				hash = update(hash, 0xC0 | codePoint >> 6);
+				shift = 0;
+			} else if (codePoint < 0x10000) {
+				hash = update(hash, 0xE0 | codePoint >> 12);
+				shift = 6;
+			} else {
+				hash = update(hash, 0xF0 | codePoint >> 18);
+				shift = 12;
+			}
+			for (; shift >= 0; shift -= 6) {
+				hash = update(hash, 0x80 | codePoint >> shift & 0x3F);
+			}
+		}
+		return finish(hash);
+	}
+	
+	/**
+	 * Compute the hash of an UTF-8 encoded word.<br />
+	 * The result is the same as {@link #hash(CharSequence)} on the decoded word.
+	 * @param utf8Word
+	 *        the array with the encoded word.
+	 * @param length
+	 *        the length of the word in the array.
+	 * @return the hash of the word.
+	 */
+	static long hash (final byte[] utf8Word, final int length) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int index = 0; index < length; index++) {
+			hash = update(hash, utf8Word[index] & 0xFF);
+		}
+		return finish(hash);
+	}
+	
+	/**
+	 * Update the FNV-1a hash with a byte.
+	 * @param hash
+	 *        the current hash.
+	 * @param value
+	 *        the byte (unsigned value).
+	 * @return the new hash.
+	 */
+	private static long update (final long hash, final int value) {
+		return (hash ^ value) * FNV_PRIME;
+	}
+	
+	/**
+	 * Mix the bits of the hash, so both halves can be used as independent hashes.<br />
+	 * This is the finalization step of MurmurHash3.
+	 * @param hash
+	 *        the hash.
+	 * @return the final hash.
+	 */
+	private static long finish (final long hash) {
+		long mixed = hash;
+		mixed ^= mixed >>> 33;
+		mixed *= 0xFF51AFD7ED558CCDL;
+		mixed ^= mixed >>> 33;
+		mixed *= 0xC4CEB9FE1A85EC53L;
+		mixed ^= mixed >>> 33;
+		return mixed;
+	}
+	
+	/**
+	 * Compute the index of the bit for the specified hash function.<br />
+	 * Uses double hashing, with each half of the word hash.
+	 * @param hash
+	 *        the hash of the word.
+	 * @param function
+	 *        the index of the hash function.
+	 * @return the index of the bit.
+	 */
+	private long getBitIndex (final long hash, final int function) {
+		final long combined = (hash & 0xFFFFFFFFL) + function * (hash >>> 32);
+		return (combined & Long.MAX_VALUE) % bitCount;
+	}
+	
+	/**
+	 * Add a word to the filter.
+	 * @param word
+	 *        the word.
+	 */
+	public void add (final CharSequence word) {
+		add(hash(word));
+	}
+	
+	/**
+	 * Add the word with the specified hash to the filter.
+	 * @param hash
+	 *        the hash of the word, computed by {@link #hash(CharSequence)}.
+	 */
+	public void add (final long hash) {
+		for (int function = 0; function < hashCount; function++) {
+			final long index = getBitIndex(hash, function);
+			final int word = (int) (index / BITS_PER_WORD);
+			final long mask = 1L << index;
+			long current = bits.get(word);
+			while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+				current = bits.get(word);
+			}
+		}
+		count.incrementAndGet();
+	}
+	
+	/**
+	 * Check if the word may be in the filter.
+	 * @param word
+	 *        the word.
+	 * @return <code>false</code> if the word is definitely not in the filter.
+	 */
+	public boolean mightContain (final CharSequence word) {
+		return mightContain(hash(word));
+	}
+	
+	/**
+	 * Check if the word with the specified hash may be in the filter.
+	 * @param hash
+	 *        the hash of the word, computed by {@link #hash(CharSequence)}.
+	 * @return <code>false</code> if the word is definitely not in the filter.
+	 */
+	public boolean mightContain (final long hash) {
+		for (int function = 0; function < hashCount; function++) {
+			final long index = getBitIndex(hash, function);
+			if ((bits.get((int) (index / BITS_PER_WORD)) & 1L << index) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Return the attribute capacity.
+	 * @return the attribute capacity.
+	 */
+	public int getCapacity () {
+		return capacity;
+	}
+	
+	/**
+	 * Return the number of words added to the filter.<br />
+	 * A word added several times is counted several times.
+	 * @return the number of words added.
+	 */
+	public int getCount () {
+		return count.get();
+	}
+	
+	/**
+	 * Return the number of hash functions used.
+	 * @return the number of hash functions.
+	 */
+	public int getHashCount () {
+		return hashCount;
+	}
+	
+	/**
+	 * Return the size of the filter, in bits.
+	 * @return the number of bits.
+	 */
+	public long getBitCount () {
+		return bitCount;
+	}
+}
@@ -0,0 +1,73 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Helper to make words lower case one code point at a time.<br />
+ * For most locales and characters, {@link String#toLowerCase(Locale)} maps each code point with
+ * {@link Character#toLowerCase(int)}, which allows to compare a word with a lower case word without
+ * building the lower case string. The exceptions are the languages with their own casing rules
+ * (Turkish, Azeri and Lithuanian), and the characters whose lower case depends on their context or
+ * has several characters (capital I with dot above, and capital sigma); for those, the word must be
+ * made lower case with {@link String#toLowerCase(Locale)}.
+ * @author Alex
+ */
+final class CaseFolding {
+	/** The languages with specific casing rules */
+	private static final Set<String>	SPECIFIC_LANGUAGES	= Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"tr", "az", "lt")));
+	/** The capital I with dot above, whose lower case has two characters */
+	private static final char			CAPITAL_I_WITH_DOT	= '\u0130';
+	/** The capital sigma, whose lower case depends on its position in the word */
+	private static final char			CAPITAL_SIGMA		= '\u03A3';
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default private constructor to avoid instantiation.
+	 */
+	private CaseFolding () {
+		super();
+	}
+	
+	/**
+	 * Check if the word located between the specified indexes of the sequence can be made lower
+	 * case one code point at a time, with the same result as {@link String#toLowerCase(Locale)}.
+	 * @param sequence
+	 *        the sequence with the word.
+	 * @param start
+	 *        the index of the first character of the word (inclusive).
+	 * @param end
+	 *        the index of the last character of the word (exclusive).
+	 * @param locale
+	 *        the locale used to make the word lower case.
+	 * @return <code>true</code> if {@link #toLowerCase(int)} can be used on each code point.
+	 */
+	static boolean isFoldable (final CharSequence sequence, final int start, final int end, final Locale locale) {
+		if (SPECIFIC_LANGUAGES.contains(locale.getLanguage())) {
+			return false;
+		}
+		for (int index = start; index < end; index++) {
+			final char current = sequence.charAt(index);
+			if (current == CAPITAL_I_WITH_DOT || current == CAPITAL_SIGMA) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Make a code point lower case.<br />
+	 * The result is only the same as {@link String#toLowerCase(Locale)} if the word is
+	 * {@link #isFoldable(CharSequence, int, int, Locale) foldable}.
+	 * @param codePoint
+	 *        the code point.
+	 * @return the lower case code point.
+	 */
+	static int toLowerCase (final int codePoint) {
+		return Character.toLowerCase(codePoint);
+	}
+}
@@ -0,0 +1,255 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Guess the character set of a subtitle file from its first bytes.<br />
+ * Only the beginning of the file is read (see {@link #getSampleSize()}), so the detection is cheap
+ * compared to the reading of the file. The character set is guessed as follow:
+ * <ol>
+ * <li>a byte order mark gives UTF-8, UTF-16BE or UTF-16LE;</li>
+ * <li>many null bytes at the even or odd positions give UTF-16BE or UTF-16LE;</li>
+ * <li>a valid UTF-8 sample with non-ASCII characters gives UTF-8;</li>
+ * <li>any other non-ASCII sample is single byte: windows-1252, the common encoding of the subtitles
+ * written on Windows, unless the sample uses bytes which it does not define, in which case
+ * ISO-8859-1.</li>
+ * </ol>
+ * When the sample only has ASCII characters, the character set cannot be guessed and
+ * <code>null</code> is returned, so the reader keeps its own character set.<br />
+ * The detector does not keep any state and may be used from several threads.
+ * @author Alex
+ */
+public class CharsetDetector {
+	/** Logger */
+	private static final Logger		LG					= Logger.getLogger(CharsetDetector.class.getName());
+	
+	/** The default number of bytes read to guess the character set */
+	public static final int			DEFAULT_SAMPLE_SIZE	= 16 * 1024;
+	/** The windows-1252 character set, <code>null</code> if it is not available */
+	private static final Charset	WINDOWS_1252		= Charset.isSupported("windows-1252") ? Charset.forName("windows-1252") : null;
+	/** The minimum ratio of null bytes at the even or odd positions for UTF-16 without byte order mark */
+	private static final double		UTF16_NULL_RATIO	= 0.3;
+	
+	/** The number of bytes read to guess the character set */
+	private final int				sampleSize;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param sampleSize
+	 *        the number of bytes read to guess the character set.
+	 */
+	public CharsetDetector (final int sampleSize) {
+		super();
+		if (sampleSize < 4) {
+			throw new IllegalArgumentException("The sample must have at least 4 bytes (" + sampleSize + ")");
+		}
+		this.sampleSize = sampleSize;
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * Use the {@link #DEFAULT_SAMPLE_SIZE default sample size}.
+	 */
+	public CharsetDetector () {
+		this(DEFAULT_SAMPLE_SIZE);
+	}
+	
+	/**
+	 * Return the attribute sampleSize.
+	 * @return the number of bytes read to guess the character set.
+	 */
+	public int getSampleSize () {
+		return sampleSize;
+	}
+	
+	/**
+	 * Guess the character set of a file.
+	 * @param file
+	 *        the file.
+	 * @return the character set of the file, or <code>null</code> if it could not be guessed.
+	 * @throws IOException
+	 *         if the beginning of the file could not be read.
+	 */
+	public Charset detect (final Path file) throws IOException {
+		final byte[] sample = new byte[sampleSize];
+		int length = 0;
+		try (final InputStream input = Files.newInputStream(file)) {
+			int read;
+			while (length < sample.length && (read = input.read(sample, length, sample.length - length)) >= 0) {
+				length += read;
+			}
+			// The sample is complete when the whole file was read
+			final boolean complete = length < sample.length || input.read() < 0;
+			final Charset charset = detect(sample, length, complete);
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("Character set of " + file + ": " + (charset == null ? "unknown" : charset.name()));
+			}
+			return charset;
+		}
+	}
+	
+	/**
+	 * Guess the character set of a sample of bytes.
+	 * @param sample
+	 *        the bytes.
+	 * @param length
+	 *        the number of bytes of the sample.
+	 * @param complete
+	 *        <code>true</code> if the sample is the complete content, <code>false</code> if it is the
+	 *        beginning of the content, which may end with an incomplete character.
+	 * @return the character set of the sample, or <code>null</code> if it could not be guessed.
+	 */
+	public Charset detect (final byte[] sample, final int length, final boolean complete) {
+		// Byte order marks
+		if (startsWith(sample, length, 0xEF, 0xBB, 0xBF)) {
+			return StandardCharsets.UTF_8;
+		}
+		if (startsWith(sample, length, 0xFE, 0xFF)) {
+			return StandardCharsets.UTF_16BE;
+		}
+		if (startsWith(sample, length, 0xFF, 0xFE)) {
+			return StandardCharsets.UTF_16LE;
+		}
+		
+		// UTF-16 without byte order mark, the ASCII characters have a null byte
+		int evenNulls = 0;
+		int oddNulls = 0;
+		boolean ascii = true;
+		for (int index = 0; index < length; index++) {
+			if (sample[index] == 0) {
+				if (index % 2 == 0) {
+					evenNulls++;
+				} else {
+					oddNulls++;
+				}
+			} else if (sample[index] < 0) {
+				ascii = false;
+			}
+		}
+		final int pairs = length / 2;
+		if (pairs > 0 && evenNulls > pairs * UTF16_NULL_RATIO && oddNulls == 0) {
+			return StandardCharsets.UTF_16BE;
+		}
+		if (pairs > 0 && oddNulls > pairs * UTF16_NULL_RATIO && evenNulls == 0) {
+			return StandardCharsets.UTF_16LE;
+		}
+		
+		if (ascii) {
+			return null;
+		}
+		if (isUtf8(sample, length, complete)) {
+			return StandardCharsets.UTF_8;
+		}
+		return singleByteCharset(sample, length);
+	}
+	
+	/**
+	 * Check if a sample starts with the specified bytes.
+	 * @param sample
+	 *        the bytes.
+	 * @param length
+	 *        the number of bytes of the sample.
+	 * @param prefix
+	 *        the expected bytes, as unsigned values.
+	 * @return <code>true</code> if the sample starts with the bytes.
+	 */
+	private static boolean startsWith (final byte[] sample, final int length, final int... prefix) {
+		if (length < prefix.length) {
+			return false;
+		}
+		for (int index = 0; index < prefix.length; index++) {
+			if ((sample[index] & 0xFF) != prefix[index]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Check if a sample is valid UTF-8.<br />
+	 * The overlong encodings, the surrogates and the code points above U+10FFFF are not valid.
+	 * @param sample
+	 *        the bytes.
+	 * @param length
+	 *        the number of bytes of the sample.
+	 * @param complete
+	 *        <code>false</code> if the sample may end with an incomplete character.
+	 * @return <code>true</code> if the sample is valid UTF-8.
+	 */
+	private static boolean isUtf8 (final byte[] sample, final int length, final boolean complete) {
+		int index = 0;
+		while (index < length) {
+			final int lead = sample[index] & 0xFF;
+			final int continuations;
+			// The range of the first continuation byte, which excludes the invalid code points
+			int lower = 0x80;
+			int upper = 0xBF;
+			if (lead < 0x80) {
+				index++;
+				continue;
+			} else if (lead >= 0xC2 && lead <= 0xDF) {
+				continuations = 1;
+			} else if (lead >= 0xE0 && lead <= 0xEF) {
+				continuations = 2;
+				if (lead == 0xE0) {
+					lower = 0xA0;
+				} else if (lead == 0xED) {
+					upper = 0x9F;
+				}
+			} else if (lead >= 0xF0 && lead <= 0xF4) {
+				continuations = 3;
+				if (lead == 0xF0) {
+					lower = 0x90;
+				} else if (lead == 0xF4) {
+					upper = 0x8F;
+				}
+			} else {
+				return false;
+			}
+			
+			for (int continuation = 1; continuation <= continuations; continuation++) {
+				if (index + continuation >= length) {
+					// Character cut by the end of the sample
+					return !complete;
+				}
+				final int value = sample[index + continuation] & 0xFF;
+				if (value < lower || value > upper) {
+					return false;
+				}
+				lower = 0x80;
+				upper = 0xBF;
+			}
+			index += continuations + 1;
+		}
+		return true;
+	}
+	
+	/**
+	 * Guess the single byte character set of a sample.
+	 * @param sample
+	 *        the bytes.
+	 * @param length
+	 *        the number of bytes of the sample.
+	 * @return windows-1252 if it defines all the bytes of the sample, ISO-8859-1 otherwise.
+	 */
+	private static Charset singleByteCharset (final byte[] sample, final int length) {
+		if (WINDOWS_1252 == null) {
+			return StandardCharsets.ISO_8859_1;
+		}
+		for (int index = 0; index < length; index++) {
+			final int value = sample[index] & 0xFF;
+			// The bytes not defined by windows-1252
+			if (value == 0x81 || value == 0x8D || value == 0x8F || value == 0x90 || value == 0x9D) {
+				return StandardCharsets.ISO_8859_1;
+			}
+		}
+		return WINDOWS_1252;
+	}
+}
@@ -2,18 +2,30 @@ package com.alexrnl.subtitlecorrector.io;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
 
 import com.alexrnl.commons.error.ExceptionUtils;
 import com.alexrnl.commons.io.IOUtils;
@@ -24,25 +36,71 @@ import com.alexrnl.commons.io.IOUtils;
  * the disk.<br />
  * A valid dictionary file is composed of one word per line, each word will be an entry of the set.<br />
  * A dictionary can be case sensitive, or case insensitive: when the case insensitive mode is used,
- * a provided {@link Locale} is used to make all words loaded lower case.
+ * a provided {@link Locale} is used to make all words loaded lower case.<br />
+ * The words of a non-editable dictionary are stored in a compact {@link WordAutomaton}, which is
+ * mapped from its {@link DictionaryCompiler compiled file} when available; words added afterwards
+ * are kept aside, in a regular set.<br />
+ * Each dictionary also maintains a {@link BloomFilter} of the words of its set, which allows to
+ * discard most of the missing words with a few hash probes (see {@link #mightContain(long)}). The
+ * words of the automaton are not in the filter: they are checked directly, so loading a compiled or
+ * shared dictionary does not depend on its size.<br />
+ * The words of the dictionary close to a term can be {@link #fuzzySearch(String, int) searched}
+ * without scanning the dictionary: the automaton is intersected with a {@link LevenshteinAutomaton}
+ * of the term, and the words of the set are searched with a {@link SpellingIndex}, built the first
+ * time it is needed and then updated with the words added.<br />
+ * A dictionary can be shared between threads: lookups do not take any lock and words added by a
+ * thread are immediately visible to the others. Updates ({@link #addWord(String)} and
+ * {@link #save()}) are serialized.<br />
+ * Saving an editable dictionary only appends the words added since the last save to a journal,
+ * located next to the dictionary file. The journal is merged in the (sorted) dictionary file when
+ * it becomes too large, or when {@link #compact()} is called; the dictionary file is then replaced
+ * atomically. The journal is replayed when the dictionary is loaded.<br />
+ * When the file of an editable dictionary is modified by another program, the words appended to
+ * it can be added without reloading the dictionary, see {@link #loadAppendedWords()}.
  * @author Alex
  */
 public class Dictionary {
 	/** Logger */
-	private static final Logger	LG	= Logger.getLogger(Dictionary.class.getName());
+	private static final Logger		LG						= Logger.getLogger(Dictionary.class.getName());
+	/** The minimum number of journal entries before the journal is merged in the dictionary file */
+	private static final int		COMPACTION_MIN_ENTRIES	= 1024;
+	/** The journal is merged when it has more entries than the dictionary size divided by this ratio */
+	private static final int		COMPACTION_RATIO		= 10;
+	/** The number of words which can be added to a dictionary before its filter is rebuilt */
+	private static final int		FILTER_HEADROOM			= 256;
+	/** The last byte of a line, in the character sets supported */
+	private static final byte		LINE_FEED				= '\n';
 	
 	/** The dictionary with the words */
-	private final Set<String>	dictionary;
+	private final Set<String>		dictionary;
+	/** The compact words of a non-editable dictionary, <code>null</code> if it is editable */
+	private volatile WordAutomaton	automaton;
+	/** The automaton given when the dictionary was built, <code>null</code> if read from the file */
+	private final WordAutomaton		sharedAutomaton;
+	/** The Bloom filter with the words of the set */
+	private volatile BloomFilter	filter;
+	/** The index of the words of the set, <code>null</code> until a fuzzy search is done */
+	private volatile SpellingIndex	spellingIndex;
+	/** The journal of the words added to the dictionary */
+	private final DictionaryJournal	journal;
+	/** The words added since the last save, which are not in the journal yet */
+	private final List<String>		pendingWords;
 	/** The path to the dictionary file */
-	private final Path			dictionaryFile;
+	private final Path				dictionaryFile;
 	/** The character set of the file */
-	private final Charset		charSet;
+	private final Charset			charSet;
 	/** <code>true</code> if word can be added to the dictionary */
-	private final boolean		editable;
+	private final boolean			editable;
 	/** <code>true</code> if the dictionary is case sensitive */
-	private final Locale		caseInsensitive;
+	private final Locale			caseInsensitive;
+	/** The false positive rate of the Bloom filter */
+	private final double			falsePositiveRate;
 	/** <code>true</code> if the dictionary has been updated with new words since the last save/load */
-	private boolean				updated;
+	private volatile boolean		updated;
+	/** The number of bytes of the file read by an editable dictionary, up to the last line read */
+	private long					fileLength;
+	/** The checksum of the bytes of the file read, <code>null</code> if it is not known */
+	private CRC32					fileChecksum;
 	
 	/**
 	 * Constructor #1.<br />
@@ -100,11 +158,80 @@ public class Dictionary {
 	 *         if there was an issue while reading the file.
 	 */
 	public Dictionary (final Path dictionaryFile, final Charset charSet, final boolean editable, final Locale caseInsensitive) throws IOException {
+		this(dictionaryFile, charSet, editable, caseInsensitive, BloomFilter.DEFAULT_FALSE_POSITIVE_RATE);
+	}
+	
+	/**
+	 * Constructor #5.<br />
+	 * @param dictionaryFile
+	 *        the file to read.
+	 * @param charSet
+	 *        the character set to use for reading the file.
+	 * @param editable
+	 *        <code>true</code> if the dictionary can be updated with new words.
+	 * @param caseInsensitive
+	 *        if non-<code>null</code>, then the dictionary will be case insensitive; using the
+	 *        locale defined.
+	 * @param falsePositiveRate
+	 *        the false positive rate of the Bloom filter of the dictionary.
+	 * @throws IOException
+	 *         if there was an issue while reading the file.
+	 */
+	public Dictionary (final Path dictionaryFile, final Charset charSet, final boolean editable, final Locale caseInsensitive,
+			final double falsePositiveRate) throws IOException {
+		this(dictionaryFile, charSet, editable, caseInsensitive, falsePositiveRate, null);
+	}
+	
+	/**
+	 * Constructor #6.<br />
+	 * Build a non-editable dictionary with the words of an automaton which is already loaded, such
+	 * as a dictionary of a {@link DictionarySegment}. The dictionary file does not need to exist,
+	 * it is only used to locate the journal of the dictionary.
+	 * @param dictionaryFile
+	 *        the file of the dictionary.
+	 * @param automaton
+	 *        the automaton with the words of the dictionary, which must have been made lower case
+	 *        if the dictionary is case insensitive.
+	 * @param caseInsensitive
+	 *        if non-<code>null</code>, then the dictionary will be case insensitive; using the
+	 *        locale defined.
+	 * @param falsePositiveRate
+	 *        the false positive rate of the Bloom filter of the dictionary.
+	 * @throws IOException
+	 *         if there was an issue while reading the journal.
+	 */
+	public Dictionary (final Path dictionaryFile, final WordAutomaton automaton, final Locale caseInsensitive,
+			final double falsePositiveRate) throws IOException {
+		this(dictionaryFile, StandardCharsets.UTF_8, false, caseInsensitive, falsePositiveRate,
+				Objects.requireNonNull(automaton));
+	}
+	
+	/**
+	 * Constructor #7.<br />
+	 * @param dictionaryFile
+	 *        the file to read.
+	 * @param charSet
+	 *        the character set to use for reading the file.
+	 * @param editable
+	 *        <code>true</code> if the dictionary can be updated with new words.
+	 * @param caseInsensitive
+	 *        if non-<code>null</code>, then the dictionary will be case insensitive; using the
+	 *        locale defined.
+	 * @param falsePositiveRate
+	 *        the false positive rate of the Bloom filter of the dictionary.
+	 * @param sharedAutomaton
+	 *        the automaton with the words of the dictionary, <code>null</code> to read them from
+	 *        the file.
+	 * @throws IOException
+	 *         if there was an issue while reading the file.
+	 */
+	private Dictionary (final Path dictionaryFile, final Charset charSet, final boolean editable, final Locale caseInsensitive,
+			final double falsePositiveRate, final WordAutomaton sharedAutomaton) throws IOException {
 		super();
 		Objects.requireNonNull(dictionaryFile);
 		Objects.requireNonNull(charSet);
 		
-		if (!Files.exists(dictionaryFile) || !Files.isReadable(dictionaryFile)) {
+		if (sharedAutomaton == null && (!Files.exists(dictionaryFile) || !Files.isReadable(dictionaryFile))) {
 			throw new IllegalArgumentException("File " + dictionaryFile + " does not exists or cannot be read");
 		}
 		if (editable && !Files.isWritable(dictionaryFile)) {
@@ -112,37 +239,308 @@ public class Dictionary {
 					"it must be editable");
 		}
 		
-		this.dictionary = new TreeSet<>();
+		this.dictionary = new ConcurrentSkipListSet<>();
 		this.editable = editable;
 		this.caseInsensitive = caseInsensitive;
 		this.dictionaryFile = dictionaryFile;
 		this.charSet = charSet;
+		this.falsePositiveRate = falsePositiveRate;
+		this.journal = new DictionaryJournal(dictionaryFile);
+		this.pendingWords = new ArrayList<>();
+		this.sharedAutomaton = sharedAutomaton;
 		load();
 	}
 	
 	/**
 	 * Load the content of the file in the set.<br />
-	 * Uses the character set defined in the constructor.
+	 * Uses the character set defined in the constructor. A non-editable dictionary is loaded from
+	 * its compiled file when it is up to date, otherwise the compiled file is rebuilt. The words of
+	 * the journal are then added.
 	 * @throws IOException
 	 *         if there was an issue while reading the file.
 	 */
 	private void load () throws IOException {
 		dictionary.clear();
+		pendingWords.clear();
+		automaton = null;
+		spellingIndex = null;
+		fileChecksum = null;
+		if (editable) {
+			readEditableWords();
+		} else {
+			automaton = sharedAutomaton == null ? loadAutomaton() : sharedAutomaton;
+		}
+		for (final String word : journal.read()) {
+			final String journalWord = getLowerCaseWord(word.trim());
+			if (automaton == null || !automaton.contains(journalWord)) {
+				dictionary.add(journalWord);
+			}
+		}
+		buildFilter();
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Finished reading dictionary file " + dictionaryFile
+					+ " (" + size() + " words)");
+		}
+		updated = false;
+	}
+	
+	/**
+	 * Load the automaton of a non-editable dictionary.<br />
+	 * The compiled dictionary is used when it is more recent than the text file; otherwise (or if
+	 * it cannot be used), the text file is read and the compiled dictionary is rebuilt.
+	 * @return the automaton with the words of the dictionary.
+	 * @throws IOException
+	 *         if there was an issue while reading the text file.
+	 */
+	private WordAutomaton loadAutomaton () throws IOException {
+		final Path compiledFile = DictionaryCompiler.getCompiledFile(dictionaryFile);
+		if (DictionaryCompiler.isUpToDate(dictionaryFile, compiledFile)) {
+			try {
+				return DictionaryCompiler.open(compiledFile, charSet, caseInsensitive);
+			} catch (final IOException e) {
+				LG.warning("Compiled dictionary " + compiledFile + " cannot be used, it will be rebuilt: "
+						+ ExceptionUtils.display(e));
+			}
+		}
+		
+		final WordAutomaton wordAutomaton = WordAutomaton.build(readWords(dictionaryFile, charSet, caseInsensitive));
+		try {
+			DictionaryCompiler.write(wordAutomaton, charSet, caseInsensitive, compiledFile);
+		} catch (final IOException e) {
+			LG.warning("Could not write compiled dictionary " + compiledFile + ": " + ExceptionUtils.display(e));
+		}
+		return wordAutomaton;
+	}
+	
+	/**
+	 * Read the words of the file of an editable dictionary.<br />
+	 * The length and the checksum of the content read are kept, so appended words can be detected
+	 * later.
+	 * @throws IOException
+	 *         if there was an issue while reading the file.
+	 */
+	private void readEditableWords () throws IOException {
+		final byte[] content;
+		try {
+			content = Files.readAllBytes(dictionaryFile);
+		} catch (final IOException e) {
+			LG.warning("Exception while reading dictionary file " + dictionaryFile + ": "
+					+ ExceptionUtils.display(e));
+			throw e;
+		}
+		readWords(content, 0, content.length, dictionaryFile, charSet, caseInsensitive, dictionary);
+		
+		// Appends can only be detected if the last line read is complete
+		if (content.length == 0 || content[content.length - 1] == LINE_FEED) {
+			fileLength = content.length;
+			fileChecksum = new CRC32();
+			fileChecksum.update(content, 0, content.length);
+		}
+	}
+	
+	/**
+	 * Add the words which have been appended to the dictionary file since it was read.<br />
+	 * This allows to take into account the words added by another program to the file, without
+	 * reloading the whole dictionary: the part of the file already read is only checked against its
+	 * checksum. If the beginning of the file has been modified, the dictionary must be reloaded,
+	 * which is up to the caller (by building a new dictionary). A line which is not complete yet is
+	 * left for the next call.
+	 * @return the words added to the dictionary (without the words it already contained), or
+	 *         <code>null</code> if the file has not only been appended, or if the dictionary is not
+	 *         editable.
+	 * @throws IOException
+	 *         if there was an issue while reading the file.
+	 */
+	public synchronized List<String> loadAppendedWords () throws IOException {
+		if (!editable || fileChecksum == null) {
+			return null;
+		}
+		final byte[] appended;
+		final CRC32 checksum = new CRC32();
+		try (final FileChannel channel = FileChannel.open(dictionaryFile, StandardOpenOption.READ)) {
+			final long length = channel.size();
+			if (length < fileLength || length - fileLength > Integer.MAX_VALUE) {
+				return null;
+			}
+			final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(fileLength, 1), 1 << 16));
+			for (long position = 0; position < fileLength;) {
+				buffer.clear();
+				buffer.limit((int) Math.min(buffer.capacity(), fileLength - position));
+				final int read = channel.read(buffer, position);
+				if (read < 0) {
+					return null;
+				}
+				checksum.update(buffer.array(), 0, read);
+				position += read;
+			}
+			if (checksum.getValue() != fileChecksum.getValue()) {
+				return null;
+			}
+			appended = new byte[(int) (length - fileLength)];
+			final ByteBuffer appendedBuffer = ByteBuffer.wrap(appended);
+			while (appendedBuffer.hasRemaining()) {
+				if (channel.read(appendedBuffer, fileLength + appendedBuffer.position()) < 0) {
+					return null;
+				}
+			}
+		}
+		
+		int end = appended.length;
+		while (end > 0 && appended[end - 1] != LINE_FEED) {
+			end--;
+		}
+		final List<String> words = new ArrayList<>();
+		readWords(appended, 0, end, dictionaryFile, charSet, caseInsensitive, words);
+		checksum.update(appended, 0, end);
+		fileLength += end;
+		fileChecksum = checksum;
+		
+		final List<String> added = new ArrayList<>();
+		for (final String word : words) {
+			if (addLoadedWord(word)) {
+				added.add(word);
+			}
+		}
+		if (!added.isEmpty() && LG.isLoggable(Level.INFO)) {
+			LG.info("Added " + added.size() + " words appended to dictionary file " + dictionaryFile);
+		}
+		return added;
+	}
+	
+	/**
+	 * Add a word read from the files of the dictionary, written there by another program.<br />
+	 * Unlike {@link #addWord(String)}, the word does not have to be saved.
+	 * @param word
+	 *        the word, as stored in the dictionary.
+	 * @return <code>true</code> if the word has been added, <code>false</code> if the dictionary
+	 *         already contained it.
+	 */
+	private boolean addLoadedWord (final String word) {
+		if (contains(word)) {
+			return false;
+		}
+		// Update the filter first, so a thread which finds the word in the set also passes the filter
+		filter.add(word);
+		dictionary.add(word);
+		if (spellingIndex != null) {
+			spellingIndex.add(word);
+		}
+		if (filter.getCount() > filter.getCapacity()) {
+			buildFilter();
+		}
+		return true;
+	}
+	
+	/**
+	 * Build the Bloom filter with the current words of the set.<br />
+	 * The filter is sized to allow some words to be added before it has to be rebuilt; editable
+	 * dictionaries get more room, since they are expected to grow. The words of the automaton are
+	 * not visited, so the cost does not depend on the size of a non-editable dictionary.
+	 */
+	private void buildFilter () {
+		final int capacity = (editable ? 2 * dictionary.size() : dictionary.size()) + FILTER_HEADROOM;
+		final BloomFilter newFilter = new BloomFilter(capacity, falsePositiveRate);
+		for (final String word : dictionary) {
+			newFilter.add(word);
+		}
+		filter = newFilter;
+	}
+	
+	/**
+	 * Read the words of a text dictionary file.
+	 * @param dictionaryFile
+	 *        the file to read.
+	 * @param charSet
+	 *        the character set of the file.
+	 * @param caseInsensitive
+	 *        if non-<code>null</code>, the locale used to make the words lower case.
+	 * @return the words read, in the order of the file.
+	 * @throws IOException
+	 *         if there was an issue while reading the file.
+	 */
+	static List<String> readWords (final Path dictionaryFile, final Charset charSet, final Locale caseInsensitive)
+			throws IOException {
+		final List<String> words = new ArrayList<>();
+		readWords(dictionaryFile, charSet, caseInsensitive, words);
+		return words;
+	}
+	
+	/**
+	 * Read the words of a text dictionary file into the specified collection.
+	 * @param dictionaryFile
+	 *        the file to read.
+	 * @param charSet
+	 *        the character set of the file.
+	 * @param caseInsensitive
+	 *        if non-<code>null</code>, the locale used to make the words lower case.
+	 * @param words
+	 *        the collection to fill.
+	 * @throws IOException
+	 *         if there was an issue while reading the file.
+	 */
+	private static void readWords (final Path dictionaryFile, final Charset charSet, final Locale caseInsensitive,
+			final Collection<String> words) throws IOException {
 		try (BufferedReader reader = Files.newBufferedReader(dictionaryFile, charSet)) {
+			readWords(reader, dictionaryFile, caseInsensitive, words);
+		}
+	}
+	
+	/**
+	 * Read the words of a part of the content of a text dictionary file into the specified
+	 * collection.
+	 * @param content
+	 *        the content of the file.
+	 * @param start
+	 *        the index of the first byte to read.
+	 * @param end
+	 *        the index of the last byte to read (exclusive).
+	 * @param dictionaryFile
+	 *        the file read.
+	 * @param charSet
+	 *        the character set of the file.
+	 * @param caseInsensitive
+	 *        if non-<code>null</code>, the locale used to make the words lower case.
+	 * @param words
+	 *        the collection to fill.
+	 * @throws IOException
+	 *         if there was an issue while decoding the content.
+	 */
+	private static void readWords (final byte[] content, final int start, final int end, final Path dictionaryFile,
+			final Charset charSet, final Locale caseInsensitive, final Collection<String> words) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new ByteArrayInputStream(content, start, end - start), charSet))) {
+			readWords(reader, dictionaryFile, caseInsensitive, words);
+		}
+	}
+	
+	/**
+	 * Read the words of a text dictionary into the specified collection.
+	 * @param reader
+	 *        the reader on the dictionary.
+	 * @param dictionaryFile
+	 *        the file read.
+	 * @param caseInsensitive
+	 *        if non-<code>null</code>, the locale used to make the words lower case.
+	 * @param words
+	 *        the collection to fill.
+	 * @throws IOException
+	 *         if there was an issue while reading the file.
+	 */
+	private static void readWords (final BufferedReader reader, final Path dictionaryFile, final Locale caseInsensitive,
+			final Collection<String> words) throws IOException {
+		try {
 			for (;;) {
-				dictionary.add(getLowerCaseWord(IOUtils.readLine(reader).trim()));
+				words.add(getLowerCaseWord(IOUtils.readLine(reader).trim(), caseInsensitive));
 			}
 		} catch (final EOFException e) {
-			if (LG.isLoggable(Level.INFO)) {
-				LG.info("Finished reading dictionary file " + dictionaryFile
-						+ " (" + dictionary.size() + " words)");
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("Finished reading " + words.size() + " words from " + dictionaryFile);
 			}
 		} catch (final IOException e) {
 			LG.warning("Exception while reading dictionary file " + dictionaryFile + ": "
 					+ ExceptionUtils.display(e));
 			throw e;
 		}
-		updated = false;
 	}
 	
 	/**
@@ -152,30 +550,129 @@ public class Dictionary {
 	 * @return the lower case version of the word, if the dictionary is case sensitive.
 	 */
 	private String getLowerCaseWord (final String word) {
-		return isCaseSensitive() ? word : word.toLowerCase(caseInsensitive);
+		return getLowerCaseWord(word, caseInsensitive);
+	}
+	
+	/**
+	 * Return the word to use, depending if the dictionary is case insensitive or not.
+	 * @param word
+	 *        the actual word.
+	 * @param caseInsensitive
+	 *        the locale used to make the word lower case, <code>null</code> if case sensitive.
+	 * @return the lower case version of the word, if the locale is not <code>null</code>.
+	 */
+	static String getLowerCaseWord (final String word, final Locale caseInsensitive) {
+		return caseInsensitive == null ? word : word.toLowerCase(caseInsensitive);
 	}
 	
 	/**
 	 * Save the content of the dictionary to the disk.<br />
-	 * This operation fails if the dictionary has been marked as non-editable.
+	 * The words added since the last save are appended to the journal of the dictionary, which is
+	 * merged in the dictionary file when it becomes too large. This operation fails if the
+	 * dictionary has been marked as non-editable.
 	 * @throws IOException
 	 *         if there was an issue while writing the data.
 	 */
-	public void save () throws IOException {
+	public synchronized void save () throws IOException {
 		if (!editable) {
 			throw new IllegalStateException("Cannot save dictionary which is set as non-editable");
 		}
-		try (BufferedWriter writer = Files.newBufferedWriter(dictionaryFile, charSet)) {
-			for (final String word : dictionary) {
-				writer.write(word);
-				writer.write(System.lineSeparator());
+		try {
+			journal.append(pendingWords);
+		} catch (final IOException e) {
+			LG.warning("Exception while writing journal of dictionary " + dictionaryFile + ": "
+					+ ExceptionUtils.display(e));
+			throw e;
+		}
+		pendingWords.clear();
+		updated = false;
+		if (journal.getEntries() > Math.max(COMPACTION_MIN_ENTRIES, size() / COMPACTION_RATIO)) {
+			compact();
+		}
+	}
+	
+	/**
+	 * Merge the journal in the dictionary file.<br />
+	 * The journal is locked during the merge: the words appended to it by other processes are
+	 * added to the dictionary first. The words are then written, sorted, in a temporary file which
+	 * replaces the dictionary file atomically, and the journal is emptied. This operation fails if
+	 * the dictionary has been marked as non-editable.
+	 * @throws IOException
+	 *         if there was an issue while writing the data.
+	 */
+	public synchronized void compact () throws IOException {
+		if (!editable) {
+			throw new IllegalStateException("Cannot compact dictionary which is set as non-editable");
+		}
+		journal.merge(new DictionaryJournal.Merger() {
+			@Override
+			public void merge (final List<String> words) throws IOException {
+				for (final String word : words) {
+					addLoadedWord(getLowerCaseWord(word.trim()));
+				}
+				writeDictionaryFile();
+			}
+		});
+		// Words not saved yet are now in the dictionary file
+		pendingWords.clear();
+		fileChecksum = null;
+		try {
+			final byte[] content = Files.readAllBytes(dictionaryFile);
+			fileLength = content.length;
+			fileChecksum = new CRC32();
+			fileChecksum.update(content, 0, content.length);
+		} catch (final IOException e) {
+			LG.warning("Could not read back compacted dictionary file " + dictionaryFile + ": "
+					+ ExceptionUtils.display(e));
+		}
+		updated = false;
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Compacted dictionary file " + dictionaryFile + " (" + size() + " words)");
+		}
+	}
+	
+	/**
+	 * Write the words of the set, sorted, in the dictionary file.<br />
+	 * The words are written in a temporary file which then replaces the dictionary file atomically,
+	 * with the permissions of the dictionary file.
+	 * @throws IOException
+	 *         if there was an issue while writing the data.
+	 */
+	private void writeDictionaryFile () throws IOException {
+		final Path temporaryFile = Files.createTempFile(dictionaryFile.toAbsolutePath().getParent(),
+				IOUtils.getFilename(dictionaryFile), null);
+		try {
+			try (final FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE);
+					final BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, charSet.newEncoder(), -1))) {
+				for (final String word : dictionary) {
+					writer.write(word);
+					writer.write(System.lineSeparator());
+				}
+				writer.flush();
+				channel.force(true);
 			}
+			FilePermissions.copyIfExists(dictionaryFile, temporaryFile);
+			Files.move(temporaryFile, dictionaryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
 		} catch (final IOException e) {
 			LG.warning("Exception while writing dictionary file " + dictionaryFile + ": "
 					+ ExceptionUtils.display(e));
 			throw e;
+		} finally {
+			Files.deleteIfExists(temporaryFile);
 		}
-		updated = false;
+	}
+	
+	/**
+	 * Delete the journal of a dictionary whose file has been removed.<br />
+	 * Otherwise, the words of the journal would be added to a new dictionary created later with the
+	 * same file.
+	 * @param dictionaryFile
+	 *        the file of the dictionary, which has been removed.
+	 * @throws IOException
+	 *         if the journal could not be deleted.
+	 */
+	public static void deleteJournal (final Path dictionaryFile) throws IOException {
+		new DictionaryJournal(dictionaryFile).delete();
 	}
 	
 	/**
@@ -202,12 +699,38 @@ public class Dictionary {
 		return caseInsensitive == null;
 	}
 	
+	/**
+	 * Return the locale used to make the words lower case.
+	 * @return the locale of the case insensitive dictionary, <code>null</code> if the dictionary is
+	 *         case sensitive.
+	 */
+	public Locale getCaseInsensitiveLocale () {
+		return caseInsensitive;
+	}
+	
 	/**
 	 * Return the number of words in the dictionary.
 	 * @return the number of words.
 	 */
 	public int size () {
-		return dictionary.size();
+		return automaton == null ? dictionary.size() : automaton.size() + dictionary.size();
+	}
+	
+	/**
+	 * Return the compact words of the dictionary.
+	 * @return the automaton with the words loaded, <code>null</code> if the dictionary is editable.
+	 */
+	WordAutomaton getAutomaton () {
+		return automaton;
+	}
+	
+	/**
+	 * Return the words of the dictionary which are not in its automaton.
+	 * @return an unmodifiable view on the words, as stored (lower case when the dictionary is case
+	 *         insensitive).
+	 */
+	Set<String> getWords () {
+		return Collections.unmodifiableSet(dictionary);
 	}
 	
 	/**
@@ -220,7 +743,150 @@ public class Dictionary {
 		if (word == null) {
 			return false;
 		}
-		return dictionary.contains(getLowerCaseWord(word));
+		return contains(word, 0, word.length());
+	}
+	
+	/**
+	 * Check if the word located between the specified indexes of the sequence is in the
+	 * dictionary.<br />
+	 * The word is not extracted from the sequence: for a case insensitive dictionary, it is made
+	 * lower case while walking the words of the dictionary. No object is allocated, unless the
+	 * dictionary has words outside its compact automaton (words added or editable dictionary), or
+	 * the word requires the specific rules of {@link String#toLowerCase(Locale)}.
+	 * @param sequence
+	 *        the sequence with the word.
+	 * @param start
+	 *        the index of the first character of the word (inclusive).
+	 * @param end
+	 *        the index of the last character of the word (exclusive).
+	 * @return <code>true</code> if the word is in the dictionary.
+	 */
+	public boolean contains (final CharSequence sequence, final int start, final int end) {
+		final WordAutomaton currentAutomaton = automaton;
+		if (currentAutomaton != null && currentAutomaton.contains(sequence, start, end, caseInsensitive)) {
+			return true;
+		}
+		if (dictionary.isEmpty()) {
+			return false;
+		}
+		return dictionary.contains(getLowerCaseWord(sequence.subSequence(start, end).toString()));
+	}
+	
+	/**
+	 * Check, using the Bloom filter of the dictionary, if a word may be in the dictionary.<br />
+	 * The hash must be computed by {@link BloomFilter#hash(CharSequence)} on the word as stored in
+	 * the dictionary, that is in lower case (using {@link #getCaseInsensitiveLocale()}) for case
+	 * insensitive dictionaries. A dictionary with an automaton may contain any word, since the words
+	 * of the automaton are not in the filter.
+	 * @param wordHash
+	 *        the hash of the word.
+	 * @return <code>false</code> if the word is definitely not in the dictionary.
+	 */
+	public boolean mightContain (final long wordHash) {
+		return automaton != null || filter.mightContain(wordHash);
+	}
+	
+	/**
+	 * Check if the Bloom filter of the dictionary covers all its words.<br />
+	 * The words of the automaton are not in the filter, so {@link #mightContain(long)} cannot reject
+	 * any word of a dictionary with an automaton.
+	 * @return <code>true</code> if the dictionary has no automaton.
+	 */
+	public boolean isFiltered () {
+		return automaton == null;
+	}
+	
+	/**
+	 * Find the words of the dictionary within the specified edit distance of a term.<br />
+	 * For a case insensitive dictionary, the term is made lower case and the words returned are
+	 * lower case.
+	 * @param term
+	 *        the term to search.
+	 * @param maxDistance
+	 *        the maximum edit distance between the term and the words returned.
+	 * @return the words within the distance, sorted from the closest to the farthest.
+	 */
+	public List<Suggestion> fuzzySearch (final String term, final int maxDistance) {
+		final String searchedTerm = getLowerCaseWord(Objects.requireNonNull(term).trim());
+		final List<Suggestion> found = new ArrayList<>();
+		final WordAutomaton currentAutomaton = automaton;
+		if (currentAutomaton != null) {
+			found.addAll(currentAutomaton.fuzzySearch(searchedTerm, maxDistance));
+		}
+		if (!dictionary.isEmpty()) {
+			found.addAll(getSpellingIndex().find(searchedTerm, maxDistance));
+		}
+		Collections.sort(found);
+		return found;
+	}
+	
+	/**
+	 * Find the words of the dictionary which are close to a (misspelled) word.<br />
+	 * For a case insensitive dictionary, the words suggested get the case of the misspelled word
+	 * (lower case, capitalized or upper case).
+	 * @param word
+	 *        the misspelled word.
+	 * @param maxDistance
+	 *        the maximum edit distance between the word and the words suggested.
+	 * @return the words within the distance, sorted from the best suggestion to the worst.
+	 * @see #fuzzySearch(String, int)
+	 */
+	public List<Suggestion> suggest (final String word, final int maxDistance) {
+		final String misspelledWord = Objects.requireNonNull(word).trim();
+		final List<Suggestion> suggestions = fuzzySearch(misspelledWord, maxDistance);
+		if (caseInsensitive == null) {
+			return suggestions;
+		}
+		final List<Suggestion> casedSuggestions = new ArrayList<>(suggestions.size());
+		for (final Suggestion suggestion : suggestions) {
+			casedSuggestions.add(new Suggestion(applyCase(misspelledWord, suggestion.getWord()), suggestion.getDistance(),
+					suggestion.getLengthDifference()));
+		}
+		return casedSuggestions;
+	}
+	
+	/**
+	 * Return the index of the words of the set, building it if required.
+	 * @return the spelling index of the dictionary.
+	 */
+	private SpellingIndex getSpellingIndex () {
+		SpellingIndex index = spellingIndex;
+		if (index != null) {
+			return index;
+		}
+		synchronized (this) {
+			if (spellingIndex == null) {
+				final SpellingIndex newIndex = new SpellingIndex();
+				for (final String dictionaryWord : dictionary) {
+					newIndex.add(dictionaryWord);
+				}
+				if (LG.isLoggable(Level.FINE)) {
+					LG.fine("Built spelling index of dictionary " + dictionaryFile + " (" + newIndex.size() + " words)");
+				}
+				spellingIndex = newIndex;
+			}
+			return spellingIndex;
+		}
+	}
+	
+	/**
+	 * Apply the case of a word to a lower case word.
+	 * @param model
+	 *        the word whose case should be used.
+	 * @param word
+	 *        the lower case word.
+	 * @return the word, upper case if the model is upper case, capitalized if the model is
+	 *         capitalized.
+	 */
+	private String applyCase (final String model, final String word) {
+		if (model.isEmpty() || word.isEmpty() || !Character.isUpperCase(model.codePointAt(0))) {
+			return word;
+		}
+		if (model.length() > 1 && model.equals(model.toUpperCase(caseInsensitive))) {
+			return word.toUpperCase(caseInsensitive);
+		}
+		final int firstLength = Character.charCount(word.codePointAt(0));
+		return word.substring(0, firstLength).toUpperCase(caseInsensitive) + word.substring(firstLength);
 	}
 	
 	/**
@@ -230,12 +896,24 @@ public class Dictionary {
 	 * @return <code>true</code> if the word has been added to the set, <code>false</code> if the
 	 *         world was already in it.
 	 */
-	public boolean addWord (final String word) {
+	public synchronized boolean addWord (final String word) {
 		final String wordToAdd = getLowerCaseWord(Objects.requireNonNull(word).trim());
-		if (dictionary.contains(wordToAdd)) {
+		if (automaton != null && automaton.contains(wordToAdd) || dictionary.contains(wordToAdd)) {
 			return false;
 		}
-		updated = dictionary.add(wordToAdd);
-		return updated;
+		// Update the filter first, so a thread which finds the word in the set also passes the filter
+		filter.add(wordToAdd);
+		dictionary.add(wordToAdd);
+		if (spellingIndex != null) {
+			spellingIndex.add(wordToAdd);
+		}
+		if (editable) {
+			pendingWords.add(wordToAdd);
+		}
+		updated = true;
+		if (filter.getCount() > filter.getCapacity()) {
+			buildFilter();
+		}
+		return true;
 	}
 }
@@ -0,0 +1,271 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import com.alexrnl.commons.io.IOUtils;
+
+/**
+ * Reader and writer for the compiled dictionary files.<br />
+ * A compiled dictionary holds the {@link WordAutomaton} of a text dictionary, with its words
+ * already normalized. It is opened by mapping the file in memory, so the words are queried directly
+ * off-heap and opening it does not depend on the size of the dictionary: only the header and the
+ * length of the payload are checked, the checksum of the payload is verified on request (see
+ * {@link #open(Path, Charset, Locale, boolean)}).<br />
+ * Layout of the file:
+ * 
+ * <pre>
+ * header:  magic number (int), version (int), charset of the source (short length + ASCII),
+ *          case folding locale (short length + ASCII language tag, empty if case sensitive),
+ *          CRC32 of the payload (long), payload length (int)
+ * payload: the encoded word automaton
+ * </pre>
+ * 
+ * @author Alex
+ */
+public final class DictionaryCompiler {
+	/** Logger */
+	private static final Logger	LG					= Logger.getLogger(DictionaryCompiler.class.getName());
+	
+	/** The file extension of the compiled dictionaries */
+	public static final String	COMPILED_EXTENSION	= ".dic";
+	/** The magic number at the beginning of a compiled dictionary */
+	private static final int	MAGIC_NUMBER		= 0x53434443;
+	/** The version of the format */
+	private static final int	VERSION				= 1;
+	/** The size of the buffer used to compute the checksum */
+	private static final int	CHECKSUM_BUFFER		= 8192;
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default private constructor to avoid instantiation.
+	 */
+	private DictionaryCompiler () {
+		super();
+	}
+	
+	/**
+	 * Return the path of the compiled file matching a text dictionary.<br />
+	 * The compiled file is located next to the text dictionary.
+	 * @param dictionaryFile
+	 *        the text dictionary.
+	 * @return the path to the compiled dictionary.
+	 */
+	public static Path getCompiledFile (final Path dictionaryFile) {
+		return dictionaryFile.resolveSibling(IOUtils.getFilename(dictionaryFile) + COMPILED_EXTENSION);
+	}
+	
+	/**
+	 * Check if the compiled dictionary exists and is at least as recent as its text dictionary.
+	 * @param dictionaryFile
+	 *        the text dictionary.
+	 * @param compiledFile
+	 *        the compiled dictionary.
+	 * @return <code>true</code> if the compiled file can be used instead of the text dictionary.
+	 * @throws IOException
+	 *         if the modification time of the files cannot be read.
+	 */
+	public static boolean isUpToDate (final Path dictionaryFile, final Path compiledFile) throws IOException {
+		return Files.isRegularFile(compiledFile) && Files.getLastModifiedTime(compiledFile).compareTo(
+				Files.getLastModifiedTime(dictionaryFile)) >= 0;
+	}
+	
+	/**
+	 * Compile a text dictionary into the file returned by {@link #getCompiledFile(Path)}.
+	 * @param dictionaryFile
+	 *        the text dictionary.
+	 * @param charSet
+	 *        the character set of the text dictionary.
+	 * @param caseInsensitive
+	 *        if non-<code>null</code>, the locale used to make the words lower case.
+	 * @return the automaton which has been compiled.
+	 * @throws IOException
+	 *         if the text dictionary could not be read or the compiled one written.
+	 */
+	public static WordAutomaton compile (final Path dictionaryFile, final Charset charSet, final Locale caseInsensitive)
+			throws IOException {
+		final WordAutomaton automaton = WordAutomaton.build(Dictionary.readWords(dictionaryFile, charSet, caseInsensitive));
+		write(automaton, charSet, caseInsensitive, getCompiledFile(dictionaryFile));
+		return automaton;
+	}
+	
+	/**
+	 * Write an automaton in a compiled dictionary file.<br />
+	 * The data is first written in a temporary file, which then replaces the target atomically, so
+	 * a reader never sees a partially written dictionary. The file keeps the permissions of the file
+	 * it replaces.
+	 * @param automaton
+	 *        the automaton to write.
+	 * @param charSet
+	 *        the character set of the text dictionary.
+	 * @param caseInsensitive
+	 *        the locale used to make the words lower case, <code>null</code> if the words are case
+	 *        sensitive.
+	 * @param compiledFile
+	 *        the target file.
+	 * @throws IOException
+	 *         if the file could not be written.
+	 */
+	public static void write (final WordAutomaton automaton, final Charset charSet, final Locale caseInsensitive,
+			final Path compiledFile) throws IOException {
+		final ByteBuffer payload = automaton.getBuffer();
+		final long checksum = getChecksum(payload);
+		
+		final byte[] charSetName = charSet.name().getBytes(StandardCharsets.US_ASCII);
+		final byte[] localeTag = getLocaleTag(caseInsensitive).getBytes(StandardCharsets.US_ASCII);
+		final ByteBuffer header = ByteBuffer.allocate(2 * Integer.SIZE / Byte.SIZE + 2 * Short.SIZE / Byte.SIZE
+				+ charSetName.length + localeTag.length + Long.SIZE / Byte.SIZE + Integer.SIZE / Byte.SIZE);
+		header.putInt(MAGIC_NUMBER).putInt(VERSION);
+		header.putShort((short) charSetName.length).put(charSetName);
+		header.putShort((short) localeTag.length).put(localeTag);
+		header.putLong(checksum).putInt(payload.remaining());
+		header.flip();
+		
+		final Path temporaryFile = Files.createTempFile(compiledFile.toAbsolutePath().getParent(),
+				IOUtils.getFilename(compiledFile), COMPILED_EXTENSION);
+		try {
+			try (final FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+				while (payload.hasRemaining()) {
+					channel.write(payload);
+				}
+				channel.force(true);
+			}
+			FilePermissions.copyIfExists(compiledFile, temporaryFile);
+			Files.move(temporaryFile, compiledFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Compiled dictionary " + compiledFile + " written (" + automaton.size() + " words)");
+		}
+	}
+	
+	/**
+	 * Open a compiled dictionary by mapping it in memory, without verifying the checksum of its
+	 * payload.
+	 * @param compiledFile
+	 *        the compiled dictionary.
+	 * @param charSet
+	 *        the expected character set of the text dictionary.
+	 * @param caseInsensitive
+	 *        the expected locale used to make the words lower case, <code>null</code> if the words
+	 *        should be case sensitive.
+	 * @return the automaton of the compiled dictionary.
+	 * @throws IOException
+	 *         if the file could not be read, is truncated, or has been compiled with other
+	 *         parameters.
+	 * @see #open(Path, Charset, Locale, boolean)
+	 */
+	public static WordAutomaton open (final Path compiledFile, final Charset charSet, final Locale caseInsensitive)
+			throws IOException {
+		return open(compiledFile, charSet, caseInsensitive, false);
+	}
+	
+	/**
+	 * Open a compiled dictionary by mapping it in memory.<br />
+	 * Verifying the checksum reads the whole payload, so the time to open the dictionary then
+	 * depends on its size.
+	 * @param compiledFile
+	 *        the compiled dictionary.
+	 * @param charSet
+	 *        the expected character set of the text dictionary.
+	 * @param caseInsensitive
+	 *        the expected locale used to make the words lower case, <code>null</code> if the words
+	 *        should be case sensitive.
+	 * @param verifyChecksum
+	 *        <code>true</code> if the checksum of the payload should be verified.
+	 * @return the automaton of the compiled dictionary.
+	 * @throws IOException
+	 *         if the file could not be read, is corrupted, or has been compiled with other
+	 *         parameters.
+	 */
+	public static WordAutomaton open (final Path compiledFile, final Charset charSet, final Locale caseInsensitive,
+			final boolean verifyChecksum) throws IOException {
+		Objects.requireNonNull(charSet);
+		final MappedByteBuffer buffer;
+		try (final FileChannel channel = FileChannel.open(compiledFile, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		try {
+			if (buffer.getInt() != MAGIC_NUMBER || buffer.getInt() != VERSION) {
+				throw new IOException("File " + compiledFile + " is not a compiled dictionary or has an unsupported version");
+			}
+			final String charSetName = readString(buffer);
+			final String localeTag = readString(buffer);
+			if (!charSet.name().equals(charSetName) || !getLocaleTag(caseInsensitive).equals(localeTag)) {
+				throw new IOException("Compiled dictionary " + compiledFile + " was built with charset " + charSetName
+						+ " and locale '" + localeTag + "', but " + charSet + " and '" + getLocaleTag(caseInsensitive)
+						+ "' are expected");
+			}
+			final long expectedChecksum = buffer.getLong();
+			final int length = buffer.getInt();
+			if (length != buffer.remaining()) {
+				throw new IOException("Compiled dictionary " + compiledFile + " is truncated");
+			}
+			if (verifyChecksum && getChecksum(buffer) != expectedChecksum) {
+				throw new IOException("Checksum of compiled dictionary " + compiledFile + " does not match");
+			}
+			return new WordAutomaton(buffer);
+		} catch (final RuntimeException e) {
+			// Buffer underflow or invalid data
+			throw new IOException("Compiled dictionary " + compiledFile + " is corrupted", e);
+		}
+	}
+	
+	/**
+	 * Return the language tag of the case folding locale.
+	 * @param caseInsensitive
+	 *        the locale, may be <code>null</code>.
+	 * @return the language tag of the locale, or an empty string if the locale is <code>null</code>.
+	 */
+	private static String getLocaleTag (final Locale caseInsensitive) {
+		return caseInsensitive == null ? "" : caseInsensitive.toLanguageTag();
+	}
+	
+	/**
+	 * Read an ASCII string, prefixed by its length, from the buffer.
+	 * @param buffer
+	 *        the buffer to read.
+	 * @return the string read.
+	 */
+	private static String readString (final ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.getShort()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.US_ASCII);
+	}
+	
+	/**
+	 * Compute the checksum of the remaining bytes of a buffer.<br />
+	 * The position of the buffer is not modified.
+	 * @param buffer
+	 *        the buffer to read.
+	 * @return the CRC32 of the remaining bytes.
+	 */
+	static long getChecksum (final ByteBuffer buffer) {
+		final ByteBuffer data = buffer.duplicate();
+		final CRC32 checksum = new CRC32();
+		final byte[] chunk = new byte[CHECKSUM_BUFFER];
+		while (data.hasRemaining()) {
+			final int length = Math.min(chunk.length, data.remaining());
+			data.get(chunk, 0, length);
+			checksum.update(chunk, 0, length);
+		}
+		return checksum.getValue();
+	}
+}
@@ -0,0 +1,193 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lookup index merging the words of several dictionaries.<br />
+ * Every word is stored under its key, which is the word made lower case with the locale of the
+ * case insensitive dictionaries. A lookup thus only normalizes the word once, whatever the number
+ * of dictionaries merged:
+ * <ul>
+ * <li>the compact automata of the case insensitive dictionaries are probed with the key, they are
+ * not copied in the index;</li>
+ * <li>the other words are probed in a single hash map, which records for each key if any case is
+ * accepted, or the exact forms of the case sensitive words.</li>
+ * </ul>
+ * The dictionaries merged must all use the same locale when they are case insensitive.<br />
+ * The index is thread-safe: lookups do not take any lock, and words can be added concurrently.
+ * @author Alex
+ */
+public final class DictionaryIndex {
+	/** Marker for the keys which are accepted whatever their case */
+	private static final Set<String>					ANY_CASE		= Collections.emptySet();
+	
+	/** The locale used to compute the keys, <code>null</code> if the words are used as is */
+	private final Locale								caseInsensitive;
+	/** The automata of the case insensitive dictionaries */
+	private final List<WordAutomaton>					automata;
+	/** The words which are not in the automata, with the forms accepted for each key */
+	private final ConcurrentMap<String, Set<String>>	words;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param caseInsensitive
+	 *        the locale used to compute the keys.
+	 */
+	private DictionaryIndex (final Locale caseInsensitive) {
+		super();
+		this.caseInsensitive = caseInsensitive;
+		this.automata = new ArrayList<>();
+		this.words = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * Build the index merging the specified dictionaries.
+	 * @param dictionaries
+	 *        the dictionaries to merge.
+	 * @return the index, or <code>null</code> if the dictionaries cannot be merged, because the
+	 *         case insensitive dictionaries use different locales.
+	 */
+	public static DictionaryIndex build (final Collection<Dictionary> dictionaries) {
+		Locale locale = null;
+		for (final Dictionary dictionary : dictionaries) {
+			final Locale dictionaryLocale = dictionary.getCaseInsensitiveLocale();
+			if (dictionaryLocale != null) {
+				if (locale != null && !locale.equals(dictionaryLocale)) {
+					return null;
+				}
+				locale = dictionaryLocale;
+			}
+		}
+		
+		final DictionaryIndex index = new DictionaryIndex(locale);
+		for (final Dictionary dictionary : dictionaries) {
+			index.addDictionary(dictionary);
+		}
+		return index;
+	}
+	
+	/**
+	 * Add the words of a dictionary to the index.
+	 * @param dictionary
+	 *        the dictionary to add.
+	 */
+	private void addDictionary (final Dictionary dictionary) {
+		final boolean caseSensitive = dictionary.isCaseSensitive();
+		final WordAutomaton automaton = dictionary.getAutomaton();
+		if (automaton != null) {
+			if (caseSensitive) {
+				automaton.visitWords(new WordAutomaton.WordVisitor() {
+					@Override
+					public void visitWord (final byte[] utf8Word, final int length) {
+						addWord(new String(utf8Word, 0, length, StandardCharsets.UTF_8), true);
+					}
+				});
+			} else {
+				automata.add(automaton);
+			}
+		}
+		for (final String word : dictionary.getWords()) {
+			addWord(word, caseSensitive);
+		}
+	}
+	
+	/**
+	 * Add a word to the index.
+	 * @param word
+	 *        the word, as stored in its dictionary.
+	 * @param caseSensitive
+	 *        <code>true</code> if only this exact form of the word must be accepted.
+	 */
+	private void addWord (final String word, final boolean caseSensitive) {
+		final String key = getKey(word);
+		if (!caseSensitive) {
+			words.put(key, ANY_CASE);
+			return;
+		}
+		Set<String> forms = words.get(key);
+		if (forms == null) {
+			final Set<String> newForms = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(2));
+			newForms.add(word);
+			forms = words.putIfAbsent(key, newForms);
+			if (forms == null) {
+				return;
+			}
+		}
+		if (forms != ANY_CASE) {
+			forms.add(word);
+		}
+	}
+	
+	/**
+	 * Add a word which has just been added to one of the dictionaries of the index.<br />
+	 * The word is normalized like the dictionary does.
+	 * @param dictionary
+	 *        the dictionary the word has been added to.
+	 * @param word
+	 *        the word added.
+	 */
+	public void addWord (final Dictionary dictionary, final String word) {
+		final String storedWord = Dictionary.getLowerCaseWord(Objects.requireNonNull(word).trim(),
+				dictionary.getCaseInsensitiveLocale());
+		addWord(storedWord, dictionary.isCaseSensitive());
+	}
+	
+	/**
+	 * Compute the key of a word.
+	 * @param word
+	 *        the word.
+	 * @return the key of the word.
+	 */
+	private String getKey (final String word) {
+		return Dictionary.getLowerCaseWord(word, caseInsensitive);
+	}
+	
+	/**
+	 * Check if the word is in any of the dictionaries of the index.
+	 * @param word
+	 *        the word to check.
+	 * @return <code>true</code> if the word is in the index.
+	 */
+	public boolean contains (final String word) {
+		if (word == null) {
+			return false;
+		}
+		return contains(word, 0, word.length());
+	}
+	
+	/**
+	 * Check if the word located between the specified indexes of the sequence is in any of the
+	 * dictionaries of the index.<br />
+	 * The automata are probed without extracting the word; the word is only extracted when the
+	 * index contains words outside the automata.
+	 * @param sequence
+	 *        the sequence with the word.
+	 * @param start
+	 *        the index of the first character of the word (inclusive).
+	 * @param end
+	 *        the index of the last character of the word (exclusive).
+	 * @return <code>true</code> if the word is in the index.
+	 */
+	public boolean contains (final CharSequence sequence, final int start, final int end) {
+		for (final WordAutomaton automaton : automata) {
+			if (automaton.contains(sequence, start, end, caseInsensitive)) {
+				return true;
+			}
+		}
+		if (words.isEmpty()) {
+			return false;
+		}
+		final String word = sequence.subSequence(start, end).toString();
+		final Set<String> forms = words.get(getKey(word));
+		return forms != null && (forms == ANY_CASE || forms.contains(word));
+	}
+}
@@ -0,0 +1,287 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only journal of the words added to a dictionary.<br />
+ * The journal is located next to the dictionary file; it contains one word per line, encoded in
+ * UTF-8. Each append is a single write followed by a single synchronization with the disk, so
+ * saving a batch of words costs only the size of the batch. If the process dies while appending,
+ * the incomplete entry at the end of the journal is ignored, and removed on the next append.<br />
+ * The journal may be shared by several processes: the appends and the merges hold an
+ * exclusive lock on the file, and the reads a shared one. The end of the journal is always taken
+ * from the file itself, never from what this instance has written, and the journal is emptied
+ * rather than deleted, so a process waiting for the lock never writes to a file which has been
+ * removed.
+ * @author Alex
+ */
+final class DictionaryJournal {
+	/** Logger */
+	private static final Logger						LG					= Logger.getLogger(DictionaryJournal.class.getName());
+	
+	/** The extension added to the dictionary file name to get its journal */
+	static final String								JOURNAL_EXTENSION	= ".journal";
+	/** The separator of the entries */
+	private static final byte						SEPARATOR			= '\n';
+	/** The number of bytes read at once when looking for the end of the last complete entry */
+	private static final int						TAIL_CHUNK			= 256;
+	/** The locks of the journals within this process, as a file lock is held by the whole process */
+	private static final ConcurrentMap<Path, Lock>	LOCAL_LOCKS			= new ConcurrentHashMap<>();
+	
+	/** The journal file */
+	private final Path								journalFile;
+	/** The lock of the journal within this process */
+	private final Lock								localLock;
+	/** The number of entries in the journal */
+	private int										entries;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param dictionaryFile
+	 *        the dictionary file.
+	 */
+	DictionaryJournal (final Path dictionaryFile) {
+		super();
+		journalFile = getJournalFile(dictionaryFile);
+		final Path key = journalFile.toAbsolutePath().normalize();
+		LOCAL_LOCKS.putIfAbsent(key, new ReentrantLock());
+		localLock = LOCAL_LOCKS.get(key);
+		entries = 0;
+	}
+	
+	/**
+	 * Return the path of the journal of a dictionary.
+	 * @param dictionaryFile
+	 *        the dictionary file.
+	 * @return the path to the journal.
+	 */
+	static Path getJournalFile (final Path dictionaryFile) {
+		return dictionaryFile.resolveSibling(dictionaryFile.getFileName() + JOURNAL_EXTENSION);
+	}
+	
+	/**
+	 * Read the words of the journal.
+	 * @return the words of the complete entries, in the order they were appended.
+	 * @throws IOException
+	 *         if the journal could not be read.
+	 */
+	List<String> read () throws IOException {
+		entries = 0;
+		if (!Files.exists(journalFile)) {
+			return new ArrayList<>();
+		}
+		localLock.lock();
+		try (final FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+			final FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+			try {
+				final List<String> words = readEntries(channel);
+				entries = words.size();
+				if (LG.isLoggable(Level.FINE)) {
+					LG.fine("Read " + entries + " words from journal " + journalFile);
+				}
+				return words;
+			} finally {
+				lock.release();
+			}
+		} finally {
+			localLock.unlock();
+		}
+	}
+	
+	/**
+	 * Append words to the journal, and synchronize it with the disk.<br />
+	 * An incomplete entry at the end of the journal is removed first, so the words start on a new
+	 * line.
+	 * @param words
+	 *        the words to append.
+	 * @throws IOException
+	 *         if the words could not be written.
+	 */
+	void append (final Collection<String> words) throws IOException {
+		if (words.isEmpty()) {
+			return;
+		}
+		final StringBuilder batch = new StringBuilder();
+		for (final String word : words) {
+			batch.append(word).append((char) SEPARATOR);
+		}
+		final ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(batch));
+		localLock.lock();
+		try (final FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			final FileLock lock = channel.lock();
+			try {
+				// Drop any incomplete entry left by an interrupted append, of this process or another one
+				final long size = channel.size();
+				final long validLength = getValidLength(size);
+				if (validLength < size) {
+					LG.warning("Removing incomplete entry at the end of journal " + journalFile);
+					channel.truncate(validLength);
+				}
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(false);
+			} finally {
+				lock.release();
+			}
+		} finally {
+			localLock.unlock();
+		}
+		entries += words.size();
+	}
+	
+	/**
+	 * Merge the journal in the dictionary file, and empty it.<br />
+	 * The journal is locked during the whole merge, so the words appended by the other processes
+	 * are either given to the merger, or appended once the journal has been emptied.
+	 * @param merger
+	 *        the merger, which writes the words of the journal in the dictionary file.
+	 * @throws IOException
+	 *         if the journal could not be read or emptied, or if the merge failed (the journal is
+	 *         then left unchanged).
+	 */
+	void merge (final Merger merger) throws IOException {
+		localLock.lock();
+		try (final FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			final FileLock lock = channel.lock();
+			try {
+				merger.merge(readEntries(channel));
+				channel.truncate(0);
+				channel.force(false);
+			} finally {
+				lock.release();
+			}
+		} finally {
+			localLock.unlock();
+		}
+		entries = 0;
+	}
+	
+	/**
+	 * Delete the journal, once the dictionary file has been removed.
+	 * @throws IOException
+	 *         if the journal could not be deleted.
+	 */
+	void delete () throws IOException {
+		localLock.lock();
+		try {
+			Files.deleteIfExists(journalFile);
+		} finally {
+			localLock.unlock();
+		}
+		entries = 0;
+	}
+	
+	/**
+	 * Return the number of entries in the journal.
+	 * @return the number of entries.
+	 */
+	int getEntries () {
+		return entries;
+	}
+	
+	/**
+	 * Read the complete entries of the journal.
+	 * @param channel
+	 *        the channel on the journal, locked.
+	 * @return the words of the complete entries.
+	 * @throws IOException
+	 *         if the journal could not be read.
+	 */
+	private List<String> readEntries (final FileChannel channel) throws IOException {
+		final long size = channel.size();
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Journal " + journalFile + " is too large (" + size + " bytes)");
+		}
+		final ByteBuffer content = ByteBuffer.allocate((int) size);
+		while (content.hasRemaining()) {
+			if (channel.read(content, content.position()) < 0) {
+				break;
+			}
+		}
+		int end = content.position();
+		while (end > 0 && content.get(end - 1) != SEPARATOR) {
+			end--;
+		}
+		if (end < content.position()) {
+			LG.warning("Ignoring incomplete entry at the end of journal " + journalFile);
+		}
+		final String text = new String(content.array(), 0, end, StandardCharsets.UTF_8);
+		final List<String> words = new ArrayList<>();
+		int start = 0;
+		for (int index = text.indexOf(SEPARATOR); index >= 0; index = text.indexOf(SEPARATOR, start)) {
+			words.add(text.substring(start, index));
+			start = index + 1;
+		}
+		return words;
+	}
+	
+	/**
+	 * Compute the length of the complete entries of the journal, from the end of the file.
+	 * @param size
+	 *        the size of the journal.
+	 * @return the index after the last separator of the journal, 0 if it has none.
+	 * @throws IOException
+	 *         if the journal could not be read.
+	 */
+	private long getValidLength (final long size) throws IOException {
+		if (size == 0) {
+			return 0;
+		}
+		try (final FileChannel reader = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+			final ByteBuffer chunk = ByteBuffer.allocate(TAIL_CHUNK);
+			long end = size;
+			while (end > 0) {
+				final long start = Math.max(0, end - TAIL_CHUNK);
+				chunk.clear();
+				chunk.limit((int) (end - start));
+				while (chunk.hasRemaining()) {
+					if (reader.read(chunk, start + chunk.position()) < 0) {
+						break;
+					}
+				}
+				for (int index = chunk.position() - 1; index >= 0; index--) {
+					if (chunk.get(index) == SEPARATOR) {
+						return start + index + 1;
+					}
+				}
+				end = start;
+			}
+			return 0;
+		}
+	}
+	
+	/**
+	 * Interface for the merge of the journal in the dictionary file.
+	 * @author Alex
+	 */
+	interface Merger {
+		/**
+		 * Write the words of the journal in the dictionary file.
+		 * @param words
+		 *        the words of the complete entries of the journal.
+		 * @throws IOException
+		 *         if the dictionary file could not be written.
+		 */
+		void merge (List<String> words) throws IOException;
+	}
+}
@@ -0,0 +1,291 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.io.IOUtils;
+
+/**
+ * Single file holding the compiled dictionaries of several locales.<br />
+ * The segment is mapped read-only in memory: when several processes of the same host open the
+ * same segment, the operating system keeps a single copy of the dictionaries in its page cache,
+ * whatever the number of processes. Each dictionary is stored as a {@link WordAutomaton} which is
+ * queried directly in the mapped file. Only the entries are checked when the segment is opened,
+ * the checksums of the dictionaries are verified on request (see
+ * {@link #open(Path, Charset, boolean)}).<br />
+ * Layout of the file:
+ * 
+ * <pre>
+ * header:  magic number (int), version (int), dictionary count (int)
+ * entry:   locale (short length + ASCII language tag), charset of the source (short length +
+ *          ASCII), modification time of the source (long, milliseconds), CRC32 of the automaton
+ *          (long), offset of the automaton (long), length of the automaton (int)
+ * payload: the encoded word automata, at the offsets of the entries
+ * </pre>
+ * 
+ * The words of each dictionary are made lower case with the locale of the dictionary.
+ * @author Alex
+ */
+public final class DictionarySegment {
+	/** Logger */
+	private static final Logger					LG						= Logger.getLogger(DictionarySegment.class.getName());
+	
+	/** The file extension of the segments */
+	public static final String					SEGMENT_EXTENSION		= ".seg";
+	
+	/** The magic number at the beginning of a segment */
+	private static final int					MAGIC_NUMBER			= 0x53434453;
+	/** The version of the format */
+	private static final int					VERSION					= 1;
+	/** The alignment of the automata in the segment */
+	private static final int					ALIGNMENT				= 8;
+	
+	/** The automaton of each locale */
+	private final Map<Locale, WordAutomaton>	automata;
+	/** The modification time of the source of each dictionary */
+	private final Map<Locale, Long>				sourceModificationTimes;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param automata
+	 *        the automaton of each locale.
+	 * @param sourceModificationTimes
+	 *        the modification time of the source of each dictionary.
+	 */
+	private DictionarySegment (final Map<Locale, WordAutomaton> automata, final Map<Locale, Long> sourceModificationTimes) {
+		super();
+		this.automata = Collections.unmodifiableMap(automata);
+		this.sourceModificationTimes = sourceModificationTimes;
+	}
+	
+	/**
+	 * Write a segment with the specified locale dictionaries.<br />
+	 * The data is first written in a temporary file, which then replaces the target atomically, so
+	 * the processes which already mapped the previous segment can keep using it. The segment keeps
+	 * the permissions of the segment it replaces.
+	 * @param segmentFile
+	 *        the segment to write.
+	 * @param dictionaryFiles
+	 *        the text dictionary of each locale.
+	 * @param charSet
+	 *        the character set of the text dictionaries.
+	 * @throws IOException
+	 *         if a text dictionary could not be read or the segment written.
+	 */
+	public static void write (final Path segmentFile, final Map<Locale, Path> dictionaryFiles, final Charset charSet)
+			throws IOException {
+		final List<byte[]> entries = new ArrayList<>();
+		final List<ByteBuffer> payloads = new ArrayList<>();
+		int headerSize = 3 * Integer.SIZE / Byte.SIZE;
+		for (final Entry<Locale, Path> dictionary : dictionaryFiles.entrySet()) {
+			final WordAutomaton automaton = WordAutomaton.build(Dictionary.readWords(dictionary.getValue(), charSet,
+					dictionary.getKey()));
+			final ByteBuffer payload = automaton.getBuffer();
+			final byte[] localeTag = dictionary.getKey().toLanguageTag().getBytes(StandardCharsets.US_ASCII);
+			final byte[] charSetName = charSet.name().getBytes(StandardCharsets.US_ASCII);
+			final ByteBuffer entry = ByteBuffer.allocate(2 * Short.SIZE / Byte.SIZE + localeTag.length + charSetName.length
+					+ 3 * Long.SIZE / Byte.SIZE + Integer.SIZE / Byte.SIZE);
+			entry.putShort((short) localeTag.length).put(localeTag);
+			entry.putShort((short) charSetName.length).put(charSetName);
+			entry.putLong(Files.getLastModifiedTime(dictionary.getValue()).toMillis());
+			entry.putLong(DictionaryCompiler.getChecksum(payload));
+			// The offset is filled once the size of the header is known
+			entry.putLong(0).putInt(payload.remaining());
+			entries.add(entry.array());
+			payloads.add(payload);
+			headerSize += entry.capacity();
+		}
+		
+		final ByteBuffer header = ByteBuffer.allocate(headerSize);
+		header.putInt(MAGIC_NUMBER).putInt(VERSION).putInt(entries.size());
+		long offset = align(headerSize);
+		final List<Long> offsets = new ArrayList<>();
+		for (int index = 0; index < entries.size(); index++) {
+			final ByteBuffer entry = ByteBuffer.wrap(entries.get(index));
+			entry.putLong(entry.capacity() - Long.SIZE / Byte.SIZE - Integer.SIZE / Byte.SIZE, offset);
+			header.put(entry);
+			offsets.add(offset);
+			offset = align(offset + payloads.get(index).remaining());
+		}
+		header.flip();
+		
+		final Path temporaryFile = Files.createTempFile(segmentFile.toAbsolutePath().getParent(),
+				IOUtils.getFilename(segmentFile), null);
+		try {
+			try (final FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+				for (int index = 0; index < payloads.size(); index++) {
+					final ByteBuffer payload = payloads.get(index);
+					long position = offsets.get(index);
+					while (payload.hasRemaining()) {
+						position += channel.write(payload, position);
+					}
+				}
+				channel.force(true);
+			}
+			FilePermissions.copyIfExists(segmentFile, temporaryFile);
+			Files.move(temporaryFile, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Dictionary segment " + segmentFile + " written with locales " + dictionaryFiles.keySet());
+		}
+	}
+	
+	/**
+	 * Open a segment by mapping it in memory, without verifying the checksums of its dictionaries.
+	 * @param segmentFile
+	 *        the segment to open.
+	 * @param charSet
+	 *        the expected character set of the text dictionaries.
+	 * @return the segment opened.
+	 * @throws IOException
+	 *         if the file could not be read, is truncated, or has been built with another character
+	 *         set.
+	 * @see #open(Path, Charset, boolean)
+	 */
+	public static DictionarySegment open (final Path segmentFile, final Charset charSet) throws IOException {
+		return open(segmentFile, charSet, false);
+	}
+	
+	/**
+	 * Open a segment by mapping it in memory.<br />
+	 * Verifying the checksums reads all the dictionaries, so the time to open the segment then
+	 * depends on its size.
+	 * @param segmentFile
+	 *        the segment to open.
+	 * @param charSet
+	 *        the expected character set of the text dictionaries.
+	 * @param verifyChecksums
+	 *        <code>true</code> if the checksum of each dictionary should be verified.
+	 * @return the segment opened.
+	 * @throws IOException
+	 *         if the file could not be read, is corrupted, or has been built with another character
+	 *         set.
+	 */
+	public static DictionarySegment open (final Path segmentFile, final Charset charSet, final boolean verifyChecksums)
+			throws IOException {
+		Objects.requireNonNull(charSet);
+		final MappedByteBuffer buffer;
+		try (final FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		try {
+			if (buffer.getInt() != MAGIC_NUMBER || buffer.getInt() != VERSION) {
+				throw new IOException("File " + segmentFile + " is not a dictionary segment or has an unsupported version");
+			}
+			final int count = buffer.getInt();
+			final Map<Locale, WordAutomaton> automata = new HashMap<>();
+			final Map<Locale, Long> sourceModificationTimes = new HashMap<>();
+			for (int index = 0; index < count; index++) {
+				final Locale locale = Locale.forLanguageTag(readString(buffer));
+				final String charSetName = readString(buffer);
+				if (!charSet.name().equals(charSetName)) {
+					throw new IOException("Dictionary " + locale + " of segment " + segmentFile + " was built with charset "
+							+ charSetName + ", but " + charSet + " is expected");
+				}
+				final long sourceModificationTime = buffer.getLong();
+				final long expectedChecksum = buffer.getLong();
+				final long offset = buffer.getLong();
+				final int length = buffer.getInt();
+				if (offset < 0 || offset + length > buffer.capacity()) {
+					throw new IOException("Segment " + segmentFile + " is truncated");
+				}
+				final ByteBuffer payload = buffer.duplicate();
+				payload.limit((int) offset + length).position((int) offset);
+				if (verifyChecksums && DictionaryCompiler.getChecksum(payload) != expectedChecksum) {
+					throw new IOException("Checksum of dictionary " + locale + " in segment " + segmentFile
+							+ " does not match");
+				}
+				automata.put(locale, new WordAutomaton(payload));
+				sourceModificationTimes.put(locale, sourceModificationTime);
+			}
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Mapped dictionary segment " + segmentFile + " with locales " + automata.keySet());
+			}
+			return new DictionarySegment(automata, sourceModificationTimes);
+		} catch (final RuntimeException e) {
+			// Buffer underflow or invalid data
+			throw new IOException("Segment " + segmentFile + " is corrupted", e);
+		}
+	}
+	
+	/**
+	 * Align an offset on the alignment of the automata.
+	 * @param offset
+	 *        the offset.
+	 * @return the smallest aligned offset greater or equal to the offset.
+	 */
+	private static long align (final long offset) {
+		return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+	
+	/**
+	 * Read an ASCII string, prefixed by its length, from the buffer.
+	 * @param buffer
+	 *        the buffer to read.
+	 * @return the string read.
+	 */
+	private static String readString (final ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.getShort()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.US_ASCII);
+	}
+	
+	/**
+	 * Return the locales of the dictionaries of the segment.
+	 * @return the locales.
+	 */
+	public Set<Locale> getLocales () {
+		return automata.keySet();
+	}
+	
+	/**
+	 * Return the automaton with the words of a locale dictionary.
+	 * @param locale
+	 *        the locale of the dictionary.
+	 * @return the automaton, or <code>null</code> if the segment has no dictionary for this locale.
+	 */
+	public WordAutomaton getAutomaton (final Locale locale) {
+		return automata.get(locale);
+	}
+	
+	/**
+	 * Check if the dictionary of a locale is at least as recent as its text dictionary.
+	 * @param locale
+	 *        the locale of the dictionary.
+	 * @param dictionaryFile
+	 *        the text dictionary.
+	 * @return <code>true</code> if the segment has a dictionary for this locale, and the text
+	 *         dictionary does not exist or has not been modified since the segment was written.
+	 * @throws IOException
+	 *         if the modification time of the text dictionary cannot be read.
+	 */
+	public boolean isUpToDate (final Locale locale, final Path dictionaryFile) throws IOException {
+		final Long sourceModificationTime = sourceModificationTimes.get(locale);
+		return sourceModificationTime != null && (!Files.exists(dictionaryFile)
+				|| Files.getLastModifiedTime(dictionaryFile).toMillis() <= sourceModificationTime);
+	}
+}
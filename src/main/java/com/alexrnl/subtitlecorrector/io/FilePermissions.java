@@ -0,0 +1,59 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+
+/**
+ * Helper to keep the permissions of the files replaced by a temporary file.<br />
+ * The files are written in a temporary file which then replaces the file, so the file is never
+ * partially written. The temporary files are only readable by their owner, so they must take the
+ * permissions of the file they replace, otherwise a file shared with other users would become
+ * private after its first update.
+ * @author Alex
+ */
+public final class FilePermissions {
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default private constructor to avoid instantiation.
+	 */
+	private FilePermissions () {
+		super();
+	}
+	
+	/**
+	 * Copy the permissions of a file to another.<br />
+	 * Nothing is copied when the file systems do not support POSIX permissions.
+	 * @param source
+	 *        the file to copy the permissions from.
+	 * @param target
+	 *        the file to set the permissions to.
+	 * @throws IOException
+	 *         if the permissions could not be read or set.
+	 */
+	public static void copy (final Path source, final Path target) throws IOException {
+		if (Files.getFileAttributeView(source, PosixFileAttributeView.class) == null
+				|| Files.getFileAttributeView(target, PosixFileAttributeView.class) == null) {
+			return;
+		}
+		Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+	}
+	
+	/**
+	 * Copy the permissions of a file to the temporary file which is about to replace it.<br />
+	 * Nothing is done when the file does not exist yet.
+	 * @param file
+	 *        the file to replace.
+	 * @param temporaryFile
+	 *        the temporary file which replaces it.
+	 * @throws IOException
+	 *         if the permissions could not be read or set.
+	 */
+	public static void copyIfExists (final Path file, final Path temporaryFile) throws IOException {
+		if (Files.exists(file)) {
+			copy(file, temporaryFile);
+		}
+	}
+}
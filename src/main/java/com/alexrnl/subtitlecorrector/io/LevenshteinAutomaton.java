@@ -0,0 +1,112 @@
+package com.alexrnl.subtitlecorrector.io;
+
+/**
+ * Automaton which accepts the words within a maximum edit distance (Levenshtein) of a term.<br />
+ * A state of the automaton is a row of the edit distance matrix: the value at index <i>i</i> is the
+ * distance between the first <i>i</i> code points of the term and the word read so far. Reading a
+ * code point computes the next row. Since the values of a row can only grow with the following
+ * code points, no word starting with the prefix read can be accepted once all the values exceed
+ * the maximum distance; this is what allows to walk another automaton along with this one, and to
+ * skip all the words sharing a prefix which is too far from the term.<br />
+ * The rows are arrays provided by the caller, so walking the automaton does not allocate any object.
+ * @author Alex
+ */
+final class LevenshteinAutomaton {
+	/** The code points of the term */
+	private final int[]	term;
+	/** The maximum edit distance of the words accepted */
+	private final int	maxDistance;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param term
+	 *        the term to search.
+	 * @param maxDistance
+	 *        the maximum edit distance of the words accepted.
+	 */
+	LevenshteinAutomaton (final CharSequence term, final int maxDistance) {
+		super();
+		if (maxDistance < 0) {
+			throw new IllegalArgumentException("The maximum distance cannot be negative (" + maxDistance + ")");
+		}
+		final String word = term.toString();
+		this.term = new int[word.codePointCount(0, word.length())];
+		for (int index = 0, offset = 0; index < this.term.length; index++) {
+			this.term[index] = word.codePointAt(offset);
+			offset += Character.charCount(this.term[index]);
+		}
+		this.maxDistance = maxDistance;
+	}
+	
+	/**
+	 * Return the size of the rows of the automaton.
+	 * @return the number of values in a row.
+	 */
+	int getRowSize () {
+		return term.length + 1;
+	}
+	
+	/**
+	 * Return the initial state of the automaton, before any code point has been read.
+	 * @return the initial row.
+	 */
+	int[] start () {
+		final int[] row = new int[getRowSize()];
+		for (int index = 0; index < row.length; index++) {
+			row[index] = index;
+		}
+		return row;
+	}
+	
+	/**
+	 * Compute the state reached by reading a code point.
+	 * @param row
+	 *        the current state.
+	 * @param codePoint
+	 *        the code point read.
+	 * @param next
+	 *        the array where the next state is written.
+	 */
+	void step (final int[] row, final int codePoint, final int[] next) {
+		next[0] = row[0] + 1;
+		for (int index = 1; index <= term.length; index++) {
+			final int substitution = row[index - 1] + (term[index - 1] == codePoint ? 0 : 1);
+			next[index] = Math.min(substitution, Math.min(row[index], next[index - 1]) + 1);
+		}
+	}
+	
+	/**
+	 * Check if the word read is accepted.
+	 * @param row
+	 *        the current state.
+	 * @return <code>true</code> if the word read is within the maximum distance of the term.
+	 */
+	boolean isMatch (final int[] row) {
+		return row[term.length] <= maxDistance;
+	}
+	
+	/**
+	 * Return the edit distance between the term and the word read.
+	 * @param row
+	 *        the current state.
+	 * @return the edit distance.
+	 */
+	int getDistance (final int[] row) {
+		return row[term.length];
+	}
+	
+	/**
+	 * Check if a word starting with the word read can be accepted.
+	 * @param row
+	 *        the current state.
+	 * @return <code>false</code> if no word with this prefix is within the maximum distance.
+	 */
+	boolean canMatch (final int[] row) {
+		for (final int distance : row) {
+			if (distance <= maxDistance) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
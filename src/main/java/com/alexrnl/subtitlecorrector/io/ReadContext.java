@@ -0,0 +1,128 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.nio.file.Path;
+
+import com.alexrnl.subtitlecorrector.common.Diagnostic;
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+
+/**
+ * The state of the reading of a subtitle file.<br />
+ * A context is created for each file read, so a {@link SubtitleReader} does not keep any state
+ * between its calls and can read several files at the same time. The context itself is used by a
+ * single thread.<br />
+ * The context is closed once the file is read, which closes the reader.<br />
+ * The problems recovered from while reading the file are reported to the context, with the
+ * current line number, and kept in the subtitle file.
+ * @author Alex
+ */
+public class ReadContext implements Closeable {
+	/** The file being read */
+	private final Path				file;
+	/** The reader on the file */
+	private final BufferedReader	reader;
+	/** The subtitle file built from the header */
+	private SubtitleFile			subtitleFile;
+	/** The number of subtitles read */
+	private int						subtitleCount;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param file
+	 *        the file being read.
+	 * @param reader
+	 *        the reader on the file, <code>null</code> if the file is not read through a reader.
+	 */
+	public ReadContext (final Path file, final BufferedReader reader) {
+		super();
+		this.file = file;
+		this.reader = reader;
+		this.subtitleFile = null;
+		this.subtitleCount = 0;
+	}
+	
+	/**
+	 * Return the attribute file.
+	 * @return the attribute file.
+	 */
+	public Path getFile () {
+		return file;
+	}
+	
+	/**
+	 * Return the attribute reader.
+	 * @return the reader on the file, <code>null</code> if the file is not read through a reader.
+	 */
+	public BufferedReader getReader () {
+		return reader;
+	}
+	
+	/**
+	 * Return the attribute subtitleFile.
+	 * @return the subtitle file, <code>null</code> until the header is read.
+	 */
+	public SubtitleFile getSubtitleFile () {
+		return subtitleFile;
+	}
+	
+	/**
+	 * Set the attribute subtitleFile.
+	 * @param subtitleFile
+	 *        the subtitle file built from the header.
+	 */
+	void setSubtitleFile (final SubtitleFile subtitleFile) {
+		this.subtitleFile = subtitleFile;
+	}
+	
+	/**
+	 * Return the attribute subtitleCount.
+	 * @return the number of subtitles read so far.
+	 */
+	public int getSubtitleCount () {
+		return subtitleCount;
+	}
+	
+	/**
+	 * Count a subtitle read.
+	 */
+	void subtitleRead () {
+		subtitleCount++;
+	}
+	
+	/**
+	 * Return the number of the current line, the last line read.<br />
+	 * The default implementation counts the lines when the reader is a {@link LineNumberReader}.
+	 * May be override by contexts which read the file differently.
+	 * @return the number of the current line, starting at 1, or <code>0</code> if it is unknown.
+	 */
+	public int getLineNumber () {
+		if (reader instanceof LineNumberReader) {
+			return ((LineNumberReader) reader).getLineNumber();
+		}
+		return 0;
+	}
+	
+	/**
+	 * Report a problem recovered from on the current line.<br />
+	 * The problem is added to the diagnostics of the subtitle file, so the header must have been
+	 * read.
+	 * @param reason
+	 *        the description of the problem.
+	 */
+	public void addDiagnostic (final String reason) {
+		if (subtitleFile == null) {
+			throw new IllegalStateException("Cannot report a problem before the header of " + file + " is read");
+		}
+		subtitleFile.addDiagnostic(new Diagnostic(getLineNumber(), reason));
+	}
+	
+	@Override
+	public void close () throws IOException {
+		if (reader != null) {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index of words which finds the words close to a misspelled word.<br />
+ * The index is a BK-tree: each word is stored as a child of a word, labeled with the edit distance
+ * (Levenshtein) between them. Because the edit distance satisfies the triangle inequality, a search
+ * only explores the children whose label is close enough to the distance between the searched word
+ * and their parent, which is a small part of the tree for small distances.<br />
+ * Words can be added at any time, the tree does not need to be rebuilt. The tree is stored in
+ * arrays, to keep the memory overhead small. The index is thread-safe.
+ * @author Alex
+ */
+public final class SpellingIndex {
+	/** The initial capacity of the index */
+	private static final int	INITIAL_CAPACITY	= 16;
+	/** Value used when a node has no child or no next sibling */
+	private static final int	NO_NODE				= -1;
+	
+	/** The words of the nodes */
+	private String[]			words;
+	/** The first child of each node */
+	private int[]				firstChild;
+	/** The next sibling of each node */
+	private int[]				nextSibling;
+	/** The distance between each node and its parent */
+	private int[]				parentDistance;
+	/** The number of nodes */
+	private int					size;
+	
+	/**
+	 * Constructor #1.<br />
+	 */
+	public SpellingIndex () {
+		super();
+		words = new String[INITIAL_CAPACITY];
+		firstChild = new int[INITIAL_CAPACITY];
+		nextSibling = new int[INITIAL_CAPACITY];
+		parentDistance = new int[INITIAL_CAPACITY];
+		size = 0;
+	}
+	
+	/**
+	 * Add a word to the index.
+	 * @param word
+	 *        the word to add.
+	 * @return <code>true</code> if the word has been added, <code>false</code> if it was already in
+	 *         the index.
+	 */
+	public synchronized boolean add (final String word) {
+		if (size == 0) {
+			addNode(word, 0);
+			return true;
+		}
+		final int[] term = codePoints(word);
+		int node = 0;
+		for (;;) {
+			final int distance = distance(term, words[node]);
+			if (distance == 0) {
+				return false;
+			}
+			int child = firstChild[node];
+			while (child != NO_NODE && parentDistance[child] != distance) {
+				child = nextSibling[child];
+			}
+			if (child == NO_NODE) {
+				final int newNode = addNode(word, distance);
+				nextSibling[newNode] = firstChild[node];
+				firstChild[node] = newNode;
+				return true;
+			}
+			node = child;
+		}
+	}
+	
+	/**
+	 * Add a node to the arrays.
+	 * @param word
+	 *        the word of the node.
+	 * @param distance
+	 *        the distance to the parent of the node.
+	 * @return the index of the node.
+	 */
+	private int addNode (final String word, final int distance) {
+		if (size == words.length) {
+			final int capacity = words.length * 2;
+			words = Arrays.copyOf(words, capacity);
+			firstChild = Arrays.copyOf(firstChild, capacity);
+			nextSibling = Arrays.copyOf(nextSibling, capacity);
+			parentDistance = Arrays.copyOf(parentDistance, capacity);
+		}
+		words[size] = word;
+		firstChild[size] = NO_NODE;
+		nextSibling[size] = NO_NODE;
+		parentDistance[size] = distance;
+		return size++;
+	}
+	
+	/**
+	 * Find the words of the index which are close to a word.
+	 * @param word
+	 *        the (misspelled) word.
+	 * @param maxDistance
+	 *        the maximum edit distance between the word and the words returned.
+	 * @return the words within the distance, sorted from the best suggestion to the worst.
+	 */
+	public synchronized List<Suggestion> find (final String word, final int maxDistance) {
+		if (size == 0) {
+			return Collections.emptyList();
+		}
+		final int[] term = codePoints(word);
+		final List<Suggestion> suggestions = new ArrayList<>();
+		int[] stack = new int[INITIAL_CAPACITY];
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			final int node = stack[--top];
+			final int distance = distance(term, words[node]);
+			if (distance <= maxDistance) {
+				suggestions.add(new Suggestion(words[node], distance, Math.abs(word.length() - words[node].length())));
+			}
+			for (int child = firstChild[node]; child != NO_NODE; child = nextSibling[child]) {
+				if (Math.abs(parentDistance[child] - distance) <= maxDistance) {
+					if (top == stack.length) {
+						stack = Arrays.copyOf(stack, stack.length * 2);
+					}
+					stack[top++] = child;
+				}
+			}
+		}
+		Collections.sort(suggestions);
+		return suggestions;
+	}
+	
+	/**
+	 * Return the number of words in the index.
+	 * @return the number of words.
+	 */
+	public synchronized int size () {
+		return size;
+	}
+	
+	/**
+	 * Compute the edit distance (Levenshtein) between two words.<br />
+	 * The distance is the minimum number of characters (code points) to insert, delete or
+	 * substitute to change a word into the other, as for the {@link LevenshteinAutomaton}.
+	 * @param first
+	 *        the first word.
+	 * @param second
+	 *        the second word.
+	 * @return the edit distance between the words.
+	 */
+	static int distance (final String first, final String second) {
+		return distance(codePoints(first), second);
+	}
+	
+	/**
+	 * Compute the edit distance (Levenshtein) between a word, given by its code points, and another
+	 * word.
+	 * @param term
+	 *        the code points of the first word.
+	 * @param word
+	 *        the second word.
+	 * @return the edit distance between the words.
+	 */
+	private static int distance (final int[] term, final String word) {
+		final int length = term.length;
+		int[] previous = new int[length + 1];
+		int[] current = new int[length + 1];
+		for (int index = 0; index <= length; index++) {
+			previous[index] = index;
+		}
+		int row = 0;
+		for (int offset = 0; offset < word.length();) {
+			final int codePoint = word.codePointAt(offset);
+			offset += Character.charCount(codePoint);
+			current[0] = ++row;
+			for (int column = 1; column <= length; column++) {
+				final int substitution = previous[column - 1] + (codePoint == term[column - 1] ? 0 : 1);
+				current[column] = Math.min(substitution, Math.min(previous[column], current[column - 1]) + 1);
+			}
+			final int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[length];
+	}
+	
+	/**
+	 * Return the code points of a word.
+	 * @param word
+	 *        the word.
+	 * @return the code points of the word.
+	 */
+	private static int[] codePoints (final String word) {
+		final int[] codePoints = new int[word.codePointCount(0, word.length())];
+		for (int index = 0, offset = 0; index < codePoints.length; index++) {
+			codePoints[index] = word.codePointAt(offset);
+			offset += Character.charCount(codePoints[index]);
+		}
+		return codePoints;
+	}
+}
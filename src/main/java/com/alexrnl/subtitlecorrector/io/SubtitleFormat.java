@@ -1,8 +1,10 @@
 package com.alexrnl.subtitlecorrector.io;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -13,9 +15,18 @@ import com.alexrnl.commons.utils.object.Field;
 
 /**
  * Class defining a subtitle format.<br />
+ * A format may recognize its files by their content (see {@link #probe(byte[], int)}), which
+ * allows to choose the format of a file whose extension is shared by several formats or unknown.
  * @author Alex
  */
 public class SubtitleFormat implements Translatable {
+	/** The score of a content which does not look like the format */
+	public static final int			PROBE_NO_MATCH		= 0;
+	/** The score of a content which is certainly in the format */
+	public static final int			PROBE_MATCH			= 100;
+	/** The number of bytes at the beginning of the files given to {@link #probe(byte[], int)} */
+	public static final int			PROBE_SAMPLE_SIZE	= 4 * 1024;
+	
 	/** The name of the format */
 	private final String			name;
 	/** The extensions of subtitle encoded in that format */
@@ -94,6 +105,70 @@ public class SubtitleFormat implements Translatable {
 		return writer;
 	}
 	
+	/**
+	 * Score how much the beginning of a file looks like a file in this format.<br />
+	 * The sample holds the first bytes of the file, at most {@link #PROBE_SAMPLE_SIZE}, in an
+	 * unknown character set (the sample may start with a byte order mark), and may end in the middle
+	 * of a line. The default implementation cannot recognize the content and returns
+	 * {@link #PROBE_NO_MATCH}; may be override by the formats which have a recognizable structure.
+	 * @param sample
+	 *        the first bytes of the file.
+	 * @param length
+	 *        the number of bytes of the sample.
+	 * @return the score of the content, between {@link #PROBE_NO_MATCH} and {@link #PROBE_MATCH}.
+	 */
+	public int probe (final byte[] sample, final int length) {
+		return PROBE_NO_MATCH;
+	}
+	
+	/**
+	 * Split a sample given to {@link #probe(byte[], int)} in lines, to check the structure of the
+	 * content.<br />
+	 * The byte order mark and the null bytes (of the ASCII characters in UTF-16) are ignored, each
+	 * other byte is a character, so the ASCII characters are correct in the usual character sets.
+	 * The lines are trimmed.
+	 * @param sample
+	 *        the first bytes of the file.
+	 * @param length
+	 *        the number of bytes of the sample.
+	 * @return the lines of the sample, the last one may be incomplete.
+	 */
+	protected static List<String> sampleLines (final byte[] sample, final int length) {
+		int start = 0;
+		if (length >= 3 && (sample[0] & 0xFF) == 0xEF && (sample[1] & 0xFF) == 0xBB && (sample[2] & 0xFF) == 0xBF) {
+			start = 3;
+		} else if (length >= 2 && ((sample[0] & 0xFF) == 0xFE && (sample[1] & 0xFF) == 0xFF
+				|| (sample[0] & 0xFF) == 0xFF && (sample[1] & 0xFF) == 0xFE)) {
+			start = 2;
+		}
+		
+		final List<String> lines = new ArrayList<>();
+		final StringBuilder line = new StringBuilder();
+		boolean carriageReturn = false;
+		for (int index = start; index < length; index++) {
+			final char character = (char) (sample[index] & 0xFF);
+			if (character == 0) {
+				continue;
+			}
+			// A CRLF ends a single line
+			if (character == '\n' && carriageReturn) {
+				carriageReturn = false;
+				continue;
+			}
+			carriageReturn = character == '\r';
+			if (character == '\n' || character == '\r') {
+				lines.add(line.toString().trim());
+				line.setLength(0);
+			} else {
+				line.append(character);
+			}
+		}
+		if (line.length() > 0) {
+			lines.add(line.toString().trim());
+		}
+		return lines;
+	}
+	
 	@Override
 	public int hashCode () {
 		return AutoHashCode.getInstance().hashCode(this);
@@ -1,13 +1,19 @@
 package com.alexrnl.subtitlecorrector.io;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.alexrnl.commons.error.ExceptionUtils;
 import com.alexrnl.commons.io.IOUtils;
 import com.alexrnl.commons.utils.StringUtils;
 import com.alexrnl.subtitlecorrector.common.SubtitleFile;
@@ -18,10 +24,12 @@ import com.alexrnl.subtitlecorrector.common.SubtitleFile;
  */
 public class SubtitleFormatManager {
 	/** Logger */
-	private static final Logger			LG	= Logger.getLogger(SubtitleFormatManager.class.getName());
+	private static final Logger													LG	= Logger.getLogger(SubtitleFormatManager.class.getName());
 	
 	/** The registered format of subtitles */
-	private final Set<SubtitleFormat>	formats;
+	private final Set<SubtitleFormat>											formats;
+	/** The formats found by probing, by directory and by extension */
+	private final ConcurrentMap<Path, ConcurrentMap<String, SubtitleFormat>>	probedFormats;
 	
 	/**
 	 * Constructor #1.<br />
@@ -30,6 +38,7 @@ public class SubtitleFormatManager {
 	public SubtitleFormatManager () {
 		super();
 		formats = new HashSet<>();
+		probedFormats = new ConcurrentHashMap<>();
 	}
 	
 	/**
@@ -42,6 +51,8 @@ public class SubtitleFormatManager {
 		Objects.requireNonNull(format);
 		final boolean removed = formats.remove(format);
 		formats.add(format);
+		// The formats found by probing may have changed
+		probedFormats.clear();
 		return removed;
 	}
 	
@@ -111,4 +122,76 @@ public class SubtitleFormatManager {
 	public Set<SubtitleFormat> getFormatByPath (final Path path) {
 		return getFormatByExtension(IOUtils.getFileExtension(path));
 	}
+	
+	/**
+	 * Find the format of a file by its content, among several candidates.<br />
+	 * The first bytes of the file are given to each candidate (see
+	 * {@link SubtitleFormat#probe(byte[], int)}) and the one with the highest score is chosen. The
+	 * decision is cached for the directory of the file and its extension: the other files with the
+	 * same extension in the directory get the same format without being probed, as the files of a
+	 * directory usually come from the same source.
+	 * @param path
+	 *        the path of the file.
+	 * @param candidates
+	 *        the formats among which the format should be chosen, typically the formats matching
+	 *        the extension of the file (see {@link #getFormatByPath(Path)}), or all the formats.
+	 * @return the format of the file, or <code>null</code> if no candidate recognized the content or
+	 *         if several candidates have the highest score.
+	 */
+	public SubtitleFormat probeFormat (final Path path, final Set<SubtitleFormat> candidates) {
+		final Path directory = path.toAbsolutePath().getParent();
+		final String extension = IOUtils.getFileExtension(path);
+		ConcurrentMap<String, SubtitleFormat> directoryFormats = probedFormats.get(directory);
+		if (directoryFormats != null) {
+			final SubtitleFormat cached = directoryFormats.get(extension);
+			if (cached != null && candidates.contains(cached)) {
+				return cached;
+			}
+		}
+		
+		final byte[] sample = new byte[SubtitleFormat.PROBE_SAMPLE_SIZE];
+		int length = 0;
+		try (final InputStream input = Files.newInputStream(path)) {
+			int read;
+			while (length < sample.length && (read = input.read(sample, length, sample.length - length)) >= 0) {
+				length += read;
+			}
+		} catch (final IOException e) {
+			LG.warning("Could not probe the format of " + path + ": " + ExceptionUtils.display(e));
+			return null;
+		}
+		
+		SubtitleFormat best = null;
+		int bestScore = SubtitleFormat.PROBE_NO_MATCH;
+		boolean tie = false;
+		for (final SubtitleFormat format : candidates) {
+			final int score = format.probe(sample, length);
+			if (score > bestScore) {
+				best = format;
+				bestScore = score;
+				tie = false;
+			} else if (score == bestScore && score > SubtitleFormat.PROBE_NO_MATCH) {
+				tie = true;
+			}
+		}
+		if (best == null || tie) {
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Could not choose the format of " + path + " among " + candidates + " by its content");
+			}
+			return null;
+		}
+		
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Format of " + path + " probed as " + best.getName() + " (score " + bestScore + ")");
+		}
+		if (directoryFormats == null) {
+			directoryFormats = new ConcurrentHashMap<>();
+			final ConcurrentMap<String, SubtitleFormat> previous = probedFormats.putIfAbsent(directory, directoryFormats);
+			if (previous != null) {
+				directoryFormats = previous;
+			}
+		}
+		directoryFormats.put(extension, best);
+		return best;
+	}
 }
@@ -1,12 +1,14 @@
 package com.alexrnl.subtitlecorrector.io;
 
 import java.io.BufferedReader;
-import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,14 +56,75 @@ public abstract class SubtitleReader {
 	
 	/**
 	 * Read the specified file and return the loaded {@link SubtitleFile}.<br />
-	 * This method is synchronized, to avoid read files from different threads simultaneously.
+	 * The reader does not keep any state between its calls, so several files can be read at the
+	 * same time from different threads.
 	 * @param file
 	 *        the file to read.
 	 * @return the subtitle file, loaded.
 	 * @throws IOException
 	 *         if there was a problem while reading the file.
 	 */
-	public synchronized SubtitleFile readFile (final Path file) throws IOException {
+	public SubtitleFile readFile (final Path file) throws IOException {
+		return readFile(file, charSet);
+	}
+	
+	/**
+	 * Read the specified file in a specific character set and return the loaded
+	 * {@link SubtitleFile}.<br />
+	 * Allows to read the files whose character set was detected (see {@link CharsetDetector}) with
+	 * the same reader.
+	 * @param file
+	 *        the file to read.
+	 * @param fileCharSet
+	 *        the character set of the file.
+	 * @return the subtitle file, loaded.
+	 * @throws IOException
+	 *         if there was a problem while reading the file.
+	 * @see #readFile(Path)
+	 */
+	public SubtitleFile readFile (final Path file, final Charset fileCharSet) throws IOException {
+		try (final SubtitleStream subtitles = openFile(file, fileCharSet)) {
+			final SubtitleFile subtitleFile = subtitles.getSubtitleFile();
+			Subtitle subtitle;
+			while ((subtitle = subtitles.next()) != null) {
+				subtitleFile.add(subtitle);
+			}
+			return subtitleFile;
+		} catch (final IOException e) {
+			LG.warning("Problem while reading subitle file: " + ExceptionUtils.display(e));
+			throw e;
+		}
+	}
+	
+	/**
+	 * Open the specified file and return the stream of its subtitles.<br />
+	 * The header of the file is read immediately, the subtitles are read one at a time, when they are
+	 * requested, and the footer once the last subtitle has been read. The state of the reading is
+	 * kept in a {@link ReadContext}, so several files may be read at the same time with the same
+	 * reader. The stream must be closed by the caller.
+	 * @param file
+	 *        the file to read.
+	 * @return the stream of the subtitles of the file.
+	 * @throws IOException
+	 *         if there was a problem while reading the header of the file.
+	 */
+	public SubtitleStream openFile (final Path file) throws IOException {
+		return openFile(file, charSet);
+	}
+	
+	/**
+	 * Open the specified file in a specific character set and return the stream of its subtitles.
+	 * @param file
+	 *        the file to read.
+	 * @param fileCharSet
+	 *        the character set of the file.
+	 * @return the stream of the subtitles of the file.
+	 * @throws IOException
+	 *         if there was a problem while reading the header of the file.
+	 * @see #openFile(Path)
+	 */
+	public SubtitleStream openFile (final Path file, final Charset fileCharSet) throws IOException {
+		Objects.requireNonNull(fileCharSet);
 		if (!Files.exists(file) || !Files.isReadable(file)) {
 			LG.warning("File " + file + " does not exists or cannot be read");
 			throw new IllegalArgumentException("The file does not exist or cannot be read");
@@ -70,70 +133,90 @@ public abstract class SubtitleReader {
 			LG.fine("Loading file " + file);
 		}
 		
-		SubtitleFile subtitleFile = null;
-		
-		try (final BufferedReader reader = Files.newBufferedReader(file, charSet)) {
-			try {
-				reader.mark(1);
-				if (reader.read() != IOUtils.UNICODE_BYTE_ORDER_MARK.charValue()) {
-					reader.reset();
-				}
-				subtitleFile = readHeader(file, reader);
-				for (;;) {
-					subtitleFile.add(readSubtitle(subtitleFile, reader));
-				}
-			} catch (final EOFException e) {
-				if (LG.isLoggable(Level.INFO)) {
-					LG.info("Finished reading file " + file);
-				}
-				readFooter(subtitleFile, reader);
+		final ReadContext context = openContext(file, fileCharSet);
+		try {
+			context.setSubtitleFile(readHeader(context));
+			return new SubtitleStream(this, context);
+		} catch (final IOException | RuntimeException e) {
+			context.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Open the file and create the context for reading it.<br />
+	 * The default implementation opens a reader on the file, after its byte order mark, which counts
+	 * the lines read (see {@link ReadContext#getLineNumber()}). May be override by specific
+	 * implementations which access the file differently.
+	 * @param file
+	 *        the file to read.
+	 * @param fileCharSet
+	 *        the character set of the file.
+	 * @return the context of the reading, positioned at the beginning of the header.
+	 * @throws IOException
+	 *         if the file could not be opened.
+	 */
+	protected ReadContext openContext (final Path file, final Charset fileCharSet) throws IOException {
+		final BufferedReader reader = new LineNumberReader(new InputStreamReader(Files.newInputStream(file),
+				fileCharSet.newDecoder()));
+		try {
+			reader.mark(1);
+			if (reader.read() != IOUtils.UNICODE_BYTE_ORDER_MARK.charValue()) {
+				reader.reset();
 			}
-		} catch (final IOException e) {
-			LG.warning("Problem while reading subitle file: " + ExceptionUtils.display(e));
+			return newContext(file, reader);
+		} catch (final IOException | RuntimeException e) {
+			reader.close();
 			throw e;
 		}
-		
-		return subtitleFile;
 	}
 	
 	/**
-	 * Read the header of the subtitle file and build the {@link SubtitleFile} to hold the data.<br />
-	 * May be override by specific subtitle implementations.
+	 * Create the context for reading a file.<br />
+	 * May be override by specific implementations which need to keep more information while reading
+	 * a file.
 	 * @param file
-	 *        the file being read.
+	 *        the file to read.
 	 * @param reader
-	 *        the reader to use.
+	 *        the reader on the file.
+	 * @return the context of the reading.
+	 */
+	protected ReadContext newContext (final Path file, final BufferedReader reader) {
+		return new ReadContext(file, reader);
+	}
+	
+	/**
+	 * Read the header of the subtitle file and build the {@link SubtitleFile} to hold the data.<br />
+	 * May be override by specific subtitle implementations.
+	 * @param context
+	 *        the context of the reading.
 	 * @return the subtitle file to use to store the data.
 	 * @throws IOException
 	 *         if there was a problem while reading the file.
 	 */
-	protected SubtitleFile readHeader (final Path file, final BufferedReader reader) throws IOException {
-		return new SubtitleFile(file);
+	protected SubtitleFile readHeader (final ReadContext context) throws IOException {
+		return new SubtitleFile(context.getFile());
 	}
 	
 	/**
 	 * Read the footer of the subtitle file.<br />
 	 * May be override by specific implementations.
-	 * @param subtitleFile
-	 *        the subtitle file being read.
-	 * @param reader
-	 *        the reader to use.
+	 * @param context
+	 *        the context of the reading.
 	 * @throws IOException
 	 *         if there was a problem while reading the file.
 	 */
-	protected void readFooter (final SubtitleFile subtitleFile, final BufferedReader reader) throws IOException {
+	protected void readFooter (final ReadContext context) throws IOException {
 		// Do nothing
 	}
 	
 	/**
 	 * Read a single subtitle of the file.
-	 * @param subtitleFile
-	 *        the subtitle file being read.
-	 * @param reader
-	 *        the reader to use.
+	 * @param context
+	 *        the context of the reading.
 	 * @return The subtitle read.
 	 * @throws IOException
 	 *         if there was a problem while reading the file.
 	 */
-	protected abstract Subtitle readSubtitle (final SubtitleFile subtitleFile, final BufferedReader reader) throws IOException;
+	protected abstract Subtitle readSubtitle (final ReadContext context) throws IOException;
 }
@@ -0,0 +1,22 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.io.IOException;
+
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+
+/**
+ * Interface for a source of subtitles, which provides the subtitles one at a time.<br />
+ * Unlike a {@link com.alexrnl.subtitlecorrector.common.SubtitleFile}, a source does not have to
+ * hold all its subtitles in memory.
+ * @author Alex
+ */
+public interface SubtitleSource {
+	
+	/**
+	 * Return the next subtitle of the source.
+	 * @return the next subtitle, or <code>null</code> if there are no more subtitles.
+	 * @throws IOException
+	 *         if the subtitle could not be retrieved.
+	 */
+	Subtitle next () throws IOException;
+}
@@ -0,0 +1,78 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+
+/**
+ * Subtitles read from a file one at a time, as they are requested.<br />
+ * Only the subtitle being read is held in memory, so a file can be processed regardless of its
+ * size. The stream is built by {@link SubtitleReader#openFile(Path)} and must be closed once the
+ * subtitles are read.
+ * @author Alex
+ */
+public class SubtitleStream implements SubtitleSource, Closeable {
+	/** Logger */
+	private static final Logger		LG	= Logger.getLogger(SubtitleStream.class.getName());
+	
+	/** The subtitle reader which parses the file */
+	private final SubtitleReader	subtitleReader;
+	/** The context of the reading of the file */
+	private final ReadContext		context;
+	/** <code>true</code> if all the subtitles of the file have been read */
+	private boolean					finished;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param subtitleReader
+	 *        the subtitle reader which parses the file.
+	 * @param context
+	 *        the context of the reading, positioned after the header.
+	 */
+	SubtitleStream (final SubtitleReader subtitleReader, final ReadContext context) {
+		super();
+		this.subtitleReader = subtitleReader;
+		this.context = context;
+		this.finished = false;
+	}
+	
+	/**
+	 * Return the subtitle file read.<br />
+	 * The subtitles are not added to the file: it only holds the information from the header.
+	 * @return the subtitle file read.
+	 */
+	public SubtitleFile getSubtitleFile () {
+		return context.getSubtitleFile();
+	}
+	
+	@Override
+	public Subtitle next () throws IOException {
+		if (finished) {
+			return null;
+		}
+		try {
+			final Subtitle subtitle = subtitleReader.readSubtitle(context);
+			context.subtitleRead();
+			return subtitle;
+		} catch (final EOFException e) {
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Finished reading file " + context.getFile() + ", " + context.getSubtitleCount()
+						+ " subtitles read");
+			}
+			finished = true;
+			subtitleReader.readFooter(context);
+			return null;
+		}
+	}
+	
+	@Override
+	public void close () throws IOException {
+		context.close();
+	}
+}
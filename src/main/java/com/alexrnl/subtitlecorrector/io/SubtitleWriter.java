@@ -7,6 +7,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,7 +66,8 @@ public abstract class SubtitleWriter {
 
 	/**
 	 * Write the generated subtitle file to a specified file.<br />
-	 * This method is synchronized to avoid write files simultaneously.
+	 * The writer does not keep any state between its calls, so several files can be written at the
+	 * same time from different threads.
 	 * @param file
 	 *        the subtitle file to write.
 	 * @param target
@@ -73,7 +75,34 @@ public abstract class SubtitleWriter {
 	 * @throws IOException
 	 *         if there was an issue while writing the subtitle.
 	 */
-	public synchronized void writeFile (final SubtitleFile file, final Path target) throws IOException {
+	public void writeFile (final SubtitleFile file, final Path target) throws IOException {
+		final Iterator<Subtitle> subtitles = file.iterator();
+		writeFile(file, new SubtitleSource() {
+			@Override
+			public Subtitle next () {
+				return subtitles.hasNext() ? subtitles.next() : null;
+			}
+		}, target);
+	}
+	
+	/**
+	 * Write the subtitles provided by a source to a specified file.<br />
+	 * The subtitles are written as they are provided, in the order of the source, so they do not
+	 * have to be held in memory. The subtitles of the subtitle file are ignored, it only provides
+	 * the information of the header and footer.<br />
+	 * The state of the writing is kept in a {@link WriteContext}, so several files may be written at
+	 * the same time with the same writer.
+	 * @param file
+	 *        the subtitle file to write.
+	 * @param subtitles
+	 *        the source of the subtitles to write.
+	 * @param target
+	 *        the target location.
+	 * @throws IOException
+	 *         if there was an issue while retrieving or writing the subtitles.
+	 */
+	public void writeFile (final SubtitleFile file, final SubtitleSource subtitles, final Path target)
+			throws IOException {
 		if (Files.isDirectory(target)) {
 			LG.warning(target + " is a directory, it will not be overwritten");
 			throw new IllegalArgumentException(target + " is a directory");
@@ -92,11 +121,14 @@ public abstract class SubtitleWriter {
 			if (charSet.equals(StandardCharsets.UTF_8)) {
 				writer.write(IOUtils.UNICODE_BYTE_ORDER_MARK);
 			}
-			writeHeader(file, writer);
-			for (final Subtitle subtitle : file) {
-				writeSubtitle(subtitle, writer);
+			final WriteContext context = newContext(file, target, writer);
+			writeHeader(context);
+			Subtitle subtitle;
+			while ((subtitle = subtitles.next()) != null) {
+				writeSubtitle(subtitle, context);
+				context.subtitleWritten();
 			}
-			writeFooter(file, writer);
+			writeFooter(context);
 		} catch (final IOException e) {
 			LG.warning("Problem while writing the file: " + ExceptionUtils.display(e));
 			throw e;
@@ -108,30 +140,42 @@ public abstract class SubtitleWriter {
 	}
 
 	/**
-	 * Write the header of the subtitle in the file.<br />
-	 * May be override by specific implementations.
+	 * Create the context for writing a file.<br />
+	 * May be override by specific implementations which need to keep more information while writing
+	 * a file.
 	 * @param file
 	 *        the subtitle file to write.
+	 * @param target
+	 *        the target location.
 	 * @param writer
-	 *        the writer to use.
+	 *        the writer on the target.
+	 * @return the context of the writing.
+	 */
+	protected WriteContext newContext (final SubtitleFile file, final Path target, final BufferedWriter writer) {
+		return new WriteContext(file, target, writer);
+	}
+	
+	/**
+	 * Write the header of the subtitle in the file.<br />
+	 * May be override by specific implementations.
+	 * @param context
+	 *        the context of the writing.
 	 * @throws IOException
 	 *         if there was a problem while writing the subtitle.
 	 */
-	protected void writeHeader (final SubtitleFile file, final BufferedWriter writer) throws IOException {
+	protected void writeHeader (final WriteContext context) throws IOException {
 		// Do nothing
 	}
 	
 	/**
 	 * Write the footer of the subtitle file.<br />
 	 * May be override by specific implementations.
-	 * @param file
-	 *        the subtitle file to write.
-	 * @param writer
-	 *        the writer to use.
+	 * @param context
+	 *        the context of the writing.
 	 * @throws IOException
 	 *         if there was a problem while writing the subtitle.
 	 */
-	protected void writeFooter (final SubtitleFile file, final BufferedWriter writer) throws IOException {
+	protected void writeFooter (final WriteContext context) throws IOException {
 		// Do nothing.
 	}
 	
@@ -139,10 +183,10 @@ public abstract class SubtitleWriter {
 	 * Write the specified subtitle.<br />
 	 * @param subtitle
 	 *        the subtitle to write.
-	 * @param writer
-	 *        the writer to use.
+	 * @param context
+	 *        the context of the writing.
 	 * @throws IOException
 	 *         if there was a problem while writing the subtitle.
 	 */
-	protected abstract void writeSubtitle (Subtitle subtitle, BufferedWriter writer) throws IOException;
+	protected abstract void writeSubtitle (Subtitle subtitle, WriteContext context) throws IOException;
 }
@@ -0,0 +1,92 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.util.Objects;
+
+/**
+ * Word suggested to replace a misspelled word.<br />
+ * Suggestions are ordered from the best to the worst: by edit distance, then by difference of
+ * length with the misspelled word, then alphabetically.
+ * @author Alex
+ */
+public final class Suggestion implements Comparable<Suggestion> {
+	/** The word suggested */
+	private final String	word;
+	/** The edit distance between the misspelled word and the word suggested */
+	private final int		distance;
+	/** The difference of length between the misspelled word and the word suggested */
+	private final int		lengthDifference;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param word
+	 *        the word suggested.
+	 * @param distance
+	 *        the edit distance between the misspelled word and the word suggested.
+	 * @param lengthDifference
+	 *        the (absolute) difference of length between the misspelled word and the word
+	 *        suggested.
+	 */
+	public Suggestion (final String word, final int distance, final int lengthDifference) {
+		super();
+		this.word = Objects.requireNonNull(word);
+		this.distance = distance;
+		this.lengthDifference = lengthDifference;
+	}
+	
+	/**
+	 * Return the attribute word.
+	 * @return the attribute word.
+	 */
+	public String getWord () {
+		return word;
+	}
+	
+	/**
+	 * Return the attribute distance.
+	 * @return the attribute distance.
+	 */
+	public int getDistance () {
+		return distance;
+	}
+	
+	/**
+	 * Return the attribute lengthDifference.
+	 * @return the attribute lengthDifference.
+	 */
+	public int getLengthDifference () {
+		return lengthDifference;
+	}
+	
+	@Override
+	public int compareTo (final Suggestion other) {
+		if (distance != other.distance) {
+			return distance < other.distance ? -1 : 1;
+		}
+		if (lengthDifference != other.lengthDifference) {
+			return lengthDifference < other.lengthDifference ? -1 : 1;
+		}
+		return word.compareTo(other.word);
+	}
+	
+	@Override
+	public int hashCode () {
+		return Objects.hash(word, distance, lengthDifference);
+	}
+	
+	@Override
+	public boolean equals (final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Suggestion)) {
+			return false;
+		}
+		final Suggestion other = (Suggestion) obj;
+		return distance == other.distance && lengthDifference == other.lengthDifference && word.equals(other.word);
+	}
+	
+	@Override
+	public String toString () {
+		return word + " (" + distance + ")";
+	}
+}
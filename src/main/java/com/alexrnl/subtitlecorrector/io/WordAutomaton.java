@@ -0,0 +1,672 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact and read-only set of words, stored as a minimal acyclic automaton over the UTF-8 bytes
+ * of the words.<br />
+ * Words sharing a prefix or a suffix share the same states, which makes the structure much smaller
+ * than a {@link java.util.TreeSet} of the same words. The automaton is encoded in a single
+ * {@link ByteBuffer} and lookups do not allocate any object.<br />
+ * Layout of the buffer:
+ * 
+ * <pre>
+ * header:     word count (int), root state offset (int)
+ * state:      flags (byte), transition count (byte), transitions
+ * transition: label (byte), target state offset (int)
+ * </pre>
+ * 
+ * The transitions of a state are sorted by unsigned label value.
+ * @author Alex
+ */
+public final class WordAutomaton {
+	/** The size of the header of the automaton */
+	private static final int		HEADER_SIZE				= 8;
+	/** The offset of the root state offset in the header */
+	private static final int		ROOT_OFFSET				= 4;
+	/** The size of the header of a state */
+	private static final int		STATE_HEADER_SIZE		= 2;
+	/** The size of a transition */
+	private static final int		TRANSITION_SIZE			= 5;
+	/** The flag set on final states */
+	private static final byte		FINAL_FLAG				= 1;
+	/** Value returned when there is no transition */
+	private static final int		NO_STATE				= -1;
+	/** The character used when encoding an unpaired surrogate (same as the JDK encoder) */
+	private static final int		REPLACEMENT_CHARACTER	= '?';
+	
+	/** The buffer with the encoded automaton */
+	private final ByteBuffer		buffer;
+	/** The number of words in the automaton */
+	private final int				wordCount;
+	/** The offset of the root state */
+	private final int				root;
+	
+	/**
+	 * Constructor #1.<br />
+	 * Wrap an automaton previously encoded, the buffer is not copied.
+	 * @param buffer
+	 *        the buffer with the encoded automaton, starting at its current position.
+	 */
+	public WordAutomaton (final ByteBuffer buffer) {
+		super();
+		this.buffer = Objects.requireNonNull(buffer).slice();
+		if (this.buffer.capacity() < HEADER_SIZE) {
+			throw new IllegalArgumentException("Buffer is too small to contain an automaton");
+		}
+		wordCount = this.buffer.getInt(0);
+		root = this.buffer.getInt(ROOT_OFFSET);
+	}
+	
+	/**
+	 * Build the automaton containing the specified words.<br />
+	 * Duplicate words are only stored once.
+	 * @param words
+	 *        the words to store.
+	 * @return the automaton with the words.
+	 */
+	public static WordAutomaton build (final Collection<String> words) {
+		final List<byte[]> encodedWords = new ArrayList<>(words.size());
+		for (final String word : words) {
+			encodedWords.add(word.getBytes(StandardCharsets.UTF_8));
+		}
+		final byte[][] sortedWords = encodedWords.toArray(new byte[encodedWords.size()][]);
+		encodedWords.clear();
+		Arrays.sort(sortedWords, UnsignedBytesComparator.INSTANCE);
+		return new Builder().build(sortedWords);
+	}
+	
+	/**
+	 * Return the number of words in the automaton.
+	 * @return the number of words.
+	 */
+	public int size () {
+		return wordCount;
+	}
+	
+	/**
+	 * Return the number of bytes used by the encoded automaton.
+	 * @return the size of the automaton, in bytes.
+	 */
+	public int byteSize () {
+		return buffer.capacity();
+	}
+	
+	/**
+	 * Return a view of the buffer with the encoded automaton.<br />
+	 * The view is positioned at the beginning of the automaton, its content must not be modified.
+	 * @return the buffer of the automaton.
+	 */
+	ByteBuffer getBuffer () {
+		return buffer.duplicate();
+	}
+	
+	/**
+	 * Check if the automaton contains the word.
+	 * @param word
+	 *        the word to check.
+	 * @return <code>true</code> if the word is in the automaton.
+	 */
+	public boolean contains (final CharSequence word) {
+		if (word == null) {
+			return false;
+		}
+		return contains(word, 0, word.length());
+	}
+	
+	/**
+	 * Check if the automaton contains the word located between the specified indexes of the
+	 * sequence.
+	 * @param sequence
+	 *        the sequence with the word.
+	 * @param start
+	 *        the index of the first character of the word (inclusive).
+	 * @param end
+	 *        the index of the last character of the word (exclusive).
+	 * @return <code>true</code> if the word is in the automaton.
+	 */
+	public boolean contains (final CharSequence sequence, final int start, final int end) {
+		return contains(sequence, start, end, null);
+	}
+	
+	/**
+	 * Check if the automaton contains the word located between the specified indexes of the
+	 * sequence, once made lower case.<br />
+	 * The characters are made lower case while walking the automaton, so no object is allocated,
+	 * except for the few words which require the specific rules of
+	 * {@link String#toLowerCase(Locale)}.
+	 * @param sequence
+	 *        the sequence with the word.
+	 * @param start
+	 *        the index of the first character of the word (inclusive).
+	 * @param end
+	 *        the index of the last character of the word (exclusive).
+	 * @param caseInsensitive
+	 *        the locale used to make the word lower case, <code>null</code> to check the word as
+	 *        is.
+	 * @return <code>true</code> if the word, in lower case, is in the automaton.
+	 */
+	public boolean contains (final CharSequence sequence, final int start, final int end, final Locale caseInsensitive) {
+		if (caseInsensitive != null && !CaseFolding.isFoldable(sequence, start, end, caseInsensitive)) {
+			return contains(sequence.subSequence(start, end).toString().toLowerCase(caseInsensitive));
+		}
+		final boolean lowerCase = caseInsensitive != null;
+		int state = root;
+		int index = start;
+		while (index < end && state != NO_STATE) {
+			final char current = sequence.charAt(index++);
+			int codePoint = current;
+			if (Character.isHighSurrogate(current) && index < end && Character.isLowSurrogate(sequence.charAt(index))) {
+				codePoint = Character.toCodePoint(current, sequence.charAt(index++));
+			} else if (Character.isSurrogate(current)) {
+				codePoint = REPLACEMENT_CHARACTER;
+			}
+			state = stepCodePoint(state, lowerCase ? CaseFolding.toLowerCase(codePoint) : codePoint);
+		}
+		return state != NO_STATE && isFinal(state);
+	}
+	
+	/**
+	 * Find the words of the automaton within the specified edit distance of a term.<br />
+	 * The automaton is intersected with the {@link LevenshteinAutomaton} of the term: a path is
+	 * only followed while some word starting with it can be within the distance, so only a small
+	 * part of the automaton is visited. The edit distance is counted in code points.
+	 * @param term
+	 *        the term to search.
+	 * @param maxDistance
+	 *        the maximum edit distance between the term and the words returned.
+	 * @return the words within the distance, sorted from the closest to the farthest.
+	 */
+	public List<Suggestion> fuzzySearch (final CharSequence term, final int maxDistance) {
+		final LevenshteinAutomaton query = new LevenshteinAutomaton(term, maxDistance);
+		final List<Suggestion> suggestions = new ArrayList<>();
+		byte[] word = new byte[16];
+		int[] states = new int[word.length + 1];
+		int[] nextTransitions = new int[word.length + 1];
+		// The number of code points of the prefix at each depth
+		int[] codePoints = new int[word.length + 1];
+		// The state of the Levenshtein automaton for each number of code points read
+		int[][] rows = new int[word.length + 1][];
+		rows[0] = query.start();
+		int depth = 0;
+		states[0] = root;
+		nextTransitions[0] = 0;
+		codePoints[0] = 0;
+		if (isFinal(root) && query.isMatch(rows[0])) {
+			suggestions.add(new Suggestion("", query.getDistance(rows[0]), term.length()));
+		}
+		while (depth >= 0) {
+			final int state = states[depth];
+			final int transitionIndex = nextTransitions[depth];
+			if (transitionIndex == (buffer.get(state + 1) & 0xFF)) {
+				depth--;
+				continue;
+			}
+			nextTransitions[depth]++;
+			if (depth == word.length) {
+				word = Arrays.copyOf(word, word.length * 2);
+				states = Arrays.copyOf(states, word.length + 1);
+				nextTransitions = Arrays.copyOf(nextTransitions, word.length + 1);
+				codePoints = Arrays.copyOf(codePoints, word.length + 1);
+				rows = Arrays.copyOf(rows, word.length + 1);
+			}
+			final int transition = state + STATE_HEADER_SIZE + transitionIndex * TRANSITION_SIZE;
+			word[depth] = buffer.get(transition);
+			final int length = depth + 1;
+			final int target = buffer.getInt(transition + 1);
+			
+			// Look for the first byte of the code point which contains the label
+			int lead = depth;
+			while (lead > 0 && (word[lead] & 0xC0) == 0x80) {
+				lead--;
+			}
+			final boolean complete = length - lead == encodedLength(word[lead]);
+			if (complete) {
+				final int row = codePoints[lead];
+				if (rows[row + 1] == null) {
+					rows[row + 1] = new int[query.getRowSize()];
+				}
+				query.step(rows[row], decode(word, lead, length), rows[row + 1]);
+				if (!query.canMatch(rows[row + 1])) {
+					continue;
+				}
+				codePoints[length] = row + 1;
+				if (isFinal(target) && query.isMatch(rows[row + 1])) {
+					final String match = new String(word, 0, length, StandardCharsets.UTF_8);
+					suggestions.add(new Suggestion(match, query.getDistance(rows[row + 1]), Math.abs(term.length()
+							- match.length())));
+				}
+			} else {
+				// The code point is not complete yet, its bytes do not change the distance
+				codePoints[length] = codePoints[lead];
+			}
+			states[length] = target;
+			nextTransitions[length] = 0;
+			depth = length;
+		}
+		Collections.sort(suggestions);
+		return suggestions;
+	}
+	
+	/**
+	 * Return the number of bytes of a code point from its first UTF-8 byte.
+	 * @param lead
+	 *        the first byte of the code point.
+	 * @return the number of bytes of the encoded code point.
+	 */
+	private static int encodedLength (final byte lead) {
+		if ((lead & 0x80) == 0) {
+			return 1;
+		} else if ((lead & 0xE0) == 0xC0) {
+			return 2;
+		} else if ((lead & 0xF0) == 0xE0) {
+			return 3;
+		}
+		return 4;
+	}
+	
+	/**
+	 * Decode the code point encoded in UTF-8 between the specified indexes of the array.
+	 * @param bytes
+	 *        the array with the encoded code point.
+	 * @param start
+	 *        the index of the first byte (inclusive).
+	 * @param end
+	 *        the index of the last byte (exclusive).
+	 * @return the code point.
+	 */
+	private static int decode (final byte[] bytes, final int start, final int end) {
+		if (end - start == 1) {
+			return bytes[start];
+		}
+		int codePoint = bytes[start] & (0xFF >> (end - start + 1));
+		for (int index = start + 1; index < end; index++) {
+			codePoint = codePoint << 6 | bytes[index] & 0x3F;
+		}
+		return codePoint;
+	}
+	
+	/**
+	 * Visit all the words of the automaton, in the order of their UTF-8 encoding.<br />
+	 * The array given to the visitor is reused for the next words, so it must not be kept.
+	 * @param visitor
+	 *        the visitor to call for each word.
+	 */
+	void visitWords (final WordVisitor visitor) {
+		byte[] word = new byte[16];
+		int[] states = new int[word.length + 1];
+		int[] nextTransitions = new int[word.length + 1];
+		int depth = 0;
+		states[0] = root;
+		nextTransitions[0] = 0;
+		if (isFinal(root)) {
+			visitor.visitWord(word, 0);
+		}
+		while (depth >= 0) {
+			final int state = states[depth];
+			final int transitionIndex = nextTransitions[depth];
+			if (transitionIndex == (buffer.get(state + 1) & 0xFF)) {
+				depth--;
+				continue;
+			}
+			nextTransitions[depth]++;
+			if (depth == word.length) {
+				word = Arrays.copyOf(word, word.length * 2);
+				states = Arrays.copyOf(states, word.length + 1);
+				nextTransitions = Arrays.copyOf(nextTransitions, word.length + 1);
+			}
+			final int transition = state + STATE_HEADER_SIZE + transitionIndex * TRANSITION_SIZE;
+			word[depth] = buffer.get(transition);
+			states[++depth] = buffer.getInt(transition + 1);
+			nextTransitions[depth] = 0;
+			if (isFinal(states[depth])) {
+				visitor.visitWord(word, depth);
+			}
+		}
+	}
+	
+	/**
+	 * Follow the transitions matching the UTF-8 encoding of a code point.
+	 * @param state
+	 *        the state to start from.
+	 * @param codePoint
+	 *        the code point to follow.
+	 * @return the state reached, or {@link #NO_STATE} if there is no such path.
+	 */
+	private int stepCodePoint (final int state, final int codePoint) {
+		if (codePoint < 0x80) {
+			return step(state, codePoint);
+		}
+		int current;
+		int shift;
+		if (codePoint < 0x800) {
+			current = step(state, 0xC0 | codePoint >> 6);
+			shift = 0;
+		} else if (codePoint < 0x10000) {
+			current = step(state, 0xE0 | codePoint >> 12);
+			shift = 6;
+		} else {
+			current = step(state, 0xF0 | codePoint >> 18);
+			shift = 12;
+		}
+		while (current != NO_STATE && shift >= 0) {
+			current = step(current, 0x80 | codePoint >> shift & 0x3F);
+			shift -= 6;
+		}
+		return current;
+	}
+	
+	/**
+	 * Follow the transition with the specified label.<br />
+	 * Transitions are sorted, so a binary search is used.
+	 * @param state
+	 *        the state to start from.
+	 * @param label
+	 *        the label of the transition (unsigned byte value).
+	 * @return the target state, or {@link #NO_STATE} if there is no such transition.
+	 */
+	private int step (final int state, final int label) {
+		final int transitions = state + STATE_HEADER_SIZE;
+		int low = 0;
+		int high = (buffer.get(state + 1) & 0xFF) - 1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			final int transition = transitions + middle * TRANSITION_SIZE;
+			final int currentLabel = buffer.get(transition) & 0xFF;
+			if (currentLabel < label) {
+				low = middle + 1;
+			} else if (currentLabel > label) {
+				high = middle - 1;
+			} else {
+				return buffer.getInt(transition + 1);
+			}
+		}
+		return NO_STATE;
+	}
+	
+	/**
+	 * Check if the state is final, meaning that the path leading to it is a word.
+	 * @param state
+	 *        the state to check.
+	 * @return <code>true</code> if the state is final.
+	 */
+	private boolean isFinal (final int state) {
+		return (buffer.get(state) & FINAL_FLAG) != 0;
+	}
+	
+	/**
+	 * Visitor of the words of an automaton.
+	 * @author Alex
+	 */
+	interface WordVisitor {
+		/**
+		 * Visit a word of the automaton.
+		 * @param utf8Word
+		 *        the array with the UTF-8 encoding of the word.
+		 * @param length
+		 *        the length of the word in the array.
+		 */
+		void visitWord (byte[] utf8Word, int length);
+	}
+	
+	/**
+	 * Comparator for UTF-8 encoded words, which compares the bytes as unsigned values.<br />
+	 * This is the order in which the transitions are stored in the automaton.
+	 * @author Alex
+	 */
+	private enum UnsignedBytesComparator implements Comparator<byte[]> {
+		/** The comparator instance */
+		INSTANCE;
+		
+		@Override
+		public int compare (final byte[] first, final byte[] second) {
+			final int length = Math.min(first.length, second.length);
+			for (int index = 0; index < length; index++) {
+				final int cmp = (first[index] & 0xFF) - (second[index] & 0xFF);
+				if (cmp != 0) {
+					return cmp;
+				}
+			}
+			return first.length - second.length;
+		}
+	}
+	
+	/**
+	 * State of the automaton while it is being built.<br />
+	 * Once registered, a state is never modified so its hash code remains stable.
+	 * @author Alex
+	 */
+	private static final class State {
+		/** <code>true</code> if the state is final */
+		private boolean	isFinal;
+		/** The labels of the transitions */
+		private byte[]	labels;
+		/** The targets of the transitions */
+		private State[]	targets;
+		/** The number of transitions */
+		private int		count;
+		/** The offset of the state in the encoded automaton */
+		private int		offset;
+		
+		/**
+		 * Constructor #1.<br />
+		 */
+		private State () {
+			super();
+			labels = new byte[1];
+			targets = new State[1];
+			count = 0;
+			offset = NO_STATE;
+		}
+		
+		/**
+		 * Add a transition to the state.<br />
+		 * The transitions must be added in increasing label order.
+		 * @param label
+		 *        the label of the transition.
+		 * @param target
+		 *        the target state.
+		 */
+		private void addTransition (final byte label, final State target) {
+			if (count == labels.length) {
+				labels = Arrays.copyOf(labels, count * 2);
+				targets = Arrays.copyOf(targets, count * 2);
+			}
+			labels[count] = label;
+			targets[count] = target;
+			count++;
+		}
+		
+		/**
+		 * Return the size of the state once encoded.
+		 * @return the size of the state.
+		 */
+		private int encodedSize () {
+			return STATE_HEADER_SIZE + count * TRANSITION_SIZE;
+		}
+		
+		@Override
+		public int hashCode () {
+			int hash = isFinal ? 1 : 0;
+			for (int index = 0; index < count; index++) {
+				hash = 31 * hash + labels[index];
+				hash = 31 * hash + System.identityHashCode(targets[index]);
+			}
+			return hash;
+		}
+		
+		@Override
+		public boolean equals (final Object obj) {
+			if (!(obj instanceof State)) {
+				return false;
+			}
+			final State other = (State) obj;
+			if (isFinal != other.isFinal || count != other.count) {
+				return false;
+			}
+			for (int index = 0; index < count; index++) {
+				// Targets are already minimized, so identity is enough
+				if (labels[index] != other.labels[index] || targets[index] != other.targets[index]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Builder of the minimal automaton, using the incremental algorithm for sorted data from
+	 * Daciuk et al.<br />
+	 * Only the path of the last word added is kept un-minimized, all the other states are
+	 * registered as soon as they cannot be modified anymore.
+	 * @author Alex
+	 */
+	private static final class Builder {
+		/** The register of the minimized states */
+		private final Map<State, State>	register;
+		/** The path of the last word added */
+		private State[]					path;
+		/** The number of distinct words added */
+		private int						wordCount;
+		
+		/**
+		 * Constructor #1.<br />
+		 */
+		private Builder () {
+			super();
+			register = new HashMap<>();
+			path = new State[] { new State() };
+			wordCount = 0;
+		}
+		
+		/**
+		 * Build the automaton.
+		 * @param sortedWords
+		 *        the UTF-8 encoded words, sorted by {@link UnsignedBytesComparator}.
+		 * @return the automaton.
+		 */
+		private WordAutomaton build (final byte[][] sortedWords) {
+			byte[] previous = null;
+			for (final byte[] word : sortedWords) {
+				if (previous != null && Arrays.equals(previous, word)) {
+					continue;
+				}
+				final int prefix = previous == null ? 0 : commonPrefix(previous, word);
+				minimize(previous == null ? 0 : previous.length, prefix);
+				if (path.length <= word.length) {
+					path = Arrays.copyOf(path, word.length + 1);
+				}
+				for (int index = prefix; index < word.length; index++) {
+					final State next = new State();
+					path[index].addTransition(word[index], next);
+					path[index + 1] = next;
+				}
+				path[word.length].isFinal = true;
+				wordCount++;
+				previous = word;
+			}
+			minimize(previous == null ? 0 : previous.length, 0);
+			return encode(path[0]);
+		}
+		
+		/**
+		 * Compute the length of the common prefix of two words.
+		 * @param first
+		 *        the first word.
+		 * @param second
+		 *        the second word.
+		 * @return the length of the common prefix.
+		 */
+		private static int commonPrefix (final byte[] first, final byte[] second) {
+			final int length = Math.min(first.length, second.length);
+			int index = 0;
+			while (index < length && first[index] == second[index]) {
+				index++;
+			}
+			return index;
+		}
+		
+		/**
+		 * Minimize the states of the path, from the deepest state to the specified depth
+		 * (exclusive).
+		 * @param from
+		 *        the depth of the deepest state of the path.
+		 * @param downTo
+		 *        the depth of the last state which can still be modified.
+		 */
+		private void minimize (final int from, final int downTo) {
+			for (int depth = from; depth > downTo; depth--) {
+				final State child = path[depth];
+				final State registered = register.get(child);
+				if (registered == null) {
+					register.put(child, child);
+				} else {
+					final State parent = path[depth - 1];
+					parent.targets[parent.count - 1] = registered;
+				}
+				path[depth] = null;
+			}
+		}
+		
+		/**
+		 * Encode the automaton in a buffer.
+		 * @param root
+		 *        the root state of the automaton.
+		 * @return the encoded automaton.
+		 */
+		private WordAutomaton encode (final State root) {
+			register.clear();
+			// Assign the offsets
+			final List<State> states = new ArrayList<>();
+			final LinkedList<State> toVisit = new LinkedList<>();
+			int size = HEADER_SIZE;
+			root.offset = 0;
+			toVisit.push(root);
+			while (!toVisit.isEmpty()) {
+				final State state = toVisit.pop();
+				states.add(state);
+				size += state.encodedSize();
+				for (int index = 0; index < state.count; index++) {
+					final State target = state.targets[index];
+					if (target.offset == NO_STATE) {
+						// Mark the state as visited, actual offset is computed afterwards
+						target.offset = 0;
+						toVisit.push(target);
+					}
+				}
+			}
+			int offset = HEADER_SIZE;
+			for (final State state : states) {
+				state.offset = offset;
+				offset += state.encodedSize();
+			}
+			
+			// Write the states
+			final ByteBuffer buffer = ByteBuffer.allocate(size);
+			buffer.putInt(wordCount);
+			buffer.putInt(root.offset);
+			for (final State state : states) {
+				buffer.put(state.isFinal ? FINAL_FLAG : 0);
+				buffer.put((byte) state.count);
+				for (int index = 0; index < state.count; index++) {
+					buffer.put(state.labels[index]);
+					buffer.putInt(state.targets[index].offset);
+				}
+			}
+			buffer.flip();
+			return new WordAutomaton(buffer);
+		}
+	}
+}
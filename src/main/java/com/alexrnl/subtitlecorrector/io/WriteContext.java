@@ -0,0 +1,80 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import java.io.BufferedWriter;
+import java.nio.file.Path;
+
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+
+/**
+ * The state of the writing of a subtitle file.<br />
+ * A context is created for each file written, so a {@link SubtitleWriter} does not keep any state
+ * between its calls and can write several files at the same time. The context itself is used by a
+ * single thread.
+ * @author Alex
+ */
+public class WriteContext {
+	/** The subtitle file written */
+	private final SubtitleFile		subtitleFile;
+	/** The target of the file */
+	private final Path				target;
+	/** The writer on the target */
+	private final BufferedWriter	writer;
+	/** The number of subtitles written */
+	private int						subtitleCount;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param subtitleFile
+	 *        the subtitle file written.
+	 * @param target
+	 *        the target of the file.
+	 * @param writer
+	 *        the writer on the target.
+	 */
+	public WriteContext (final SubtitleFile subtitleFile, final Path target, final BufferedWriter writer) {
+		super();
+		this.subtitleFile = subtitleFile;
+		this.target = target;
+		this.writer = writer;
+		this.subtitleCount = 0;
+	}
+	
+	/**
+	 * Return the attribute subtitleFile.
+	 * @return the attribute subtitleFile.
+	 */
+	public SubtitleFile getSubtitleFile () {
+		return subtitleFile;
+	}
+	
+	/**
+	 * Return the attribute target.
+	 * @return the attribute target.
+	 */
+	public Path getTarget () {
+		return target;
+	}
+	
+	/**
+	 * Return the attribute writer.
+	 * @return the attribute writer.
+	 */
+	public BufferedWriter getWriter () {
+		return writer;
+	}
+	
+	/**
+	 * Return the attribute subtitleCount.
+	 * @return the number of subtitles written so far, not including the one being written.
+	 */
+	public int getSubtitleCount () {
+		return subtitleCount;
+	}
+	
+	/**
+	 * Count a subtitle written.
+	 */
+	void subtitleWritten () {
+		subtitleCount++;
+	}
+}
@@ -0,0 +1,361 @@
+package com.alexrnl.subtitlecorrector.io.subrip;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.io.ReadContext;
+import com.alexrnl.subtitlecorrector.io.SubtitleReader;
+
+/**
+ * Reader for the SubRip format which maps the file in memory and parses its bytes.<br />
+ * The structure of a SubRip file (the blank lines, the numbers and the dates) only uses ASCII
+ * characters, so it is found directly in the bytes of the file; only the text of the subtitles is
+ * decoded. This requires a character set which encodes the ASCII characters as single bytes and
+ * never uses these bytes in the encoding of the other characters: UTF-8 and the single byte
+ * character sets (such as ISO-8859-1), see {@link #isSupported(Charset)}. The UTF-8 byte order
+ * mark is skipped.<br />
+ * The subtitles are the same as the ones read by {@link SubRipReader}, except for the last
+ * subtitle of a file which does not end with a blank line, which is kept. A lenient reader skips
+ * the malformed subtitles like a lenient {@link SubRipReader}.<br />
+ * The files opened in another character set (see {@link #openFile(Path, Charset)}) which is not
+ * supported are read with characters, as by a {@link SubRipReader}.<br />
+ * The mapping of a file is not released when its reading is closed, but when the buffer is garbage
+ * collected. On the platforms which refuse to replace or delete a mapped file (such as Windows), a
+ * file read by this reader cannot be overwritten until then, so correcting the files in place may
+ * fail: use a {@link SubRipReader} there.
+ * @author Alex
+ */
+public class MappedSubRipReader extends SubtitleReader {
+	/** The byte order mark, in UTF-8 */
+	private static final byte[]	UTF8_BOM	= { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+	/** The ASCII characters which must be encoded as in ASCII by the supported character sets */
+	private static final String	STRUCTURE	= "0123456789:,.-> \t\r\n";
+	
+	/** <code>true</code> if the malformed subtitles are skipped */
+	private final boolean		lenient;
+	/** The reader of the files in a character set which cannot be parsed at the byte level */
+	private final SubRipReader	fallback;
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default constructor, uses UTF-8 for reading the file.
+	 */
+	public MappedSubRipReader () {
+		this(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * @param charSet
+	 *        the character set to use for reading the file.
+	 * @throws IllegalArgumentException
+	 *         if the character set is not supported.
+	 */
+	public MappedSubRipReader (final Charset charSet) {
+		this(charSet, false);
+	}
+	
+	/**
+	 * Constructor #3.<br />
+	 * @param charSet
+	 *        the character set to use for reading the file.
+	 * @param lenient
+	 *        <code>true</code> if the malformed subtitles should be skipped and reported in the
+	 *        diagnostics of the file, <code>false</code> if they should fail the reading.
+	 * @throws IllegalArgumentException
+	 *         if the character set is not supported.
+	 */
+	public MappedSubRipReader (final Charset charSet, final boolean lenient) {
+		super(charSet);
+		this.lenient = lenient;
+		this.fallback = new SubRipReader(charSet, lenient);
+		if (!isSupported(charSet)) {
+			throw new IllegalArgumentException("The character set " + charSet
+					+ " cannot be parsed at the byte level");
+		}
+	}
+	
+	/**
+	 * Check if a character set can be used by this reader.<br />
+	 * The character set must be UTF-8 or a single byte character set, and encode the ASCII
+	 * characters used by the structure of the SubRip files as ASCII does.
+	 * @param charSet
+	 *        the character set to check.
+	 * @return <code>true</code> if the files in this character set can be read by this reader.
+	 */
+	public static boolean isSupported (final Charset charSet) {
+		if (!charSet.canEncode()) {
+			return false;
+		}
+		if (!StandardCharsets.UTF_8.equals(charSet) && charSet.newEncoder().maxBytesPerChar() > 1) {
+			return false;
+		}
+		return Arrays.equals(STRUCTURE.getBytes(StandardCharsets.US_ASCII), STRUCTURE.getBytes(charSet));
+	}
+	
+	/**
+	 * Return the attribute lenient.
+	 * @return <code>true</code> if the malformed subtitles are skipped.
+	 */
+	public boolean isLenient () {
+		return lenient;
+	}
+	
+	@Override
+	protected ReadContext openContext (final Path file, final Charset fileCharSet) throws IOException {
+		if (!isSupported(fileCharSet)) {
+			// Read the file with characters, see readSubtitle
+			return super.openContext(file, fileCharSet);
+		}
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("The file " + file + " is too large to be mapped (" + size + " bytes)");
+			}
+			// The mapping remains valid once the channel is closed
+			final ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, size);
+			final MappedReadContext context = new MappedReadContext(file, buffer, fileCharSet.newDecoder(),
+					new SubRipCueHeader(lenient));
+			if (StandardCharsets.UTF_8.equals(fileCharSet) && context.startsWith(UTF8_BOM)) {
+				context.position = UTF8_BOM.length;
+			}
+			return context;
+		}
+	}
+	
+	@Override
+	protected Subtitle readSubtitle (final ReadContext readContext) throws IOException {
+		if (!(readContext instanceof MappedReadContext)) {
+			return fallback.readSubtitle(readContext);
+		}
+		final MappedReadContext context = (MappedReadContext) readContext;
+		
+		// Get the number and the dates of the subtitle, after the empty lines
+		context.header.reset();
+		do {
+			if (!context.nextLine()) {
+				throw new EOFException("End of file reached");
+			}
+		} while (!context.header.read(context.line, context));
+		
+		// Get the content of the subtitle
+		final StringBuilder content = context.content;
+		content.setLength(0);
+		while (context.nextLine() && context.line.length() != 0) {
+			context.decodeLine();
+			content.append(System.lineSeparator());
+		}
+		
+		return new Subtitle(context.header.getBegin(), context.header.getEnd(), content.toString());
+	}
+	
+	/**
+	 * View of a range of bytes as a sequence of characters, one character per byte.<br />
+	 * Used to parse the ASCII parts of the file without decoding them.
+	 * @author Alex
+	 */
+	private static final class ByteSequence implements CharSequence {
+		/** The bytes of the file */
+		private final ByteBuffer	buffer;
+		/** The index of the first byte of the sequence */
+		private int					start;
+		/** The index after the last byte of the sequence */
+		private int					end;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param buffer
+		 *        the bytes of the file.
+		 */
+		private ByteSequence (final ByteBuffer buffer) {
+			super();
+			this.buffer = buffer;
+		}
+		
+		/**
+		 * Set the range of bytes viewed.
+		 * @param start
+		 *        the index of the first byte (inclusive).
+		 * @param end
+		 *        the index of the last byte (exclusive).
+		 */
+		private void set (final int start, final int end) {
+			this.start = start;
+			this.end = end;
+		}
+		
+		@Override
+		public int length () {
+			return end - start;
+		}
+		
+		@Override
+		public char charAt (final int index) {
+			return (char) (buffer.get(start + index) & 0xFF);
+		}
+		
+		@Override
+		public CharSequence subSequence (final int from, final int to) {
+			return toString().substring(from, to);
+		}
+		
+		@Override
+		public String toString () {
+			final StringBuilder string = new StringBuilder(length());
+			for (int index = 0; index < length(); index++) {
+				string.append(charAt(index));
+			}
+			return string.toString();
+		}
+	}
+	
+	/**
+	 * The context of the reading of a mapped file.<br />
+	 * Keeps the position in the file and the buffers reused for each line, so reading a subtitle
+	 * only creates its content. Closing the context does not release the mapping, which lasts until
+	 * the buffer is garbage collected.
+	 * @author Alex
+	 */
+	private static final class MappedReadContext extends ReadContext {
+		/** The bytes of the file */
+		private final ByteBuffer		buffer;
+		/** The buffer used to decode the lines, which shares the bytes of the file */
+		private final ByteBuffer		slice;
+		/** The decoder of the character set of the file */
+		private final CharsetDecoder	decoder;
+		/** The current line, without the white spaces around it */
+		private final ByteSequence		line;
+		/** The parser of the headers of the subtitles */
+		private final SubRipCueHeader	header;
+		/** The content of the subtitle being read */
+		private final StringBuilder		content;
+		/** The buffer for the decoded characters */
+		private CharBuffer				characters;
+		/** The index of the next byte to read */
+		private int						position;
+		/** The number of lines read */
+		private int						lineNumber;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param file
+		 *        the file read.
+		 * @param buffer
+		 *        the bytes of the file.
+		 * @param decoder
+		 *        the decoder of the character set of the file.
+		 * @param header
+		 *        the parser of the headers of the subtitles.
+		 */
+		private MappedReadContext (final Path file, final ByteBuffer buffer, final CharsetDecoder decoder,
+				final SubRipCueHeader header) {
+			super(file, null);
+			this.buffer = buffer;
+			this.slice = buffer.duplicate();
+			this.decoder = decoder;
+			this.line = new ByteSequence(buffer);
+			this.header = header;
+			this.content = new StringBuilder();
+			this.characters = CharBuffer.allocate(0);
+			this.position = 0;
+			this.lineNumber = 0;
+		}
+		
+		@Override
+		public int getLineNumber () {
+			return lineNumber;
+		}
+		
+		/**
+		 * Check if the file starts with the specified bytes.
+		 * @param prefix
+		 *        the bytes.
+		 * @return <code>true</code> if the file starts with the bytes.
+		 */
+		private boolean startsWith (final byte[] prefix) {
+			if (buffer.limit() < prefix.length) {
+				return false;
+			}
+			for (int index = 0; index < prefix.length; index++) {
+				if (buffer.get(index) != prefix[index]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		/**
+		 * Move to the next line of the file.<br />
+		 * The lines end with a line feed, a carriage return, or both. The white spaces around the
+		 * line are excluded from the {@link #line}.
+		 * @return <code>false</code> if the end of the file was reached.
+		 */
+		private boolean nextLine () {
+			final int limit = buffer.limit();
+			if (position >= limit) {
+				return false;
+			}
+			int lineEnd = position;
+			while (lineEnd < limit && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != '\r') {
+				lineEnd++;
+			}
+			int next = lineEnd;
+			if (next < limit && buffer.get(next) == '\r') {
+				next++;
+			}
+			if (next < limit && buffer.get(next) == '\n') {
+				next++;
+			}
+			
+			int lineStart = position;
+			while (lineStart < lineEnd && (buffer.get(lineStart) & 0xFF) <= ' ') {
+				lineStart++;
+			}
+			while (lineEnd > lineStart && (buffer.get(lineEnd - 1) & 0xFF) <= ' ') {
+				lineEnd--;
+			}
+			line.set(lineStart, lineEnd);
+			position = next;
+			lineNumber++;
+			return true;
+		}
+		
+		/**
+		 * Decode the current line and append it to the {@link #content}.
+		 * @throws IOException
+		 *         if the line is not valid in the character set of the file.
+		 */
+		private void decodeLine () throws IOException {
+			// Each character has at least one byte in the supported character sets
+			if (characters.capacity() < line.length()) {
+				characters = CharBuffer.allocate(line.length());
+			}
+			characters.clear();
+			slice.clear();
+			slice.position(line.start).limit(line.end);
+			decoder.reset();
+			CoderResult result = decoder.decode(slice, characters, true);
+			if (!result.isUnderflow()) {
+				result.throwException();
+			}
+			result = decoder.flush(characters);
+			if (!result.isUnderflow()) {
+				result.throwException();
+			}
+			characters.flip();
+			content.append(characters);
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package com.alexrnl.subtitlecorrector.io.subrip;
 
 import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.util.List;
 
 import com.alexrnl.subtitlecorrector.io.SubtitleFormat;
 
@@ -17,6 +19,8 @@ public class SubRip extends SubtitleFormat {
 	public static final String	SUBRIP_DATE_FORMAT		= "HH:mm:ss,SSS";
 	/** The separator between the begin and end date of a subtitle */
 	public static final String	SUBRIP_DATE_SEPARATOR	= " --> ";
+	/** The arrow between the begin and end date of a subtitle, the spaces around may vary */
+	public static final String	SUBRIP_DATE_ARROW		= "-->";
 	
 	/**
 	 * Constructor #1.<br />
@@ -32,6 +36,96 @@ public class SubRip extends SubtitleFormat {
 	 *        the character set to use to build the reader/writers.
 	 */
 	public SubRip (final Charset charset) {
-		super(SUBRIP_NAME, new SubRipReader(charset), new SubRipWriter(charset), SUBRIP_EXTENSION);
+		this(charset, false);
+	}
+	
+	/**
+	 * Constructor #3.<br />
+	 * @param charset
+	 *        the character set to use to build the reader/writers.
+	 * @param mapped
+	 *        <code>true</code> to read the files with a {@link MappedSubRipReader}, which requires a
+	 *        character set supported by this reader.
+	 */
+	public SubRip (final Charset charset, final boolean mapped) {
+		this(charset, mapped, false);
+	}
+	
+	/**
+	 * Constructor #4.<br />
+	 * @param charset
+	 *        the character set to use to build the reader/writers.
+	 * @param mapped
+	 *        <code>true</code> to read the files with a {@link MappedSubRipReader}, which requires a
+	 *        character set supported by this reader.
+	 * @param lenient
+	 *        <code>true</code> if the reader should skip the malformed subtitles and report them in
+	 *        the diagnostics of the file, <code>false</code> if they should fail the reading.
+	 */
+	public SubRip (final Charset charset, final boolean mapped, final boolean lenient) {
+		super(SUBRIP_NAME, mapped ? new MappedSubRipReader(charset, lenient) : new SubRipReader(charset, lenient),
+				new SubRipWriter(charset), SUBRIP_EXTENSION);
+	}
+	
+	/**
+	 * Recognize the SubRip files by their first subtitle: a number followed by the dates of the
+	 * subtitle.<br />
+	 * A content with the dates of a subtitle further in the sample, after malformed lines, is a
+	 * likely match.
+	 */
+	@Override
+	public int probe (final byte[] sample, final int length) {
+		final List<String> lines = sampleLines(sample, length);
+		int first = 0;
+		while (first < lines.size() && lines.get(first).isEmpty()) {
+			first++;
+		}
+		if (first + 1 < lines.size() && isNumber(lines.get(first)) && isDates(lines.get(first + 1))) {
+			return PROBE_MATCH;
+		}
+		for (final String line : lines) {
+			if (isDates(line)) {
+				return PROBE_MATCH / 2;
+			}
+		}
+		return PROBE_NO_MATCH;
+	}
+	
+	/**
+	 * Check if a line is the number of a subtitle.
+	 * @param line
+	 *        the line.
+	 * @return <code>true</code> if the line only has digits.
+	 */
+	private static boolean isNumber (final String line) {
+		for (int index = 0; index < line.length(); index++) {
+			if (line.charAt(index) < '0' || line.charAt(index) > '9') {
+				return false;
+			}
+		}
+		return !line.isEmpty();
+	}
+	
+	/**
+	 * Check if a line has the dates of a subtitle.
+	 * @param line
+	 *        the line.
+	 * @return <code>true</code> if the line has two valid timestamps around the
+	 *         {@link #SUBRIP_DATE_ARROW arrow}.
+	 */
+	private static boolean isDates (final String line) {
+		final int separator = line.indexOf(SUBRIP_DATE_ARROW);
+		if (separator < 0) {
+			return false;
+		}
+		final String end = line.substring(separator + SUBRIP_DATE_ARROW.length()).trim();
+		final int endDateEnd = end.indexOf(' ');
+		try {
+			SubRipTimestamp.parse(line, 0, separator);
+			SubRipTimestamp.parse(end, 0, endDateEnd < 0 ? end.length() : endDateEnd);
+			return true;
+		} catch (final ParseException e) {
+			return false;
+		}
 	}
 }
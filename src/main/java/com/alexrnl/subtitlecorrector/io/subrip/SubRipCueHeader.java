@@ -0,0 +1,236 @@
+package com.alexrnl.subtitlecorrector.io.subrip;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.error.ExceptionUtils;
+import com.alexrnl.subtitlecorrector.io.ReadContext;
+
+/**
+ * Parser for the header of a SubRip subtitle: its number and its dates.<br />
+ * The parser is fed with the lines of the file, without the white spaces around them, until it
+ * finds valid dates. It is shared by the SubRip readers, which only differ in the way they read the
+ * lines.<br />
+ * When strict, any problem fails the reading of the file. When lenient, the problem is reported to
+ * the {@link ReadContext} and the lines are skipped until the next line with valid dates (a line
+ * with the {@link SubRip#SUBRIP_DATE_ARROW arrow}), so the rest of the file is read; the number of
+ * the subtitles is not required either.
+ * @author Alex
+ */
+final class SubRipCueHeader {
+	/** Logger */
+	private static final Logger	LG	= Logger.getLogger(SubRipCueHeader.class.getName());
+	
+	/**
+	 * The states of the parser.
+	 * @author Alex
+	 */
+	private enum State {
+		/** Expecting the number of the subtitle, after blank lines */
+		NUMBER,
+		/** Expecting the dates of the subtitle */
+		DATES,
+		/** Skipping the lines until the next dates, after a problem */
+		SKIPPING;
+	}
+	
+	/** <code>true</code> if the problems are recovered from */
+	private final boolean		lenient;
+	/** The current state */
+	private State				state;
+	/** The begin date of the subtitle, in milliseconds */
+	private long				begin;
+	/** The end date of the subtitle, in milliseconds */
+	private long				end;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param lenient
+	 *        <code>true</code> if the problems should be reported and skipped, <code>false</code> if
+	 *        they should fail the reading.
+	 */
+	SubRipCueHeader (final boolean lenient) {
+		super();
+		this.lenient = lenient;
+		this.state = State.NUMBER;
+	}
+	
+	/**
+	 * Prepare the parser for the header of the next subtitle.
+	 */
+	void reset () {
+		state = State.NUMBER;
+	}
+	
+	/**
+	 * Return the attribute begin.
+	 * @return the begin date of the subtitle, in milliseconds.
+	 */
+	long getBegin () {
+		return begin;
+	}
+	
+	/**
+	 * Return the attribute end.
+	 * @return the end date of the subtitle, in milliseconds.
+	 */
+	long getEnd () {
+		return end;
+	}
+	
+	/**
+	 * Parse a line of the header.
+	 * @param line
+	 *        the line, without the white spaces around it.
+	 * @param context
+	 *        the context of the reading, to which the problems are reported.
+	 * @return <code>true</code> if the line had the dates of the subtitle, which are then available
+	 *         through {@link #getBegin()} and {@link #getEnd()}.
+	 * @throws IOException
+	 *         if the line is not valid and the parser is strict.
+	 */
+	boolean read (final CharSequence line, final ReadContext context) throws IOException {
+		switch (state) {
+			case NUMBER:
+				if (line.length() == 0) {
+					return false;
+				}
+				if (isNumber(line)) {
+					if (LG.isLoggable(Level.FINE)) {
+						LG.fine("Reading subtitle#" + line);
+					}
+					state = State.DATES;
+					return false;
+				}
+				if (lenient && parseDates(line)) {
+					context.addDiagnostic("Missing subtitle number");
+					return true;
+				}
+				return problem("Could not parse '" + line + "' as a subtitle number", context);
+			case DATES:
+				if (indexOfArrow(line) < 0) {
+					return problem("Could not parse '" + line + "' as the dates of a subtitle", context);
+				}
+				if (parseDates(line)) {
+					return true;
+				}
+				return problem("Could not parse the dates of '" + line + "'", context);
+			case SKIPPING:
+				return indexOfArrow(line) >= 0 && parseDates(line);
+			default:
+				throw new IllegalStateException("Unknown state " + state);
+		}
+	}
+	
+	/**
+	 * Handle a problem in the header.
+	 * @param reason
+	 *        the description of the problem.
+	 * @param context
+	 *        the context of the reading.
+	 * @return <code>false</code>, as the dates were not found.
+	 * @throws IOException
+	 *         if the parser is strict.
+	 */
+	private boolean problem (final String reason, final ReadContext context) throws IOException {
+		if (!lenient) {
+			LG.warning(reason);
+			throw new IOException(reason);
+		}
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Skipping to the next subtitle of " + context.getFile() + ": " + reason);
+		}
+		context.addDiagnostic(reason);
+		state = State.SKIPPING;
+		return false;
+	}
+	
+	/**
+	 * Parse the dates of a subtitle.<br />
+	 * The end date may be followed by the coordinates of the subtitle, which are ignored.
+	 * @param line
+	 *        the line with the dates.
+	 * @return <code>true</code> if the dates were parsed.
+	 */
+	private boolean parseDates (final CharSequence line) {
+		final int separator = indexOfArrow(line);
+		if (separator < 0) {
+			return false;
+		}
+		int endDate = separator + SubRip.SUBRIP_DATE_ARROW.length();
+		while (endDate < line.length() && isWhitespace(line.charAt(endDate))) {
+			endDate++;
+		}
+		int endDateEnd = endDate;
+		while (endDateEnd < line.length() && !isWhitespace(line.charAt(endDateEnd))) {
+			endDateEnd++;
+		}
+		try {
+			begin = SubRipTimestamp.parse(line, 0, separator);
+			end = SubRipTimestamp.parse(line, endDate, endDateEnd);
+		} catch (final ParseException e) {
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("Could not parse the dates of " + line + ": " + ExceptionUtils.display(e));
+			}
+			return false;
+		}
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Begin date=" + SubRipTimestamp.format(begin));
+			LG.finer("End date=" + SubRipTimestamp.format(end));
+		}
+		return true;
+	}
+	
+	/**
+	 * Check if a line is a subtitle number.
+	 * @param line
+	 *        the line.
+	 * @return <code>true</code> if the line is a positive number which fits in an integer.
+	 */
+	private static boolean isNumber (final CharSequence line) {
+		long number = 0;
+		for (int index = 0; index < line.length(); index++) {
+			final char digit = line.charAt(index);
+			if (digit < '0' || digit > '9') {
+				return false;
+			}
+			number = number * 10 + digit - '0';
+			if (number > Integer.MAX_VALUE) {
+				return false;
+			}
+		}
+		return line.length() > 0;
+	}
+	
+	/**
+	 * Return the index of the {@link SubRip#SUBRIP_DATE_ARROW arrow} in a line.
+	 * @param line
+	 *        the line.
+	 * @return the index of the arrow, or <code>-1</code> if the line has no arrow.
+	 */
+	private static int indexOfArrow (final CharSequence line) {
+		final String arrow = SubRip.SUBRIP_DATE_ARROW;
+		for (int index = 0; index + arrow.length() <= line.length(); index++) {
+			int matched = 0;
+			while (matched < arrow.length() && line.charAt(index + matched) == arrow.charAt(matched)) {
+				matched++;
+			}
+			if (matched == arrow.length()) {
+				return index;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Check if a character is a white space, as defined by {@link String#trim()}.
+	 * @param character
+	 *        the character.
+	 * @return <code>true</code> if the character is a white space.
+	 */
+	private static boolean isWhitespace (final char character) {
+		return character <= ' ';
+	}
+}
@@ -1,31 +1,27 @@
 package com.alexrnl.subtitlecorrector.io.subrip;
 
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
-import com.alexrnl.commons.error.ExceptionUtils;
 import com.alexrnl.commons.io.IOUtils;
 import com.alexrnl.subtitlecorrector.common.Subtitle;
 import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+import com.alexrnl.subtitlecorrector.io.ReadContext;
 import com.alexrnl.subtitlecorrector.io.SubtitleReader;
 
 /**
  * Reader for the SubRip format.<br />
+ * By default, a malformed subtitle fails the reading of the file. A lenient reader skips the lines
+ * until the next dates, reports the problem in the diagnostics of the file (see
+ * {@link SubtitleFile#getDiagnostics()}) and keeps the other subtitles.
  * @author Alex
  */
 public class SubRipReader extends SubtitleReader {
-	/** Logger */
-	private static final Logger		LG	= Logger.getLogger(SubRipReader.class.getName());
-	
-	/** The date formatter */
-	private final SimpleDateFormat	dateFormatter;
+	/** <code>true</code> if the malformed subtitles are skipped */
+	private final boolean	lenient;
 	
 	/**
 	 * Constructor #1.<br />
@@ -41,61 +37,57 @@ public class SubRipReader extends SubtitleReader {
 	 *        the character set to use for reading the file.
 	 */
 	public SubRipReader (final Charset charSet) {
+		this(charSet, false);
+	}
+	
+	/**
+	 * Constructor #3.<br />
+	 * @param charSet
+	 *        the character set to use for reading the file.
+	 * @param lenient
+	 *        <code>true</code> if the malformed subtitles should be skipped and reported in the
+	 *        diagnostics of the file, <code>false</code> if they should fail the reading.
+	 */
+	public SubRipReader (final Charset charSet, final boolean lenient) {
 		super(charSet);
-		dateFormatter = new SimpleDateFormat(SubRip.SUBRIP_DATE_FORMAT);
+		this.lenient = lenient;
+	}
+	
+	/**
+	 * Return the attribute lenient.
+	 * @return <code>true</code> if the malformed subtitles are skipped.
+	 */
+	public boolean isLenient () {
+		return lenient;
 	}
 
 	@Override
-	protected Subtitle readSubtitle (final SubtitleFile subtitleFile, final BufferedReader reader)
-			throws IOException {
-		final long begin;
-		final long end;
+	protected Subtitle readSubtitle (final ReadContext context) throws IOException {
+		final BufferedReader reader = context.getReader();
+		final SubRipCueHeader header = new SubRipCueHeader(lenient);
 		final StringBuilder content = new StringBuilder();
 		String currentLine;
 		
-		// Removing empty lines
+		// Get the number and the dates of the subtitle, after the empty lines
 		do {
 			currentLine = IOUtils.readLine(reader).trim();
-		} while (currentLine.isEmpty());
+		} while (!header.read(currentLine, context));
 		
-		// Get the subtitle number
-		int subtitleIndex;
-		try {
-			subtitleIndex = Integer.parseInt(currentLine);
-		} catch (final NumberFormatException e) {
-			LG.warning("Could not parse '" + currentLine + "' as a number: " + ExceptionUtils.display(e));
-			throw new IOException("Could not parse a subtitle number properly", e);
-		}
-		if (LG.isLoggable(Level.FINE)) {
-			LG.fine("Reading subtitle#" + subtitleIndex);
-		}
-		
-		// Get the begin and end dates of the subtitle
-		currentLine = IOUtils.readLine(reader).trim();
-		final String[] dates = currentLine.split(SubRip.SUBRIP_DATE_SEPARATOR);
-		if (dates.length < 2) {
-			throw new IOException("Could not parse " + currentLine + " as a valid line in the subrip format");
-		}
+		// Get the content of the subtitle
 		try {
-			begin = dateFormatter.parse(dates[0]).getTime();
-			end = dateFormatter.parse(dates[1]).getTime();
-			if (LG.isLoggable(Level.FINER)) {
-				LG.finer("Begin date=" + dateFormatter.format(new Date(begin)));
-				LG.finer("End date=" + dateFormatter.format(new Date(end)));
+			do {
+				currentLine = IOUtils.readLine(reader).trim();
+				if (!currentLine.isEmpty()) {
+					content.append(currentLine).append(System.lineSeparator());
+				}
+			} while (!currentLine.isEmpty());
+		} catch (final EOFException e) {
+			// When lenient, keep the last subtitle of a file which does not end with a blank line
+			if (!lenient || content.length() == 0) {
+				throw e;
 			}
-		} catch (final ParseException e) {
-			LG.warning("Could not parse either " + dates[0] + " or " + dates[1] + " as a date");
-			throw new IOException("Problem while parsing a date", e);
 		}
 		
-		// Get the content of the subtitle
-		do {
-			currentLine = IOUtils.readLine(reader).trim();
-			if (!currentLine.isEmpty()) {
-				content.append(currentLine).append(System.lineSeparator());
-			}
-		} while (!currentLine.isEmpty());
-		
-		return new Subtitle(begin, end, content.toString());
+		return new Subtitle(header.getBegin(), header.getEnd(), content.toString());
 	}
 }
@@ -4,26 +4,22 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.alexrnl.subtitlecorrector.common.Subtitle;
-import com.alexrnl.subtitlecorrector.common.SubtitleFile;
 import com.alexrnl.subtitlecorrector.io.SubtitleWriter;
+import com.alexrnl.subtitlecorrector.io.WriteContext;
 
 /**
  * Writer for the SubRip format.<br />
+ * The subtitles are numbered from the count kept in the {@link WriteContext}, so the writer does
+ * not keep any state and can write several files at the same time.
  * @author Alex
  */
 public class SubRipWriter extends SubtitleWriter {
 	/** Logger */
-	private static final Logger		LG	= Logger.getLogger(SubRipWriter.class.getName());
-	
-	/** The date formatter */
-	private final SimpleDateFormat	dateFormat;
-	/** The subtitle counter (required by SubRip format) */
-	private Integer					subtitleCounter;
+	private static final Logger	LG	= Logger.getLogger(SubRipWriter.class.getName());
 	
 	/**
 	 * Constructor #1.<br />
@@ -40,34 +36,23 @@ public class SubRipWriter extends SubtitleWriter {
 	 */
 	public SubRipWriter (final Charset charSet) {
 		super(charSet);
-		dateFormat = new SimpleDateFormat(SubRip.SUBRIP_DATE_FORMAT);
-		subtitleCounter = null;
-	}
-	
-	@Override
-	protected void writeHeader (final SubtitleFile file, final BufferedWriter writer) throws IOException {
-		if (subtitleCounter != null) {
-			throw new IllegalStateException("It seems that the previous file was not finished fully writen");
-		}
-		subtitleCounter = 0;
 	}
 
 	@Override
-	protected void writeFooter (final SubtitleFile file, final BufferedWriter writer) throws IOException {
+	protected void writeFooter (final WriteContext context) throws IOException {
 		if (LG.isLoggable(Level.INFO)) {
-			LG.info("Successfully writen " + subtitleCounter + " subtitles");
+			LG.info("Successfully writen " + context.getSubtitleCount() + " subtitles");
 		}
-		subtitleCounter = null;
 	}
 
 	@Override
-	protected void writeSubtitle (final Subtitle subtitle, final BufferedWriter writer) throws IOException {
-		subtitleCounter++;
-		writer.write(subtitleCounter.toString());
+	protected void writeSubtitle (final Subtitle subtitle, final WriteContext context) throws IOException {
+		final BufferedWriter writer = context.getWriter();
+		writer.write(Integer.toString(context.getSubtitleCount() + 1));
 		writer.write(System.lineSeparator());
-		writer.write(dateFormat.format(subtitle.getBegin()));
+		SubRipTimestamp.format(subtitle.getBegin(), writer);
 		writer.write(SubRip.SUBRIP_DATE_SEPARATOR);
-		writer.write(dateFormat.format(subtitle.getEnd()));
+		SubRipTimestamp.format(subtitle.getEnd(), writer);
 		writer.write(System.lineSeparator());
 		writer.write(subtitle.getContent());
 		writer.write(System.lineSeparator());
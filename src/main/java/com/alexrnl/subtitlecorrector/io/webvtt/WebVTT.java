@@ -0,0 +1,92 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.alexrnl.subtitlecorrector.io.SubtitleFormat;
+
+/**
+ * Constants used for the definition of the WebVTT format.<br />
+ * A WebVTT file starts with the {@link #WEBVTT_SIGNATURE signature}, followed by blocks separated
+ * by blank lines: the cues (the subtitles), the comments ({@link #WEBVTT_NOTE NOTE} blocks), the
+ * style sheets ({@link #WEBVTT_STYLE STYLE} blocks) and the regions ({@link #WEBVTT_REGION REGION}
+ * blocks). The blocks which are not cues are kept as they are, so they are written back unchanged
+ * (see {@link WebVTTFile} and {@link WebVTTCue}).
+ * @author Alex
+ */
+public class WebVTT extends SubtitleFormat {
+	/** The name of the subtitle format */
+	public static final String	WEBVTT_NAME				= "WebVTT";
+	/** The extension associated to the WebVTT */
+	public static final String	WEBVTT_EXTENSION		= "vtt";
+	/** The signature at the beginning of the files */
+	public static final String	WEBVTT_SIGNATURE		= "WEBVTT";
+	/** The separator between the begin and end date of a cue */
+	public static final String	WEBVTT_DATE_SEPARATOR	= " --> ";
+	/** The arrow between the begin and end date of a cue, the spaces around may vary */
+	public static final String	WEBVTT_DATE_ARROW		= "-->";
+	/** The keyword of the comment blocks */
+	public static final String	WEBVTT_NOTE				= "NOTE";
+	/** The keyword of the style sheet blocks */
+	public static final String	WEBVTT_STYLE			= "STYLE";
+	/** The keyword of the region definition blocks */
+	public static final String	WEBVTT_REGION			= "REGION";
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default constructor, uses UTF-8 which is the character set of the WebVTT files.
+	 */
+	public WebVTT () {
+		this(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * @param charset
+	 *        the character set to use to build the reader/writers.
+	 */
+	public WebVTT (final Charset charset) {
+		super(WEBVTT_NAME, new WebVTTReader(charset), new WebVTTWriter(charset), WEBVTT_EXTENSION);
+	}
+	
+	/**
+	 * Recognize the WebVTT files by their signature.
+	 */
+	@Override
+	public int probe (final byte[] sample, final int length) {
+		final List<String> lines = sampleLines(sample, length);
+		if (!lines.isEmpty() && isSignature(lines.get(0))) {
+			return PROBE_MATCH;
+		}
+		return PROBE_NO_MATCH;
+	}
+	
+	/**
+	 * Check if a line is the signature of a WebVTT file.<br />
+	 * The signature may be followed by a space or a tab and a text.
+	 * @param line
+	 *        the first line of the file.
+	 * @return <code>true</code> if the line is the signature.
+	 */
+	static boolean isSignature (final String line) {
+		return isKeyword(line, WEBVTT_SIGNATURE);
+	}
+	
+	/**
+	 * Check if a line starts a block with the specified keyword.<br />
+	 * The keyword is alone on the line or followed by a space or a tab.
+	 * @param line
+	 *        the first line of the block.
+	 * @param keyword
+	 *        the keyword.
+	 * @return <code>true</code> if the line starts with the keyword.
+	 */
+	static boolean isKeyword (final String line, final String keyword) {
+		if (!line.startsWith(keyword)) {
+			return false;
+		}
+		return line.length() == keyword.length() || line.charAt(keyword.length()) == ' '
+				|| line.charAt(keyword.length()) == '\t';
+	}
+}
@@ -0,0 +1,77 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+
+/**
+ * A subtitle of a WebVTT file, called a cue.<br />
+ * In addition to the dates and the content of the subtitle, a cue may have an identifier and
+ * settings (its position, alignment, region...), and may be preceded by comment blocks. They are
+ * kept so the cue is written back as it was read, and are not affected by the correction of the
+ * content. The equality and the ordering of the cues are the ones of the {@link Subtitle}.
+ * @author Alex
+ */
+public class WebVTTCue extends Subtitle {
+	/** The identifier of the cue, <code>null</code> if the cue has none */
+	private final String		identifier;
+	/** The settings of the cue, after the end date, empty if the cue has none */
+	private final String		settings;
+	/** The blocks preceding the cue in the file (comments) */
+	private final List<String>	notes;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param begin
+	 *        the beginning of the subtitle display (in milliseconds).
+	 * @param end
+	 *        the end of the subtitle display (in milliseconds).
+	 * @param content
+	 *        the content of the subtitle.
+	 * @param identifier
+	 *        the identifier of the cue, <code>null</code> if the cue has none.
+	 * @param settings
+	 *        the settings of the cue, empty if the cue has none.
+	 * @param notes
+	 *        the blocks preceding the cue in the file, with their lines separated by the line
+	 *        separator of the system.
+	 */
+	public WebVTTCue (final long begin, final long end, final String content, final String identifier,
+			final String settings, final List<String> notes) {
+		super(begin, end, content);
+		this.identifier = identifier;
+		this.settings = settings == null ? "" : settings;
+		this.notes = Collections.unmodifiableList(new ArrayList<>(notes));
+	}
+	
+	/**
+	 * Return the attribute identifier.
+	 * @return the identifier of the cue, <code>null</code> if the cue has none.
+	 */
+	public String getIdentifier () {
+		return identifier;
+	}
+	
+	/**
+	 * Return the attribute settings.
+	 * @return the settings of the cue, empty if the cue has none.
+	 */
+	public String getSettings () {
+		return settings;
+	}
+	
+	/**
+	 * Return the attribute notes.
+	 * @return the blocks preceding the cue in the file, in their order.
+	 */
+	public List<String> getNotes () {
+		return notes;
+	}
+	
+	@Override
+	public WebVTTCue clone () throws CloneNotSupportedException {
+		return (WebVTTCue) super.clone();
+	}
+}
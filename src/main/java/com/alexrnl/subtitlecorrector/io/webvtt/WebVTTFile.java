@@ -0,0 +1,86 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+
+/**
+ * A WebVTT subtitle file.<br />
+ * Keeps the blocks of the file which are not cues, so they are written back as they were read: the
+ * header (the signature and the lines following it), the blocks before the first cue (the style
+ * sheets, the regions and the comments) and the blocks after the last cue. The blocks between the
+ * cues are kept by the cues (see {@link WebVTTCue#getNotes()}).<br />
+ * The lines of the header and of the blocks are separated by the line separator of the system.
+ * @author Alex
+ */
+public class WebVTTFile extends SubtitleFile {
+	/** Serial Version UID */
+	private static final long	serialVersionUID	= 2390176513627413561L;
+	
+	/** The header of the file, starting with the signature */
+	private final String		header;
+	/** The blocks before the first cue */
+	private final List<String>	headerBlocks;
+	/** The blocks after the last cue */
+	private final List<String>	trailingBlocks;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param file
+	 *        the file backed-up by this instance.
+	 * @param header
+	 *        the header of the file, starting with the signature.
+	 */
+	public WebVTTFile (final Path file, final String header) {
+		super(file);
+		this.header = Objects.requireNonNull(header);
+		this.headerBlocks = new ArrayList<>();
+		this.trailingBlocks = new ArrayList<>();
+	}
+	
+	/**
+	 * Return the attribute header.
+	 * @return the header of the file, starting with the signature.
+	 */
+	public String getHeader () {
+		return header;
+	}
+	
+	/**
+	 * Return the blocks before the first cue.
+	 * @return the blocks, in the order of the file.
+	 */
+	public List<String> getHeaderBlocks () {
+		return Collections.unmodifiableList(headerBlocks);
+	}
+	
+	/**
+	 * Add a block before the first cue.
+	 * @param block
+	 *        the block to add.
+	 */
+	public void addHeaderBlock (final String block) {
+		headerBlocks.add(Objects.requireNonNull(block));
+	}
+	
+	/**
+	 * Return the blocks after the last cue.
+	 * @return the blocks, in the order of the file.
+	 */
+	public List<String> getTrailingBlocks () {
+		return Collections.unmodifiableList(trailingBlocks);
+	}
+	
+	/**
+	 * Add a block after the last cue.
+	 * @param block
+	 *        the block to add.
+	 */
+	public void addTrailingBlock (final String block) {
+		trailingBlocks.add(Objects.requireNonNull(block));
+	}
+}
@@ -0,0 +1,251 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.error.ExceptionUtils;
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+import com.alexrnl.subtitlecorrector.io.ReadContext;
+import com.alexrnl.subtitlecorrector.io.SubtitleReader;
+
+/**
+ * Reader for the WebVTT format.<br />
+ * The file is read block by block, the blocks being separated by blank lines. The cues are read as
+ * {@link WebVTTCue}, with their identifier and settings; the other blocks (comments, style sheets
+ * and regions) are kept as they are, by the {@link WebVTTFile} when they are before the first cue
+ * or after the last one, by the following cue otherwise.<br />
+ * A file without the signature or a malformed cue fails the reading of the file.
+ * @author Alex
+ */
+public class WebVTTReader extends SubtitleReader {
+	/** Logger */
+	private static final Logger	LG	= Logger.getLogger(WebVTTReader.class.getName());
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default constructor, uses UTF-8 for reading the file.
+	 */
+	public WebVTTReader () {
+		this(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * @param charSet
+	 *        the character set to use for reading the file.
+	 */
+	public WebVTTReader (final Charset charSet) {
+		super(charSet);
+	}
+	
+	@Override
+	protected ReadContext newContext (final Path file, final BufferedReader reader) {
+		return new WebVTTReadContext(file, reader);
+	}
+	
+	@Override
+	protected SubtitleFile readHeader (final ReadContext readContext) throws IOException {
+		final WebVTTReadContext context = (WebVTTReadContext) readContext;
+		final List<String> header = readBlock(context.getReader());
+		if (header == null || !WebVTT.isSignature(header.get(0))) {
+			LG.warning("The file " + context.getFile() + " does not start with the WebVTT signature");
+			throw new IOException("Missing the " + WebVTT.WEBVTT_SIGNATURE + " signature");
+		}
+		
+		// The blocks before the first cue are read now, so the file is complete before its cues are
+		// written; the block of the first cue is kept for readSubtitle
+		final WebVTTFile file = new WebVTTFile(context.getFile(), join(header));
+		List<String> block;
+		while ((block = readBlock(context.getReader())) != null) {
+			if (isCue(block)) {
+				context.firstCue = block;
+				break;
+			}
+			file.addHeaderBlock(join(block));
+		}
+		return file;
+	}
+	
+	@Override
+	protected Subtitle readSubtitle (final ReadContext readContext) throws IOException {
+		final WebVTTReadContext context = (WebVTTReadContext) readContext;
+		final WebVTTFile file = (WebVTTFile) context.getSubtitleFile();
+		final List<String> notes = new ArrayList<>();
+		List<String> block;
+		while ((block = context.nextBlock()) != null) {
+			if (!isCue(block)) {
+				notes.add(join(block));
+				continue;
+			}
+			
+			// The identifier is optional, the dates are on the first line which has the arrow
+			String identifier = null;
+			int dates = 0;
+			if (block.get(0).indexOf(WebVTT.WEBVTT_DATE_ARROW) < 0) {
+				identifier = block.get(0);
+				dates = 1;
+			}
+			if (dates >= block.size() || block.get(dates).indexOf(WebVTT.WEBVTT_DATE_ARROW) < 0) {
+				final String reason = "Missing the dates of the cue " + identifier + " before line "
+						+ context.getLineNumber();
+				LG.warning(reason);
+				throw new IOException(reason);
+			}
+			return parseCue(block, dates, identifier, notes);
+		}
+		
+		// The blocks after the last cue belong to the file
+		for (final String note : notes) {
+			file.addTrailingBlock(note);
+		}
+		throw new EOFException("End of file reached");
+	}
+	
+	/**
+	 * Parse the dates, the settings and the content of a cue.
+	 * @param block
+	 *        the lines of the cue.
+	 * @param dates
+	 *        the index of the line with the dates.
+	 * @param identifier
+	 *        the identifier of the cue, <code>null</code> if it has none.
+	 * @param notes
+	 *        the blocks preceding the cue.
+	 * @return the cue.
+	 * @throws IOException
+	 *         if the dates could not be parsed.
+	 */
+	private static WebVTTCue parseCue (final List<String> block, final int dates, final String identifier,
+			final List<String> notes) throws IOException {
+		final String line = block.get(dates);
+		final int separator = line.indexOf(WebVTT.WEBVTT_DATE_ARROW);
+		int endDate = separator + WebVTT.WEBVTT_DATE_ARROW.length();
+		while (endDate < line.length() && Character.isWhitespace(line.charAt(endDate))) {
+			endDate++;
+		}
+		int endDateEnd = endDate;
+		while (endDateEnd < line.length() && !Character.isWhitespace(line.charAt(endDateEnd))) {
+			endDateEnd++;
+		}
+		final long begin;
+		final long end;
+		try {
+			begin = WebVTTTimestamp.parse(line, 0, separator);
+			end = WebVTTTimestamp.parse(line, endDate, endDateEnd);
+		} catch (final ParseException e) {
+			LG.warning("Could not parse the dates of " + line + ": " + ExceptionUtils.display(e));
+			throw new IOException("Invalid dates: " + line, e);
+		}
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Begin date=" + WebVTTTimestamp.format(begin));
+			LG.finer("End date=" + WebVTTTimestamp.format(end));
+		}
+		
+		final StringBuilder content = new StringBuilder();
+		for (int index = dates + 1; index < block.size(); index++) {
+			content.append(block.get(index)).append(System.lineSeparator());
+		}
+		return new WebVTTCue(begin, end, content.toString(), identifier, line.substring(endDateEnd).trim(), notes);
+	}
+	
+	/**
+	 * Read the next block of the file, after the blank lines.
+	 * @param reader
+	 *        the reader on the file.
+	 * @return the lines of the block, <code>null</code> if the end of the file was reached.
+	 * @throws IOException
+	 *         if the file could not be read.
+	 */
+	private static List<String> readBlock (final BufferedReader reader) throws IOException {
+		String line;
+		do {
+			line = reader.readLine();
+			if (line == null) {
+				return null;
+			}
+		} while (line.trim().isEmpty());
+		
+		final List<String> block = new ArrayList<>();
+		while (line != null && !line.trim().isEmpty()) {
+			block.add(line);
+			line = reader.readLine();
+		}
+		return block;
+	}
+	
+	/**
+	 * Check if a block is a cue.
+	 * @param block
+	 *        the lines of the block.
+	 * @return <code>false</code> if the block is a comment, a style sheet or a region.
+	 */
+	private static boolean isCue (final List<String> block) {
+		final String first = block.get(0);
+		return !WebVTT.isKeyword(first, WebVTT.WEBVTT_NOTE) && !WebVTT.isKeyword(first, WebVTT.WEBVTT_STYLE)
+				&& !WebVTT.isKeyword(first, WebVTT.WEBVTT_REGION);
+	}
+	
+	/**
+	 * Join the lines of a block with the line separator of the system.
+	 * @param block
+	 *        the lines of the block.
+	 * @return the lines joined.
+	 */
+	private static String join (final List<String> block) {
+		final StringBuilder joined = new StringBuilder();
+		for (final String line : block) {
+			if (joined.length() > 0) {
+				joined.append(System.lineSeparator());
+			}
+			joined.append(line);
+		}
+		return joined.toString();
+	}
+	
+	/**
+	 * The context of the reading of a WebVTT file.<br />
+	 * Keeps the block of the first cue, which is read with the header of the file.
+	 * @author Alex
+	 */
+	private static final class WebVTTReadContext extends ReadContext {
+		/** The block of the first cue, <code>null</code> once it is read */
+		private List<String>	firstCue;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param file
+		 *        the file read.
+		 * @param reader
+		 *        the reader on the file.
+		 */
+		private WebVTTReadContext (final Path file, final BufferedReader reader) {
+			super(file, reader);
+			this.firstCue = null;
+		}
+		
+		/**
+		 * Return the next block of the file, starting with the block of the first cue.
+		 * @return the lines of the block, <code>null</code> if the end of the file was reached.
+		 * @throws IOException
+		 *         if the file could not be read.
+		 */
+		private List<String> nextBlock () throws IOException {
+			if (firstCue != null) {
+				final List<String> block = firstCue;
+				firstCue = null;
+				return block;
+			}
+			return readBlock(getReader());
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Parser and formatter for the timestamps of the WebVTT format.<br />
+ * A timestamp has the form <code>hours:minutes:seconds.milliseconds</code>, where the hours are
+ * optional (<code>minutes:seconds.milliseconds</code>) and have at least two digits when present,
+ * and is the time elapsed since the beginning of the video, in milliseconds. The timestamps are
+ * always formatted with the hours.
+ * @author Alex
+ */
+public final class WebVTTTimestamp {
+	/** The number of milliseconds in a second */
+	private static final long	SECOND					= 1000;
+	/** The number of milliseconds in a minute */
+	private static final long	MINUTE					= 60 * SECOND;
+	/** The number of milliseconds in an hour */
+	private static final long	HOUR					= 60 * MINUTE;
+	/** The separator between the hours, minutes and seconds */
+	private static final char	TIME_SEPARATOR			= ':';
+	/** The separator between the seconds and the milliseconds */
+	private static final char	MILLISECONDS_SEPARATOR	= '.';
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default private constructor to avoid instantiation.
+	 */
+	private WebVTTTimestamp () {
+		super();
+	}
+	
+	/**
+	 * Parse the timestamp located between the specified indexes of the text.<br />
+	 * The white spaces around the timestamp are ignored.
+	 * @param text
+	 *        the text with the timestamp.
+	 * @param start
+	 *        the index of the first character of the timestamp (inclusive).
+	 * @param end
+	 *        the index of the last character of the timestamp (exclusive).
+	 * @return the time of the timestamp, in milliseconds.
+	 * @throws ParseException
+	 *         if the text is not a valid timestamp.
+	 */
+	public static long parse (final CharSequence text, final int start, final int end) throws ParseException {
+		int first = start;
+		int last = end;
+		while (first < last && Character.isWhitespace(text.charAt(first))) {
+			first++;
+		}
+		while (last > first && Character.isWhitespace(text.charAt(last - 1))) {
+			last--;
+		}
+		
+		// The first number is the hours when followed by another separator, the minutes otherwise
+		int index = first;
+		long leading = 0;
+		while (index < last && isDigit(text.charAt(index))) {
+			leading = leading * 10 + text.charAt(index) - '0';
+			index++;
+			if (leading > Integer.MAX_VALUE) {
+				throw new ParseException("Hours out of range", index);
+			}
+		}
+		final int leadingDigits = index - first;
+		index = expect(text, index, last, TIME_SEPARATOR);
+		
+		final long hours;
+		final long minutes;
+		if (index + 2 < last && text.charAt(index + 2) == TIME_SEPARATOR) {
+			if (leadingDigits < 2) {
+				throw new ParseException("Expected at least two digits for the hours", first);
+			}
+			hours = leading;
+			minutes = parseSexagesimal(text, index, last);
+			index = expect(text, index + 2, last, TIME_SEPARATOR);
+		} else {
+			if (leadingDigits != 2 || leading >= 60) {
+				throw new ParseException("Invalid minutes", first);
+			}
+			hours = 0;
+			minutes = leading;
+		}
+		final int seconds = parseSexagesimal(text, index, last);
+		index = expect(text, index + 2, last, MILLISECONDS_SEPARATOR);
+		
+		// Milliseconds, three digits
+		if (index + 3 != last || !isDigit(text.charAt(index)) || !isDigit(text.charAt(index + 1))
+				|| !isDigit(text.charAt(index + 2))) {
+			throw new ParseException("Invalid milliseconds", index);
+		}
+		final int milliseconds = (text.charAt(index) - '0') * 100 + (text.charAt(index + 1) - '0') * 10
+				+ text.charAt(index + 2) - '0';
+		
+		return hours * HOUR + minutes * MINUTE + seconds * SECOND + milliseconds;
+	}
+	
+	/**
+	 * Parse the timestamp in the text.
+	 * @param text
+	 *        the timestamp.
+	 * @return the time of the timestamp, in milliseconds.
+	 * @throws ParseException
+	 *         if the text is not a valid timestamp.
+	 * @see #parse(CharSequence, int, int)
+	 */
+	public static long parse (final CharSequence text) throws ParseException {
+		return parse(text, 0, text.length());
+	}
+	
+	/**
+	 * Format a time as a timestamp, and append it to the output.<br />
+	 * The hours have at least two digits, and more if required.
+	 * @param time
+	 *        the time to format, in milliseconds.
+	 * @param output
+	 *        the output to append to.
+	 * @throws IOException
+	 *         if the timestamp could not be appended.
+	 */
+	public static void format (final long time, final Appendable output) throws IOException {
+		if (time < 0) {
+			throw new IllegalArgumentException("Cannot format a negative time (" + time + ")");
+		}
+		final long hours = time / HOUR;
+		if (hours < 10) {
+			output.append('0');
+		}
+		output.append(Long.toString(hours));
+		output.append(TIME_SEPARATOR);
+		appendDigits(time % HOUR / MINUTE, 2, output);
+		output.append(TIME_SEPARATOR);
+		appendDigits(time % MINUTE / SECOND, 2, output);
+		output.append(MILLISECONDS_SEPARATOR);
+		appendDigits(time % SECOND, 3, output);
+	}
+	
+	/**
+	 * Format a time as a timestamp.
+	 * @param time
+	 *        the time to format, in milliseconds.
+	 * @return the timestamp.
+	 * @see #format(long, Appendable)
+	 */
+	public static String format (final long time) {
+		final StringBuilder timestamp = new StringBuilder();
+		try {
+			format(time, timestamp);
+		} catch (final IOException e) {
+			// Cannot happen with a StringBuilder
+			throw new IllegalStateException(e);
+		}
+		return timestamp.toString();
+	}
+	
+	/**
+	 * Check if the character is an ASCII digit.
+	 * @param character
+	 *        the character.
+	 * @return <code>true</code> if the character is between '0' and '9'.
+	 */
+	private static boolean isDigit (final char character) {
+		return character >= '0' && character <= '9';
+	}
+	
+	/**
+	 * Check that the text has the expected separator at the specified index.
+	 * @param text
+	 *        the text being parsed.
+	 * @param index
+	 *        the index of the separator.
+	 * @param last
+	 *        the end of the timestamp (exclusive).
+	 * @param separator
+	 *        the expected separator.
+	 * @return the index after the separator.
+	 * @throws ParseException
+	 *         if the separator is missing.
+	 */
+	private static int expect (final CharSequence text, final int index, final int last, final char separator)
+			throws ParseException {
+		if (index >= last || text.charAt(index) != separator) {
+			throw new ParseException("Expected '" + separator + "'", index);
+		}
+		return index + 1;
+	}
+	
+	/**
+	 * Parse a number of minutes or seconds, which has two digits and is less than 60.
+	 * @param text
+	 *        the text being parsed.
+	 * @param index
+	 *        the index of the first digit.
+	 * @param last
+	 *        the end of the timestamp (exclusive).
+	 * @return the number parsed.
+	 * @throws ParseException
+	 *         if the number is not valid.
+	 */
+	private static int parseSexagesimal (final CharSequence text, final int index, final int last)
+			throws ParseException {
+		if (index + 2 > last || !isDigit(text.charAt(index)) || !isDigit(text.charAt(index + 1))) {
+			throw new ParseException("Expected two digits", index);
+		}
+		final int value = (text.charAt(index) - '0') * 10 + text.charAt(index + 1) - '0';
+		if (value >= 60) {
+			throw new ParseException("Value out of range", index);
+		}
+		return value;
+	}
+	
+	/**
+	 * Append a number to the output, with the specified number of digits.
+	 * @param number
+	 *        the number to append, positive and with at most the specified number of digits.
+	 * @param digits
+	 *        the number of digits.
+	 * @param output
+	 *        the output to append to.
+	 * @throws IOException
+	 *         if the number could not be appended.
+	 */
+	private static void appendDigits (final long number, final int digits, final Appendable output)
+			throws IOException {
+		long divisor = 1;
+		for (int digit = 1; digit < digits; digit++) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			output.append((char) ('0' + number / divisor % 10));
+		}
+	}
+}
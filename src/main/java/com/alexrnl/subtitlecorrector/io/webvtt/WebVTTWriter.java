@@ -0,0 +1,110 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.io.SubtitleWriter;
+import com.alexrnl.subtitlecorrector.io.WriteContext;
+
+/**
+ * Writer for the WebVTT format.<br />
+ * The blocks which are not cues are written back from the {@link WebVTTFile} and the
+ * {@link WebVTTCue}, as they were read. Other subtitle files and subtitles are written with the
+ * bare signature, and without identifier nor settings. The dates are always written with the
+ * hours.
+ * @author Alex
+ */
+public class WebVTTWriter extends SubtitleWriter {
+	/** Logger */
+	private static final Logger	LG	= Logger.getLogger(WebVTTWriter.class.getName());
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default constructor, uses UTF-8 for writing the file.
+	 */
+	public WebVTTWriter () {
+		this(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * @param charSet
+	 *        the character to use for this writer.
+	 */
+	public WebVTTWriter (final Charset charSet) {
+		super(charSet);
+	}
+	
+	@Override
+	protected void writeHeader (final WriteContext context) throws IOException {
+		final BufferedWriter writer = context.getWriter();
+		if (!(context.getSubtitleFile() instanceof WebVTTFile)) {
+			writeBlock(WebVTT.WEBVTT_SIGNATURE, writer);
+			return;
+		}
+		final WebVTTFile file = (WebVTTFile) context.getSubtitleFile();
+		writeBlock(file.getHeader(), writer);
+		for (final String block : file.getHeaderBlocks()) {
+			writeBlock(block, writer);
+		}
+	}
+	
+	@Override
+	protected void writeFooter (final WriteContext context) throws IOException {
+		if (context.getSubtitleFile() instanceof WebVTTFile) {
+			for (final String block : ((WebVTTFile) context.getSubtitleFile()).getTrailingBlocks()) {
+				writeBlock(block, context.getWriter());
+			}
+		}
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Successfully writen " + context.getSubtitleCount() + " subtitles");
+		}
+	}
+	
+	@Override
+	protected void writeSubtitle (final Subtitle subtitle, final WriteContext context) throws IOException {
+		final BufferedWriter writer = context.getWriter();
+		String settings = "";
+		if (subtitle instanceof WebVTTCue) {
+			final WebVTTCue cue = (WebVTTCue) subtitle;
+			for (final String note : cue.getNotes()) {
+				writeBlock(note, writer);
+			}
+			if (cue.getIdentifier() != null) {
+				writer.write(cue.getIdentifier());
+				writer.write(System.lineSeparator());
+			}
+			settings = cue.getSettings();
+		}
+		WebVTTTimestamp.format(subtitle.getBegin(), writer);
+		writer.write(WebVTT.WEBVTT_DATE_SEPARATOR);
+		WebVTTTimestamp.format(subtitle.getEnd(), writer);
+		if (!settings.isEmpty()) {
+			writer.write(' ');
+			writer.write(settings);
+		}
+		writer.write(System.lineSeparator());
+		writer.write(subtitle.getContent());
+		writer.write(System.lineSeparator());
+	}
+	
+	/**
+	 * Write a block which is not a cue, followed by a blank line.
+	 * @param block
+	 *        the block to write.
+	 * @param writer
+	 *        the writer on the file.
+	 * @throws IOException
+	 *         if the block could not be written.
+	 */
+	private static void writeBlock (final String block, final BufferedWriter writer) throws IOException {
+		writer.write(block);
+		writer.write(System.lineSeparator());
+		writer.write(System.lineSeparator());
+	}
+}
@@ -0,0 +1,6 @@
+/**
+ * Package with the classes for reading and writing
+ * <a href="https://www.w3.org/TR/webvtt1/">WebVTT</a> file format.
+ * @author Alex
+ */
+package com.alexrnl.subtitlecorrector.io.webvtt;
\ No newline at end of file
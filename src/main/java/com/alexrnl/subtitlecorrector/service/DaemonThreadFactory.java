@@ -0,0 +1,34 @@
+package com.alexrnl.subtitlecorrector.service;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory which creates daemon threads, named after the service which uses them.<br />
+ * The threads do not prevent the application from exiting if the service is interrupted.
+ * @author Alex
+ */
+class DaemonThreadFactory implements ThreadFactory {
+	/** The prefix of the name of the threads */
+	private final String		name;
+	/** The number of threads created */
+	private final AtomicInteger	count;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param name
+	 *        the prefix of the name of the threads.
+	 */
+	DaemonThreadFactory (final String name) {
+		super();
+		this.name = name;
+		this.count = new AtomicInteger();
+	}
+	
+	@Override
+	public Thread newThread (final Runnable runnable) {
+		final Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
@@ -3,49 +3,116 @@ package com.alexrnl.subtitlecorrector.service;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.alexrnl.commons.error.ExceptionUtils;
 import com.alexrnl.commons.io.IOUtils;
+import com.alexrnl.subtitlecorrector.io.BloomFilter;
 import com.alexrnl.subtitlecorrector.io.Dictionary;
+import com.alexrnl.subtitlecorrector.io.DictionaryIndex;
+import com.alexrnl.subtitlecorrector.io.DictionarySegment;
+import com.alexrnl.subtitlecorrector.io.Suggestion;
 
 /**
- * Class in charge of managing the dictionary used while correcting the subtitles.
+ * Class in charge of managing the dictionary used while correcting the subtitles.<br />
+ * Locale dictionaries are only registered when the manager is built: they are loaded the first time
+ * a session needs them (or when they are {@link #prefetch(Locale) prefetched}) and only the most
+ * recently used ones are kept in memory. When a {@link DictionarySegment shared segment} is
+ * provided, the locale dictionaries are read from the segment, which is mapped in memory and shared
+ * by all the processes of the host; otherwise, each dictionary is loaded by the process.<br />
+ * While a session is running with editable dictionaries only, their Bloom filters are checked
+ * before the dictionaries themselves, so most of the missing words are rejected after a few hash
+ * probes. The words of the locale dictionaries are not in the filters, so the filters are skipped
+ * when a locale dictionary is active. The other words are looked up in an
+ * {@link DictionaryIndex index} merging the active dictionaries, which is built when the session
+ * starts.<br />
+ * During a session, the manager can be used by several threads: the state of the session is an
+ * immutable snapshot, so lookups do not take any lock, and words added by a thread are visible to
+ * all the others.<br />
+ * The folder of the custom dictionaries can be {@link #startWatching() watched}, so the
+ * dictionaries modified, added or removed by other programs are reloaded without restarting the
+ * application. The words appended to a dictionary are added to it immediately; other
+ * modifications rebuild the dictionary in the background, and the new dictionary replaces the
+ * previous one atomically, as soon as it is not used by the current session.
  * @author Alex
  */
 public class DictionaryManager implements SessionStateListener {
 	/** Logger */
-	private static final Logger				LG						= Logger.getLogger(DictionaryManager.class.getName());
+	private static final Logger									LG										= Logger.getLogger(DictionaryManager.class.getName());
 	
 	/** The file extension for the dictionary files */
-	public static final String				DICTIONARY_EXTENSION	= ".txt";
+	public static final String									DICTIONARY_EXTENSION					= ".txt";
+	/** The default number of locale dictionaries kept in memory */
+	public static final int										DEFAULT_RESIDENT_LOCALE_DICTIONARIES	= 3;
+	/** The maximum edit distance between a misspelled word and the words suggested */
+	public static final int										SUGGESTION_MAX_DISTANCE					= 2;
 	
-	/** Map with the dictionary for each locale */
-	private final Map<Locale, Dictionary>	localeDictionaries;
+	/** The segment shared by the processes with the locale dictionaries, <code>null</code> if none */
+	private final DictionarySegment								sharedSegment;
+	/** Map with the dictionary file for each locale */
+	private final Map<Locale, Path>								localeDictionaryFiles;
+	/** Map with the (loading or loaded) dictionary for each locale, in access order */
+	private final LinkedHashMap<Locale, FutureTask<Dictionary>>	localeDictionaries;
+	/** The executor used to prefetch locale dictionaries, created on first use */
+	private ExecutorService										prefetchExecutor;
+	/** The path to the directory where are the custom dictionaries */
+	private final Path											pathToCustom;
 	/** Map with the custom dictionaries of the user */
-	private final Map<String, Dictionary>	customDictionaries;
+	private final Map<String, Dictionary>						customDictionaries;
+	/** The files of the custom dictionaries to reload once the current session is stopped */
+	private final Set<Path>										pendingReloads;
+	/** The lock for starting, stopping and updating the session */
+	private final Object										sessionLock;
+	/** The service watching the custom dictionaries, <code>null</code> if they are not watched */
+	private WatchService										watchService;
 	/** The dictionary of the current session */
-	private final Dictionary				sessionDictionary;
-	/** The list of active dictionaries in the current session */
-	private final List<Dictionary>			activeDictionaries;
+	private final Dictionary									sessionDictionary;
+	/** The state of the current session, <code>null</code> if no session is started */
+	private volatile ActiveSession								session;
+	/** The false positive rate of the Bloom filters of the dictionaries */
+	private final double										falsePositiveRate;
+	/** The number of words which passed the filters, when all the active dictionaries have one */
+	private final AtomicLong									filterHits;
+	/** The number of words rejected by the filters, when all the active dictionaries have one */
+	private final AtomicLong									filterMisses;
+	/** The number of words which passed the filters but were not in any dictionary */
+	private final AtomicLong									filterFalsePositives;
 	
 	/**
 	 * Constructor #1.<br />
+	 * Keep at most {@link #DEFAULT_RESIDENT_LOCALE_DICTIONARIES} locale dictionaries in memory.
 	 * @param pathToLocale
 	 *        the path to the directory where are the dictionaries for locales.
 	 * @param pathToCustom
@@ -54,25 +121,142 @@ public class DictionaryManager implements SessionStateListener {
 	 *         if a dictionary could not be created.
 	 */
 	public DictionaryManager (final Path pathToLocale, final Path pathToCustom) throws IOException {
+		this(pathToLocale, pathToCustom, DEFAULT_RESIDENT_LOCALE_DICTIONARIES);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * @param pathToLocale
+	 *        the path to the directory where are the dictionaries for locales.
+	 * @param pathToCustom
+	 *        the path to the directory where are the custom dictionaries.
+	 * @param maxResidentLocaleDictionaries
+	 *        the maximum number of locale dictionaries to keep in memory.
+	 * @throws IOException
+	 *         if a dictionary could not be created.
+	 */
+	public DictionaryManager (final Path pathToLocale, final Path pathToCustom, final int maxResidentLocaleDictionaries)
+			throws IOException {
+		this(pathToLocale, pathToCustom, maxResidentLocaleDictionaries, BloomFilter.DEFAULT_FALSE_POSITIVE_RATE);
+	}
+	
+	/**
+	 * Constructor #3.<br />
+	 * @param pathToLocale
+	 *        the path to the directory where are the dictionaries for locales.
+	 * @param pathToCustom
+	 *        the path to the directory where are the custom dictionaries.
+	 * @param maxResidentLocaleDictionaries
+	 *        the maximum number of locale dictionaries to keep in memory.
+	 * @param falsePositiveRate
+	 *        the false positive rate of the Bloom filters of the dictionaries.
+	 * @throws IOException
+	 *         if a dictionary could not be created.
+	 */
+	public DictionaryManager (final Path pathToLocale, final Path pathToCustom, final int maxResidentLocaleDictionaries,
+			final double falsePositiveRate) throws IOException {
+		this(pathToLocale, pathToCustom, maxResidentLocaleDictionaries, falsePositiveRate, null);
+	}
+	
+	/**
+	 * Constructor #4.<br />
+	 * @param pathToLocale
+	 *        the path to the directory where are the dictionaries for locales.
+	 * @param pathToCustom
+	 *        the path to the directory where are the custom dictionaries.
+	 * @param maxResidentLocaleDictionaries
+	 *        the maximum number of locale dictionaries to keep in memory.
+	 * @param falsePositiveRate
+	 *        the false positive rate of the Bloom filters of the dictionaries.
+	 * @param sharedSegmentFile
+	 *        the path to the segment with the locale dictionaries shared by the processes of the
+	 *        host. If <code>null</code>, or if the segment does not exist or cannot be used, the
+	 *        locale dictionaries are loaded by this process.
+	 * @throws IOException
+	 *         if a dictionary could not be created.
+	 */
+	public DictionaryManager (final Path pathToLocale, final Path pathToCustom, final int maxResidentLocaleDictionaries,
+			final double falsePositiveRate, final Path sharedSegmentFile) throws IOException {
 		super();
-		localeDictionaries = new HashMap<>();
-		customDictionaries = new HashMap<>();
-		activeDictionaries = new LinkedList<>();
+		if (maxResidentLocaleDictionaries < 1) {
+			throw new IllegalArgumentException("At least one locale dictionary must be kept in memory");
+		}
+		sharedSegment = openSharedSegment(sharedSegmentFile);
+		localeDictionaryFiles = new HashMap<>();
+		localeDictionaries = new LinkedHashMap<Locale, FutureTask<Dictionary>>(maxResidentLocaleDictionaries + 1, 1.0f, true) {
+			/** Serial Version UID */
+			private static final long	serialVersionUID	= 6164917405542307826L;
+			
+			@Override
+			protected boolean removeEldestEntry (final Entry<Locale, FutureTask<Dictionary>> eldest) {
+				final boolean remove = size() > maxResidentLocaleDictionaries;
+				if (remove && LG.isLoggable(Level.INFO)) {
+					LG.info("Unloading locale dictionary " + eldest.getKey());
+				}
+				return remove;
+			}
+		};
+		this.pathToCustom = pathToCustom;
+		customDictionaries = new ConcurrentHashMap<>();
+		pendingReloads = new LinkedHashSet<>();
+		sessionLock = new Object();
+		session = null;
+		this.falsePositiveRate = falsePositiveRate;
+		filterHits = new AtomicLong();
+		filterMisses = new AtomicLong();
+		filterFalsePositives = new AtomicLong();
 		final Path sessionDictionaryPath = Files.createTempFile("sessionDictionary", ".txt");
 		sessionDictionaryPath.toFile().deleteOnExit();
-		sessionDictionary = new Dictionary(sessionDictionaryPath, Charset.defaultCharset(), true);
+		sessionDictionary = new Dictionary(sessionDictionaryPath, Charset.defaultCharset(), true, null, falsePositiveRate);
 		Files.walkFileTree(pathToLocale, new HashSet<FileVisitOption>(), 1, new LocaleDictionaryFileVisitor());
+		if (sharedSegment != null) {
+			// The locales of the segment are available, even without their text dictionary
+			for (final Locale locale : sharedSegment.getLocales()) {
+				if (!localeDictionaryFiles.containsKey(locale)) {
+					localeDictionaryFiles.put(locale, pathToLocale.resolve(locale.toLanguageTag() + DICTIONARY_EXTENSION));
+				}
+			}
+		}
 		Files.walkFileTree(pathToCustom, new HashSet<FileVisitOption>(), 1, new CustomDictionaryFileVisitor());
 	}
 	
+	/**
+	 * Open the segment with the locale dictionaries shared by the processes.
+	 * @param sharedSegmentFile
+	 *        the path to the segment, may be <code>null</code>.
+	 * @return the segment, or <code>null</code> if there is no segment or if it cannot be used.
+	 */
+	private static DictionarySegment openSharedSegment (final Path sharedSegmentFile) {
+		if (sharedSegmentFile == null) {
+			return null;
+		}
+		if (!Files.exists(sharedSegmentFile)) {
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("No shared dictionary segment at " + sharedSegmentFile + ", locale dictionaries will be loaded"
+						+ " by this process");
+			}
+			return null;
+		}
+		try {
+			return DictionarySegment.open(sharedSegmentFile, StandardCharsets.UTF_8);
+		} catch (final IOException e) {
+			LG.warning("Shared dictionary segment " + sharedSegmentFile + " cannot be used, locale dictionaries will be"
+					+ " loaded by this process: " + ExceptionUtils.display(e));
+			return null;
+		}
+	}
+	
 	/**
 	 * Check that the session has been started.<br />
 	 * Throw an {@link IllegalStateException} if it is not the case.
+	 * @return the state of the current session.
 	 */
-	private void checkSessionStarted () {
-		if (activeDictionaries.isEmpty()) {
+	private ActiveSession checkSessionStarted () {
+		final ActiveSession currentSession = session;
+		if (currentSession == null) {
 			throw new IllegalStateException("Session has not been started");
 		}
+		return currentSession;
 	}
 	
 	/**
@@ -85,14 +269,147 @@ public class DictionaryManager implements SessionStateListener {
 	public boolean contains (final String word) {
 		checkSessionStarted();
 		
-		for (final Dictionary dictionary : activeDictionaries) {
-			if (dictionary.contains(word)) {
-				return true;
-			}
+		if (word == null) {
+			return false;
 		}
+		return contains(word, 0, word.length());
+	}
+	
+	/**
+	 * Check if the active dictionaries contains the word located between the specified indexes of
+	 * the sequence.<br />
+	 * The word is not extracted from the sequence, so checking a word of a subtitle does not
+	 * allocate any object in most cases. This method requires that a correcting session have been
+	 * started.
+	 * @param sequence
+	 *        the sequence with the word.
+	 * @param start
+	 *        the index of the first character of the word (inclusive).
+	 * @param end
+	 *        the index of the last character of the word (exclusive).
+	 * @return <code>true</code> if any of the dictionaries contains the word.
+	 */
+	public boolean contains (final CharSequence sequence, final int start, final int end) {
+		return contains(checkSessionStarted(), sequence, start, end);
+	}
+	
+	/**
+	 * Check if the dictionaries of a session contain the word located between the specified
+	 * indexes of the sequence, and update the statistics of the Bloom filters.<br />
+	 * The filters are only checked when they cover all the words of the active dictionaries: a
+	 * dictionary with an automaton has to be checked anyway, so the filters could not reject any
+	 * word.
+	 * @param currentSession
+	 *        the state of the current session.
+	 * @param sequence
+	 *        the sequence with the word.
+	 * @param start
+	 *        the index of the first character of the word (inclusive).
+	 * @param end
+	 *        the index of the last character of the word (exclusive).
+	 * @return <code>true</code> if any of the dictionaries contains the word.
+	 */
+	private boolean contains (final ActiveSession currentSession, final CharSequence sequence, final int start,
+			final int end) {
+		if (!currentSession.isFiltered()) {
+			return currentSession.contains(sequence, start, end);
+		}
+		if (!currentSession.mightContain(sequence, start, end)) {
+			filterMisses.incrementAndGet();
+			return false;
+		}
+		filterHits.incrementAndGet();
+		if (currentSession.contains(sequence, start, end)) {
+			return true;
+		}
+		filterFalsePositives.incrementAndGet();
 		return false;
 	}
 	
+	/**
+	 * Find the first word of a list which is in the active dictionaries.<br />
+	 * The words are all checked against the same set of active dictionaries, and the lookups stop
+	 * at the first word found, so checking many variants of a word (which are mostly missing) is
+	 * cheap. This method requires that a correcting session have been started.
+	 * @param words
+	 *        the words to check, in order of preference.
+	 * @return the first word of the list which is in a dictionary, <code>null</code> if none is.
+	 */
+	public String findFirst (final List<String> words) {
+		final ActiveSession currentSession = checkSessionStarted();
+		
+		for (final String word : words) {
+			if (word != null && contains(currentSession, word, 0, word.length())) {
+				return word;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Return the number of words checked which passed the Bloom filters.
+	 * @return the number of filter hits.
+	 */
+	public long getFilterHits () {
+		return filterHits.get();
+	}
+	
+	/**
+	 * Return the number of words checked which were rejected by the Bloom filters.
+	 * @return the number of filter misses.
+	 */
+	public long getFilterMisses () {
+		return filterMisses.get();
+	}
+	
+	/**
+	 * Return the number of words which passed the Bloom filters, but were not in any dictionary.
+	 * @return the number of false positives of the filters.
+	 */
+	public long getFilterFalsePositives () {
+		return filterFalsePositives.get();
+	}
+	
+	/**
+	 * Reset the statistics of the Bloom filters.
+	 */
+	public void resetFilterStatistics () {
+		filterHits.set(0);
+		filterMisses.set(0);
+		filterFalsePositives.set(0);
+	}
+	
+	/**
+	 * Suggest words of the active dictionaries to replace a misspelled word.<br />
+	 * The words suggested are at most {@link #SUGGESTION_MAX_DISTANCE} edits away from the
+	 * misspelled word. This method requires that a correcting session have been started.
+	 * @param word
+	 *        the misspelled word.
+	 * @param maxSuggestions
+	 *        the maximum number of words to return.
+	 * @return the words suggested, from the best to the worst.
+	 */
+	public List<String> suggest (final String word, final int maxSuggestions) {
+		final ActiveSession currentSession = checkSessionStarted();
+		
+		if (word == null || maxSuggestions <= 0) {
+			return Collections.emptyList();
+		}
+		final List<Suggestion> suggestions = new ArrayList<>();
+		for (final Dictionary dictionary : currentSession.dictionaries) {
+			suggestions.addAll(dictionary.suggest(word, SUGGESTION_MAX_DISTANCE));
+		}
+		Collections.sort(suggestions);
+		final Set<String> words = new LinkedHashSet<>();
+		for (final Suggestion suggestion : suggestions) {
+			if (words.size() == maxSuggestions) {
+				break;
+			}
+			words.add(suggestion.getWord());
+		}
+		return new ArrayList<>(words);
+	}
+	
 	/**
 	 * Add a word to the dictionary for the current session.
 	 * @param word
@@ -100,9 +417,7 @@ public class DictionaryManager implements SessionStateListener {
 	 * @return <code>true</code> if the word could be added to the dictionary.
 	 */
 	public boolean addWord (final String word) {
-		checkSessionStarted();
-		
-		return sessionDictionary.addWord(word);
+		return addWord(checkSessionStarted(), sessionDictionary, word);
 	}
 	
 	/**
@@ -114,21 +429,132 @@ public class DictionaryManager implements SessionStateListener {
 	 * @return <code>true</code> if the word could be added.
 	 */
 	public boolean addWord (final String customDictionaryKey, final String word) {
-		checkSessionStarted();
+		final ActiveSession currentSession = checkSessionStarted();
 		
-		if (customDictionaries.containsKey(customDictionaryKey)) {
-			return customDictionaries.get(customDictionaryKey).addWord(word);
+		final Dictionary customDictionary = customDictionaries.get(customDictionaryKey);
+		if (customDictionary != null) {
+			return addWord(currentSession, customDictionary, word);
 		}
 		LG.warning("Could not find custom dictionary " + customDictionaryKey);
 		return false;
 	}
 	
 	/**
-	 * Return an unmodifiable view of the map with the locale dictionaries.
-	 * @return the map with the locale dictionaries.
+	 * Add a word to a dictionary, and to the session index if the dictionary is active.
+	 * @param currentSession
+	 *        the state of the current session.
+	 * @param dictionary
+	 *        the dictionary to edit.
+	 * @param word
+	 *        the word to add.
+	 * @return <code>true</code> if the word could be added.
+	 */
+	private static boolean addWord (final ActiveSession currentSession, final Dictionary dictionary, final String word) {
+		final boolean added = dictionary.addWord(word);
+		if (added && currentSession.index != null && currentSession.dictionaries.contains(dictionary)) {
+			currentSession.index.addWord(dictionary, word);
+		}
+		return added;
+	}
+	
+	/**
+	 * Return the locales for which a dictionary is available.<br />
+	 * This does not load any dictionary.
+	 * @return the available locales.
+	 */
+	public Set<Locale> getAvailableLocales () {
+		return Collections.unmodifiableSet(localeDictionaryFiles.keySet());
+	}
+	
+	/**
+	 * Return the locale dictionaries which are currently loaded in memory.<br />
+	 * The map returned is a copy, which is not updated when other dictionaries are loaded.
+	 * @return the map with the loaded locale dictionaries.
 	 */
 	public Map<Locale, Dictionary> getLocaleDictionaries () {
-		return Collections.unmodifiableMap(localeDictionaries);
+		final Map<Locale, Dictionary> loaded = new HashMap<>();
+		synchronized (localeDictionaries) {
+			for (final Entry<Locale, FutureTask<Dictionary>> entry : localeDictionaries.entrySet()) {
+				if (!entry.getValue().isDone()) {
+					continue;
+				}
+				try {
+					loaded.put(entry.getKey(), entry.getValue().get());
+				} catch (final InterruptedException | ExecutionException e) {
+					// Not loaded: skip it
+					LG.fine("Locale dictionary " + entry.getKey() + " is not loaded: " + ExceptionUtils.display(e));
+				}
+			}
+		}
+		return Collections.unmodifiableMap(loaded);
+	}
+	
+	/**
+	 * Return the dictionary for the locale, loading it if required.<br />
+	 * If the dictionary is already being loaded by another thread, wait for it to be loaded.
+	 * @param locale
+	 *        the locale of the dictionary.
+	 * @return the dictionary, or <code>null</code> if there is no dictionary for this locale or if
+	 *         it could not be loaded.
+	 */
+	private Dictionary getLocaleDictionary (final Locale locale) {
+		final FutureTask<Dictionary> task;
+		boolean load = false;
+		synchronized (localeDictionaries) {
+			final FutureTask<Dictionary> existingTask = localeDictionaries.get(locale);
+			if (existingTask != null) {
+				task = existingTask;
+			} else {
+				final Path file = localeDictionaryFiles.get(locale);
+				if (file == null) {
+					return null;
+				}
+				task = new FutureTask<>(new LocaleDictionaryLoader(locale, file));
+				localeDictionaries.put(locale, task);
+				load = true;
+			}
+		}
+		
+		if (load) {
+			task.run();
+		}
+		try {
+			return task.get();
+		} catch (final ExecutionException e) {
+			LG.warning("Locale dictionary " + locale + " could not be loaded: " + ExceptionUtils.display(e.getCause()));
+			synchronized (localeDictionaries) {
+				if (localeDictionaries.get(locale) == task) {
+					localeDictionaries.remove(locale);
+				}
+			}
+		} catch (final InterruptedException e) {
+			LG.warning("Interrupted while waiting for locale dictionary " + locale);
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+	
+	/**
+	 * Load the dictionary of the specified locale in a background thread.<br />
+	 * This allows to hide the loading time, when the locale of the next session is known in
+	 * advance.
+	 * @param locale
+	 *        the locale of the dictionary to load.
+	 * @return the result of the loading, which is <code>null</code> if there is no dictionary for
+	 *         this locale.
+	 */
+	public Future<Dictionary> prefetch (final Locale locale) {
+		synchronized (localeDictionaries) {
+			if (prefetchExecutor == null) {
+				prefetchExecutor = Executors.newSingleThreadExecutor(new DaemonThreadFactory("DictionaryPrefetch"));
+			}
+		}
+		return prefetchExecutor.submit(new Callable<Dictionary>() {
+			@Override
+			public Dictionary call () {
+				return getLocaleDictionary(locale);
+			}
+		});
 	}
 	
 	/**
@@ -139,28 +565,170 @@ public class DictionaryManager implements SessionStateListener {
 		return Collections.unmodifiableMap(customDictionaries);
 	}
 	
-	@Override
-	public void startSession (final SessionParameters parameters) {
-		activeDictionaries.add(sessionDictionary);
+	/**
+	 * Start watching the folder of the custom dictionaries.<br />
+	 * A daemon thread reloads the dictionaries when their files are modified, added or removed,
+	 * until {@link #stopWatching()} is called. Does nothing if the folder is already watched.
+	 * @throws IOException
+	 *         if the folder cannot be watched.
+	 */
+	public synchronized void startWatching () throws IOException {
+		if (watchService != null) {
+			return;
+		}
+		watchService = pathToCustom.getFileSystem().newWatchService();
+		pathToCustom.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		final Thread watcher = new Thread(new CustomDictionaryWatcher(watchService), "DictionaryWatcher");
+		watcher.setDaemon(true);
+		watcher.start();
 		if (LG.isLoggable(Level.INFO)) {
-			LG.info("Activating locale dictionary " + parameters.getLocale() + " and customs "
-					+ parameters.getCustomDictionaries() + " for next session");
+			LG.info("Watching custom dictionaries in " + pathToCustom);
+		}
+	}
+	
+	/**
+	 * Stop watching the folder of the custom dictionaries.
+	 */
+	public synchronized void stopWatching () {
+		if (watchService == null) {
+			return;
 		}
-		if (localeDictionaries.containsKey(parameters.getLocale())) {
-			activeDictionaries.add(localeDictionaries.get(parameters.getLocale()));
-		} else {
-			LG.warning("No dictionnary found for locale " + parameters.getLocale()
-					+ "; available locales are " + localeDictionaries.keySet());
+		try {
+			watchService.close();
+		} catch (final IOException e) {
+			LG.warning("Could not close the custom dictionaries watch service: " + ExceptionUtils.display(e));
+		}
+		watchService = null;
+	}
+	
+	/**
+	 * Reload a custom dictionary after its file has changed.<br />
+	 * If the file has only been appended, the new words are added to the dictionary (and to the
+	 * session, if the dictionary is active). Otherwise, a new dictionary is built, and replaces the
+	 * previous one; if the previous dictionary is used by the current session, it is replaced (or
+	 * removed, if the file has been deleted) once the session is stopped, so the words added during
+	 * the session are saved first. The journal of a removed dictionary is deleted.
+	 * @param file
+	 *        the file of the custom dictionary.
+	 */
+	void reloadCustomDictionary (final Path file) {
+		final String key = IOUtils.getFilename(file);
+		final Dictionary existing = customDictionaries.get(key);
+		
+		if (existing != null && Files.exists(file)) {
+			try {
+				final List<String> appendedWords = existing.loadAppendedWords();
+				if (appendedWords != null) {
+					final ActiveSession currentSession = session;
+					if (currentSession != null && currentSession.index != null
+							&& currentSession.dictionaries.contains(existing)) {
+						for (final String word : appendedWords) {
+							currentSession.index.addWord(existing, word);
+						}
+					}
+					return;
+				}
+			} catch (final IOException e) {
+				LG.warning("Could not read the words appended to dictionary " + key + ", it will be reloaded: "
+						+ ExceptionUtils.display(e));
+			}
+		}
+		
+		// Build the new dictionary before taking the lock, the current session is not slowed down
+		Dictionary reloaded = null;
+		if (Files.exists(file)) {
+			try {
+				if (LG.isLoggable(Level.INFO)) {
+					LG.info("Reloading custom dictionary " + key + " from file " + file);
+				}
+				reloaded = new Dictionary(file, StandardCharsets.UTF_8, true, null, falsePositiveRate);
+			} catch (final IOException | IllegalArgumentException e) {
+				LG.warning("Could not reload custom dictionary " + key + ": " + ExceptionUtils.display(e));
+				return;
+			}
+		}
+		
+		synchronized (sessionLock) {
+			final ActiveSession currentSession = session;
+			if (currentSession != null && currentSession.dictionaries.contains(customDictionaries.get(key))) {
+				if (LG.isLoggable(Level.INFO)) {
+					LG.info("Custom dictionary " + key + " is used by the current session, it will be reloaded"
+							+ " when the session is stopped");
+				}
+				pendingReloads.add(file);
+			} else if (reloaded == null) {
+				if (customDictionaries.remove(key) != null && LG.isLoggable(Level.INFO)) {
+					LG.info("Removed custom dictionary " + key);
+				}
+				// The words of the journal must not be added to a dictionary created with the same name
+				try {
+					Dictionary.deleteJournal(file);
+				} catch (final IOException e) {
+					LG.warning("Could not delete the journal of removed dictionary " + key + ": "
+							+ ExceptionUtils.display(e));
+				}
+			} else {
+				customDictionaries.put(key, reloaded);
+			}
 		}
-		for (final String customDictionary : parameters.getCustomDictionaries()) {
-			activeDictionaries.add(customDictionaries.get(customDictionary));
+	}
+	
+	@Override
+	public void startSession (final SessionParameters parameters) {
+		synchronized (sessionLock) {
+			final List<Dictionary> activeDictionaries = new ArrayList<>();
+			activeDictionaries.add(sessionDictionary);
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Activating locale dictionary " + parameters.getLocale() + " and customs "
+						+ parameters.getCustomDictionaries() + " for next session");
+			}
+			final Dictionary localeDictionary = getLocaleDictionary(parameters.getLocale());
+			if (localeDictionary != null) {
+				activeDictionaries.add(localeDictionary);
+			} else {
+				LG.warning("No dictionnary found for locale " + parameters.getLocale()
+						+ "; available locales are " + localeDictionaryFiles.keySet());
+			}
+			for (final String customDictionary : parameters.getCustomDictionaries()) {
+				final Dictionary dictionary = customDictionaries.get(customDictionary);
+				if (dictionary != null) {
+					activeDictionaries.add(dictionary);
+				} else {
+					LG.warning("No custom dictionary found with name " + customDictionary
+							+ "; available dictionaries are " + customDictionaries.keySet());
+				}
+			}
+			session = new ActiveSession(activeDictionaries);
 		}
 	}
 	
 	@Override
 	public void stopSession () {
+		final List<Path> reloads;
+		synchronized (sessionLock) {
+			final ActiveSession stoppedSession = session;
+			session = null;
+			if (stoppedSession == null) {
+				return;
+			}
+			saveDictionaries(stoppedSession);
+			reloads = new ArrayList<>(pendingReloads);
+			pendingReloads.clear();
+		}
+		for (final Path file : reloads) {
+			reloadCustomDictionary(file);
+		}
+	}
+	
+	/**
+	 * Save the custom dictionaries updated during a session.
+	 * @param stoppedSession
+	 *        the session which has been stopped.
+	 */
+	private void saveDictionaries (final ActiveSession stoppedSession) {
 		for (final Entry<String, Dictionary> dictionary : customDictionaries.entrySet()) {
-			if (activeDictionaries.contains(dictionary.getValue()) && dictionary.getValue().isUpdated()) {
+			if (stoppedSession.dictionaries.contains(dictionary.getValue()) && dictionary.getValue().isUpdated()) {
 				if (LG.isLoggable(Level.INFO)) {
 					LG.info("Saving dictionary " + dictionary.getKey() + " because it has been updated in the last session");
 				}
@@ -175,7 +743,10 @@ public class DictionaryManager implements SessionStateListener {
 				}
 			}
 		}
-		activeDictionaries.clear();
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Dictionary filters statistics: " + filterHits + " hits (including " + filterFalsePositives
+					+ " false positives), " + filterMisses + " misses");
+		}
 	}
 	
 	/**
@@ -183,17 +754,19 @@ public class DictionaryManager implements SessionStateListener {
 	 * @author Alex
 	 * @param <T>
 	 *        the type of keys of the map to fill.
+	 * @param <V>
+	 *        the type of values of the map to fill.
 	 */
-	private abstract class DictionaryFileVisitor<T> extends SimpleFileVisitor<Path> {
+	private abstract class DictionaryFileVisitor<T, V> extends SimpleFileVisitor<Path> {
 		/** The reference to the dictionary map used */
-		private final Map<T, Dictionary> dictionaryMap;
+		private final Map<T, V>	dictionaryMap;
 		
 		/**
 		 * Constructor #1.<br />
 		 * @param dictionaryMap
 		 *        the dictionary map to fill by the visitor.
 		 */
-		public DictionaryFileVisitor (final Map<T, Dictionary> dictionaryMap) {
+		public DictionaryFileVisitor (final Map<T, V> dictionaryMap) {
 			super();
 			this.dictionaryMap = dictionaryMap;
 		}
@@ -210,7 +783,7 @@ public class DictionaryManager implements SessionStateListener {
 			}
 			return FileVisitResult.CONTINUE;
 		}
-
+		
 		@Override
 		public FileVisitResult visitFileFailed (final Path file, final IOException exc) throws IOException {
 			LG.warning("Could not open or read the file " + file + ": " + ExceptionUtils.display(exc));
@@ -226,26 +799,27 @@ public class DictionaryManager implements SessionStateListener {
 		protected abstract T getDictionaryKey (Path file);
 		
 		/**
-		 * Build the dictionary to add to the map.
+		 * Build the dictionary (or the information required to build it later) to add to the map.
 		 * @param file
 		 *        the path of the dictionary.
 		 * @return the dictionary to use.
 		 * @throws IOException
 		 *         if there was an error while buildign the dictionary.
 		 */
-		protected abstract Dictionary buildDictionary (Path file) throws IOException;
+		protected abstract V buildDictionary (Path file) throws IOException;
 	}
 	
 	/**
-	 * File visitor for the locale dictionary.
+	 * File visitor for the locale dictionary.<br />
+	 * Only register the file of each locale, the dictionaries are loaded on demand.
 	 * @author Alex
 	 */
-	private class LocaleDictionaryFileVisitor extends DictionaryFileVisitor<Locale> {
+	private class LocaleDictionaryFileVisitor extends DictionaryFileVisitor<Locale, Path> {
 		/**
 		 * Constructor #1.<br />
 		 */
 		public LocaleDictionaryFileVisitor () {
-			super(localeDictionaries);
+			super(localeDictionaryFiles);
 		}
 		
 		@Override
@@ -254,17 +828,59 @@ public class DictionaryManager implements SessionStateListener {
 		}
 		
 		@Override
-		protected Dictionary buildDictionary (final Path file) throws IOException {
-			return new Dictionary(file, StandardCharsets.UTF_8, false, getDictionaryKey(file));
+		protected Path buildDictionary (final Path file) {
+			return file;
+		}
+	
+	}
+	
+	/**
+	 * Loader of a locale dictionary.
+	 * @author Alex
+	 */
+	private class LocaleDictionaryLoader implements Callable<Dictionary> {
+		/** The locale of the dictionary */
+		private final Locale	locale;
+		/** The file of the dictionary */
+		private final Path		file;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param locale
+		 *        the locale of the dictionary.
+		 * @param file
+		 *        the file of the dictionary.
+		 */
+		public LocaleDictionaryLoader (final Locale locale, final Path file) {
+			super();
+			this.locale = locale;
+			this.file = file;
 		}
 		
+		@Override
+		public Dictionary call () throws IOException {
+			if (sharedSegment != null && sharedSegment.getAutomaton(locale) != null) {
+				if (sharedSegment.isUpToDate(locale, file)) {
+					if (LG.isLoggable(Level.INFO)) {
+						LG.info("Using locale dictionary " + locale + " from the shared segment");
+					}
+					return new Dictionary(file, sharedSegment.getAutomaton(locale), locale, falsePositiveRate);
+				}
+				LG.warning("Locale dictionary " + locale + " of the shared segment is older than " + file
+						+ ", the text dictionary will be used");
+			}
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Loading locale dictionary " + locale + " from file " + file);
+			}
+			return new Dictionary(file, StandardCharsets.UTF_8, false, locale, falsePositiveRate);
+		}
 	}
 	
 	/**
 	 * File visitor for the custom dictionary.
 	 * @author Alex
 	 */
-	private class CustomDictionaryFileVisitor extends DictionaryFileVisitor<String> {
+	private class CustomDictionaryFileVisitor extends DictionaryFileVisitor<String, Dictionary> {
 		/**
 		 * Constructor #1.<br />
 		 */
@@ -279,7 +895,175 @@ public class DictionaryManager implements SessionStateListener {
 		
 		@Override
 		protected Dictionary buildDictionary (final Path file) throws IOException {
-			return new Dictionary(file, true);
+			return new Dictionary(file, StandardCharsets.UTF_8, true, null, falsePositiveRate);
+		}
+	}
+	
+	/**
+	 * Watcher of the folder of the custom dictionaries.<br />
+	 * Reload the dictionaries whose files have changed, until the watch service is closed.
+	 * @author Alex
+	 */
+	private class CustomDictionaryWatcher implements Runnable {
+		/** The watch service to poll */
+		private final WatchService	service;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param service
+		 *        the watch service to poll.
+		 */
+		public CustomDictionaryWatcher (final WatchService service) {
+			super();
+			this.service = service;
+		}
+		
+		@Override
+		public void run () {
+			try {
+				for (;;) {
+					final WatchKey key = service.take();
+					// Several events may be received for the same file
+					final Set<Path> files = new LinkedHashSet<>();
+					for (final WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+							files.addAll(listDictionaryFiles());
+						} else {
+							files.add(pathToCustom.resolve((Path) event.context()));
+						}
+					}
+					for (final Path file : files) {
+						if (file.getFileName().toString().endsWith(DICTIONARY_EXTENSION)) {
+							reloadCustomDictionary(file);
+						}
+					}
+					if (!key.reset()) {
+						LG.warning("Custom dictionaries folder " + pathToCustom + " cannot be watched anymore");
+						return;
+					}
+				}
+			} catch (final ClosedWatchServiceException e) {
+				LG.fine("Stopped watching custom dictionaries");
+			} catch (final InterruptedException e) {
+				LG.warning("Custom dictionaries watcher interrupted");
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		/**
+		 * List the files of the custom dictionaries, including the files of the dictionaries which
+		 * have been removed.
+		 * @return the files of the custom dictionaries.
+		 */
+		private Set<Path> listDictionaryFiles () {
+			final Set<Path> files = new LinkedHashSet<>();
+			for (final String key : customDictionaries.keySet()) {
+				files.add(pathToCustom.resolve(key + DICTIONARY_EXTENSION));
+			}
+			try (final DirectoryStream<Path> stream = Files.newDirectoryStream(pathToCustom, "*" + DICTIONARY_EXTENSION)) {
+				for (final Path file : stream) {
+					files.add(file);
+				}
+			} catch (final IOException e) {
+				LG.warning("Could not list custom dictionaries in " + pathToCustom + ": " + ExceptionUtils.display(e));
+			}
+			return files;
+		}
+	}
+	
+	/**
+	 * Immutable state of a session.<br />
+	 * A new state is built each time a session starts, so threads using the manager always see a
+	 * consistent set of dictionaries.
+	 * @author Alex
+	 */
+	private static final class ActiveSession {
+		/** The active dictionaries */
+		private final List<Dictionary>				dictionaries;
+		/** The active dictionaries, grouped by the locale used to make their words lower case */
+		private final Map<Locale, List<Dictionary>>	filterGroups;
+		/** The index merging the active dictionaries, <code>null</code> if they could not be merged */
+		private final DictionaryIndex				index;
+		/** <code>true</code> if the Bloom filters cover all the words of the active dictionaries */
+		private final boolean						filtered;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param dictionaries
+		 *        the active dictionaries.
+		 */
+		private ActiveSession (final List<Dictionary> dictionaries) {
+			super();
+			this.dictionaries = Collections.unmodifiableList(new ArrayList<>(dictionaries));
+			final Map<Locale, List<Dictionary>> groups = new HashMap<>();
+			boolean allFiltered = true;
+			for (final Dictionary dictionary : dictionaries) {
+				allFiltered &= dictionary.isFiltered();
+				final Locale locale = dictionary.getCaseInsensitiveLocale();
+				if (!groups.containsKey(locale)) {
+					groups.put(locale, new ArrayList<Dictionary>());
+				}
+				groups.get(locale).add(dictionary);
+			}
+			this.filterGroups = groups;
+			this.filtered = allFiltered;
+			this.index = DictionaryIndex.build(dictionaries);
+			if (index == null) {
+				LG.info("Active dictionaries use different locales, they will be checked one after the other");
+			}
+		}
+		
+		/**
+		 * Check if the Bloom filters cover all the words of the active dictionaries.
+		 * @return <code>true</code> if the filters can reject the words missing from the dictionaries.
+		 */
+		private boolean isFiltered () {
+			return filtered;
+		}
+		
+		/**
+		 * Check the Bloom filters of the active dictionaries.<br />
+		 * The word is hashed once for each case folding used by the dictionaries.
+		 * @param sequence
+		 *        the sequence with the word.
+		 * @param start
+		 *        the index of the first character of the word (inclusive).
+		 * @param end
+		 *        the index of the last character of the word (exclusive).
+		 * @return <code>false</code> if the word is definitely not in any active dictionary.
+		 */
+		private boolean mightContain (final CharSequence sequence, final int start, final int end) {
+			for (final Entry<Locale, List<Dictionary>> group : filterGroups.entrySet()) {
+				final long hash = BloomFilter.hash(sequence, start, end, group.getKey());
+				for (final Dictionary dictionary : group.getValue()) {
+					if (dictionary.mightContain(hash)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+		
+		/**
+		 * Check if the active dictionaries contain the word.
+		 * @param sequence
+		 *        the sequence with the word.
+		 * @param start
+		 *        the index of the first character of the word (inclusive).
+		 * @param end
+		 *        the index of the last character of the word (exclusive).
+		 * @return <code>true</code> if any of the dictionaries contains the word.
+		 */
+		private boolean contains (final CharSequence sequence, final int start, final int end) {
+			if (index != null) {
+				return index.contains(sequence, start, end);
+			}
+			for (final Dictionary dictionary : dictionaries) {
+				if (dictionary.contains(sequence, start, end)) {
+					return true;
+				}
+			}
+			return false;
 		}
 	}
 }
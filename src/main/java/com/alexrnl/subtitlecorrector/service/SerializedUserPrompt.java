@@ -0,0 +1,127 @@
+package com.alexrnl.subtitlecorrector.service;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.alexrnl.commons.translation.Translatable;
+import com.alexrnl.commons.translation.Translator;
+import com.alexrnl.commons.utils.Word;
+
+/**
+ * User prompt which serializes the interactions with the user.<br />
+ * When the subtitles are corrected by several threads (see {@link SubtitleCorrector}), the
+ * strategies may prompt the user at the same time. This prompt lets a single interaction at a time
+ * reach the actual prompt: the other threads wait in a queue, and are served in the order they
+ * arrived, so the questions are never interleaved.
+ * @author Alex
+ */
+public class SerializedUserPrompt implements UserPrompt {
+	/** The actual prompt */
+	private final UserPrompt	prompt;
+	/** The lock of the prompt, fair so the waiting threads are served in order */
+	private final Lock			queue;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param prompt
+	 *        the actual prompt.
+	 */
+	public SerializedUserPrompt (final UserPrompt prompt) {
+		super();
+		this.prompt = Objects.requireNonNull(prompt);
+		queue = new ReentrantLock(true);
+	}
+	
+	@Override
+	public void startSession (final SessionParameters parameters) {
+		queue.lock();
+		try {
+			prompt.startSession(parameters);
+		} finally {
+			queue.unlock();
+		}
+	}
+	
+	@Override
+	public void stopSession () {
+		queue.lock();
+		try {
+			prompt.stopSession();
+		} finally {
+			queue.unlock();
+		}
+	}
+	
+	@Override
+	public void setTranslator (final Translator translator) {
+		queue.lock();
+		try {
+			prompt.setTranslator(translator);
+		} finally {
+			queue.unlock();
+		}
+	}
+	
+	@Override
+	public void information (final String translationKey, final Object... parameters) {
+		queue.lock();
+		try {
+			prompt.information(translationKey, parameters);
+		} finally {
+			queue.unlock();
+		}
+	}
+	
+	@Override
+	public void warning (final String translationKey, final Object... parameters) {
+		queue.lock();
+		try {
+			prompt.warning(translationKey, parameters);
+		} finally {
+			queue.unlock();
+		}
+	}
+	
+	@Override
+	public void error (final String translationKey, final Object... parameters) {
+		queue.lock();
+		try {
+			prompt.error(translationKey, parameters);
+		} finally {
+			queue.unlock();
+		}
+	}
+	
+	@Override
+	public <T extends Translatable> T askChoice (final Collection<T> choices, final String translationKey,
+			final Object... parameters) {
+		queue.lock();
+		try {
+			return prompt.askChoice(choices, translationKey, parameters);
+		} finally {
+			queue.unlock();
+		}
+	}
+	
+	@Override
+	public UserPromptAnswer confirm (final String context, final Word original, final String replacement) {
+		queue.lock();
+		try {
+			return prompt.confirm(context, original, replacement);
+		} finally {
+			queue.unlock();
+		}
+	}
+	
+	@Override
+	public UserPromptAnswer confirm (final Word original, final String replacement) {
+		queue.lock();
+		try {
+			return prompt.confirm(original, replacement);
+		} finally {
+			queue.unlock();
+		}
+	}
+}
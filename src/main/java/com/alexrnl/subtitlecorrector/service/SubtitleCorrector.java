@@ -0,0 +1,291 @@
+package com.alexrnl.subtitlecorrector.service;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.error.ExceptionUtils;
+import com.alexrnl.subtitlecorrector.common.Diagnostic;
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+import com.alexrnl.subtitlecorrector.correctionstrategy.Strategy;
+import com.alexrnl.subtitlecorrector.io.CharsetDetector;
+import com.alexrnl.subtitlecorrector.io.FilePermissions;
+import com.alexrnl.subtitlecorrector.io.SubtitleFormat;
+import com.alexrnl.subtitlecorrector.io.SubtitleSource;
+import com.alexrnl.subtitlecorrector.io.SubtitleStream;
+
+/**
+ * Corrects subtitle files with a strategy, using several threads.<br />
+ * Each file is corrected by a single thread, in the order of its subtitles, so a file is corrected
+ * exactly as it would be on a single thread; the files are corrected concurrently. The strategy is
+ * therefore called from several threads at the same time: the strategies of the application are
+ * thread-safe, and their prompts to the user should be serialized (see
+ * {@link SerializedUserPrompt}).<br />
+ * With a single thread, the files are corrected in the calling thread, one after the other.<br />
+ * The files may be loaded beforehand, or streamed from the original files to the corrected files
+ * so they are never held in memory.
+ * @author Alex
+ */
+public class SubtitleCorrector {
+	/** Logger */
+	private static final Logger		LG					= Logger.getLogger(SubtitleCorrector.class.getName());
+	
+	/** The suffix of the files being written, before they are moved to their target */
+	private static final String		TEMPORARY_SUFFIX	= ".tmp";
+	/** The default number of threads, one per processor */
+	public static final int			DEFAULT_THREADS		= Runtime.getRuntime().availableProcessors();
+	
+	/** The maximum number of threads used to correct the files */
+	private final int				threads;
+	/** The detector of the character set of the streamed files, <code>null</code> to use the readers' one */
+	private final CharsetDetector	charsetDetector;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param threads
+	 *        the maximum number of threads used to correct the files, at least 1.
+	 */
+	public SubtitleCorrector (final int threads) {
+		this(threads, null);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * @param threads
+	 *        the maximum number of threads used to correct the files, at least 1.
+	 * @param charsetDetector
+	 *        the detector of the character set of the streamed files, <code>null</code> to read them
+	 *        in the character set of the readers.
+	 */
+	public SubtitleCorrector (final int threads, final CharsetDetector charsetDetector) {
+		super();
+		if (threads < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive (" + threads + ")");
+		}
+		this.threads = threads;
+		this.charsetDetector = charsetDetector;
+	}
+	
+	/**
+	 * Constructor #3.<br />
+	 * Use one thread per processor.
+	 */
+	public SubtitleCorrector () {
+		this(DEFAULT_THREADS);
+	}
+	
+	/**
+	 * Return the attribute threads.
+	 * @return the attribute threads.
+	 */
+	public int getThreads () {
+		return threads;
+	}
+	
+	/**
+	 * Correct the subtitle files with a strategy.<br />
+	 * The method returns once all the files are corrected. The session of the strategy must have
+	 * been started.
+	 * @param strategy
+	 *        the strategy to apply.
+	 * @param files
+	 *        the files to correct.
+	 */
+	public void correct (final Strategy strategy, final Collection<SubtitleFile> files) {
+		final List<Callable<Void>> tasks = new ArrayList<>(files.size());
+		for (final SubtitleFile file : files) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call () {
+					correct(strategy, file);
+					return null;
+				}
+			});
+		}
+		execute(tasks);
+	}
+	
+	/**
+	 * Correct the subtitle files with a strategy, streaming the subtitles from the original files to
+	 * the corrected files.<br />
+	 * Each subtitle is read, corrected and written before the next one is read: only the subtitles
+	 * being corrected are held in memory, whatever the number and the size of the files, and each
+	 * file is available as soon as it is corrected. The corrected file is written next to its target
+	 * and moved to the target once complete, so the target may be the original file.<br />
+	 * The method returns once all the files are corrected. The session of the strategy must have
+	 * been started.
+	 * @param strategy
+	 *        the strategy to apply.
+	 * @param files
+	 *        the files to correct, with their format.
+	 * @param targets
+	 *        the resolver of the path where each corrected file is written.
+	 * @return the files which could not be corrected, with the cause of the failure.
+	 */
+	public Map<Path, IOException> correct (final Strategy strategy, final Map<Path, SubtitleFormat> files,
+			final TargetResolver targets) {
+		final Map<Path, IOException> failures = Collections.synchronizedMap(new TreeMap<Path, IOException>());
+		final List<Callable<Void>> tasks = new ArrayList<>(files.size());
+		for (final Entry<Path, SubtitleFormat> file : files.entrySet()) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call () {
+					try {
+						correct(strategy, file.getKey(), file.getValue(), targets.getTarget(file.getKey()));
+					} catch (final IOException e) {
+						LG.warning("Could not correct file " + file.getKey() + ": " + ExceptionUtils.display(e));
+						failures.put(file.getKey(), e);
+					}
+					return null;
+				}
+			});
+		}
+		execute(tasks);
+		return failures;
+	}
+	
+	/**
+	 * Execute the tasks, on the threads of the corrector.<br />
+	 * With a single thread, the tasks are executed in the calling thread, in order.
+	 * @param tasks
+	 *        the tasks to execute.
+	 * @throws IllegalStateException
+	 *         if a task failed, or if the calling thread was interrupted while waiting for the
+	 *         tasks (its interrupted status is then set).
+	 */
+	private void execute (final List<Callable<Void>> tasks) {
+		final int poolSize = Math.min(threads, tasks.size());
+		if (poolSize <= 1) {
+			for (final Callable<Void> task : tasks) {
+				try {
+					task.call();
+				} catch (final RuntimeException e) {
+					throw e;
+				} catch (final Exception e) {
+					throw new IllegalStateException("Correction of the subtitles failed", e);
+				}
+			}
+			return;
+		}
+		
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Correcting " + tasks.size() + " files on " + poolSize + " threads");
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+				new DaemonThreadFactory(SubtitleCorrector.class.getSimpleName()));
+		try {
+			final List<Future<Void>> results = new ArrayList<>(tasks.size());
+			for (final Callable<Void> task : tasks) {
+				results.add(executor.submit(task));
+			}
+			for (final Future<Void> result : results) {
+				result.get();
+			}
+		} catch (final ExecutionException e) {
+			// Report the failure of the strategy in the calling thread
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException("Correction of the subtitles failed", e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the correction of the subtitles", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Correct the subtitles of a file, in order.
+	 * @param strategy
+	 *        the strategy to apply.
+	 * @param file
+	 *        the file to correct.
+	 */
+	private static void correct (final Strategy strategy, final SubtitleFile file) {
+		for (final Subtitle subtitle : file) {
+			strategy.correct(subtitle);
+		}
+	}
+	
+	/**
+	 * Stream the subtitles of a file through the strategy to the target.<br />
+	 * The file is read in its character set when it can be detected.
+	 * @param strategy
+	 *        the strategy to apply.
+	 * @param file
+	 *        the file to correct.
+	 * @param format
+	 *        the format of the file.
+	 * @param target
+	 *        the path of the corrected file.
+	 * @throws IOException
+	 *         if the file could not be read or the corrected file written.
+	 */
+	private void correct (final Strategy strategy, final Path file, final SubtitleFormat format, final Path target)
+			throws IOException {
+		final Path absoluteTarget = target.toAbsolutePath();
+		if (Files.isDirectory(absoluteTarget) || Files.exists(absoluteTarget) && !Files.isWritable(absoluteTarget)) {
+			throw new IOException(target + " is a directory or is not writable");
+		}
+		
+		final Path temporary = Files.createTempFile(absoluteTarget.getParent(), absoluteTarget.getFileName().toString(),
+				TEMPORARY_SUFFIX);
+		final Charset charset = charsetDetector == null ? null : charsetDetector.detect(file);
+		try (final SubtitleStream subtitles = charset == null ? format.getReader().openFile(file)
+				: format.getReader().openFile(file, charset)) {
+			format.getWriter().writeFile(subtitles.getSubtitleFile(), new SubtitleSource() {
+				@Override
+				public Subtitle next () throws IOException {
+					final Subtitle subtitle = subtitles.next();
+					if (subtitle != null) {
+						strategy.correct(subtitle);
+					}
+					return subtitle;
+				}
+			}, temporary);
+			// The corrected file keeps the permissions of the file it replaces, or of the original file
+			FilePermissions.copy(Files.exists(absoluteTarget) ? absoluteTarget : file, temporary);
+			Files.move(temporary, absoluteTarget, StandardCopyOption.REPLACE_EXISTING);
+			for (final Diagnostic diagnostic : subtitles.getSubtitleFile().getDiagnostics()) {
+				LG.warning("Recovered from a problem in file " + file + " at line " + diagnostic);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+	
+	/**
+	 * Interface which gives the path where a corrected file is written.
+	 * @author Alex
+	 */
+	public interface TargetResolver {
+		/**
+		 * Return the path where the corrected file should be written.
+		 * @param file
+		 *        the original file.
+		 * @return the path of the corrected file.
+		 */
+		Path getTarget (Path file);
+	}
+}
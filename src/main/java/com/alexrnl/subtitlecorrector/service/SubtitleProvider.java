@@ -1,6 +1,7 @@
 package com.alexrnl.subtitlecorrector.service;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -8,15 +9,25 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.alexrnl.commons.error.ExceptionUtils;
+import com.alexrnl.subtitlecorrector.common.Diagnostic;
 import com.alexrnl.subtitlecorrector.common.SubtitleFile;
 import com.alexrnl.subtitlecorrector.common.TranslationKeys;
+import com.alexrnl.subtitlecorrector.io.CharsetDetector;
 import com.alexrnl.subtitlecorrector.io.SubtitleFormat;
 import com.alexrnl.subtitlecorrector.io.SubtitleFormatManager;
 
@@ -35,6 +46,10 @@ public class SubtitleProvider {
 	private final UserPrompt			userPrompt;
 	/** The subtitle format manager to use */
 	private final SubtitleFormatManager	subtitleFormatManager;
+	/** The detector of the character set of the files, <code>null</code> to use the readers' one */
+	private final CharsetDetector		charsetDetector;
+	/** Flag indicating to ask the user the format of the files which are not recognized */
+	private boolean						askFormat;
 	
 	/**
 	 * Constructor #1.<br />
@@ -44,9 +59,36 @@ public class SubtitleProvider {
 	 *        the user prompt to communicate with the user.
 	 */
 	public SubtitleProvider (final SubtitleFormatManager subtitleFormatManager, final UserPrompt userPrompt) {
+		this(subtitleFormatManager, userPrompt, null);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * @param subtitleFormatManager
+	 *        the format manager to use.
+	 * @param userPrompt
+	 *        the user prompt to communicate with the user.
+	 * @param charsetDetector
+	 *        the detector of the character set of each file, <code>null</code> to read the files in
+	 *        the character set of the readers.
+	 */
+	public SubtitleProvider (final SubtitleFormatManager subtitleFormatManager, final UserPrompt userPrompt,
+			final CharsetDetector charsetDetector) {
 		super();
 		this.subtitleFormatManager = subtitleFormatManager;
 		this.userPrompt = userPrompt;
+		this.charsetDetector = charsetDetector;
+	}
+	
+	/**
+	 * Set whether the user is asked the format of the files which are not recognized.<br />
+	 * By default, these files are skipped with a warning, so the provider never waits for the user.
+	 * @param askFormat
+	 *        <code>true</code> to ask the user to choose the format of the files which are not
+	 *        recognized.
+	 */
+	public void setAskFormat (final boolean askFormat) {
+		this.askFormat = askFormat;
 	}
 	
 	/**
@@ -58,6 +100,147 @@ public class SubtitleProvider {
 	 * @return the map with the subtitle files and their format.
 	 */
 	public Map<SubtitleFile, SubtitleFormat> loadSubtitles (final Path workingFiles) {
+		return loadSubtitles(workingFiles, 1);
+	}
+	
+	/**
+	 * Load the subtitles located under the provided {@link Path}, reading several files at the same
+	 * time.<br />
+	 * The files are selected as in {@link #loadSubtitles(Path)}. The readers of the formats do not
+	 * keep any state, so the files of the same format are read concurrently; the user is warned of
+	 * the files which cannot be read in the order of the files.
+	 * @param workingFiles
+	 *        the {@link Path} to load.
+	 * @param threads
+	 *        the maximum number of files read at the same time.
+	 * @return the map with the subtitle files and their format.
+	 */
+	public Map<SubtitleFile, SubtitleFormat> loadSubtitles (final Path workingFiles, final int threads) {
+		final Map<Path, SubtitleFormat> files = findSubtitles(workingFiles);
+		if (files.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		
+		// Read files
+		final Map<SubtitleFile, SubtitleFormat> subtitles = new HashMap<>(files.size(), 1.0f);
+		final int poolSize = Math.min(threads, files.size());
+		if (poolSize <= 1) {
+			for (final Entry<Path, SubtitleFormat> file : files.entrySet()) {
+				try {
+					final SubtitleFile subtitleFile = readFile(file.getKey(), file.getValue());
+					recovered(file.getKey(), subtitleFile);
+					subtitles.put(subtitleFile, file.getValue());
+				} catch (final IOException e) {
+					readError(file.getKey(), e);
+				}
+			}
+		} else {
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Reading " + files.size() + " files on " + poolSize + " threads");
+			}
+			final ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+					new DaemonThreadFactory(SubtitleProvider.class.getSimpleName()));
+			try {
+				final Map<Path, Future<SubtitleFile>> results = new LinkedHashMap<>(files.size(), 1.0f);
+				for (final Entry<Path, SubtitleFormat> file : files.entrySet()) {
+					results.put(file.getKey(), executor.submit(new Callable<SubtitleFile>() {
+						@Override
+						public SubtitleFile call () throws IOException {
+							return readFile(file.getKey(), file.getValue());
+						}
+					}));
+				}
+				for (final Entry<Path, Future<SubtitleFile>> result : results.entrySet()) {
+					try {
+						final SubtitleFile subtitleFile = result.getValue().get();
+						recovered(result.getKey(), subtitleFile);
+						subtitles.put(subtitleFile, files.get(result.getKey()));
+					} catch (final ExecutionException e) {
+						if (e.getCause() instanceof IOException) {
+							readError(result.getKey(), (IOException) e.getCause());
+						} else if (e.getCause() instanceof RuntimeException) {
+							throw (RuntimeException) e.getCause();
+						} else {
+							throw new IllegalStateException("Could not read file " + result.getKey(), e.getCause());
+						}
+					}
+				}
+			} catch (final InterruptedException e) {
+				LG.warning("Interrupted while waiting for the subtitles to be read");
+				Thread.currentThread().interrupt();
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		
+		if (subtitles.isEmpty()) {
+			userPrompt.warning(TRANSLATION_KEY.noSubtitleToCorrect());
+		}
+		return subtitles;
+	}
+	
+	/**
+	 * Read a subtitle file, in its character set when it can be detected.
+	 * @param file
+	 *        the file to read.
+	 * @param format
+	 *        the format of the file.
+	 * @return the subtitle file, loaded.
+	 * @throws IOException
+	 *         if the file could not be read.
+	 */
+	private SubtitleFile readFile (final Path file, final SubtitleFormat format) throws IOException {
+		final Charset charset = charsetDetector == null ? null : charsetDetector.detect(file);
+		if (charset == null) {
+			return format.getReader().readFile(file);
+		}
+		return format.getReader().readFile(file, charset);
+	}
+	
+	/**
+	 * Warn the user that a file could not be read.
+	 * @param file
+	 *        the file which could not be read.
+	 * @param e
+	 *        the cause of the failure.
+	 */
+	private void readError (final Path file, final IOException e) {
+		userPrompt.warning(TRANSLATION_KEY.subtitleFileReadError(), file);
+		LG.warning("Exception while parsing file " + file + ": " + ExceptionUtils.display(e));
+	}
+	
+	/**
+	 * Warn the user if malformed subtitles were skipped while reading a file.
+	 * @param file
+	 *        the file read.
+	 * @param subtitleFile
+	 *        the subtitle file, with its diagnostics.
+	 */
+	private void recovered (final Path file, final SubtitleFile subtitleFile) {
+		if (subtitleFile.getDiagnostics().isEmpty()) {
+			return;
+		}
+		userPrompt.warning(TRANSLATION_KEY.subtitleFileRecovered(), file, subtitleFile.getDiagnostics().size());
+		for (final Diagnostic diagnostic : subtitleFile.getDiagnostics()) {
+			LG.warning("Recovered from a problem in file " + file + " at line " + diagnostic);
+		}
+	}
+	
+	/**
+	 * Find the subtitles located under the provided {@link Path} and their format, without reading
+	 * them.<br />
+	 * The files are selected as in {@link #loadSubtitles(Path)}, this allows to read the files later,
+	 * one at a time (see {@link com.alexrnl.subtitlecorrector.io.SubtitleReader#openFile(Path)}).<br />
+	 * The format of a file is given by its extension; when several formats or none match the
+	 * extension, the format is recognized by the content of the file (see
+	 * {@link SubtitleFormatManager#probeFormat(Path, Set)}). When the content is not recognized
+	 * either, the file is skipped with a warning, unless the user is asked to choose the format (see
+	 * {@link #setAskFormat(boolean)}).
+	 * @param workingFiles
+	 *        the {@link Path} to search.
+	 * @return the map with the subtitle files and their format, sorted by path.
+	 */
+	public Map<Path, SubtitleFormat> findSubtitles (final Path workingFiles) {
 		final boolean exists = Files.exists(workingFiles);
 		final boolean reads = Files.isReadable(workingFiles);
 		if (!exists || !reads) {
@@ -85,8 +268,8 @@ public class SubtitleProvider {
 			return Collections.emptyMap();
 		}
 		
-		// Read files
-		final Map<SubtitleFile, SubtitleFormat> subtitles = new HashMap<>(files.size(), 1.0f);
+		// Find the format of the files
+		final Map<Path, SubtitleFormat> formats = new TreeMap<>();
 		for (final Path file : files) {
 			final Set<SubtitleFormat> readers = subtitleFormatManager.getFormatByPath(file);
 			final SubtitleFormat format;
@@ -98,25 +281,28 @@ public class SubtitleProvider {
 					readers.addAll(subtitleFormatManager.getAvailableFormats());
 				}
 				
-				format = userPrompt.askChoice(readers, TRANSLATION_KEY.chooseSubtitleFormat(), file);
-			}
-			
-			if (format == null) {
-				continue;
+				// Recognize the format by the content
+				final SubtitleFormat probed = subtitleFormatManager.probeFormat(file, readers);
+				if (probed != null) {
+					format = probed;
+				} else if (askFormat) {
+					format = userPrompt.askChoice(readers, TRANSLATION_KEY.chooseSubtitleFormat(), file);
+				} else {
+					userPrompt.warning(TRANSLATION_KEY.unknownSubtitleFormat(), file);
+					LG.warning("Could not recognize the format of file " + file + ", it will not be corrected");
+					format = null;
+				}
 			}
 			
-			try {
-				subtitles.put(format.getReader().readFile(file), format);
-			} catch (final IOException e) {
-				userPrompt.warning(TRANSLATION_KEY.subtitleFileReadError(), file);
-				LG.warning("Exception while parsing file " + file + ": " + ExceptionUtils.display(e));
+			if (format != null) {
+				formats.put(file, format);
 			}
 		}
 		
-		if (subtitles.isEmpty()) {
+		if (formats.isEmpty()) {
 			userPrompt.warning(TRANSLATION_KEY.noSubtitleToCorrect());
 		}
-		return subtitles;
+		return formats;
 	}
 	
 	/**
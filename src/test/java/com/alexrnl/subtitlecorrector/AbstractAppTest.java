@@ -79,8 +79,8 @@ public class AbstractAppTest {
 	public void testGetDictionariesManager () {
 		final DictionaryManager dictionaryManager = app.getDictionariesManager();
 		assertNotNull(dictionaryManager);
-		assertEquals(2, dictionaryManager.getLocaleDictionaries().size());
-		assertEquals(new HashSet<>(Arrays.asList(Locale.FRENCH, Locale.ENGLISH)), dictionaryManager.getLocaleDictionaries().keySet());
+		assertEquals(2, dictionaryManager.getAvailableLocales().size());
+		assertEquals(new HashSet<>(Arrays.asList(Locale.FRENCH, Locale.ENGLISH)), dictionaryManager.getAvailableLocales());
 	}
 	
 	/**
@@ -9,7 +9,7 @@ import org.junit.runners.Suite.SuiteClasses;
  * @author Alex
  */
 @RunWith(Suite.class)
-@SuiteClasses({ SubtitleTest.class, SubtitleFileTest.class, TranslationKeysTest.class })
+@SuiteClasses({ SubtitleTest.class, SubtitleFileTest.class, DiagnosticTest.class, TranslationKeysTest.class, TokensTest.class })
 public class CommonTests {
 	
 }
@@ -0,0 +1,47 @@
+package com.alexrnl.subtitlecorrector.common;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link Diagnostic} class.
+ * @author Alex
+ */
+public class DiagnosticTest {
+	/** The diagnostic to test */
+	private Diagnostic	diagnostic;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		diagnostic = new Diagnostic(12, "Missing dates");
+	}
+	
+	/**
+	 * Test method for {@link Diagnostic#getLine()}.
+	 */
+	@Test
+	public void testGetLine () {
+		assertEquals(12, diagnostic.getLine());
+	}
+	
+	/**
+	 * Test method for {@link Diagnostic#getReason()}.
+	 */
+	@Test
+	public void testGetReason () {
+		assertEquals("Missing dates", diagnostic.getReason());
+	}
+	
+	/**
+	 * Test method for {@link Diagnostic#toString()}.
+	 */
+	@Test
+	public void testToString () {
+		assertEquals("12: Missing dates", diagnostic.toString());
+	}
+}
@@ -3,6 +3,7 @@ package com.alexrnl.subtitlecorrector.common;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.nio.file.Paths;
@@ -67,4 +68,29 @@ public class SubtitleFileTest {
 		assertTrue(CollectionUtils.isSorted(file));
 		assertEquals(3, file.size());
 	}
+	
+	/**
+	 * Test method for {@link SubtitleFile#addDiagnostic(Diagnostic)} and
+	 * {@link SubtitleFile#getDiagnostics()}.
+	 */
+	@Test
+	public void testDiagnostics () {
+		assertTrue(file.getDiagnostics().isEmpty());
+		final Diagnostic first = new Diagnostic(3, "Missing dates");
+		final Diagnostic second = new Diagnostic(8, "Invalid number");
+		file.addDiagnostic(first);
+		file.addDiagnostic(second);
+		assertEquals(2, file.getDiagnostics().size());
+		assertSame(first, file.getDiagnostics().get(0));
+		assertSame(second, file.getDiagnostics().get(1));
+		assertTrue(file.isEmpty());
+	}
+	
+	/**
+	 * Check that the diagnostics cannot be modified directly.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testDiagnosticsUnmodifiable () {
+		file.getDiagnostics().add(new Diagnostic(1, "Unexpected text"));
+	}
 }
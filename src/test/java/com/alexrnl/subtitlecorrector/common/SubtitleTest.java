@@ -5,7 +5,9 @@ import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -117,6 +119,20 @@ public class SubtitleTest {
 		assertEquals("No, I am your father", invalidSubtitle.getContent());
 	}
 	
+	/**
+	 * Test method for {@link Subtitle#getTokens()}.
+	 */
+	@Test
+	public void testGetTokens () {
+		final Tokens tokens = validSubtitle.getTokens();
+		assertEquals(validSubtitle.getContent(), tokens.getContent());
+		assertSame(tokens, validSubtitle.getTokens());
+		validSubtitle.setContent("No, I am your father");
+		assertNotSame(tokens, validSubtitle.getTokens());
+		assertEquals(5, validSubtitle.getTokens().size());
+		assertEquals("father", validSubtitle.getTokens().getWord(4));
+	}
+	
 	/**
 	 * Test method for {@link Subtitle#getDuration()}.
 	 */
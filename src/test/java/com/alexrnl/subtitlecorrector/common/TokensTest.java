@@ -0,0 +1,76 @@
+package com.alexrnl.subtitlecorrector.common;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.alexrnl.commons.utils.Word;
+
+/**
+ * Test suite for the {@link Tokens} class.
+ * @author Alex
+ */
+public class TokensTest {
+	
+	/**
+	 * Test method for {@link Tokens#tokenize(String)}.
+	 */
+	@Test
+	public void testTokenize () {
+		final Tokens tokens = Tokens.tokenize("- Hello Lucie,\nhow are you doin'? Peut-être 42.");
+		assertEquals(8, tokens.size());
+		assertEquals("[Hello, Lucie, how, are, you, doin', Peut-être, 42]", tokens.toString());
+		assertEquals(2, tokens.getStart(0));
+		assertEquals(7, tokens.getEnd(0));
+		assertEquals(15, tokens.getStart(2));
+		assertEquals("doin'", tokens.getWord(5));
+	}
+	
+	/**
+	 * Test method for {@link Tokens#tokenize(String)} with texts without words.
+	 */
+	@Test
+	public void testTokenizeNoWord () {
+		assertEquals(0, Tokens.tokenize("").size());
+		assertEquals(0, Tokens.tokenize(" ... -- !").size());
+	}
+	
+	/**
+	 * Test method for {@link Tokens#tokenize(String)} with characters out of the basic plane.
+	 */
+	@Test
+	public void testTokenizeSupplementaryCharacters () {
+		final Tokens tokens = Tokens.tokenize("😀 𝒜b 😀");
+		assertEquals(1, tokens.size());
+		assertEquals("𝒜b", tokens.getWord(0));
+		assertEquals(3, tokens.getStart(0));
+		assertEquals(6, tokens.getEnd(0));
+	}
+	
+	/**
+	 * Test method for {@link Tokens#toWord(int)}.
+	 */
+	@Test
+	public void testToWord () {
+		final Word word = Tokens.tokenize("Hello, world!").toWord(1);
+		assertEquals("world", word.getWord());
+		assertEquals(7, word.getBegin());
+		assertEquals(12, word.getEnd());
+	}
+	
+	/**
+	 * Check that an exception is thrown when accessing a word which does not exist.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetStartOutOfBounds () {
+		Tokens.tokenize("Hello").getStart(1);
+	}
+	
+	/**
+	 * Check that a <code>null</code> text cannot be tokenized.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testTokenizeNull () {
+		Tokens.tokenize(null);
+	}
+}
@@ -23,17 +23,26 @@ public class TranslationKeysTest {
 		assertEquals("subtitlecorrector.strategy.letterreplacement.newletter", KEYS.strategy().letterReplacement().newLetter());
 		assertEquals("subtitlecorrector.strategy.letterreplacement.onlymissingfromdictionary", KEYS.strategy().letterReplacement().onlyMissingFromDictionary());
 		assertEquals("subtitlecorrector.strategy.letterreplacement.promptbeforecorrecting", KEYS.strategy().letterReplacement().promptBeforeCorrecting());
+		assertEquals("subtitlecorrector.strategy.letterreplacement.onlydictionaryreplacements", KEYS.strategy().letterReplacement().onlyDictionaryReplacements());
 		assertEquals("subtitlecorrector.strategy.fixpunctuation", KEYS.strategy().fixPunctuation().toString());
 		assertEquals("subtitlecorrector.strategy.fixpunctuation.description", KEYS.strategy().fixPunctuation().description());
 		assertEquals("subtitlecorrector.strategy.fixpunctuation.locale", KEYS.strategy().fixPunctuation().locale());
 		assertEquals("subtitlecorrector.strategy.checkspelling", KEYS.strategy().checkSpelling().toString());
 		assertEquals("subtitlecorrector.strategy.checkspelling.description", KEYS.strategy().checkSpelling().description());
+		assertEquals("subtitlecorrector.strategy.confusionreplacement", KEYS.strategy().confusionReplacement().toString());
+		assertEquals("subtitlecorrector.strategy.confusionreplacement.description", KEYS.strategy().confusionReplacement().description());
+		assertEquals("subtitlecorrector.strategy.confusionreplacement.locale", KEYS.strategy().confusionReplacement().locale());
+		assertEquals("subtitlecorrector.strategy.confusionreplacement.promptbeforecorrecting", KEYS.strategy().confusionReplacement().promptBeforeCorrecting());
+		assertEquals("subtitlecorrector.strategy.compositestrategy", KEYS.strategy().compositeStrategy().toString());
+		assertEquals("subtitlecorrector.strategy.compositestrategy.description", KEYS.strategy().compositeStrategy().description());
 		
 		assertEquals("subtitlecorrector.subtitleprovider.noaccess", KEYS.subtitleProvider().noAccess());
 		assertEquals("subtitlecorrector.subtitleprovider.foldervisiterror", KEYS.subtitleProvider().folderVisitError());
 		assertEquals("subtitlecorrector.subtitleprovider.notfilenotdirectory", KEYS.subtitleProvider().notFileNotDirectory());
 		assertEquals("subtitlecorrector.subtitleprovider.choosesubtitleformat", KEYS.subtitleProvider().chooseSubtitleFormat());
+		assertEquals("subtitlecorrector.subtitleprovider.unknownsubtitleformat", KEYS.subtitleProvider().unknownSubtitleFormat());
 		assertEquals("subtitlecorrector.subtitleprovider.subtitlefilereaderror", KEYS.subtitleProvider().subtitleFileReadError());
+		assertEquals("subtitlecorrector.subtitleprovider.subtitlefilerecovered", KEYS.subtitleProvider().subtitleFileRecovered());
 		assertEquals("subtitlecorrector.subtitleprovider.nosubtitletocorrect", KEYS.subtitleProvider().noSubtitleToCorrect());
 		
 		assertEquals("subtitlecorrector.gui.mainwindow.title", KEYS.gui().mainWindow().title());
@@ -1,7 +1,9 @@
 package com.alexrnl.subtitlecorrector.correctionstrategy;
 
+import static com.alexrnl.subtitlecorrector.correctionstrategy.DictionaryAnswers.containsIn;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -11,9 +13,17 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.alexrnl.commons.utils.Word;
 import com.alexrnl.subtitlecorrector.common.Subtitle;
@@ -66,8 +76,7 @@ public class CheckSpellingTest {
 	@Test
 	public void testCorrectAllInDictionnary () {
 		final Subtitle subtitle = new Subtitle(0, 2000, "Hello, world!");
-		when(dictionary.contains("Hello")).thenReturn(true);
-		when(dictionary.contains("world")).thenReturn(true);
+		when(dictionary.contains(any(CharSequence.class), anyInt(), anyInt())).then(containsIn("Hello", "world"));
 		checkSpelling.correct(subtitle);
 		assertEquals("Hello, world!", subtitle.getContent());
 	}
@@ -89,8 +98,7 @@ public class CheckSpellingTest {
 	@Test
 	public void testCorrectPrompt () {
 		Subtitle subtitle = new Subtitle(0, 2000, "Hello, wxrld!");
-		when(dictionary.contains("Hello")).thenReturn(true);
-		when(dictionary.contains("wxrld")).thenReturn(false);
+		when(dictionary.contains(any(CharSequence.class), anyInt(), anyInt())).then(containsIn("Hello"));
 		when(prompt.confirm(eq(subtitle.getContent()), any(Word.class), anyString())).thenReturn(new UserPromptAnswer("world", true));
 		checkSpelling.correct(subtitle);
 		assertEquals("Hello, world!", subtitle.getContent());
@@ -103,14 +111,27 @@ public class CheckSpellingTest {
 		verify(prompt).confirm(anyString(), any(Word.class), anyString());
 	}
 	
+	/**
+	 * Test method for {@link CheckSpelling#correct(Subtitle)} with a suggestion from the dictionary.
+	 */
+	@Test
+	public void testCorrectPromptSuggestion () {
+		final Subtitle subtitle = new Subtitle(0, 2000, "Hello, wxrld!");
+		when(dictionary.contains(any(CharSequence.class), anyInt(), anyInt())).then(containsIn("Hello"));
+		when(dictionary.suggest("wxrld", 1)).thenReturn(Arrays.asList("world"));
+		when(prompt.confirm(eq(subtitle.getContent()), any(Word.class), anyString())).thenReturn(new UserPromptAnswer("world", true));
+		checkSpelling.correct(subtitle);
+		assertEquals("Hello, world!", subtitle.getContent());
+		verify(prompt).confirm(anyString(), any(Word.class), eq("world"));
+	}
+	
 	/**
 	 * Test method for {@link CheckSpelling#correct(Subtitle)} with a canceled replacement from user prompt.
 	 */
 	@Test
 	public void testCorrectPromptCancel () {
 		Subtitle subtitle = new Subtitle(0, 2000, "Hello, wxrld!");
-		when(dictionary.contains("Hello")).thenReturn(true);
-		when(dictionary.contains("wxrld")).thenReturn(false);
+		when(dictionary.contains(any(CharSequence.class), anyInt(), anyInt())).then(containsIn("Hello"));
 		when(prompt.confirm(eq(subtitle.getContent()), any(Word.class), anyString())).thenReturn(new UserPromptAnswer("", true, true));
 		checkSpelling.correct(subtitle);
 		assertEquals("Hello, wxrld!", subtitle.getContent());
@@ -129,8 +150,7 @@ public class CheckSpellingTest {
 	@Test
 	public void testCorrectPromptNoRemember () {
 		Subtitle subtitle = new Subtitle(0, 2000, "Hello, wxrld!");
-		when(dictionary.contains("Hello")).thenReturn(true);
-		when(dictionary.contains("wxrld")).thenReturn(false);
+		when(dictionary.contains(any(CharSequence.class), anyInt(), anyInt())).then(containsIn("Hello"));
 		when(prompt.confirm(eq(subtitle.getContent()), any(Word.class), anyString())).thenReturn(new UserPromptAnswer("world", false));
 		checkSpelling.correct(subtitle);
 		assertEquals("Hello, world!", subtitle.getContent());
@@ -144,4 +164,51 @@ public class CheckSpellingTest {
 		verify(prompt, times(2)).confirm(anyString(), any(Word.class), anyString());
 		
 	}
+	
+	/**
+	 * Test method for {@link CheckSpelling#correct(Subtitle)} with the same word corrected by
+	 * several threads: the user is asked only once when the choice is remembered.
+	 * @throws InterruptedException
+	 *         if the test is interrupted.
+	 */
+	@Test
+	public void testCorrectPromptParallel () throws InterruptedException {
+		final CountDownLatch checked = new CountDownLatch(2);
+		when(dictionary.contains(any(CharSequence.class), anyInt(), anyInt())).then(new Answer<Boolean>() {
+			@Override
+			public Boolean answer (final InvocationOnMock invocation) throws Throwable {
+				final Object[] arguments = invocation.getArguments();
+				final CharSequence sequence = (CharSequence) arguments[0];
+				if ("Hello".equals(sequence.subSequence((Integer) arguments[1], (Integer) arguments[2]).toString())) {
+					return true;
+				}
+				// Both threads look the word up before any of them prompts the user
+				checked.countDown();
+				checked.await(1, TimeUnit.SECONDS);
+				return false;
+			}
+		});
+		when(prompt.confirm(anyString(), any(Word.class), anyString())).thenReturn(new UserPromptAnswer("world", true));
+		
+		final List<Subtitle> subtitles = Arrays.asList(new Subtitle(0, 2000, "Hello, wxrld!"), new Subtitle(0, 2000, "Hello, wxrld!"));
+		final List<Thread> threads = new ArrayList<>();
+		for (final Subtitle subtitle : subtitles) {
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run () {
+					checkSpelling.correct(subtitle);
+				}
+			}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		for (final Subtitle subtitle : subtitles) {
+			assertEquals("Hello, world!", subtitle.getContent());
+		}
+		verify(prompt).confirm(anyString(), any(Word.class), anyString());
+	}
 }
@@ -0,0 +1,166 @@
+package com.alexrnl.subtitlecorrector.correctionstrategy;
+
+import static com.alexrnl.subtitlecorrector.common.TranslationKeys.KEYS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.service.SessionParameters;
+
+/**
+ * Test suite for the {@link CompositeStrategy} class.
+ * @author Alex
+ */
+public class CompositeStrategyTest {
+	/** The events received by the strategies */
+	private List<String>		events;
+	/** The first strategy of the composite */
+	private RecordingStrategy	first;
+	/** The second strategy of the composite */
+	private RecordingStrategy	second;
+	/** The composite strategy tested */
+	private CompositeStrategy	compositeStrategy;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		events = new ArrayList<>();
+		first = new RecordingStrategy("first", "a", "b");
+		second = new RecordingStrategy("second", "b", "c");
+		compositeStrategy = new CompositeStrategy(Arrays.asList(first, second));
+	}
+	
+	/**
+	 * Check that a composite strategy requires at least one strategy.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyStrategies () {
+		new CompositeStrategy(Collections.<Strategy> emptyList());
+	}
+	
+	/**
+	 * Check that a strategy cannot be added twice.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateStrategies () {
+		new CompositeStrategy(Arrays.asList(first, second, first));
+	}
+	
+	/**
+	 * Test method for {@link CompositeStrategy#getStrategies()}.
+	 */
+	@Test
+	public void testGetStrategies () {
+		assertEquals(Arrays.<Strategy> asList(first, second), compositeStrategy.getStrategies());
+	}
+	
+	/**
+	 * Test method for {@link CompositeStrategy#getParameters()} and
+	 * {@link CompositeStrategy#getParameterByName(String)}.
+	 */
+	@Test
+	public void testGetParameters () {
+		assertEquals(Arrays.asList(first.parameter, second.parameter), compositeStrategy.getParameters());
+		assertSame(second.parameter, compositeStrategy.getParameterByName("second"));
+		assertNull(compositeStrategy.getParameterByName("third"));
+	}
+	
+	/**
+	 * Test method for {@link CompositeStrategy#getTranslationKey()} and
+	 * {@link CompositeStrategy#getDescription()}.
+	 */
+	@Test
+	public void testTranslation () {
+		assertEquals(KEYS.strategy().compositeStrategy().toString(), compositeStrategy.getTranslationKey());
+		assertEquals(KEYS.strategy().compositeStrategy().description(), compositeStrategy.getDescription());
+	}
+	
+	/**
+	 * Test method for {@link CompositeStrategy#startSession(SessionParameters)} and
+	 * {@link CompositeStrategy#stopSession()}.
+	 */
+	@Test
+	public void testSession () {
+		compositeStrategy.startSession(new SessionParameters());
+		compositeStrategy.stopSession();
+		assertEquals(Arrays.asList("first start", "second start", "first stop", "second stop"), events);
+	}
+	
+	/**
+	 * Test method for {@link CompositeStrategy#correct(Subtitle)}.
+	 */
+	@Test
+	public void testCorrect () {
+		final Subtitle subtitle = new Subtitle(0, 1000, "abc");
+		compositeStrategy.correct(subtitle);
+		// The second strategy corrects the content left by the first one
+		assertEquals("ccc", subtitle.getContent());
+		assertEquals(Arrays.asList("first correct", "second correct"), events);
+	}
+	
+	/**
+	 * Strategy which replaces a letter and records the calls made.
+	 * @author Alex
+	 */
+	private final class RecordingStrategy extends AbstractStrategy {
+		/** The name of the strategy */
+		private final String			name;
+		/** The letter to replace */
+		private final String			original;
+		/** The new letter */
+		private final String			replacement;
+		/** The parameter of the strategy */
+		private final Parameter<String>	parameter;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param name
+		 *        the name of the strategy.
+		 * @param original
+		 *        the letter to replace.
+		 * @param replacement
+		 *        the new letter.
+		 */
+		private RecordingStrategy (final String name, final String original, final String replacement) {
+			super(KEYS.strategy().letterReplacement());
+			this.name = name;
+			this.original = original;
+			this.replacement = replacement;
+			parameter = new Parameter<>(ParameterType.FREE, name, StandardParameterParsers.string());
+		}
+		
+		@Override
+		public List<Parameter<?>> getParameters () {
+			return Collections.<Parameter<?>> singletonList(parameter);
+		}
+		
+		@Override
+		public void startSession (final SessionParameters parameters) {
+			events.add(name + " start");
+		}
+		
+		@Override
+		public void stopSession () {
+			events.add(name + " stop");
+		}
+		
+		@Override
+		public void correct (final Subtitle subtitle) {
+			events.add(name + " correct");
+			subtitle.setContent(subtitle.getContent().replace(original, replacement));
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package com.alexrnl.subtitlecorrector.correctionstrategy;
+
+import static com.alexrnl.subtitlecorrector.common.TranslationKeys.KEYS;
+import static com.alexrnl.subtitlecorrector.correctionstrategy.DictionaryAnswers.containsIn;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.alexrnl.commons.utils.Word;
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.service.DictionaryManager;
+import com.alexrnl.subtitlecorrector.service.SessionParameters;
+import com.alexrnl.subtitlecorrector.service.UserPrompt;
+import com.alexrnl.subtitlecorrector.service.UserPromptAnswer;
+
+/**
+ * Test suite for the {@link ConfusionReplacement} class.
+ * @author Alex
+ */
+public class ConfusionReplacementTest {
+	/** The dictionary manager used */
+	@Mock
+	private DictionaryManager		dictionary;
+	/** The user prompt used */
+	@Mock
+	private UserPrompt				prompt;
+	/** The strategy tested */
+	private ConfusionReplacement	confusionReplacement;
+	/** Reference to the locale parameter */
+	private Parameter<Locale>		locale;
+	/** Reference to the prompt before correcting parameter */
+	private Parameter<Boolean>		promptBeforeCorrecting;
+	
+	/**
+	 * Set up test attributes.
+	 * @throws URISyntaxException
+	 *         if there is an issue when parsing the path.
+	 * @throws IOException
+	 *         if there is an issue when loading the confusion tables.
+	 */
+	@Before
+	public void setUp () throws IOException, URISyntaxException {
+		initMocks(this);
+		confusionReplacement = new ConfusionReplacement(dictionary, prompt, Paths.get(ConfusionReplacement.class.getResource("/confusion").toURI()));
+		locale = (Parameter<Locale>) confusionReplacement.getParameterByName(KEYS.strategy().confusionReplacement().locale());
+		promptBeforeCorrecting = (Parameter<Boolean>) confusionReplacement.getParameterByName(KEYS.strategy().confusionReplacement().promptBeforeCorrecting());
+		assertNotNull(locale);
+		assertNotNull(promptBeforeCorrecting);
+		locale.setValue("en");
+		when(dictionary.findFirst(anyListOf(String.class))).then(new Answer<String>() {
+			@Override
+			public String answer (final InvocationOnMock invocation) throws Throwable {
+				final List<String> words = Arrays.asList("Island", "modern", "world", "I", "Hello");
+				for (final Object candidate : (List<?>) invocation.getArguments()[0]) {
+					if (words.contains(candidate)) {
+						return (String) candidate;
+					}
+				}
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Check that the strategy cannot be created with a file as a parameter.
+	 * @throws IOException
+	 *         if there is an issue when loading the tables.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void createWithFile () throws IOException {
+		final Path tempFile = Files.createTempFile("confusionTable", "xml");
+		tempFile.toFile().deleteOnExit();
+		new ConfusionReplacement(dictionary, prompt, tempFile);
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#getParameters()}.
+	 */
+	@Test
+	public void testGetParameters () {
+		assertEquals(2, confusionReplacement.getParameters().size());
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#getParameterByName(String)}.
+	 */
+	@Test
+	public void testGetParameterByName () {
+		final Iterator<Parameter<?>> parametersIterator = confusionReplacement.getParameters().iterator();
+		assertEquals(parametersIterator.next(), confusionReplacement.getParameterByName(KEYS.strategy().confusionReplacement().locale()));
+		assertEquals(parametersIterator.next(), confusionReplacement.getParameterByName(KEYS.strategy().confusionReplacement().promptBeforeCorrecting()));
+		assertNull(confusionReplacement.getParameterByName("ldr"));
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#getTranslationKey()}
+	 */
+	@Test
+	public void testGetTranslationKey () {
+		assertEquals("subtitlecorrector.strategy.confusionreplacement", confusionReplacement.getTranslationKey());
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#getDescription()}
+	 */
+	@Test
+	public void testGetDescription () {
+		assertEquals("subtitlecorrector.strategy.confusionreplacement.description", confusionReplacement.getDescription());
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#correct(Subtitle)}.
+	 * Several rules, including multi-characters patterns, are applied in the same subtitle.
+	 */
+	@Test
+	public void testCorrect () {
+		final Subtitle subtitle = new Subtitle(0, 2000, "l live on a rnodern lsland, in the vvorld");
+		when(dictionary.contains(any(CharSequence.class), anyInt(), anyInt())).then(containsIn("live"));
+		confusionReplacement.correct(subtitle);
+		assertEquals("I live on a modern Island, in the world", subtitle.getContent());
+		verify(dictionary, never()).findFirst(Arrays.asList("Iive"));
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#correct(Subtitle)}.
+	 * The variants with the fewest replacements are tried first.
+	 */
+	@Test
+	public void testCorrectVariantOrder () {
+		final Subtitle subtitle = new Subtitle(0, 2000, "rnodem");
+		confusionReplacement.correct(subtitle);
+		assertEquals("modern", subtitle.getContent());
+		verify(dictionary).findFirst(Arrays.asList("modem", "rnodern", "modern"));
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#correct(Subtitle)}.
+	 * Words without a variant in the dictionary are not changed.
+	 */
+	@Test
+	public void testCorrectNoValidVariant () {
+		final Subtitle subtitle = new Subtitle(0, 2000, "Hellu vvvv!");
+		confusionReplacement.correct(subtitle);
+		assertEquals("Hellu vvvv!", subtitle.getContent());
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#correct(Subtitle)}.
+	 * Subtitles without any pattern are skipped.
+	 */
+	@Test
+	public void testCorrectNoPattern () {
+		final Subtitle subtitle = new Subtitle(0, 2000, "Bye");
+		confusionReplacement.correct(subtitle);
+		assertEquals("Bye", subtitle.getContent());
+		verify(dictionary, never()).contains(any(CharSequence.class), anyInt(), anyInt());
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#correct(Subtitle)} with a locale without table.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testCorrectUnknownLocale () {
+		locale.setValue("de");
+		confusionReplacement.correct(new Subtitle(0, 2000, "Hallo"));
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#correct(Subtitle)}.
+	 * The user is prompted with the variant found, and the choice is remembered.
+	 */
+	@Test
+	public void testCorrectWithPrompt () {
+		promptBeforeCorrecting.setValue("true");
+		when(prompt.confirm(anyString(), any(Word.class), anyString())).thenReturn(new UserPromptAnswer("Isle", true));
+		confusionReplacement.startSession(null);
+		Subtitle subtitle = new Subtitle(0, 2000, "lsland");
+		confusionReplacement.correct(subtitle);
+		assertEquals("Isle", subtitle.getContent());
+		verify(prompt).confirm(anyString(), any(Word.class), eq("Island"));
+		
+		subtitle = new Subtitle(0, 2000, "lsland");
+		confusionReplacement.correct(subtitle);
+		assertEquals("Isle", subtitle.getContent());
+		verify(prompt, times(1)).confirm(anyString(), any(Word.class), anyString());
+		confusionReplacement.stopSession();
+		confusionReplacement.startSession(null);
+	}
+	
+	/**
+	 * Test method for {@link ConfusionReplacement#startSession(SessionParameters)}.
+	 * Check that the start session throw an exception if the previous session was not properly
+	 * closed.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testBadSessionState () {
+		promptBeforeCorrecting.setValue("true");
+		when(prompt.confirm(anyString(), any(Word.class), anyString())).thenReturn(new UserPromptAnswer("Island", true));
+		confusionReplacement.startSession(null);
+		confusionReplacement.correct(new Subtitle(0, 2000, "lsland"));
+		confusionReplacement.startSession(null);
+	}
+}
@@ -10,7 +10,8 @@ import org.junit.runners.Suite.SuiteClasses;
  */
 @RunWith(Suite.class)
 @SuiteClasses({ CheckSpellingTest.class, FixPunctuationTest.class, LetterReplacementTest.class,
-		ParameterTest.class, StandardParameterParsersTest.class })
+		ParameterTest.class, StandardParameterParsersTest.class, ConfusionReplacementTest.class,
+		PatternMatcherTest.class, CompositeStrategyTest.class })
 public class CorrectionStrategyTests {
 	
 }
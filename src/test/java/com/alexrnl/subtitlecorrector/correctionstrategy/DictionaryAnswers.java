@@ -0,0 +1,42 @@
+package com.alexrnl.subtitlecorrector.correctionstrategy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.alexrnl.subtitlecorrector.service.DictionaryManager;
+
+/**
+ * Answers used to stub the {@link DictionaryManager} in the tests of the correction strategies.
+ * @author Alex
+ */
+final class DictionaryAnswers {
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default private constructor to avoid instantiation.
+	 */
+	private DictionaryAnswers () {
+		super();
+	}
+	
+	/**
+	 * Answer of the dictionary manager which checks if a word is in the specified words.
+	 * @param words
+	 *        the words of the dictionary.
+	 * @return the answer to use for {@link DictionaryManager#contains(CharSequence, int, int)}.
+	 */
+	static Answer<Boolean> containsIn (final String... words) {
+		final List<String> dictionaryWords = Arrays.asList(words);
+		return new Answer<Boolean>() {
+			@Override
+			public Boolean answer (final InvocationOnMock invocation) throws Throwable {
+				final Object[] arguments = invocation.getArguments();
+				final CharSequence sequence = (CharSequence) arguments[0];
+				return dictionaryWords.contains(sequence.subSequence((Integer) arguments[1], (Integer) arguments[2]).toString());
+			}
+		};
+	}
+}
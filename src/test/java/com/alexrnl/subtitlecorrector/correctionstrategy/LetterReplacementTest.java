@@ -1,17 +1,24 @@
 package com.alexrnl.subtitlecorrector.correctionstrategy;
 
 import static com.alexrnl.subtitlecorrector.common.TranslationKeys.KEYS;
+import static com.alexrnl.subtitlecorrector.correctionstrategy.DictionaryAnswers.containsIn;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -47,6 +54,8 @@ public class LetterReplacementTest {
 	private Parameter<Boolean>		onlyMissingFromDictionary;
 	/** Reference to the prompt before correcting parameter */
 	private Parameter<Boolean>		promptBeforeCorrecting;
+	/** Reference to the only dictionary replacements parameter */
+	private Parameter<Boolean>		onlyDictionaryReplacements;
 
 	/**
 	 * Set up test attributes.
@@ -62,7 +71,9 @@ public class LetterReplacementTest {
 		assertNotNull(originalLetter);
 		assertNotNull(replacementLetter);
 		assertNotNull(onlyMissingFromDictionary);
+		onlyDictionaryReplacements = (Parameter<Boolean>) letterReplacement.getParameterByName(KEYS.strategy().letterReplacement().onlyDictionaryReplacements());
 		assertNotNull(promptBeforeCorrecting);
+		assertNotNull(onlyDictionaryReplacements);
 	}
 	
 	/**
@@ -70,7 +81,7 @@ public class LetterReplacementTest {
 	 */
 	@Test
 	public void testGetParameters () {
-		assertEquals(4, letterReplacement.getParameters().size());
+		assertEquals(5, letterReplacement.getParameters().size());
 	}
 	
 	/**
@@ -83,6 +94,7 @@ public class LetterReplacementTest {
 		assertEquals(parametersIterator.next(), letterReplacement.getParameterByName(KEYS.strategy().letterReplacement().newLetter()));
 		assertEquals(parametersIterator.next(), letterReplacement.getParameterByName(KEYS.strategy().letterReplacement().onlyMissingFromDictionary()));
 		assertEquals(parametersIterator.next(), letterReplacement.getParameterByName(KEYS.strategy().letterReplacement().promptBeforeCorrecting()));
+		assertEquals(parametersIterator.next(), letterReplacement.getParameterByName(KEYS.strategy().letterReplacement().onlyDictionaryReplacements()));
 		assertNull(letterReplacement.getParameterByName("random"));
 	}
 	
@@ -222,7 +234,7 @@ public class LetterReplacementTest {
 		replacementLetter.setValue("x");
 		onlyMissingFromDictionary.setValue("true");
 		promptBeforeCorrecting.setValue("false");
-		when(dictionary.contains("Hello")).thenReturn(true);
+		when(dictionary.contains(any(CharSequence.class), anyInt(), anyInt())).then(containsIn("Hello"));
 		letterReplacement.correct(subtitleToCorrect);
 		assertEquals("Hello xvxryonx!", subtitleToCorrect.getContent());
 	}
@@ -276,8 +288,7 @@ public class LetterReplacementTest {
 		replacementLetter.setValue("s");
 		onlyMissingFromDictionary.setValue("true");
 		promptBeforeCorrecting.setValue("false");
-		when(dictionary.contains(anyString())).thenReturn(true);
-		when(dictionary.contains("Becaune")).thenReturn(false);
+		when(dictionary.contains(any(CharSequence.class), anyInt(), anyInt())).then(containsIn("it's", "not", "going", "up", "there", "now"));
 		letterReplacement.correct(subtitleToCorrect);
 		assertEquals("Because it's not\ngoing up there now.", subtitleToCorrect.getContent());
 	}
@@ -350,4 +361,86 @@ public class LetterReplacementTest {
 		assertEquals("Hello Lucix,\nhow arx you doin'?", subtitleToCheck.getContent());
 	}
 	
-}
\ No newline at end of file
+	/**
+	 * Answer of the dictionary manager which finds the first word in the specified words.
+	 * @param words
+	 *        the words of the dictionary.
+	 * @return the answer to use for {@link DictionaryManager#findFirst(List)}.
+	 */
+	private static Answer<String> findFirstIn (final String... words) {
+		final List<String> dictionaryWords = Arrays.asList(words);
+		return new Answer<String>() {
+			@Override
+			public String answer (final InvocationOnMock invocation) throws Throwable {
+				for (final Object candidate : (List<?>) invocation.getArguments()[0]) {
+					if (dictionaryWords.contains(candidate)) {
+						return (String) candidate;
+					}
+				}
+				return null;
+			}
+		};
+	}
+	
+	/**
+	 * Test method for {@link LetterReplacement#correct(Subtitle)}.
+	 * Test that only the replacements in the dictionary are used.
+	 */
+	@Test
+	public void testCorrectOnlyDictionaryReplacements () {
+		final Subtitle subtitleToCorrect = new Subtitle(0, 2000, "The lsland hall");
+		originalLetter.setValue("l");
+		replacementLetter.setValue("I");
+		onlyMissingFromDictionary.setValue("false");
+		promptBeforeCorrecting.setValue("false");
+		onlyDictionaryReplacements.setValue("true");
+		when(dictionary.findFirst(anyListOf(String.class))).then(findFirstIn("Island", "hall"));
+		letterReplacement.correct(subtitleToCorrect);
+		assertEquals("The Island hall", subtitleToCorrect.getContent());
+		verify(dictionary).findFirst(Arrays.asList("IsIand", "lsIand", "Island"));
+		verify(dictionary).findFirst(Arrays.asList("haII", "halI", "haIl"));
+	}
+	
+	/**
+	 * Test method for {@link LetterReplacement#correct(Subtitle)}.
+	 * Test that the replacement in the dictionary is proposed to the user.
+	 */
+	@Test
+	public void testCorrectOnlyDictionaryReplacementsWithPrompt () {
+		final Subtitle subtitleToCorrect = new Subtitle(0, 2000, "The lsland hall");
+		originalLetter.setValue("l");
+		replacementLetter.setValue("I");
+		onlyMissingFromDictionary.setValue("false");
+		promptBeforeCorrecting.setValue("true");
+		onlyDictionaryReplacements.setValue("true");
+		when(dictionary.findFirst(anyListOf(String.class))).then(findFirstIn("Island"));
+		when(prompt.confirm(anyString(), any(Word.class), anyString())).then(new Answer<UserPromptAnswer>() {
+			@Override
+			public UserPromptAnswer answer (final InvocationOnMock invocation) throws Throwable {
+				return new UserPromptAnswer((String) invocation.getArguments()[2]);
+			}
+		});
+		letterReplacement.correct(subtitleToCorrect);
+		assertEquals("The Island hall", subtitleToCorrect.getContent());
+		verify(prompt).confirm(anyString(), any(Word.class), eq("Island"));
+		verify(prompt, times(1)).confirm(anyString(), any(Word.class), anyString());
+	}
+	
+	/**
+	 * Test method for {@link LetterReplacement#correct(Subtitle)}.
+	 * Test that only the replacement of all the occurrences is checked when there are too many.
+	 */
+	@Test
+	public void testCorrectOnlyDictionaryReplacementsManyOccurrences () {
+		final Subtitle subtitleToCorrect = new Subtitle(0, 2000, "lllllllll");
+		originalLetter.setValue("l");
+		replacementLetter.setValue("I");
+		onlyMissingFromDictionary.setValue("false");
+		promptBeforeCorrecting.setValue("false");
+		onlyDictionaryReplacements.setValue("true");
+		when(dictionary.findFirst(anyListOf(String.class))).then(findFirstIn("IIIIIIIII"));
+		letterReplacement.correct(subtitleToCorrect);
+		assertEquals("IIIIIIIII", subtitleToCorrect.getContent());
+		verify(dictionary).findFirst(Arrays.asList("IIIIIIIII"));
+	}
+}
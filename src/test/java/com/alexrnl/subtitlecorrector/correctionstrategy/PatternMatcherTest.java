@@ -0,0 +1,79 @@
+package com.alexrnl.subtitlecorrector.correctionstrategy;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.subtitlecorrector.correctionstrategy.PatternMatcher.Match;
+
+/**
+ * Test suite for the {@link PatternMatcher} class.
+ * @author Alex
+ */
+public class PatternMatcherTest {
+	/** The matcher to test */
+	private PatternMatcher	matcher;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		matcher = new PatternMatcher(Arrays.asList("he", "she", "his", "hers", "rn"));
+	}
+	
+	/**
+	 * Test method for {@link PatternMatcher#PatternMatcher(java.util.List)} with an empty pattern.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testPatternMatcherEmptyPattern () {
+		new PatternMatcher(Arrays.asList("he", ""));
+	}
+	
+	/**
+	 * Test method for {@link PatternMatcher#PatternMatcher(java.util.List)} with a <code>null</code>
+	 * pattern.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = NullPointerException.class)
+	public void testPatternMatcherNullPattern () {
+		new PatternMatcher(Arrays.asList("he", null));
+	}
+	
+	/**
+	 * Test method for {@link PatternMatcher#getPatterns()}.
+	 */
+	@Test
+	public void testGetPatterns () {
+		assertEquals(Arrays.asList("he", "she", "his", "hers", "rn"), matcher.getPatterns());
+	}
+	
+	/**
+	 * Test method for {@link PatternMatcher#find(CharSequence)}.
+	 */
+	@Test
+	public void testFind () {
+		assertEquals(Arrays.asList(new Match(1, 1, 4), new Match(0, 2, 4), new Match(3, 2, 6)), matcher.find("ushers"));
+		assertEquals(Arrays.asList(new Match(2, 0, 3), new Match(4, 6, 8)), matcher.find("his corner"));
+		assertEquals(Arrays.asList(new Match(4, 0, 2), new Match(4, 2, 4)), matcher.find("rnrn"));
+		assertEquals(Collections.emptyList(), matcher.find("nothing"));
+		assertEquals(Collections.emptyList(), matcher.find(""));
+		assertEquals(Collections.emptyList(), new PatternMatcher(Collections.<String> emptyList()).find("he"));
+	}
+	
+	/**
+	 * Test method for {@link PatternMatcher#find(CharSequence)} with overlapping occurrences of the
+	 * same pattern.
+	 */
+	@Test
+	public void testFindOverlapping () {
+		final PatternMatcher repeated = new PatternMatcher(Arrays.asList("aa", "a"));
+		assertEquals(Arrays.asList(new Match(1, 0, 1), new Match(0, 0, 2), new Match(1, 1, 2), new Match(0, 1, 3),
+				new Match(1, 2, 3)), repeated.find("aaa"));
+	}
+}
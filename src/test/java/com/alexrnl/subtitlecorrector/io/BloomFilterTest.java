@@ -0,0 +1,119 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link BloomFilter} class.
+ * @author Alex
+ */
+public class BloomFilterTest {
+	/** The filter to test */
+	private BloomFilter	filter;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		filter = new BloomFilter(100, 0.01);
+		for (final String word : Arrays.asList("mot", "mots", "été", "😀")) {
+			filter.add(word);
+		}
+	}
+	
+	/**
+	 * Test method for {@link BloomFilter#BloomFilter(int, double)} with an invalid capacity.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testBloomFilterNegativeCapacity () {
+		new BloomFilter(-1, 0.01);
+	}
+	
+	/**
+	 * Test method for {@link BloomFilter#BloomFilter(int, double)} with an invalid false positive
+	 * rate.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testBloomFilterInvalidRate () {
+		new BloomFilter(100, 1.0);
+	}
+	
+	/**
+	 * Test method for {@link BloomFilter#hash(CharSequence, int, int)}.
+	 */
+	@Test
+	public void testHash () {
+		assertEquals(BloomFilter.hash("été😀"), BloomFilter.hash(new StringBuilder("[été😀]"), 1, 6));
+		final byte[] encoded = "été😀".getBytes(StandardCharsets.UTF_8);
+		assertEquals(BloomFilter.hash("été😀"), BloomFilter.hash(encoded, encoded.length));
+	}
+	
+	/**
+	 * Test method for {@link BloomFilter#hash(CharSequence, int, int, Locale)}.
+	 */
+	@Test
+	public void testHashCaseInsensitive () {
+		for (final String word : Arrays.asList("ÉTÉ", "Mot", "ΟΔΟΣ", "İstanbul", "\uD801\uDC00", "\uD83D")) {
+			assertEquals(BloomFilter.hash(word.toLowerCase(Locale.FRENCH)),
+					BloomFilter.hash(word, 0, word.length(), Locale.FRENCH));
+		}
+		assertEquals(BloomFilter.hash("TITLE".toLowerCase(new Locale("tr"))),
+				BloomFilter.hash("TITLE", 0, 5, new Locale("tr")));
+		assertEquals(BloomFilter.hash("mot"), BloomFilter.hash("le MOT", 3, 6, Locale.FRENCH));
+		assertEquals(BloomFilter.hash("MOT"), BloomFilter.hash("le MOT", 3, 6, null));
+	}
+	
+	/**
+	 * Test method for {@link BloomFilter#mightContain(CharSequence)}.
+	 */
+	@Test
+	public void testMightContain () {
+		assertTrue(filter.mightContain("mot"));
+		assertTrue(filter.mightContain("mots"));
+		assertTrue(filter.mightContain("été"));
+		assertTrue(filter.mightContain("😀"));
+		assertTrue(filter.mightContain(BloomFilter.hash("mot")));
+		assertFalse(filter.mightContain("zedzfrgtlermforopfy"));
+	}
+	
+	/**
+	 * Test the false positive rate of the filter, once it is full.
+	 */
+	@Test
+	public void testFalsePositiveRate () {
+		final BloomFilter fullFilter = new BloomFilter(10000, 0.01);
+		for (int index = 0; index < 10000; index++) {
+			fullFilter.add("word" + index);
+		}
+		int falsePositives = 0;
+		for (int index = 0; index < 10000; index++) {
+			if (fullFilter.mightContain("other" + index)) {
+				falsePositives++;
+			}
+			assertTrue(fullFilter.mightContain("word" + index));
+		}
+		assertTrue(falsePositives < 200);
+	}
+	
+	/**
+	 * Test method for {@link BloomFilter#getCapacity()} and {@link BloomFilter#getCount()}.
+	 */
+	@Test
+	public void testCapacityAndCount () {
+		assertEquals(100, filter.getCapacity());
+		assertEquals(4, filter.getCount());
+		assertTrue(filter.getHashCount() > 0);
+		assertTrue(filter.getBitCount() >= 100);
+	}
+}
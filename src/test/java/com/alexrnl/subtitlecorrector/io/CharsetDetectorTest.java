@@ -0,0 +1,142 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link CharsetDetector} class.
+ * @author Alex
+ */
+public class CharsetDetectorTest {
+	/** A French subtitle */
+	private static final String	SUBTITLE	= "1\r\n00:00:01,000 --> 00:00:02,000\r\nÇa a été un été très chaud, œuvre n°2 à 5 €…\r\n\r\n";
+	
+	/** The detector to test */
+	private CharsetDetector		detector;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		detector = new CharsetDetector();
+	}
+	
+	/**
+	 * Guess the character set of the bytes, as a complete content.
+	 * @param content
+	 *        the bytes.
+	 * @return the character set guessed.
+	 */
+	private Charset detect (final byte[] content) {
+		return detector.detect(content, content.length, true);
+	}
+	
+	/**
+	 * Test method for {@link CharsetDetector#detect(byte[], int, boolean)} with byte order marks.
+	 */
+	@Test
+	public void testDetectByteOrderMark () {
+		assertEquals(StandardCharsets.UTF_8, detect(new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '1' }));
+		assertEquals(StandardCharsets.UTF_16BE, detect(("\uFEFF" + SUBTITLE).getBytes(StandardCharsets.UTF_16BE)));
+		assertEquals(StandardCharsets.UTF_16LE, detect(("\uFEFF" + SUBTITLE).getBytes(StandardCharsets.UTF_16LE)));
+	}
+	
+	/**
+	 * Test method for {@link CharsetDetector#detect(byte[], int, boolean)} with UTF-16 without byte
+	 * order mark.
+	 */
+	@Test
+	public void testDetectUtf16 () {
+		assertEquals(StandardCharsets.UTF_16BE, detect(SUBTITLE.getBytes(StandardCharsets.UTF_16BE)));
+		assertEquals(StandardCharsets.UTF_16LE, detect(SUBTITLE.getBytes(StandardCharsets.UTF_16LE)));
+	}
+	
+	/**
+	 * Test method for {@link CharsetDetector#detect(byte[], int, boolean)} with UTF-8.
+	 */
+	@Test
+	public void testDetectUtf8 () {
+		assertEquals(StandardCharsets.UTF_8, detect(SUBTITLE.getBytes(StandardCharsets.UTF_8)));
+		// Character cut by the end of an incomplete sample
+		final byte[] cut = "été".getBytes(StandardCharsets.UTF_8);
+		assertEquals(StandardCharsets.UTF_8, detector.detect(cut, cut.length - 1, false));
+		assertEquals(Charset.forName("windows-1252"), detector.detect(cut, cut.length - 1, true));
+		// Overlong encoding and surrogate
+		assertEquals(Charset.forName("windows-1252"), detect(new byte[] { 'a', (byte) 0xC0, (byte) 0xAF }));
+		assertEquals(Charset.forName("windows-1252"), detect(new byte[] { 'a', (byte) 0xED, (byte) 0xA0, (byte) 0x80 }));
+	}
+	
+	/**
+	 * Test method for {@link CharsetDetector#detect(byte[], int, boolean)} with single byte
+	 * character sets.
+	 */
+	@Test
+	public void testDetectSingleByte () {
+		assertEquals(Charset.forName("windows-1252"), detect(SUBTITLE.getBytes(Charset.forName("windows-1252"))));
+		assertEquals(Charset.forName("windows-1252"), detect("Ça a été".getBytes(StandardCharsets.ISO_8859_1)));
+		// 0x81 is not defined in windows-1252
+		assertEquals(StandardCharsets.ISO_8859_1, detect(new byte[] { 'a', (byte) 0xE9, (byte) 0x81 }));
+	}
+	
+	/**
+	 * Test method for {@link CharsetDetector#detect(byte[], int, boolean)} with ASCII content.
+	 */
+	@Test
+	public void testDetectAscii () {
+		assertNull(detect("1\n00:00:01,000 --> 00:00:02,000\nHello\n".getBytes(StandardCharsets.US_ASCII)));
+		assertNull(detect(new byte[0]));
+	}
+	
+	/**
+	 * Test method for {@link CharsetDetector#detect(Path)}: only the beginning of the file is read.
+	 * @throws IOException
+	 *         if the file could not be written or read.
+	 */
+	@Test
+	public void testDetectFile () throws IOException {
+		final Path file = Files.createTempFile("subtitle", ".srt");
+		file.toFile().deleteOnExit();
+		Files.write(file, SUBTITLE.getBytes(Charset.forName("windows-1252")));
+		assertEquals(Charset.forName("windows-1252"), detector.detect(file));
+		Files.write(file, SUBTITLE.getBytes(StandardCharsets.UTF_8));
+		assertEquals(StandardCharsets.UTF_8, detector.detect(file));
+		
+		// The non-ASCII characters after the sample are ignored
+		final StringBuilder content = new StringBuilder();
+		while (content.length() < 32) {
+			content.append("0123456789");
+		}
+		content.append("été");
+		Files.write(file, content.toString().getBytes(StandardCharsets.ISO_8859_1));
+		assertNull(new CharsetDetector(32).detect(file));
+		assertEquals(Charset.forName("windows-1252"), new CharsetDetector(64).detect(file));
+	}
+	
+	/**
+	 * Test method for {@link CharsetDetector#getSampleSize()}.
+	 */
+	@Test
+	public void testGetSampleSize () {
+		assertEquals(CharsetDetector.DEFAULT_SAMPLE_SIZE, detector.getSampleSize());
+		assertEquals(512, new CharsetDetector(512).getSampleSize());
+	}
+	
+	/**
+	 * Check that the sample cannot be too small.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testSampleTooSmall () {
+		new CharsetDetector(2);
+	}
+}
@@ -0,0 +1,133 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link DictionaryCompiler} class.
+ * @author Alex
+ */
+public class DictionaryCompilerTest {
+	/** The text dictionary */
+	private Path	dictionaryFile;
+	/** The compiled dictionary */
+	private Path	compiledFile;
+	
+	/**
+	 * Set up test attributes.
+	 * @throws IOException
+	 *         if the dictionary could not be created.
+	 */
+	@Before
+	public void setUp () throws IOException {
+		final Path folder = Files.createTempDirectory("compiledDictionaries");
+		folder.toFile().deleteOnExit();
+		dictionaryFile = folder.resolve("fr.txt");
+		Files.write(dictionaryFile, Arrays.asList("Mot", "été", "mots"), StandardCharsets.UTF_8);
+		dictionaryFile.toFile().deleteOnExit();
+		compiledFile = DictionaryCompiler.getCompiledFile(dictionaryFile);
+		compiledFile.toFile().deleteOnExit();
+	}
+	
+	/**
+	 * Test method for {@link DictionaryCompiler#getCompiledFile(Path)}.
+	 */
+	@Test
+	public void testGetCompiledFile () {
+		assertEquals(dictionaryFile.resolveSibling("fr" + DictionaryCompiler.COMPILED_EXTENSION), compiledFile);
+	}
+	
+	/**
+	 * Test method for {@link DictionaryCompiler#compile(Path, java.nio.charset.Charset, Locale)}
+	 * and {@link DictionaryCompiler#open(Path, java.nio.charset.Charset, Locale)}.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testCompileAndOpen () throws IOException {
+		assertFalse(DictionaryCompiler.isUpToDate(dictionaryFile, compiledFile));
+		final WordAutomaton compiled = DictionaryCompiler.compile(dictionaryFile, StandardCharsets.UTF_8, Locale.FRENCH);
+		assertEquals(3, compiled.size());
+		assertTrue(DictionaryCompiler.isUpToDate(dictionaryFile, compiledFile));
+		
+		final WordAutomaton opened = DictionaryCompiler.open(compiledFile, StandardCharsets.UTF_8, Locale.FRENCH);
+		assertEquals(3, opened.size());
+		assertTrue(opened.contains("mot"));
+		assertTrue(opened.contains("été"));
+		assertFalse(opened.contains("Mot"));
+	}
+	
+	/**
+	 * Test method for {@link DictionaryCompiler#open(Path, java.nio.charset.Charset, Locale)} with
+	 * a file compiled for another locale.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test(expected = IOException.class)
+	public void testOpenOtherLocale () throws IOException {
+		DictionaryCompiler.compile(dictionaryFile, StandardCharsets.UTF_8, Locale.FRENCH);
+		DictionaryCompiler.open(compiledFile, StandardCharsets.UTF_8, null);
+	}
+	
+	/**
+	 * Test method for {@link DictionaryCompiler#open(Path, java.nio.charset.Charset, Locale, boolean)}
+	 * with a corrupted file.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test(expected = IOException.class)
+	public void testOpenCorrupted () throws IOException {
+		DictionaryCompiler.compile(dictionaryFile, StandardCharsets.UTF_8, Locale.FRENCH);
+		final byte[] content = Files.readAllBytes(compiledFile);
+		content[content.length - 1] ^= 1;
+		Files.write(compiledFile, content);
+		DictionaryCompiler.open(compiledFile, StandardCharsets.UTF_8, Locale.FRENCH, true);
+	}
+	
+	/**
+	 * Test method for {@link DictionaryCompiler#open(Path, java.nio.charset.Charset, Locale)} with
+	 * a truncated file.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test(expected = IOException.class)
+	public void testOpenTruncated () throws IOException {
+		DictionaryCompiler.compile(dictionaryFile, StandardCharsets.UTF_8, Locale.FRENCH);
+		final byte[] content = Files.readAllBytes(compiledFile);
+		Files.write(compiledFile, Arrays.copyOf(content, content.length - 1));
+		DictionaryCompiler.open(compiledFile, StandardCharsets.UTF_8, Locale.FRENCH);
+	}
+	
+	/**
+	 * Test that a {@link Dictionary} uses the compiled file and rebuilds it when the text file is
+	 * more recent.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testDictionaryRebuild () throws IOException {
+		final Dictionary dictionary = new Dictionary(dictionaryFile, StandardCharsets.UTF_8, false, Locale.FRENCH);
+		assertTrue(Files.exists(compiledFile));
+		assertTrue(dictionary.contains("MOT"));
+		
+		Files.write(dictionaryFile, Arrays.asList("nouveau"), StandardCharsets.UTF_8);
+		Files.setLastModifiedTime(compiledFile, FileTime.fromMillis(Files.getLastModifiedTime(dictionaryFile).toMillis() - 1000));
+		final Dictionary rebuilt = new Dictionary(dictionaryFile, StandardCharsets.UTF_8, false, Locale.FRENCH);
+		assertEquals(1, rebuilt.size());
+		assertTrue(rebuilt.contains("nouveau"));
+		assertFalse(rebuilt.contains("mot"));
+		assertTrue(DictionaryCompiler.isUpToDate(dictionaryFile, compiledFile));
+	}
+}
@@ -0,0 +1,116 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link DictionaryIndex} class.
+ * @author Alex
+ */
+public class DictionaryIndexTest {
+	/** The case insensitive dictionary */
+	private Dictionary		localeDictionary;
+	/** The case sensitive dictionary */
+	private Dictionary		customDictionary;
+	/** The editable, case sensitive, dictionary */
+	private Dictionary		editableDictionary;
+	/** The index to test */
+	private DictionaryIndex	index;
+	
+	/**
+	 * Create a dictionary file in the folder.
+	 * @param folder
+	 *        the folder.
+	 * @param name
+	 *        the name of the file.
+	 * @param words
+	 *        the words of the dictionary.
+	 * @return the path to the file.
+	 * @throws IOException
+	 *         if the file could not be written.
+	 */
+	private static Path createDictionaryFile (final Path folder, final String name, final String... words)
+			throws IOException {
+		final Path file = folder.resolve(name);
+		Files.write(file, Arrays.asList(words), StandardCharsets.UTF_8);
+		file.toFile().deleteOnExit();
+		DictionaryCompiler.getCompiledFile(file).toFile().deleteOnExit();
+		return file;
+	}
+	
+	/**
+	 * Set up test attributes.
+	 * @throws IOException
+	 *         if the dictionaries could not be created.
+	 */
+	@Before
+	public void setUp () throws IOException {
+		final Path folder = Files.createTempDirectory("dictionaryIndex");
+		folder.toFile().deleteOnExit();
+		localeDictionary = new Dictionary(createDictionaryFile(folder, "fr.txt", "Mot", "été"),
+				StandardCharsets.UTF_8, false, Locale.FRENCH);
+		customDictionary = new Dictionary(createDictionaryFile(folder, "custom.txt", "Zorglub", "ÉTÉ"));
+		editableDictionary = new Dictionary(createDictionaryFile(folder, "editable.txt", "iPhone"), true);
+		index = DictionaryIndex.build(Arrays.asList(localeDictionary, customDictionary, editableDictionary));
+	}
+	
+	/**
+	 * Test method for {@link DictionaryIndex#build(java.util.Collection)} with dictionaries using
+	 * different locales.
+	 * @throws IOException
+	 *         if the dictionary could not be created.
+	 */
+	@Test
+	public void testBuildDifferentLocales () throws IOException {
+		final Path folder = Files.createTempDirectory("dictionaryIndex");
+		folder.toFile().deleteOnExit();
+		final Dictionary englishDictionary = new Dictionary(createDictionaryFile(folder, "en.txt", "word"),
+				StandardCharsets.UTF_8, false, Locale.ENGLISH);
+		assertNull(DictionaryIndex.build(Arrays.asList(localeDictionary, englishDictionary)));
+	}
+	
+	/**
+	 * Test method for {@link DictionaryIndex#contains(String)}.
+	 */
+	@Test
+	public void testContains () {
+		assertTrue(index.contains("mot"));
+		assertTrue(index.contains("MOT"));
+		assertTrue(index.contains("Été"));
+		assertTrue(index.contains("Zorglub"));
+		assertFalse(index.contains("zorglub"));
+		assertTrue(index.contains("iPhone"));
+		assertFalse(index.contains("iphone"));
+		assertFalse(index.contains("mots"));
+		assertFalse(index.contains(""));
+		assertFalse(index.contains(null));
+	}
+	
+	/**
+	 * Test method for {@link DictionaryIndex#addWord(Dictionary, String)}.
+	 */
+	@Test
+	public void testAddWord () {
+		assertFalse(index.contains("iPad"));
+		assertTrue(editableDictionary.addWord(" iPad "));
+		index.addWord(editableDictionary, " iPad ");
+		assertTrue(index.contains("iPad"));
+		assertFalse(index.contains("ipad"));
+		
+		assertTrue(localeDictionary.addWord("Mots"));
+		index.addWord(localeDictionary, "Mots");
+		assertTrue(index.contains("mots"));
+		assertTrue(index.contains("MOTS"));
+	}
+}
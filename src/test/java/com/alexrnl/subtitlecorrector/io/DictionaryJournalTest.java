@@ -0,0 +1,157 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link DictionaryJournal} class.
+ * @author Alex
+ */
+public class DictionaryJournalTest {
+	/** The dictionary file */
+	private Path				dictionaryFile;
+	/** The journal file */
+	private Path				journalFile;
+	/** The journal to test */
+	private DictionaryJournal	journal;
+	
+	/**
+	 * Set up test attributes.
+	 * @throws IOException
+	 *         if the dictionary could not be created.
+	 */
+	@Before
+	public void setUp () throws IOException {
+		dictionaryFile = Files.createTempFile("journal", ".txt");
+		dictionaryFile.toFile().deleteOnExit();
+		journalFile = DictionaryJournal.getJournalFile(dictionaryFile);
+		journalFile.toFile().deleteOnExit();
+		journal = new DictionaryJournal(dictionaryFile);
+	}
+	
+	/**
+	 * Test method for {@link DictionaryJournal#getJournalFile(Path)}.
+	 */
+	@Test
+	public void testGetJournalFile () {
+		assertTrue(journalFile.getFileName().toString().endsWith(".txt" + DictionaryJournal.JOURNAL_EXTENSION));
+	}
+	
+	/**
+	 * Test method for {@link DictionaryJournal#append(java.util.Collection)} and
+	 * {@link DictionaryJournal#read()}.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testAppendAndRead () throws IOException {
+		assertEquals(Collections.emptyList(), journal.read());
+		journal.append(Collections.<String> emptyList());
+		assertFalse(Files.exists(journalFile));
+		journal.append(Arrays.asList("mot", "été"));
+		journal.append(Arrays.asList("Zorglub"));
+		assertEquals(3, journal.getEntries());
+		assertEquals(Arrays.asList("mot", "été", "Zorglub"), journal.read());
+		assertEquals(3, journal.getEntries());
+	}
+	
+	/**
+	 * Test that an incomplete entry is ignored, and removed by the next append.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testIncompleteEntry () throws IOException {
+		journal.append(Arrays.asList("mot"));
+		Files.write(journalFile, "mo".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertEquals(Arrays.asList("mot"), journal.read());
+		journal.append(Arrays.asList("mots"));
+		assertEquals(Arrays.asList("mot", "mots"), journal.read());
+	}
+	
+	/**
+	 * Test that the entries appended by another instance of the journal, as another process would,
+	 * are kept.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testAppendShared () throws IOException {
+		final DictionaryJournal other = new DictionaryJournal(dictionaryFile);
+		journal.append(Arrays.asList("mot"));
+		other.append(Arrays.asList("été"));
+		journal.append(Arrays.asList("Zorglub"));
+		assertEquals(Arrays.asList("mot", "été", "Zorglub"), journal.read());
+		
+		// The journal merged by another instance is appended from its new end
+		final List<String> merged = new ArrayList<>();
+		other.merge(new DictionaryJournal.Merger() {
+			@Override
+			public void merge (final List<String> words) {
+				merged.addAll(words);
+			}
+		});
+		assertEquals(Arrays.asList("mot", "été", "Zorglub"), merged);
+		journal.append(Arrays.asList("abc"));
+		assertArrayEquals("abc\n".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(journalFile));
+	}
+	
+	/**
+	 * Test method for {@link DictionaryJournal#merge(DictionaryJournal.Merger)}.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testMerge () throws IOException {
+		journal.append(Arrays.asList("mot", "été"));
+		Files.write(journalFile, "mo".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		final List<String> merged = new ArrayList<>();
+		journal.merge(new DictionaryJournal.Merger() {
+			@Override
+			public void merge (final List<String> words) {
+				merged.addAll(words);
+			}
+		});
+		assertEquals(Arrays.asList("mot", "été"), merged);
+		assertEquals(0, journal.getEntries());
+		assertEquals(0, Files.size(journalFile));
+	}
+	
+	/**
+	 * Test that the journal is left unchanged when the merge fails.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testMergeFailed () throws IOException {
+		journal.append(Arrays.asList("mot"));
+		try {
+			journal.merge(new DictionaryJournal.Merger() {
+				@Override
+				public void merge (final List<String> words) throws IOException {
+					throw new IOException("Cannot write the dictionary");
+				}
+			});
+			fail("The merge should have failed");
+		} catch (final IOException e) {
+			assertEquals("Cannot write the dictionary", e.getMessage());
+		}
+		assertEquals(Arrays.asList("mot"), journal.read());
+	}
+}
@@ -0,0 +1,161 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link DictionarySegment} class.
+ * @author Alex
+ */
+public class DictionarySegmentTest {
+	/** The French text dictionary */
+	private Path				frenchFile;
+	/** The text dictionary of each locale */
+	private Map<Locale, Path>	dictionaryFiles;
+	/** The segment file */
+	private Path				segmentFile;
+	
+	/**
+	 * Set up test attributes.
+	 * @throws IOException
+	 *         if the dictionaries could not be created.
+	 */
+	@Before
+	public void setUp () throws IOException {
+		final Path folder = Files.createTempDirectory("dictionarySegment");
+		folder.toFile().deleteOnExit();
+		frenchFile = folder.resolve("fr.txt");
+		Files.write(frenchFile, Arrays.asList("Mot", "été", "mots"), StandardCharsets.UTF_8);
+		frenchFile.toFile().deleteOnExit();
+		final Path englishFile = folder.resolve("en.txt");
+		Files.write(englishFile, Arrays.asList("Word", "words"), StandardCharsets.UTF_8);
+		englishFile.toFile().deleteOnExit();
+		dictionaryFiles = new LinkedHashMap<>();
+		dictionaryFiles.put(Locale.FRENCH, frenchFile);
+		dictionaryFiles.put(Locale.ENGLISH, englishFile);
+		segmentFile = folder.resolve("dictionaries" + DictionarySegment.SEGMENT_EXTENSION);
+		segmentFile.toFile().deleteOnExit();
+	}
+	
+	/**
+	 * Test method for {@link DictionarySegment#write(Path, Map, java.nio.charset.Charset)} and
+	 * {@link DictionarySegment#open(Path, java.nio.charset.Charset)}.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testWriteAndOpen () throws IOException {
+		DictionarySegment.write(segmentFile, dictionaryFiles, StandardCharsets.UTF_8);
+		final DictionarySegment segment = DictionarySegment.open(segmentFile, StandardCharsets.UTF_8);
+		assertEquals(new HashSet<>(Arrays.asList(Locale.FRENCH, Locale.ENGLISH)), segment.getLocales());
+		assertNull(segment.getAutomaton(Locale.GERMAN));
+		
+		final WordAutomaton french = segment.getAutomaton(Locale.FRENCH);
+		assertEquals(3, french.size());
+		assertTrue(french.contains("mot"));
+		assertTrue(french.contains("été"));
+		assertFalse(french.contains("word"));
+		final WordAutomaton english = segment.getAutomaton(Locale.ENGLISH);
+		assertEquals(2, english.size());
+		assertTrue(english.contains("word"));
+		assertFalse(english.contains("Word"));
+		
+		final Dictionary dictionary = new Dictionary(frenchFile, french, Locale.FRENCH, BloomFilter.DEFAULT_FALSE_POSITIVE_RATE);
+		assertTrue(dictionary.contains("MOT"));
+		assertEquals(3, dictionary.size());
+	}
+	
+	/**
+	 * Test method for {@link DictionarySegment#isUpToDate(Locale, Path)}.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testIsUpToDate () throws IOException {
+		DictionarySegment.write(segmentFile, dictionaryFiles, StandardCharsets.UTF_8);
+		final DictionarySegment segment = DictionarySegment.open(segmentFile, StandardCharsets.UTF_8);
+		assertTrue(segment.isUpToDate(Locale.FRENCH, frenchFile));
+		assertTrue(segment.isUpToDate(Locale.FRENCH, frenchFile.resolveSibling("missing.txt")));
+		assertFalse(segment.isUpToDate(Locale.GERMAN, frenchFile));
+		Files.setLastModifiedTime(frenchFile, FileTime.fromMillis(Files.getLastModifiedTime(frenchFile).toMillis() + 1000));
+		assertFalse(segment.isUpToDate(Locale.FRENCH, frenchFile));
+	}
+	
+	/**
+	 * Test method for {@link DictionarySegment#open(Path, java.nio.charset.Charset)} with a
+	 * segment built with another character set.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test(expected = IOException.class)
+	public void testOpenOtherCharset () throws IOException {
+		DictionarySegment.write(segmentFile, dictionaryFiles, StandardCharsets.UTF_8);
+		DictionarySegment.open(segmentFile, StandardCharsets.ISO_8859_1);
+	}
+	
+	/**
+	 * Test method for {@link DictionarySegment#open(Path, java.nio.charset.Charset, boolean)} with a
+	 * corrupted segment.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test(expected = IOException.class)
+	public void testOpenCorrupted () throws IOException {
+		DictionarySegment.write(segmentFile, dictionaryFiles, StandardCharsets.UTF_8);
+		final byte[] content = Files.readAllBytes(segmentFile);
+		content[content.length - 1] ^= 1;
+		Files.write(segmentFile, content);
+		DictionarySegment.open(segmentFile, StandardCharsets.UTF_8, true);
+	}
+	
+	/**
+	 * Test method for {@link DictionarySegment#open(Path, java.nio.charset.Charset)} with a
+	 * truncated segment.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test(expected = IOException.class)
+	public void testOpenTruncated () throws IOException {
+		DictionarySegment.write(segmentFile, dictionaryFiles, StandardCharsets.UTF_8);
+		final byte[] content = Files.readAllBytes(segmentFile);
+		Files.write(segmentFile, Arrays.copyOf(content, content.length - 1));
+		DictionarySegment.open(segmentFile, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Test that {@link DictionarySegment#write(Path, Map, java.nio.charset.Charset)} keeps the
+	 * permissions of the segment it replaces.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 */
+	@Test
+	public void testWritePermissions () throws IOException {
+		DictionarySegment.write(segmentFile, dictionaryFiles, StandardCharsets.UTF_8);
+		assumeTrue(Files.getFileAttributeView(segmentFile, PosixFileAttributeView.class) != null);
+		final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+		Files.setPosixFilePermissions(segmentFile, permissions);
+		DictionarySegment.write(segmentFile, dictionaryFiles, StandardCharsets.UTF_8);
+		assertEquals(permissions, Files.getPosixFilePermissions(segmentFile));
+	}
+}
@@ -1,9 +1,12 @@
 package com.alexrnl.subtitlecorrector.io;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -12,7 +15,15 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -44,6 +55,7 @@ public class DictionaryTest {
 		dictionaryFile = Paths.get(Dictionary.class.getResource("/dictionary/fr.txt").toURI());
 		dictionaryCopy = Files.createTempFile("dictionary", ".txt");
 		dictionaryCopy.toFile().deleteOnExit();
+		DictionaryJournal.getJournalFile(dictionaryCopy).toFile().deleteOnExit();
 		Files.copy(dictionaryFile, dictionaryCopy, StandardCopyOption.REPLACE_EXISTING);
 	}
 	
@@ -131,6 +143,131 @@ public class DictionaryTest {
 		assertTrue(savedDictionary.contains("zedzfrgtlermforopfz"));
 	}
 	
+	/**
+	 * Test that {@link Dictionary#save()} only appends the new words to the journal, and that
+	 * {@link Dictionary#compact()} merges the journal in the dictionary file.
+	 * @throws IOException
+	 *         if there is a problem when writing the file.
+	 */
+	@Test
+	public void testSaveJournalAndCompact () throws IOException {
+		final Path file = Files.createTempFile("journaledDictionary", ".txt");
+		file.toFile().deleteOnExit();
+		final Path journalFile = DictionaryJournal.getJournalFile(file);
+		journalFile.toFile().deleteOnExit();
+		Files.write(file, Arrays.asList("mot", "abc"), StandardCharsets.UTF_8);
+		final byte[] original = Files.readAllBytes(file);
+		
+		final Dictionary journaled = new Dictionary(file, true);
+		assertTrue(journaled.addWord("zorglub"));
+		journaled.save();
+		assertArrayEquals(original, Files.readAllBytes(file));
+		assertTrue(Files.exists(journalFile));
+		assertTrue(new Dictionary(file, true).contains("zorglub"));
+		
+		journaled.compact();
+		assertEquals(0, Files.size(journalFile));
+		assertEquals(Arrays.asList("abc", "mot", "zorglub"), Files.readAllLines(file, StandardCharsets.UTF_8));
+		assertEquals(3, new Dictionary(file, true).size());
+	}
+	
+	/**
+	 * Test that {@link Dictionary#compact()} keeps the permissions of the dictionary file.
+	 * @throws IOException
+	 *         if there is a problem when writing the file.
+	 */
+	@Test
+	public void testCompactPermissions () throws IOException {
+		final Path file = Files.createTempFile("permissionsDictionary", ".txt");
+		file.toFile().deleteOnExit();
+		DictionaryJournal.getJournalFile(file).toFile().deleteOnExit();
+		assumeTrue(Files.getFileAttributeView(file, PosixFileAttributeView.class) != null);
+		Files.write(file, Arrays.asList("mot"), StandardCharsets.UTF_8);
+		final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+		Files.setPosixFilePermissions(file, permissions);
+		
+		final Dictionary journaled = new Dictionary(file, true);
+		assertTrue(journaled.addWord("zorglub"));
+		journaled.save();
+		journaled.compact();
+		assertEquals(Arrays.asList("mot", "zorglub"), Files.readAllLines(file, StandardCharsets.UTF_8));
+		assertEquals(permissions, Files.getPosixFilePermissions(file));
+	}
+	
+	/**
+	 * Test that {@link Dictionary#compact()} keeps the words saved by another instance of the
+	 * dictionary, as another process would.
+	 * @throws IOException
+	 *         if there is a problem when writing the file.
+	 */
+	@Test
+	public void testCompactSharedJournal () throws IOException {
+		final Path file = Files.createTempFile("sharedDictionary", ".txt");
+		file.toFile().deleteOnExit();
+		DictionaryJournal.getJournalFile(file).toFile().deleteOnExit();
+		Files.write(file, Arrays.asList("mot"), StandardCharsets.UTF_8);
+		
+		final Dictionary first = new Dictionary(file, true);
+		final Dictionary second = new Dictionary(file, true);
+		assertTrue(first.addWord("zorglub"));
+		first.save();
+		assertTrue(second.addWord("abc"));
+		second.save();
+		first.compact();
+		assertTrue(first.contains("abc"));
+		assertTrue(second.addWord("xyz"));
+		second.save();
+		
+		final Dictionary reloaded = new Dictionary(file, true);
+		assertEquals(4, reloaded.size());
+		assertTrue(reloaded.contains("zorglub"));
+		assertTrue(reloaded.contains("abc"));
+		assertTrue(reloaded.contains("xyz"));
+	}
+	
+	/**
+	 * Test method for {@link Dictionary#loadAppendedWords()}.
+	 * @throws IOException
+	 *         if there is a problem when writing the file.
+	 */
+	@Test
+	public void testLoadAppendedWords () throws IOException {
+		final Path file = Files.createTempFile("appendedDictionary", ".txt");
+		file.toFile().deleteOnExit();
+		DictionaryJournal.getJournalFile(file).toFile().deleteOnExit();
+		Files.write(file, Arrays.asList("mot", "abc"), StandardCharsets.UTF_8);
+		final Dictionary appended = new Dictionary(file, true);
+		assertEquals(Arrays.<String> asList(), appended.loadAppendedWords());
+		
+		Files.write(file, "zorglub\nmot\nincompl".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertEquals(Arrays.asList("zorglub"), appended.loadAppendedWords());
+		assertTrue(appended.contains("zorglub"));
+		assertFalse(appended.contains("incompl"));
+		assertFalse(appended.isUpdated());
+		Files.write(file, "ete\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertEquals(Arrays.asList("incomplete"), appended.loadAppendedWords());
+		assertEquals(4, appended.size());
+		
+		// Compacting does not count as a modification of the file
+		appended.compact();
+		assertEquals(Arrays.<String> asList(), appended.loadAppendedWords());
+		
+		Files.write(file, Arrays.asList("other"), StandardCharsets.UTF_8);
+		assertNull(appended.loadAppendedWords());
+		assertNull(new Dictionary(file).loadAppendedWords());
+	}
+	
+	/**
+	 * Test method for {@link Dictionary#compact()}.
+	 * @throws IOException
+	 *         if there is a problem when writing the file.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testCompactIllegalStateExcetion () throws IOException {
+		loadDictionary();
+		dictionary.compact();
+	}
+	
 	/**
 	 * Test method for {@link Dictionary#save()}.
 	 * @throws IOException
@@ -165,7 +302,7 @@ public class DictionaryTest {
 		assertFalse(dictionary.isUpdated());
 		assertTrue(dictionary.addWord("zedzfrgtforopfz"));
 		assertTrue(dictionary.isUpdated());
-
+		
 		assertFalse(editableDictionary.isUpdated());
 		assertTrue(editableDictionary.addWord("zedgtlermforop"));
 		assertTrue(editableDictionary.isUpdated());
@@ -212,6 +349,76 @@ public class DictionaryTest {
 		assertTrue(dictionary.contains("mot"));
 	}
 	
+	/**
+	 * Test method for {@link Dictionary#contains(CharSequence, int, int)}.
+	 * @throws IOException
+	 *         if the dictionary file cannot be read.
+	 */
+	@Test
+	public void testContainsRange () throws IOException {
+		loadDictionary();
+		assertTrue(dictionary.contains("le mot.", 3, 6));
+		assertFalse(dictionary.contains("le mot.", 2, 6));
+		assertFalse(dictionary.contains("le MOT.", 3, 6));
+		assertTrue(dictionary.addWord("zedzfrgtlermforopfw"));
+		assertTrue(dictionary.contains(new StringBuilder("(zedzfrgtlermforopfw)"), 1, 20));
+		
+		final Dictionary caseInsensitiveDictionary = new Dictionary(dictionaryFile, StandardCharsets.UTF_8, false, Locale.FRENCH);
+		assertTrue(caseInsensitiveDictionary.contains("le MOT.", 3, 6));
+		assertTrue(caseInsensitiveDictionary.contains("L'ÉTÉ", 2, 5));
+		assertTrue(caseInsensitiveDictionary.addWord("Zedzfrgtlermforopfw"));
+		assertTrue(caseInsensitiveDictionary.contains("ZEDZFRGTLERMFOROPFW", 0, 19));
+	}
+	
+	/**
+	 * Test method for {@link Dictionary#fuzzySearch(String, int)}.
+	 * @throws IOException
+	 *         if there is a problem when loading the file.
+	 */
+	@Test
+	public void testFuzzySearch () throws IOException {
+		loadDictionary();
+		final List<Suggestion> found = dictionary.fuzzySearch("maixon", 2);
+		assertEquals(new Suggestion("maison", 1, 0), found.get(0));
+		assertTrue(found.contains(new Suggestion("raison", 2, 0)));
+		assertTrue(found.contains(new Suggestion("maisons", 2, 1)));
+		for (final Suggestion suggestion : found) {
+			assertTrue(suggestion.getDistance() <= 2);
+		}
+		assertTrue(dictionary.addWord("maixons"));
+		assertEquals(new Suggestion("maison", 1, 0), dictionary.fuzzySearch("maixon", 1).get(0));
+		assertTrue(dictionary.fuzzySearch("maixon", 1).contains(new Suggestion("maixons", 1, 1)));
+		
+		final Dictionary caseInsensitiveDictionary = new Dictionary(dictionaryFile, StandardCharsets.UTF_8, false, Locale.FRENCH);
+		assertEquals(new Suggestion("maison", 1, 0), caseInsensitiveDictionary.fuzzySearch("MAIXON", 1).get(0));
+		loadEditableDictionary();
+		assertEquals(new Suggestion("maison", 1, 0), editableDictionary.fuzzySearch("maixon", 1).get(0));
+	}
+	
+	/**
+	 * Test method for {@link Dictionary#suggest(String, int)}.
+	 * @throws IOException
+	 *         if there is a problem when loading the file.
+	 */
+	@Test
+	public void testSuggest () throws IOException {
+		loadDictionary();
+		assertEquals(new Suggestion("maison", 0, 0), dictionary.suggest("maison", 1).get(0));
+		final List<Suggestion> suggestions = dictionary.suggest("maixon", 1);
+		assertEquals(new Suggestion("maison", 1, 0), suggestions.get(0));
+		for (final Suggestion suggestion : suggestions) {
+			assertEquals(1, suggestion.getDistance());
+		}
+		assertEquals(Collections.emptyList(), dictionary.suggest("zedzfrgtlermforopfx", 2));
+		assertTrue(dictionary.addWord("zedzfrgtlermforopfy"));
+		assertEquals(Arrays.asList(new Suggestion("zedzfrgtlermforopfy", 1, 0)), dictionary.suggest("zedzfrgtlermforopfx", 2));
+		
+		final Dictionary caseInsensitiveDictionary = new Dictionary(dictionaryFile, StandardCharsets.UTF_8, false, Locale.FRENCH);
+		assertEquals("maison", caseInsensitiveDictionary.suggest("maixon", 1).get(0).getWord());
+		assertEquals("Maison", caseInsensitiveDictionary.suggest("Maixon", 1).get(0).getWord());
+		assertEquals("MAISON", caseInsensitiveDictionary.suggest("MAIXON", 1).get(0).getWord());
+	}
+	
 	/**
 	 * Test method for {@link Dictionary#addWord(String)}.
 	 */
@@ -224,6 +431,33 @@ public class DictionaryTest {
 		assertTrue(dictionary.contains("zedzfrgtlermforopfz"));
 	}
 	
+	/**
+	 * Test method for {@link Dictionary#mightContain(long)} and {@link Dictionary#isFiltered()}.
+	 */
+	@Test
+	public void testMightContain () {
+		loadEditableDictionary();
+		assertTrue(editableDictionary.isFiltered());
+		assertTrue(editableDictionary.mightContain(BloomFilter.hash("mot")));
+		assertTrue(editableDictionary.mightContain(BloomFilter.hash("été")));
+		assertFalse(editableDictionary.mightContain(BloomFilter.hash("zedzfrgtlermforopfw")));
+		assertTrue(editableDictionary.addWord("zedzfrgtlermforopfw"));
+		assertTrue(editableDictionary.mightContain(BloomFilter.hash("zedzfrgtlermforopfw")));
+	}
+	
+	/**
+	 * Test method for {@link Dictionary#mightContain(long)} on a dictionary with an automaton, whose
+	 * words are not in the filter.
+	 */
+	@Test
+	public void testMightContainAutomaton () {
+		loadDictionary();
+		assertFalse(dictionary.isFiltered());
+		assertTrue(dictionary.mightContain(BloomFilter.hash("mot")));
+		assertTrue(dictionary.mightContain(BloomFilter.hash("zedzfrgtlermforopfy")));
+		assertFalse(dictionary.contains("zedzfrgtlermforopfy"));
+	}
+	
 	/**
 	 * Test method for a case insensitive dictionary.
 	 * @throws IOException
@@ -233,6 +467,7 @@ public class DictionaryTest {
 	public void testCaseInsensitiveDictionnary () throws IOException {
 		final Dictionary caseInsensitiveDictionary = new Dictionary(dictionaryFile, StandardCharsets.UTF_8, false, Locale.FRENCH);
 		assertFalse(caseInsensitiveDictionary.isCaseSensitive());
+		assertEquals(Locale.FRENCH, caseInsensitiveDictionary.getCaseInsensitiveLocale());
 		assertTrue(caseInsensitiveDictionary.contains("mot"));
 		assertTrue(caseInsensitiveDictionary.contains("MOT"));
 	}
@@ -5,6 +5,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 import com.alexrnl.subtitlecorrector.io.subrip.SubRipTests;
+import com.alexrnl.subtitlecorrector.io.webvtt.WebVTTTests;
 
 /**
  * Test suite for the io package.
@@ -12,7 +13,11 @@ import com.alexrnl.subtitlecorrector.io.subrip.SubRipTests;
  */
 @RunWith(Suite.class)
 @SuiteClasses({ DictionaryTest.class, SubRipTests.class, SubtitleFormatTest.class,
-		SubtitleFormatManagerTest.class })
+		SubtitleFormatManagerTest.class, WordAutomatonTest.class, DictionaryCompilerTest.class,
+		BloomFilterTest.class, DictionaryIndexTest.class,
+		DictionaryJournalTest.class,
+		DictionarySegmentTest.class, SpellingIndexTest.class, LevenshteinAutomatonTest.class,
+		ReadContextTest.class, WriteContextTest.class, CharsetDetectorTest.class, WebVTTTests.class })
 public class IOTests {
 	
 }
@@ -0,0 +1,110 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link LevenshteinAutomaton} class.
+ * @author Alex
+ */
+public class LevenshteinAutomatonTest {
+	/** The automaton to test */
+	private LevenshteinAutomaton	automaton;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		automaton = new LevenshteinAutomaton("mot", 1);
+	}
+	
+	/**
+	 * Read a word with the automaton.
+	 * @param word
+	 *        the word to read.
+	 * @return the state reached.
+	 */
+	private int[] read (final String word) {
+		int[] row = automaton.start();
+		for (int index = 0; index < word.length(); index++) {
+			final int[] next = new int[automaton.getRowSize()];
+			automaton.step(row, word.charAt(index), next);
+			row = next;
+		}
+		return row;
+	}
+	
+	/**
+	 * Test method for {@link LevenshteinAutomaton#LevenshteinAutomaton(CharSequence, int)} with a
+	 * negative distance.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testLevenshteinAutomatonNegativeDistance () {
+		new LevenshteinAutomaton("mot", -1);
+	}
+	
+	/**
+	 * Test method for {@link LevenshteinAutomaton#getRowSize()}.
+	 */
+	@Test
+	public void testGetRowSize () {
+		assertEquals(4, automaton.getRowSize());
+		assertEquals(2, new LevenshteinAutomaton("😀", 1).getRowSize());
+	}
+	
+	/**
+	 * Test method for {@link LevenshteinAutomaton#start()}.
+	 */
+	@Test
+	public void testStart () {
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, automaton.start());
+		assertFalse(automaton.isMatch(automaton.start()));
+		assertTrue(automaton.canMatch(automaton.start()));
+		assertTrue(new LevenshteinAutomaton("", 0).isMatch(new LevenshteinAutomaton("", 0).start()));
+	}
+	
+	/**
+	 * Test method for {@link LevenshteinAutomaton#step(int[], int, int[])}.
+	 */
+	@Test
+	public void testStep () {
+		assertArrayEquals(new int[] { 1, 0, 1, 2 }, read("m"));
+		assertArrayEquals(new int[] { 3, 2, 1, 0 }, read("mot"));
+		assertArrayEquals(new int[] { 4, 3, 2, 1 }, read("mots"));
+		assertArrayEquals(new int[] { 3, 2, 1, 1 }, read("moi"));
+	}
+	
+	/**
+	 * Test method for {@link LevenshteinAutomaton#isMatch(int[])} and
+	 * {@link LevenshteinAutomaton#getDistance(int[])}.
+	 */
+	@Test
+	public void testIsMatch () {
+		assertTrue(automaton.isMatch(read("mot")));
+		assertEquals(0, automaton.getDistance(read("mot")));
+		assertTrue(automaton.isMatch(read("mots")));
+		assertEquals(1, automaton.getDistance(read("mots")));
+		assertTrue(automaton.isMatch(read("mo")));
+		assertFalse(automaton.isMatch(read("m")));
+		assertFalse(automaton.isMatch(read("motte")));
+		assertEquals(2, automaton.getDistance(read("motte")));
+	}
+	
+	/**
+	 * Test method for {@link LevenshteinAutomaton#canMatch(int[])}.
+	 */
+	@Test
+	public void testCanMatch () {
+		assertTrue(automaton.canMatch(read("m")));
+		assertTrue(automaton.canMatch(read("mott")));
+		assertFalse(automaton.canMatch(read("motte")));
+		assertFalse(automaton.canMatch(read("xy")));
+	}
+}
@@ -0,0 +1,113 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.subtitlecorrector.common.Diagnostic;
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+
+/**
+ * Test suite for the {@link ReadContext} class.
+ * @author Alex
+ */
+public class ReadContextTest {
+	/** The file read */
+	private Path			file;
+	/** The reader on the file */
+	private BufferedReader	reader;
+	/** The context to test */
+	private ReadContext		context;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		file = Paths.get("test.srt");
+		reader = new BufferedReader(new StringReader(""));
+		context = new ReadContext(file, reader);
+	}
+	
+	/**
+	 * Test method for {@link ReadContext#getFile()} and {@link ReadContext#getReader()}.
+	 */
+	@Test
+	public void testGetters () {
+		assertSame(file, context.getFile());
+		assertSame(reader, context.getReader());
+	}
+	
+	/**
+	 * Test method for {@link ReadContext#getSubtitleFile()}.
+	 */
+	@Test
+	public void testGetSubtitleFile () {
+		assertNull(context.getSubtitleFile());
+		final SubtitleFile subtitleFile = new SubtitleFile(file);
+		context.setSubtitleFile(subtitleFile);
+		assertSame(subtitleFile, context.getSubtitleFile());
+	}
+	
+	/**
+	 * Test method for {@link ReadContext#getSubtitleCount()}.
+	 */
+	@Test
+	public void testGetSubtitleCount () {
+		assertEquals(0, context.getSubtitleCount());
+		context.subtitleRead();
+		context.subtitleRead();
+		assertEquals(2, context.getSubtitleCount());
+	}
+	
+	/**
+	 * Test method for {@link ReadContext#getLineNumber()}.
+	 * @throws IOException
+	 *         if the lines could not be read.
+	 */
+	@Test
+	public void testGetLineNumber () throws IOException {
+		assertEquals(0, context.getLineNumber());
+		final ReadContext lineContext = new ReadContext(file, new LineNumberReader(new StringReader("1\n2\n3\n")));
+		assertEquals(0, lineContext.getLineNumber());
+		lineContext.getReader().readLine();
+		lineContext.getReader().readLine();
+		assertEquals(2, lineContext.getLineNumber());
+	}
+	
+	/**
+	 * Test method for {@link ReadContext#addDiagnostic(String)}.
+	 * @throws IOException
+	 *         if the lines could not be read.
+	 */
+	@Test
+	public void testAddDiagnostic () throws IOException {
+		final ReadContext lineContext = new ReadContext(file, new LineNumberReader(new StringReader("1\n2\n3\n")));
+		final SubtitleFile subtitleFile = new SubtitleFile(file);
+		lineContext.setSubtitleFile(subtitleFile);
+		lineContext.getReader().readLine();
+		lineContext.addDiagnostic("Bad line");
+		assertEquals(1, subtitleFile.getDiagnostics().size());
+		final Diagnostic diagnostic = subtitleFile.getDiagnostics().get(0);
+		assertEquals(1, diagnostic.getLine());
+		assertEquals("Bad line", diagnostic.getReason());
+	}
+	
+	/**
+	 * Check that a problem cannot be reported before the header is read.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testAddDiagnosticBeforeHeader () {
+		context.addDiagnostic("Bad line");
+	}
+}
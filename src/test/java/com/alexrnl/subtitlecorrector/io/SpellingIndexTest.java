@@ -0,0 +1,113 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link SpellingIndex} class.
+ * @author Alex
+ */
+public class SpellingIndexTest {
+	/** The index to test */
+	private SpellingIndex	index;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		index = new SpellingIndex();
+		for (final String word : Arrays.asList("maison", "maisons", "raison", "saison", "mot", "mots", "moto", "été")) {
+			index.add(word);
+		}
+	}
+	
+	/**
+	 * Test method for {@link SpellingIndex#add(String)}.
+	 */
+	@Test
+	public void testAdd () {
+		assertEquals(8, index.size());
+		assertFalse(index.add("mot"));
+		assertTrue(index.add("motte"));
+		assertEquals(9, index.size());
+		assertEquals(Arrays.asList(new Suggestion("motte", 0, 0)), index.find("motte", 0));
+	}
+	
+	/**
+	 * Test method for {@link SpellingIndex#find(String, int)}.
+	 */
+	@Test
+	public void testFind () {
+		assertEquals(Collections.emptyList(), new SpellingIndex().find("mot", 2));
+		assertEquals(Arrays.asList(new Suggestion("mot", 0, 0)), index.find("mot", 0));
+		assertEquals(Arrays.asList(new Suggestion("maison", 1, 0), new Suggestion("raison", 2, 0), new Suggestion(
+				"saison", 2, 0), new Suggestion("maisons", 2, 1)), index.find("maixon", 2));
+		assertEquals(Arrays.asList(new Suggestion("été", 1, 0)), index.find("éte", 1));
+		assertEquals(Collections.emptyList(), index.find("zorglub", 2));
+		
+		// The distance is measured in code points, as by the word automaton
+		final SpellingIndex symbols = new SpellingIndex();
+		symbols.add("😀");
+		symbols.add("a");
+		assertEquals(Arrays.asList(new Suggestion("😀", 0, 0), new Suggestion("a", 1, 1)), symbols.find("😀", 1));
+	}
+	
+	/**
+	 * Test that {@link SpellingIndex#find(String, int)} returns the same words as a linear scan.
+	 */
+	@Test
+	public void testFindLinearScan () {
+		final List<String> words = new ArrayList<>();
+		for (int first = 'a'; first <= 'e'; first++) {
+			for (int second = 'a'; second <= 'e'; second++) {
+				for (int third = 'a'; third <= 'e'; third++) {
+					final String word = new String(new char[] { (char) first, (char) second, (char) third });
+					words.add(word);
+					words.add(word + (char) first);
+				}
+			}
+		}
+		final SpellingIndex largeIndex = new SpellingIndex();
+		for (final String word : words) {
+			largeIndex.add(word);
+		}
+		for (final String misspelled : Arrays.asList("ab", "abcde", "eeee", "x", "badc")) {
+			final List<Suggestion> expected = new ArrayList<>();
+			for (final String word : words) {
+				final int distance = SpellingIndex.distance(misspelled, word);
+				if (distance <= 2) {
+					expected.add(new Suggestion(word, distance, Math.abs(misspelled.length() - word.length())));
+				}
+			}
+			Collections.sort(expected);
+			assertEquals(expected, largeIndex.find(misspelled, 2));
+		}
+	}
+	
+	/**
+	 * Test method for {@link SpellingIndex#distance(String, String)}.
+	 */
+	@Test
+	public void testDistance () {
+		assertEquals(0, SpellingIndex.distance("mot", "mot"));
+		assertEquals(3, SpellingIndex.distance("", "mot"));
+		assertEquals(1, SpellingIndex.distance("mot", "mots"));
+		assertEquals(1, SpellingIndex.distance("mots", "mot"));
+		assertEquals(1, SpellingIndex.distance("maison", "raison"));
+		assertEquals(2, SpellingIndex.distance("mot", "tom"));
+		assertEquals(3, SpellingIndex.distance("kitten", "sitting"));
+		assertEquals(1, SpellingIndex.distance("😀", "a"));
+		assertEquals(1, SpellingIndex.distance("", "😀"));
+		assertEquals(1, SpellingIndex.distance("a😀", "a😁"));
+	}
+}
@@ -5,9 +5,15 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -129,4 +135,85 @@ public class SubtitleFormatManagerTest {
 	public void testGetFormatByInvalidPath () {
 		manager.getFormatByPath(null);
 	}
+	
+	/**
+	 * Build a format which recognizes the files starting with a prefix.
+	 * @param name
+	 *        the name of the format.
+	 * @param prefix
+	 *        the prefix of the files in the format.
+	 * @param probes
+	 *        the counter of the calls to the probe.
+	 * @return the format.
+	 */
+	private static SubtitleFormat prefixFormat (final String name, final String prefix, final AtomicInteger probes) {
+		return new SubtitleFormat(name, null, null, "txt") {
+			@Override
+			public int probe (final byte[] sample, final int length) {
+				probes.incrementAndGet();
+				final String content = new String(sample, 0, length, StandardCharsets.US_ASCII);
+				return content.startsWith(prefix) ? PROBE_MATCH : PROBE_NO_MATCH;
+			}
+		};
+	}
+	
+	/**
+	 * Test method for {@link SubtitleFormatManager#probeFormat(Path, Set)}.
+	 * @throws IOException
+	 *         if the test files could not be written.
+	 */
+	@Test
+	public void testProbeFormat () throws IOException {
+		final AtomicInteger probes = new AtomicInteger();
+		final SubtitleFormat first = prefixFormat("First", "FIRST", probes);
+		final SubtitleFormat second = prefixFormat("Second", "SECOND", probes);
+		final Set<SubtitleFormat> candidates = new HashSet<>(Arrays.asList(first, second, subrip));
+		final Path directory = Files.createTempDirectory("subtitles");
+		directory.toFile().deleteOnExit();
+		final Path file = Files.write(directory.resolve("a.txt"), "SECOND format".getBytes(StandardCharsets.US_ASCII));
+		final Path other = Files.write(directory.resolve("b.txt"), "FIRST format".getBytes(StandardCharsets.US_ASCII));
+		final Path unknown = Files.write(directory.resolve("c.sub"), "Unknown format".getBytes(StandardCharsets.US_ASCII));
+		file.toFile().deleteOnExit();
+		other.toFile().deleteOnExit();
+		unknown.toFile().deleteOnExit();
+		
+		assertEquals(second, manager.probeFormat(file, candidates));
+		assertEquals(2, probes.get());
+		// The decision is cached for the directory and the extension
+		assertEquals(second, manager.probeFormat(other, candidates));
+		assertEquals(2, probes.get());
+		assertNull(manager.probeFormat(unknown, candidates));
+		assertEquals(4, probes.get());
+		// The cached format is not used when it is not a candidate
+		assertEquals(first, manager.probeFormat(other, new HashSet<>(Arrays.asList(first))));
+		// The cache is cleared when the formats change
+		manager.registerFormat(first);
+		assertEquals(first, manager.probeFormat(other, candidates));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleFormatManager#probeFormat(Path, Set)} when several formats
+	 * recognize the file.
+	 * @throws IOException
+	 *         if the test file could not be written.
+	 */
+	@Test
+	public void testProbeFormatAmbiguous () throws IOException {
+		final AtomicInteger probes = new AtomicInteger();
+		final Path file = Files.createTempFile("subtitle", ".txt");
+		file.toFile().deleteOnExit();
+		Files.write(file, "FIRST format".getBytes(StandardCharsets.US_ASCII));
+		assertNull(manager.probeFormat(file, new HashSet<>(Arrays.asList(prefixFormat("First", "FIRST", probes),
+				prefixFormat("Other", "FIRST", probes)))));
+		assertEquals(2, probes.get());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleFormatManager#probeFormat(Path, Set)} when the file cannot be
+	 * read.
+	 */
+	@Test
+	public void testProbeFormatNotReadable () {
+		assertNull(manager.probeFormat(Paths.get("abcdefghijkl", "missing.srt"), manager.getAvailableFormats()));
+	}
 }
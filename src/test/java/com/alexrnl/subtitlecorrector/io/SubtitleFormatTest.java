@@ -5,8 +5,10 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -97,6 +99,42 @@ public class SubtitleFormatTest {
 		assertNotEquals(ass, new SubtitleFormat(".ass", null, null));
 	}
 	
+	/**
+	 * Test method for {@link SubtitleFormat#probe(byte[], int)}.
+	 */
+	@Test
+	public void testProbe () {
+		final byte[] content = "1\n00:00:01,000 --> 00:00:02,000\nHello\n".getBytes(StandardCharsets.UTF_8);
+		assertEquals(SubtitleFormat.PROBE_NO_MATCH, subrip.probe(content, content.length));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleFormat#sampleLines(byte[], int)}.
+	 */
+	@Test
+	public void testSampleLines () {
+		final List<String> lines = Arrays.asList("WEBVTT", "", "00:01.000 --> 00:02.000", "Hello", "");
+		final String content = "WEBVTT\r\n\r\n00:01.000 --> 00:02.000\n\t Hello \r\r";
+		assertEquals(lines, sample(content.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(lines, sample(("\uFEFF" + content).getBytes(StandardCharsets.UTF_8)));
+		assertEquals(lines, sample(("\uFEFF" + content).getBytes(StandardCharsets.UTF_16LE)));
+		assertEquals(lines, sample(content.getBytes(StandardCharsets.UTF_16BE)));
+		// Incomplete last line
+		final byte[] incomplete = "1\n00:00".getBytes(StandardCharsets.UTF_8);
+		assertEquals(Arrays.asList("1", "00:00"), sample(incomplete));
+		assertEquals(Arrays.asList("1", "00"), SubtitleFormat.sampleLines(incomplete, 4));
+	}
+	
+	/**
+	 * Split a complete content in lines.
+	 * @param content
+	 *        the content.
+	 * @return the lines of the content.
+	 */
+	private static List<String> sample (final byte[] content) {
+		return SubtitleFormat.sampleLines(content, content.length);
+	}
+	
 	/**
 	 * Test method for {@link SubtitleFormat#getTranslationKey()}.
 	 */
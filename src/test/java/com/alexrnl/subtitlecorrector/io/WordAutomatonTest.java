@@ -0,0 +1,134 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link WordAutomaton} class.
+ * @author Alex
+ */
+public class WordAutomatonTest {
+	/** The automaton to test */
+	private WordAutomaton	automaton;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		automaton = WordAutomaton.build(Arrays.asList("mot", "mots", "motte", "été", "a", "mot", "😀"));
+	}
+	
+	/**
+	 * Test method for {@link WordAutomaton#WordAutomaton(ByteBuffer)}.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testWordAutomatonBufferTooSmall () {
+		new WordAutomaton(ByteBuffer.allocate(4));
+	}
+	
+	/**
+	 * Test method for {@link WordAutomaton#size()}.
+	 */
+	@Test
+	public void testSize () {
+		assertEquals(6, automaton.size());
+		assertEquals(0, WordAutomaton.build(new ArrayList<String>()).size());
+	}
+	
+	/**
+	 * Test method for {@link WordAutomaton#contains(CharSequence)}.
+	 */
+	@Test
+	public void testContains () {
+		assertTrue(automaton.contains("mot"));
+		assertTrue(automaton.contains("mots"));
+		assertTrue(automaton.contains("motte"));
+		assertTrue(automaton.contains("été"));
+		assertTrue(automaton.contains("a"));
+		assertTrue(automaton.contains(new StringBuilder("mots")));
+		assertTrue(automaton.contains("😀"));
+		assertFalse(automaton.contains("mo"));
+		assertFalse(automaton.contains("motter"));
+		assertFalse(automaton.contains("ete"));
+		assertFalse(automaton.contains("Mot"));
+		assertFalse(automaton.contains("\uD83D"));
+		assertFalse(automaton.contains(""));
+		assertFalse(automaton.contains(null));
+	}
+	
+	/**
+	 * Test method for {@link WordAutomaton#contains(CharSequence, int, int)}.
+	 */
+	@Test
+	public void testContainsRange () {
+		assertTrue(automaton.contains("les mots.", 4, 8));
+		assertTrue(automaton.contains("les mots.", 4, 7));
+		assertFalse(automaton.contains("les mots.", 3, 8));
+		assertFalse(automaton.contains("les mots.", 4, 9));
+	}
+	
+	/**
+	 * Test method for {@link WordAutomaton#contains(CharSequence, int, int, Locale)}.
+	 */
+	@Test
+	public void testContainsRangeCaseInsensitive () {
+		assertTrue(automaton.contains("LES MOTS.", 4, 8, Locale.FRENCH));
+		assertTrue(automaton.contains("Été", 0, 3, Locale.FRENCH));
+		assertFalse(automaton.contains("LES MOTS.", 4, 8, null));
+		// Words with specific rules are made lower case like String#toLowerCase(Locale)
+		final String greek = "ΟΔΟΣ";
+		assertTrue(WordAutomaton.build(Arrays.asList(greek.toLowerCase(Locale.ROOT))).contains(greek, 0, 4, Locale.ROOT));
+		final WordAutomaton title = WordAutomaton.build(Arrays.asList("title"));
+		assertTrue(title.contains("TITLE", 0, 5, Locale.ENGLISH));
+		assertFalse(title.contains("TITLE", 0, 5, new Locale("tr")));
+	}
+	
+	/**
+	 * Test method for {@link WordAutomaton#contains(CharSequence)} with the empty word.
+	 */
+	@Test
+	public void testEmptyWord () {
+		final WordAutomaton withEmpty = WordAutomaton.build(Arrays.asList("", "a"));
+		assertEquals(2, withEmpty.size());
+		assertTrue(withEmpty.contains(""));
+		assertTrue(withEmpty.contains("a"));
+		assertFalse(withEmpty.contains("b"));
+	}
+	
+	/**
+	 * Test method for {@link WordAutomaton#fuzzySearch(CharSequence, int)}.
+	 */
+	@Test
+	public void testFuzzySearch () {
+		assertEquals(Arrays.asList(new Suggestion("mot", 0, 0)), automaton.fuzzySearch("mot", 0));
+		assertEquals(Arrays.asList(new Suggestion("mot", 0, 0), new Suggestion("mots", 1, 1), new Suggestion("motte", 2, 2)),
+				automaton.fuzzySearch("mot", 3).subList(0, 3));
+		assertEquals(Arrays.asList(new Suggestion("mots", 0, 0), new Suggestion("mot", 1, 1), new Suggestion("motte", 2, 1)),
+				automaton.fuzzySearch("mots", 2).subList(0, 3));
+		assertEquals(Arrays.asList(new Suggestion("été", 1, 0)), automaton.fuzzySearch("étè", 1));
+		assertEquals(Arrays.asList(new Suggestion("😀", 0, 0), new Suggestion("a", 1, 1)), automaton.fuzzySearch("😀", 1));
+		assertEquals(Arrays.asList(new Suggestion("a", 1, 1), new Suggestion("😀", 1, 2)), automaton.fuzzySearch("", 1));
+		assertEquals(new ArrayList<Suggestion>(), automaton.fuzzySearch("zorglub", 2));
+		assertEquals(Arrays.asList(new Suggestion("a", 1, 0), new Suggestion("", 1, 1)), WordAutomaton.build(
+				Arrays.asList("", "a")).fuzzySearch("b", 1));
+	}
+	
+	/**
+	 * Test method for {@link WordAutomaton#fuzzySearch(CharSequence, int)} with a negative distance.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testFuzzySearchNegativeDistance () {
+		automaton.fuzzySearch("mot", -1);
+	}
+}
@@ -0,0 +1,61 @@
+package com.alexrnl.subtitlecorrector.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.BufferedWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+
+/**
+ * Test suite for the {@link WriteContext} class.
+ * @author Alex
+ */
+public class WriteContextTest {
+	/** The subtitle file written */
+	private SubtitleFile	subtitleFile;
+	/** The target of the file */
+	private Path			target;
+	/** The writer on the target */
+	private BufferedWriter	writer;
+	/** The context to test */
+	private WriteContext	context;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		subtitleFile = new SubtitleFile(Paths.get("test.srt"));
+		target = Paths.get("target.srt");
+		writer = new BufferedWriter(new StringWriter());
+		context = new WriteContext(subtitleFile, target, writer);
+	}
+	
+	/**
+	 * Test method for {@link WriteContext#getSubtitleFile()}, {@link WriteContext#getTarget()} and
+	 * {@link WriteContext#getWriter()}.
+	 */
+	@Test
+	public void testGetters () {
+		assertSame(subtitleFile, context.getSubtitleFile());
+		assertSame(target, context.getTarget());
+		assertSame(writer, context.getWriter());
+	}
+	
+	/**
+	 * Test method for {@link WriteContext#getSubtitleCount()}.
+	 */
+	@Test
+	public void testGetSubtitleCount () {
+		assertEquals(0, context.getSubtitleCount());
+		context.subtitleWritten();
+		assertEquals(1, context.getSubtitleCount());
+	}
+}
@@ -0,0 +1,278 @@
+package com.alexrnl.subtitlecorrector.io.subrip;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.subtitlecorrector.common.Diagnostic;
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+import com.alexrnl.subtitlecorrector.io.SubtitleReader;
+import com.alexrnl.subtitlecorrector.io.SubtitleStream;
+
+/**
+ * Test suite for the {@link MappedSubRipReader} class.
+ * @author Alex
+ */
+public class MappedSubRipReaderTest {
+	/** The reader to use for the tests */
+	private MappedSubRipReader	reader;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		reader = new MappedSubRipReader();
+	}
+	
+	/**
+	 * Write a temporary subtitle file.
+	 * @param content
+	 *        the content of the file.
+	 * @return the path to the file.
+	 * @throws IOException
+	 *         if the file could not be written.
+	 */
+	private static Path write (final byte[] content) throws IOException {
+		final Path file = Files.createTempFile("subtitle", ".srt");
+		file.toFile().deleteOnExit();
+		Files.write(file, content);
+		return file;
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)}: the subtitles must be the ones read by
+	 * the {@link SubRipReader}.
+	 * @throws URISyntaxException
+	 *         if the syntax of the files to test is not valid.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testReadFile () throws IOException, URISyntaxException {
+		final Path file = Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI());
+		final SubtitleFile subtitles = reader.readFile(file);
+		assertEquals(1122, subtitles.size());
+		assertEquals(new SubRipReader().readFile(file), subtitles);
+		final String line = System.lineSeparator();
+		assertEquals(2047, subtitles.first().getBegin());
+		assertEquals("You lose," + line + "we don't merge." + line, subtitles.first().getContent());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#openFile(Path)}.
+	 * @throws URISyntaxException
+	 *         if the syntax of the files to test is not valid.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testOpenFile () throws IOException, URISyntaxException {
+		final Path file = Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI());
+		try (final SubtitleStream subtitles = reader.openFile(file)) {
+			int count = 0;
+			while (subtitles.next() != null) {
+				count++;
+			}
+			assertEquals(1122, count);
+			assertNull(subtitles.next());
+		}
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)} with an ISO-8859-1 file, with carriage
+	 * returns, dots in the dates and without blank line at the end.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testReadLatin1 () throws IOException {
+		final Path file = write(("1\r\n00:00:01.000 --> 00:00:02.500 X1:10 X2:20\r\n  Déjà vu  \r\nà nouveau\r\n\r\n"
+				+ "2\r\n00:00:03,000-->00:00:04,000\r\nFin").getBytes(StandardCharsets.ISO_8859_1));
+		final SubtitleFile subtitles = new MappedSubRipReader(StandardCharsets.ISO_8859_1).readFile(file);
+		assertEquals(2, subtitles.size());
+		final Subtitle first = subtitles.first();
+		assertEquals(1000, first.getBegin());
+		assertEquals(2500, first.getEnd());
+		assertEquals("Déjà vu" + System.lineSeparator() + "à nouveau" + System.lineSeparator(), first.getContent());
+		assertEquals("Fin" + System.lineSeparator(), subtitles.last().getContent());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)} with an empty file.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testReadEmpty () throws IOException {
+		assertTrue(reader.readFile(write(new byte[0])).isEmpty());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)} with bytes which are not valid UTF-8.
+	 * @throws IOException
+	 *         if there was an issue while reading the subtitle.
+	 */
+	@Test(expected = IOException.class)
+	public void testReadMalformed () throws IOException {
+		reader.readFile(write(new byte[] { '1', '\n', '0', '0', ':', '0', '0', ':', '0', '1', ',', '0', '0', '0', ' ',
+				'-', '-', '>', ' ', '0', '0', ':', '0', '0', ':', '0', '2', ',', '0', '0', '0', '\n', (byte) 0xC3, '\n' }));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)}.
+	 * @throws IOException
+	 *         if there was an issue while reading the subtitle.
+	 * @throws URISyntaxException
+	 *         if the syntax of the subtitle file is not valid.
+	 */
+	@Test(expected = IOException.class)
+	public void testReadBadDate () throws IOException, URISyntaxException {
+		reader.readFile(Paths.get(getClass().getResource("/badDate.srt").toURI()));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)}.
+	 * @throws IOException
+	 *         if there was an issue while reading the subtitle.
+	 * @throws URISyntaxException
+	 *         if the syntax of the subtitle file is not valid.
+	 */
+	@Test(expected = IOException.class)
+	public void testReadMissingDate () throws IOException, URISyntaxException {
+		reader.readFile(Paths.get(getClass().getResource("/missingDate.srt").toURI()));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)}.
+	 * @throws IOException
+	 *         if there was an issue while reading the subtitle.
+	 * @throws URISyntaxException
+	 *         if the syntax of the subtitle file is not valid.
+	 */
+	@Test(expected = IOException.class)
+	public void testReadBadNumber () throws IOException, URISyntaxException {
+		reader.readFile(Paths.get(getClass().getResource("/badNumber.srt").toURI()));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)} with a lenient reader: the malformed
+	 * subtitles are skipped and reported, the other subtitles are kept.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testReadLenient () throws IOException {
+		final String line = System.lineSeparator();
+		final SubtitleFile subtitles = new MappedSubRipReader(StandardCharsets.UTF_8, true).readFile(write((
+				"1\n00:00:01,000 --> 00:00:02,000\nFirst\n\n"
+				+ "2\n00:00:03,000 -> 00:00:04,000\nBroken\n\n"
+				+ "x3\n00:00:05,000 --> 00:00:06,000\nThird\n\n"
+				+ "00:00:07,000 --> 00:00:08,000\nFourth\n\n"
+				+ "5\n00:00:09,000 --> 00:00:99,000\nFifth\n\n"
+				+ "6\n00:00:11,000 --> 00:00:12,000\nSixth").getBytes(StandardCharsets.UTF_8)));
+		assertEquals(4, subtitles.size());
+		final List<Subtitle> kept = new ArrayList<>(subtitles);
+		assertEquals(1000, kept.get(0).getBegin());
+		assertEquals("First" + line, kept.get(0).getContent());
+		assertEquals(5000, kept.get(1).getBegin());
+		assertEquals("Third" + line, kept.get(1).getContent());
+		assertEquals(7000, kept.get(2).getBegin());
+		assertEquals("Fourth" + line, kept.get(2).getContent());
+		assertEquals(11000, kept.get(3).getBegin());
+		assertEquals(12000, kept.get(3).getEnd());
+		assertEquals("Sixth" + line, kept.get(3).getContent());
+		
+		final List<Diagnostic> diagnostics = subtitles.getDiagnostics();
+		assertEquals(3, diagnostics.size());
+		assertEquals(6, diagnostics.get(0).getLine());
+		assertEquals(13, diagnostics.get(1).getLine());
+		assertEquals(17, diagnostics.get(2).getLine());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)} with a lenient reader on the malformed
+	 * files.
+	 * @throws IOException
+	 *         if the reading failed.
+	 * @throws URISyntaxException
+	 *         if the syntax of the subtitle file is not valid.
+	 */
+	@Test
+	public void testReadLenientMalformedFiles () throws IOException, URISyntaxException {
+		final MappedSubRipReader lenientReader = new MappedSubRipReader(StandardCharsets.UTF_8, true);
+		final SubtitleFile badNumber = lenientReader.readFile(Paths.get(getClass().getResource("/badNumber.srt").toURI()));
+		assertEquals(1, badNumber.size());
+		assertEquals(2047, badNumber.first().getBegin());
+		assertEquals(6084, badNumber.first().getEnd());
+		assertEquals(1, badNumber.getDiagnostics().size());
+		assertEquals(1, badNumber.getDiagnostics().get(0).getLine());
+		
+		final SubtitleFile missingDate = lenientReader.readFile(Paths.get(getClass().getResource("/missingDate.srt").toURI()));
+		assertTrue(missingDate.isEmpty());
+		assertEquals(1, missingDate.getDiagnostics().size());
+		assertEquals(2, missingDate.getDiagnostics().get(0).getLine());
+		
+		final SubtitleFile badDate = lenientReader.readFile(Paths.get(getClass().getResource("/badDate.srt").toURI()));
+		assertTrue(badDate.isEmpty());
+		assertEquals(1, badDate.getDiagnostics().size());
+		
+		final SubtitleFile suits = lenientReader.readFile(Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI()));
+		assertEquals(1122, suits.size());
+		assertTrue(suits.getDiagnostics().isEmpty());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path, Charset)}: the files in a character set
+	 * which is not supported are read with characters.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testReadFileCharset () throws IOException {
+		final String subtitle = "1\n00:00:01,000 --> 00:00:02,000\nÇa a été\n\n2\n00:00:03,000 --> 00:00:04,000\nœuvre\n\n";
+		for (final Charset charset : new Charset[] { StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16LE,
+				Charset.forName("windows-1252") }) {
+			final SubtitleFile subtitles = reader.readFile(write(subtitle.getBytes(charset)), charset);
+			assertEquals(2, subtitles.size());
+			assertEquals("Ça a été" + System.lineSeparator(), subtitles.first().getContent());
+			assertEquals(3000, subtitles.last().getBegin());
+		}
+	}
+	
+	/**
+	 * Test method for {@link MappedSubRipReader#isSupported(Charset)}.
+	 */
+	@Test
+	public void testIsSupported () {
+		assertTrue(MappedSubRipReader.isSupported(StandardCharsets.UTF_8));
+		assertTrue(MappedSubRipReader.isSupported(StandardCharsets.ISO_8859_1));
+		assertTrue(MappedSubRipReader.isSupported(StandardCharsets.US_ASCII));
+		assertFalse(MappedSubRipReader.isSupported(StandardCharsets.UTF_16));
+		assertFalse(MappedSubRipReader.isSupported(StandardCharsets.UTF_16LE));
+	}
+	
+	/**
+	 * Check that a reader cannot be built with a character set which is not supported.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedCharset () {
+		new MappedSubRipReader(StandardCharsets.UTF_16);
+	}
+}
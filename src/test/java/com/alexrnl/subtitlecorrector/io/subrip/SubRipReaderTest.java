@@ -1,17 +1,27 @@
 package com.alexrnl.subtitlecorrector.io.subrip;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.alexrnl.subtitlecorrector.common.Diagnostic;
+import com.alexrnl.subtitlecorrector.common.Subtitle;
 import com.alexrnl.subtitlecorrector.common.SubtitleFile;
 import com.alexrnl.subtitlecorrector.io.SubtitleReader;
+import com.alexrnl.subtitlecorrector.io.SubtitleStream;
 
 /**
  * Test suite for the {@link SubRipReader} class.
@@ -41,14 +51,80 @@ public class SubRipReaderTest {
 		final String line = System.lineSeparator();
 		final SubtitleFile subtitles = reader.readFile(Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI()));
 		assertEquals(1122, subtitles.size());
-		assertEquals(-3597953, subtitles.first().getBegin());
-		assertEquals(-3593916, subtitles.first().getEnd());
+		assertEquals(2047, subtitles.first().getBegin());
+		assertEquals(6084, subtitles.first().getEnd());
 		assertEquals("You lose," + line + "we don't merge." + line, subtitles.first().getContent());
-		assertEquals(-761302, subtitles.last().getBegin());
-		assertEquals(-756302, subtitles.last().getEnd());
+		assertEquals(2838698, subtitles.last().getBegin());
+		assertEquals(2843698, subtitles.last().getEnd());
 		assertEquals("== sync, corrected by <font color=#00FF00>elderman</font> ==" + line + "<font color=#00FFFF>@elder_man</font>" + line, subtitles.last().getContent());
 	}
 	
+	/**
+	 * Test method for {@link SubtitleReader#openFile(Path)}.
+	 * @throws URISyntaxException
+	 *         if the syntax of the files to test is not valid.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testOpenFile () throws IOException, URISyntaxException {
+		final Path file = Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI());
+		try (final SubtitleStream subtitles = reader.openFile(file)) {
+			assertEquals(file, subtitles.getSubtitleFile().getFile());
+			assertTrue(subtitles.getSubtitleFile().isEmpty());
+			final Subtitle first = subtitles.next();
+			assertEquals(2047, first.getBegin());
+			assertEquals(6084, first.getEnd());
+			int count = 1;
+			while (subtitles.next() != null) {
+				count++;
+			}
+			assertEquals(1122, count);
+			assertNull(subtitles.next());
+			assertTrue(subtitles.getSubtitleFile().isEmpty());
+		}
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)} with several threads using the same
+	 * reader.
+	 * @throws URISyntaxException
+	 *         if the syntax of the files to test is not valid.
+	 * @throws IOException
+	 *         if the reading failed.
+	 * @throws InterruptedException
+	 *         if the test is interrupted.
+	 */
+	@Test
+	public void testReadFileConcurrent () throws IOException, URISyntaxException, InterruptedException {
+		final Path file = Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI());
+		final SubtitleFile expected = reader.readFile(file);
+		final List<SubtitleFile> results = Collections.synchronizedList(new ArrayList<SubtitleFile>());
+		final List<Thread> threads = new ArrayList<>();
+		for (int index = 0; index < 8; index++) {
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run () {
+					try {
+						results.add(reader.readFile(file));
+					} catch (final IOException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(threads.size(), results.size());
+		for (final SubtitleFile result : results) {
+			assertEquals(expected, result);
+		}
+	}
+	
 	/**
 	 * Test method for {@link SubtitleReader#readFile(Path)}.
 	 * @throws IOException
@@ -94,4 +170,102 @@ public class SubRipReaderTest {
 	public void testReadBadNumber () throws IOException, URISyntaxException {
 		reader.readFile(Paths.get(getClass().getResource("/badNumber.srt").toURI()));
 	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)} with a lenient reader: the malformed
+	 * subtitles are skipped and reported, the other subtitles are kept.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testReadLenient () throws IOException {
+		final String line = System.lineSeparator();
+		final SubtitleFile subtitles = new SubRipReader(StandardCharsets.UTF_8, true).readFile(write(
+				"1\n00:00:01,000 --> 00:00:02,000\nFirst\n\n"
+				+ "2\n00:00:03,000 -> 00:00:04,000\nBroken\n\n"
+				+ "x3\n00:00:05,000 --> 00:00:06,000\nThird\n\n"
+				+ "00:00:07,000 --> 00:00:08,000\nFourth\n\n"
+				+ "5\n00:00:09,000 --> 00:00:99,000\nFifth\n\n"
+				+ "6\n00:00:11,000 --> 00:00:12,000\nSixth"));
+		assertEquals(4, subtitles.size());
+		final List<Subtitle> kept = new ArrayList<>(subtitles);
+		assertEquals(1000, kept.get(0).getBegin());
+		assertEquals("First" + line, kept.get(0).getContent());
+		assertEquals(5000, kept.get(1).getBegin());
+		assertEquals("Third" + line, kept.get(1).getContent());
+		assertEquals(7000, kept.get(2).getBegin());
+		assertEquals("Fourth" + line, kept.get(2).getContent());
+		assertEquals(11000, kept.get(3).getBegin());
+		assertEquals(12000, kept.get(3).getEnd());
+		assertEquals("Sixth" + line, kept.get(3).getContent());
+		
+		final List<Diagnostic> diagnostics = subtitles.getDiagnostics();
+		assertEquals(3, diagnostics.size());
+		assertEquals(6, diagnostics.get(0).getLine());
+		assertEquals(13, diagnostics.get(1).getLine());
+		assertEquals(17, diagnostics.get(2).getLine());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)} with a lenient reader on the malformed
+	 * files.
+	 * @throws IOException
+	 *         if the reading failed.
+	 * @throws URISyntaxException
+	 *         if the syntax of the subtitle file is not valid.
+	 */
+	@Test
+	public void testReadLenientMalformedFiles () throws IOException, URISyntaxException {
+		final SubRipReader lenientReader = new SubRipReader(StandardCharsets.UTF_8, true);
+		final SubtitleFile badNumber = lenientReader.readFile(Paths.get(getClass().getResource("/badNumber.srt").toURI()));
+		assertEquals(1, badNumber.size());
+		assertEquals(2047, badNumber.first().getBegin());
+		assertEquals(6084, badNumber.first().getEnd());
+		assertEquals(1, badNumber.getDiagnostics().size());
+		assertEquals(1, badNumber.getDiagnostics().get(0).getLine());
+		
+		final SubtitleFile missingDate = lenientReader.readFile(Paths.get(getClass().getResource("/missingDate.srt").toURI()));
+		assertTrue(missingDate.isEmpty());
+		assertEquals(1, missingDate.getDiagnostics().size());
+		assertEquals(2, missingDate.getDiagnostics().get(0).getLine());
+		
+		final SubtitleFile badDate = lenientReader.readFile(Paths.get(getClass().getResource("/badDate.srt").toURI()));
+		assertTrue(badDate.isEmpty());
+		assertEquals(1, badDate.getDiagnostics().size());
+		
+		final SubtitleFile suits = lenientReader.readFile(Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI()));
+		assertEquals(1122, suits.size());
+		assertTrue(suits.getDiagnostics().isEmpty());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path, java.nio.charset.Charset)}: the file is
+	 * read in the specified character set instead of the reader's one.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testReadFileCharset () throws IOException {
+		final Path file = Files.createTempFile("subtitle", ".srt");
+		file.toFile().deleteOnExit();
+		Files.write(file, "1\n00:00:01,000 --> 00:00:02,000\nÇa a été\n\n".getBytes(StandardCharsets.ISO_8859_1));
+		final SubtitleFile subtitles = reader.readFile(file, StandardCharsets.ISO_8859_1);
+		assertEquals(1, subtitles.size());
+		assertEquals("Ça a été" + System.lineSeparator(), subtitles.first().getContent());
+	}
+	
+	/**
+	 * Write a temporary subtitle file.
+	 * @param content
+	 *        the content of the file.
+	 * @return the path to the file.
+	 * @throws IOException
+	 *         if the file could not be written.
+	 */
+	private static Path write (final String content) throws IOException {
+		final Path file = Files.createTempFile("subtitle", ".srt");
+		file.toFile().deleteOnExit();
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
 }
@@ -1,13 +1,20 @@
 package com.alexrnl.subtitlecorrector.io.subrip;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashSet;
 
 import org.junit.Test;
 
+import com.alexrnl.subtitlecorrector.io.SubtitleFormat;
+
 /**
  * Test suite for the {@link SubRip} class.
  * @author Alex
@@ -26,5 +33,46 @@ public class SubRipTest {
 		assertEquals(new HashSet<>(Arrays.asList("srt")), defaultCharset.getExtensions());
 		assertEquals("SubRip", latin_1Charset.getName());
 		assertEquals(new HashSet<>(Arrays.asList("srt")), latin_1Charset.getExtensions());
+		assertTrue(latin_1Charset.getReader() instanceof SubRipReader);
+		assertTrue(new SubRip(StandardCharsets.UTF_8, true).getReader() instanceof MappedSubRipReader);
+	}
+	
+	/**
+	 * Test method for {@link SubRip#probe(byte[], int)}.
+	 * @throws IOException
+	 *         if a test file could not be read.
+	 * @throws URISyntaxException
+	 *         if the path of a test file is not valid.
+	 */
+	@Test
+	public void testProbe () throws IOException, URISyntaxException {
+		final SubRip subRip = new SubRip(StandardCharsets.UTF_8);
+		final byte[] suits = Files.readAllBytes(Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI()));
+		assertEquals(SubtitleFormat.PROBE_MATCH, subRip.probe(suits, Math.min(suits.length, SubtitleFormat.PROBE_SAMPLE_SIZE)));
+		
+		final String subtitle = "\r\n1\r\n00:00:01,000 --> 00:00:02,000 X1:10 X2:20\r\nHello\r\n";
+		probe(subRip, SubtitleFormat.PROBE_MATCH, subtitle.getBytes(StandardCharsets.UTF_8));
+		probe(subRip, SubtitleFormat.PROBE_MATCH, ("\uFEFF" + subtitle).getBytes(StandardCharsets.UTF_8));
+		probe(subRip, SubtitleFormat.PROBE_MATCH, ("\uFEFF" + subtitle).getBytes(StandardCharsets.UTF_16LE));
+		probe(subRip, SubtitleFormat.PROBE_MATCH, subtitle.getBytes(StandardCharsets.UTF_16BE));
+		
+		final byte[] badNumber = Files.readAllBytes(Paths.get(getClass().getResource("/badNumber.srt").toURI()));
+		probe(subRip, SubtitleFormat.PROBE_MATCH / 2, badNumber);
+		probe(subRip, SubtitleFormat.PROBE_NO_MATCH, "1\n00:00:01,000 -- 00:00:02,000\nHello".getBytes(StandardCharsets.UTF_8));
+		probe(subRip, SubtitleFormat.PROBE_NO_MATCH, "[Script Info]\nTitle: test".getBytes(StandardCharsets.UTF_8));
+		probe(subRip, SubtitleFormat.PROBE_NO_MATCH, new byte[0]);
+	}
+	
+	/**
+	 * Check the score of a content.
+	 * @param subRip
+	 *        the format.
+	 * @param expected
+	 *        the expected score.
+	 * @param content
+	 *        the content.
+	 */
+	private static void probe (final SubRip subRip, final int expected, final byte[] content) {
+		assertEquals(expected, subRip.probe(content, content.length));
 	}
 }
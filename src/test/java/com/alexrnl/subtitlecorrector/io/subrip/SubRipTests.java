@@ -9,7 +9,8 @@ import org.junit.runners.Suite.SuiteClasses;
  * @author Alex
  */
 @RunWith(Suite.class)
-@SuiteClasses({ SubRipTest.class, SubRipReaderTest.class, SubRipWriterTest.class })
+@SuiteClasses({ SubRipTest.class, SubRipReaderTest.class, SubRipWriterTest.class, SubRipTimestampTest.class,
+		MappedSubRipReaderTest.class })
 public class SubRipTests {
 	
 }
@@ -0,0 +1,109 @@
+package com.alexrnl.subtitlecorrector.io.subrip;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link SubRipTimestamp} class.
+ * @author Alex
+ */
+public class SubRipTimestampTest {
+	
+	/**
+	 * Test method for {@link SubRipTimestamp#parse(CharSequence)}.
+	 * @throws ParseException
+	 *         if a timestamp could not be parsed.
+	 */
+	@Test
+	public void testParse () throws ParseException {
+		assertEquals(0, SubRipTimestamp.parse("00:00:00,000"));
+		assertEquals(2047, SubRipTimestamp.parse("00:00:02,047"));
+		assertEquals(2838698, SubRipTimestamp.parse("00:47:18,698"));
+		assertEquals(((1 * 60 + 2) * 60 + 3) * 1000 + 4, SubRipTimestamp.parse("01:02:03,004"));
+	}
+	
+	/**
+	 * Test method for {@link SubRipTimestamp#parse(CharSequence)} with the variations accepted.
+	 * @throws ParseException
+	 *         if a timestamp could not be parsed.
+	 */
+	@Test
+	public void testParseLenient () throws ParseException {
+		assertEquals(2047, SubRipTimestamp.parse("00:00:02.047"));
+		assertEquals(2047, SubRipTimestamp.parse("  00:00:02,047\t"));
+		assertEquals(2047, SubRipTimestamp.parse("0:00:02,047"));
+		assertEquals(25 * 3600000L, SubRipTimestamp.parse("25:00:00,000"));
+		assertEquals(123 * 3600000L + 1, SubRipTimestamp.parse("123:00:00,001"));
+		assertEquals(2500, SubRipTimestamp.parse("00:00:02,5"));
+		assertEquals(2050, SubRipTimestamp.parse("00:00:02,05"));
+	}
+	
+	/**
+	 * Test method for {@link SubRipTimestamp#parse(CharSequence, int, int)}.
+	 * @throws ParseException
+	 *         if a timestamp could not be parsed.
+	 */
+	@Test
+	public void testParseRange () throws ParseException {
+		final String line = "00:00:02,047 --> 00:00:06,084";
+		assertEquals(2047, SubRipTimestamp.parse(line, 0, 13));
+		assertEquals(6084, SubRipTimestamp.parse(line, 16, line.length()));
+	}
+	
+	/**
+	 * Test method for {@link SubRipTimestamp#parse(CharSequence)} with invalid timestamps.
+	 */
+	@Test
+	public void testParseInvalid () {
+		for (final String timestamp : new String[] { "", "   ", "00:00:02", "00:00:02,", "00-00-02,047",
+				":00:02,047", "00:0:02,047", "00:60:02,047", "00:00:61,047", "00:00:02,0470",
+				"00:00:02,047 00", "aa:00:02,047", "99999999999:00:00,000" }) {
+			try {
+				SubRipTimestamp.parse(timestamp);
+				fail("Timestamp '" + timestamp + "' should not be valid");
+			} catch (final ParseException e) {
+				// Expected
+			}
+		}
+	}
+	
+	/**
+	 * Test method for {@link SubRipTimestamp#format(long)}.
+	 */
+	@Test
+	public void testFormat () {
+		assertEquals("00:00:00,000", SubRipTimestamp.format(0));
+		assertEquals("00:00:02,047", SubRipTimestamp.format(2047));
+		assertEquals("01:02:03,004", SubRipTimestamp.format(((1 * 60 + 2) * 60 + 3) * 1000 + 4));
+		assertEquals("25:00:00,000", SubRipTimestamp.format(25 * 3600000L));
+		assertEquals("123:00:00,001", SubRipTimestamp.format(123 * 3600000L + 1));
+	}
+	
+	/**
+	 * Test method for {@link SubRipTimestamp#format(long, Appendable)}.
+	 * @throws IOException
+	 *         if the timestamp could not be appended.
+	 * @throws ParseException
+	 *         if a timestamp could not be parsed.
+	 */
+	@Test
+	public void testFormatAppend () throws IOException, ParseException {
+		final StringBuilder line = new StringBuilder("1 ");
+		SubRipTimestamp.format(2838698, line);
+		assertEquals("1 00:47:18,698", line.toString());
+		assertEquals(2838698, SubRipTimestamp.parse(line, 2, line.length()));
+	}
+	
+	/**
+	 * Check that a negative time cannot be formatted.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testFormatNegative () {
+		SubRipTimestamp.format(-1);
+	}
+}
@@ -1,17 +1,24 @@
 package com.alexrnl.subtitlecorrector.io.subrip;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.alexrnl.subtitlecorrector.common.Subtitle;
 import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+import com.alexrnl.subtitlecorrector.io.SubtitleSource;
+import com.alexrnl.subtitlecorrector.io.SubtitleStream;
 import com.alexrnl.subtitlecorrector.io.SubtitleWriter;
 
 /**
@@ -52,6 +59,98 @@ public class SubRipWriterTest {
 		
 	}
 	
+	/**
+	 * Test method for {@link SubtitleWriter#writeFile(SubtitleFile, SubtitleSource, Path)}.
+	 * @throws URISyntaxException
+	 *         if the path to the file is badly formatted.
+	 * @throws IOException
+	 *         if and IO error occurs.
+	 */
+	@Test
+	public void testWriteFileSource () throws IOException, URISyntaxException {
+		final Path original = Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI());
+		final Path output = Files.createTempFile("subtitle", ".srt");
+		output.toFile().deleteOnExit();
+		
+		try (final SubtitleStream subtitles = new SubRipReader().openFile(original)) {
+			writer.writeFile(subtitles.getSubtitleFile(), subtitles, output);
+		}
+		
+		assertArrayEquals(Files.readAllBytes(original), Files.readAllBytes(output));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleWriter#writeFile(SubtitleFile, SubtitleSource, Path)} when the
+	 * source fails: the writer must be able to write the next file.
+	 * @throws IOException
+	 *         if and IO error occurs.
+	 */
+	@Test
+	public void testWriteFileSourceFailure () throws IOException {
+		final Path output = Files.createTempFile("subtitle", ".srt");
+		output.toFile().deleteOnExit();
+		
+		try {
+			writer.writeFile(new SubtitleFile(output), new SubtitleSource() {
+				@Override
+				public Subtitle next () throws IOException {
+					throw new IOException("Source failed");
+				}
+			}, output);
+			fail("The failure of the source should be reported");
+		} catch (final IOException e) {
+			assertEquals("Source failed", e.getMessage());
+		}
+		
+		final SubtitleFile subtitleFile = new SubtitleFile(output);
+		subtitleFile.add(new Subtitle(0, 1000, "Hello" + System.lineSeparator()));
+		writer.writeFile(subtitleFile, output);
+		assertEquals(1, new SubRipReader().readFile(output).size());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleWriter#writeFile(SubtitleFile, Path)} with several threads
+	 * using the same writer.
+	 * @throws URISyntaxException
+	 *         if the path to the file is badly formatted.
+	 * @throws IOException
+	 *         if and IO error occurs.
+	 * @throws InterruptedException
+	 *         if the test is interrupted.
+	 */
+	@Test
+	public void testWriteFileConcurrent () throws IOException, URISyntaxException, InterruptedException {
+		final Path original = Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI());
+		final SubtitleFile subtitle = new SubRipReader().readFile(original);
+		final List<Path> outputs = new ArrayList<>();
+		final List<Thread> threads = new ArrayList<>();
+		for (int index = 0; index < 8; index++) {
+			final Path output = Files.createTempFile("subtitle", ".srt");
+			output.toFile().deleteOnExit();
+			outputs.add(output);
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run () {
+					try {
+						writer.writeFile(subtitle, output);
+					} catch (final IOException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		final byte[] expected = Files.readAllBytes(original);
+		for (final Path output : outputs) {
+			assertArrayEquals(expected, Files.readAllBytes(output));
+		}
+	}
+	
 	/**
 	 * Test method for {@link SubtitleWriter#writeFile(SubtitleFile, Path)}.
 	 * @throws IOException
@@ -0,0 +1,126 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+import com.alexrnl.subtitlecorrector.io.SubtitleReader;
+
+/**
+ * Test suite for the {@link WebVTTReader} class.
+ * @author Alex
+ */
+public class WebVTTReaderTest {
+	/** The reader to use for the tests */
+	private WebVTTReader	reader;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		reader = new WebVTTReader();
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)}.
+	 * @throws URISyntaxException
+	 *         if the syntax of the files to test is not valid.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testReadFile () throws IOException, URISyntaxException {
+		final String line = System.lineSeparator();
+		final SubtitleFile subtitles = reader.readFile(Paths.get(getClass().getResource("/sample.vtt").toURI()));
+		assertTrue(subtitles instanceof WebVTTFile);
+		final WebVTTFile file = (WebVTTFile) subtitles;
+		assertEquals("WEBVTT - Suits, season 3" + line + "Kind: captions", file.getHeader());
+		assertEquals(Arrays.asList("STYLE" + line + "::cue {" + line + "  color: yellow;" + line + "}",
+				"NOTE Translated from the SubRip subtitles"), file.getHeaderBlocks());
+		assertEquals(Arrays.asList("NOTE End of the file"), file.getTrailingBlocks());
+		assertEquals(3, file.size());
+		
+		final Iterator<?> cues = file.iterator();
+		final WebVTTCue first = (WebVTTCue) cues.next();
+		assertEquals(2047, first.getBegin());
+		assertEquals(6084, first.getEnd());
+		assertEquals("You lose," + line + "we don't merge." + line, first.getContent());
+		assertEquals("1", first.getIdentifier());
+		assertEquals("", first.getSettings());
+		assertEquals(Collections.emptyList(), first.getNotes());
+		
+		final WebVTTCue second = (WebVTTCue) cues.next();
+		assertEquals(6168, second.getBegin());
+		assertEquals(8503, second.getEnd());
+		assertEquals("<v Harvey>Then I guess" + line + "we'll merge." + line, second.getContent());
+		assertNull(second.getIdentifier());
+		assertEquals("align:start position:10%", second.getSettings());
+		
+		final WebVTTCue last = (WebVTTCue) cues.next();
+		assertEquals(6438698, last.getBegin());
+		assertEquals(6443698, last.getEnd());
+		assertEquals("last", last.getIdentifier());
+		assertEquals("line:0", last.getSettings());
+		assertEquals(Arrays.asList("NOTE" + line + "The next cue is the last one"), last.getNotes());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleReader#readFile(Path)} with the short timestamps and a file
+	 * which does not end with a blank line.
+	 * @throws IOException
+	 *         if the reading failed.
+	 */
+	@Test
+	public void testReadFileShortTimestamps () throws IOException {
+		final Path file = Files.createTempFile("subtitle", ".vtt");
+		file.toFile().deleteOnExit();
+		Files.write(file, "WEBVTT\r\n\r\n\r\n00:01.000 --> 01:02.500\r\nHello".getBytes(StandardCharsets.UTF_8));
+		
+		final SubtitleFile subtitles = reader.readFile(file);
+		assertEquals(1, subtitles.size());
+		assertEquals(1000, subtitles.first().getBegin());
+		assertEquals(62500, subtitles.first().getEnd());
+		assertEquals("Hello" + System.lineSeparator(), subtitles.first().getContent());
+		assertEquals("WEBVTT", ((WebVTTFile) subtitles).getHeader());
+		assertTrue(((WebVTTFile) subtitles).getHeaderBlocks().isEmpty());
+		assertTrue(((WebVTTFile) subtitles).getTrailingBlocks().isEmpty());
+	}
+	
+	/**
+	 * Check that the malformed files cannot be read.
+	 * @throws IOException
+	 *         if the test files could not be written.
+	 */
+	@Test
+	public void testReadMalformedFiles () throws IOException {
+		for (final String content : new String[] { "", "1\n00:00:01,000 --> 00:00:02,000\nHello\n",
+				"WEBVTTS\n\n00:01.000 --> 00:02.000\nHello\n", "WEBVTT\n\nid\nHello\n",
+				"WEBVTT\n\n00:01,000 --> 00:02,000\nHello\n", "WEBVTT\n\n00:01.000 --> \nHello\n" }) {
+			final Path file = Files.createTempFile("subtitle", ".vtt");
+			file.toFile().deleteOnExit();
+			Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+			try {
+				reader.readFile(file);
+				fail("The file '" + content + "' should not be read");
+			} catch (final IOException e) {
+				// Expected
+			}
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import com.alexrnl.subtitlecorrector.io.SubtitleFormat;
+
+/**
+ * Test suite for the {@link WebVTT} class.
+ * @author Alex
+ */
+public class WebVTTTest {
+	
+	/**
+	 * Test the validity of the {@link WebVTT} constructors.
+	 */
+	@Test
+	public void testConstructors () {
+		final WebVTT defaultCharset = new WebVTT();
+		final WebVTT latin_1Charset = new WebVTT(StandardCharsets.ISO_8859_1);
+		
+		assertEquals("WebVTT", defaultCharset.getName());
+		assertEquals(new HashSet<>(Arrays.asList("vtt")), defaultCharset.getExtensions());
+		assertTrue(defaultCharset.getReader() instanceof WebVTTReader);
+		assertTrue(defaultCharset.getWriter() instanceof WebVTTWriter);
+		assertEquals("WebVTT", latin_1Charset.getName());
+		assertEquals(new HashSet<>(Arrays.asList("vtt")), latin_1Charset.getExtensions());
+	}
+	
+	/**
+	 * Test method for {@link WebVTT#probe(byte[], int)}.
+	 * @throws IOException
+	 *         if a test file could not be read.
+	 * @throws URISyntaxException
+	 *         if the path of a test file is not valid.
+	 */
+	@Test
+	public void testProbe () throws IOException, URISyntaxException {
+		final WebVTT webVTT = new WebVTT();
+		final byte[] sample = Files.readAllBytes(Paths.get(getClass().getResource("/sample.vtt").toURI()));
+		probe(webVTT, SubtitleFormat.PROBE_MATCH, sample);
+		
+		final String subtitle = "WEBVTT\n\n00:01.000 --> 00:02.000\nHello\n";
+		probe(webVTT, SubtitleFormat.PROBE_MATCH, subtitle.getBytes(StandardCharsets.UTF_8));
+		probe(webVTT, SubtitleFormat.PROBE_MATCH, ("\uFEFF" + subtitle).getBytes(StandardCharsets.UTF_16LE));
+		probe(webVTT, SubtitleFormat.PROBE_MATCH, "WEBVTT\ttitle\r\n".getBytes(StandardCharsets.UTF_8));
+		
+		final byte[] suits = Files.readAllBytes(Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI()));
+		probe(webVTT, SubtitleFormat.PROBE_NO_MATCH, suits);
+		probe(webVTT, SubtitleFormat.PROBE_NO_MATCH, "WEBVTTS\n".getBytes(StandardCharsets.UTF_8));
+		probe(webVTT, SubtitleFormat.PROBE_NO_MATCH, "NOTE\nWEBVTT\n".getBytes(StandardCharsets.UTF_8));
+		probe(webVTT, SubtitleFormat.PROBE_NO_MATCH, new byte[0]);
+	}
+	
+	/**
+	 * Check the score of a content.
+	 * @param webVTT
+	 *        the format.
+	 * @param expected
+	 *        the expected score.
+	 * @param content
+	 *        the content.
+	 */
+	private static void probe (final WebVTT webVTT, final int expected, final byte[] content) {
+		assertEquals(expected, webVTT.probe(content, content.length));
+	}
+}
@@ -0,0 +1,15 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+/**
+ * Test suite for the webvtt package.
+ * @author Alex
+ */
+@RunWith(Suite.class)
+@SuiteClasses({ WebVTTTest.class, WebVTTReaderTest.class, WebVTTWriterTest.class, WebVTTTimestampTest.class })
+public class WebVTTTests {
+
+}
@@ -0,0 +1,94 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link WebVTTTimestamp} class.
+ * @author Alex
+ */
+public class WebVTTTimestampTest {
+	
+	/**
+	 * Test method for {@link WebVTTTimestamp#parse(CharSequence)}.
+	 * @throws ParseException
+	 *         if a timestamp could not be parsed.
+	 */
+	@Test
+	public void testParse () throws ParseException {
+		assertEquals(0, WebVTTTimestamp.parse("00:00:00.000"));
+		assertEquals(2047, WebVTTTimestamp.parse("00:00:02.047"));
+		assertEquals(((1 * 60 + 2) * 60 + 3) * 1000 + 4, WebVTTTimestamp.parse("01:02:03.004"));
+		assertEquals(123 * 3600000L + 1, WebVTTTimestamp.parse("123:00:00.001"));
+		assertEquals(2838698, WebVTTTimestamp.parse("47:18.698"));
+		assertEquals(2047, WebVTTTimestamp.parse("  00:02.047\t"));
+	}
+	
+	/**
+	 * Test method for {@link WebVTTTimestamp#parse(CharSequence, int, int)}.
+	 * @throws ParseException
+	 *         if a timestamp could not be parsed.
+	 */
+	@Test
+	public void testParseRange () throws ParseException {
+		final String line = "00:02.047 --> 00:00:06.084 align:start";
+		assertEquals(2047, WebVTTTimestamp.parse(line, 0, 10));
+		assertEquals(6084, WebVTTTimestamp.parse(line, 13, 26));
+	}
+	
+	/**
+	 * Test method for {@link WebVTTTimestamp#parse(CharSequence)} with invalid timestamps.
+	 */
+	@Test
+	public void testParseInvalid () {
+		for (final String timestamp : new String[] { "", "   ", "00:00:02", "00:00:02.", "00:00:02,047",
+				"0:00:02.047", "0:02.047", "000:02.047", "60:02.047", "00:60:02.047", "00:00:61.047",
+				"00:00:02.05", "00:00:02.0470", "00:00:02.047 00", "aa:00:02.047", "99999999999:00:00.000" }) {
+			try {
+				WebVTTTimestamp.parse(timestamp);
+				fail("Timestamp '" + timestamp + "' should not be valid");
+			} catch (final ParseException e) {
+				// Expected
+			}
+		}
+	}
+	
+	/**
+	 * Test method for {@link WebVTTTimestamp#format(long)}.
+	 */
+	@Test
+	public void testFormat () {
+		assertEquals("00:00:00.000", WebVTTTimestamp.format(0));
+		assertEquals("00:00:02.047", WebVTTTimestamp.format(2047));
+		assertEquals("01:02:03.004", WebVTTTimestamp.format(((1 * 60 + 2) * 60 + 3) * 1000 + 4));
+		assertEquals("123:00:00.001", WebVTTTimestamp.format(123 * 3600000L + 1));
+	}
+	
+	/**
+	 * Test method for {@link WebVTTTimestamp#format(long, Appendable)}.
+	 * @throws IOException
+	 *         if the timestamp could not be appended.
+	 * @throws ParseException
+	 *         if a timestamp could not be parsed.
+	 */
+	@Test
+	public void testFormatAppend () throws IOException, ParseException {
+		final StringBuilder line = new StringBuilder("1 ");
+		WebVTTTimestamp.format(2838698, line);
+		assertEquals("1 00:47:18.698", line.toString());
+		assertEquals(2838698, WebVTTTimestamp.parse(line, 2, line.length()));
+	}
+	
+	/**
+	 * Check that a negative time cannot be formatted.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testFormatNegative () {
+		WebVTTTimestamp.format(-1);
+	}
+}
@@ -0,0 +1,102 @@
+package com.alexrnl.subtitlecorrector.io.webvtt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+import com.alexrnl.subtitlecorrector.io.SubtitleSource;
+import com.alexrnl.subtitlecorrector.io.SubtitleStream;
+import com.alexrnl.subtitlecorrector.io.SubtitleWriter;
+
+/**
+ * Test suite for the {@link WebVTTWriter} class.
+ * @author Alex
+ */
+public class WebVTTWriterTest {
+	/** The writer to use for the test */
+	private WebVTTWriter	writer;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		writer = new WebVTTWriter();
+	}
+	
+	/**
+	 * Test method for {@link SubtitleWriter#writeFile(SubtitleFile, Path)}, which should write back
+	 * the cue settings, the comments and the style sheets.
+	 * @throws URISyntaxException
+	 *         if the path to the file is badly formatted.
+	 * @throws IOException
+	 *         if and IO error occurs.
+	 */
+	@Test
+	public void testWriteFile () throws IOException, URISyntaxException {
+		final Path original = Paths.get(getClass().getResource("/sample.vtt").toURI());
+		final Path output = Files.createTempFile("subtitle", ".vtt");
+		output.toFile().deleteOnExit();
+		
+		final SubtitleFile subtitles = new WebVTTReader().readFile(original);
+		writer.writeFile(subtitles, output);
+		
+		assertArrayEquals(Files.readAllBytes(original), Files.readAllBytes(output));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleWriter#writeFile(SubtitleFile, SubtitleSource, Path)}, which
+	 * should write back the blocks before the first cue although the header is written before the
+	 * cues are read.
+	 * @throws URISyntaxException
+	 *         if the path to the file is badly formatted.
+	 * @throws IOException
+	 *         if and IO error occurs.
+	 */
+	@Test
+	public void testWriteFileSource () throws IOException, URISyntaxException {
+		final Path original = Paths.get(getClass().getResource("/sample.vtt").toURI());
+		final Path output = Files.createTempFile("subtitle", ".vtt");
+		output.toFile().deleteOnExit();
+		
+		try (final SubtitleStream subtitles = new WebVTTReader().openFile(original)) {
+			writer.writeFile(subtitles.getSubtitleFile(), subtitles, output);
+		}
+		
+		assertArrayEquals(Files.readAllBytes(original), Files.readAllBytes(output));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleWriter#writeFile(SubtitleFile, Path)} with subtitles from
+	 * another format.
+	 * @throws IOException
+	 *         if and IO error occurs.
+	 */
+	@Test
+	public void testWriteSubtitleFile () throws IOException {
+		final String line = System.lineSeparator();
+		final Path output = Files.createTempFile("subtitle", ".vtt");
+		output.toFile().deleteOnExit();
+		final SubtitleFile subtitles = new SubtitleFile(output);
+		subtitles.add(new Subtitle(2047, 6084, "You lose," + line + "we don't merge." + line));
+		subtitles.add(new Subtitle(2838698, 2843698, "Bye" + line));
+		
+		writer.writeFile(subtitles);
+		
+		assertEquals("\uFEFFWEBVTT" + line + line
+				+ "00:00:02.047 --> 00:00:06.084" + line + "You lose," + line + "we don't merge." + line + line
+				+ "00:47:18.698 --> 00:47:23.698" + line + "Bye" + line + line,
+				new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+	}
+}
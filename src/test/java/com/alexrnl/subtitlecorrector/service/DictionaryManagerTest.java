@@ -3,27 +3,46 @@ package com.alexrnl.subtitlecorrector.service;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.alexrnl.commons.io.IOUtils;
+import com.alexrnl.subtitlecorrector.io.BloomFilter;
 import com.alexrnl.subtitlecorrector.io.Dictionary;
+import com.alexrnl.subtitlecorrector.io.DictionarySegment;
 
 /**
  * Test suite for the {@link DictionaryManager} class.
  * @author Alex
  */
 public class DictionaryManagerTest {
+	/** The maximum time to wait for the watcher to reload a dictionary, in milliseconds */
+	private static final long WATCH_TIMEOUT = 10000;
+	
 	/** The path where to load the custom dictionaries */
 	private static Path pathToCustom;
 	/** The path to the custom dictionary 1 */
@@ -47,6 +66,9 @@ public class DictionaryManagerTest {
 		pathToCustom.toFile().deleteOnExit();
 		pathToCustom1.toFile().deleteOnExit();
 		pathToCustom2.toFile().deleteOnExit();
+		for (final Path custom : Arrays.asList(pathToCustom1, pathToCustom2)) {
+			custom.resolveSibling(custom.getFileName() + ".journal").toFile().deleteOnExit();
+		}
 		final Dictionary customDictionary1 = new Dictionary(pathToCustom1, true);
 		final Dictionary customDictionary2 = new Dictionary(pathToCustom2, true);
 		customDictionary1.addWord("helloworld");
@@ -67,14 +89,65 @@ public class DictionaryManagerTest {
 		manager = new DictionaryManager(Paths.get(DictionaryManager.class.getResource("/dictionary").toURI()), pathToCustom);
 	}
 	
+	/**
+	 * Test method for {@link DictionaryManager#getAvailableLocales()}.
+	 */
+	@Test
+	public void testGetAvailableLocales () {
+		assertEquals(new HashSet<>(Arrays.asList(Locale.FRENCH, Locale.ENGLISH)), manager.getAvailableLocales());
+	}
+	
 	/**
 	 * Test method for {@link DictionaryManager#getLocaleDictionaries()}.
 	 */
 	@Test
 	public void testGetLocaleDictionaries () {
-		assertEquals(2, manager.getLocaleDictionaries().size());
+		assertTrue(manager.getLocaleDictionaries().isEmpty());
+		final SessionParameters parameters = new SessionParameters();
+		parameters.setLocale(Locale.FRENCH);
+		manager.startSession(parameters);
+		manager.stopSession();
+		assertEquals(1, manager.getLocaleDictionaries().size());
 		assertNotNull(manager.getLocaleDictionaries().get(Locale.FRENCH));
-		assertNotNull(manager.getLocaleDictionaries().get(Locale.ENGLISH));
+		assertNull(manager.getLocaleDictionaries().get(Locale.ENGLISH));
+	}
+	
+	/**
+	 * Test that the number of locale dictionaries in memory is limited.
+	 * @throws IOException
+	 *         if there was an error while loading the dictionaries.
+	 * @throws URISyntaxException
+	 *         if the URI is badly formatted.
+	 */
+	@Test
+	public void testMaxResidentLocaleDictionaries () throws IOException, URISyntaxException {
+		final DictionaryManager limitedManager = new DictionaryManager(
+				Paths.get(DictionaryManager.class.getResource("/dictionary").toURI()), pathToCustom, 1);
+		final SessionParameters parameters = new SessionParameters();
+		parameters.setLocale(Locale.FRENCH);
+		limitedManager.startSession(parameters);
+		limitedManager.stopSession();
+		parameters.setLocale(Locale.ENGLISH);
+		limitedManager.startSession(parameters);
+		assertTrue(limitedManager.contains("the"));
+		limitedManager.stopSession();
+		assertEquals(1, limitedManager.getLocaleDictionaries().size());
+		assertNotNull(limitedManager.getLocaleDictionaries().get(Locale.ENGLISH));
+	}
+	
+	/**
+	 * Test method for {@link DictionaryManager#prefetch(Locale)}.
+	 * @throws ExecutionException
+	 *         if the dictionary could not be loaded.
+	 * @throws InterruptedException
+	 *         if the test was interrupted.
+	 */
+	@Test
+	public void testPrefetch () throws InterruptedException, ExecutionException {
+		final Dictionary english = manager.prefetch(Locale.ENGLISH).get();
+		assertNotNull(english);
+		assertEquals(english, manager.getLocaleDictionaries().get(Locale.ENGLISH));
+		assertNull(manager.prefetch(Locale.JAPANESE).get());
 	}
 	
 	/**
@@ -131,6 +204,9 @@ public class DictionaryManagerTest {
 		assertTrue(manager.addWord(IOUtils.getFilename(pathToCustom2), "aba"));
 		assertFalse(manager.addWord("MAn", "aba"));
 		assertTrue(manager.contains("aba"));
+		assertTrue(manager.addWord("Lyoko"));
+		assertTrue(manager.contains("Lyoko"));
+		assertFalse(manager.contains("lyoko"));
 		manager.stopSession();
 		
 		// Check that the custom dictionary has been saved
@@ -140,6 +216,291 @@ public class DictionaryManagerTest {
 		assertTrue(dictionary.contains("abaldr"));
 	}
 	
+	/**
+	 * Test method for {@link DictionaryManager#contains(CharSequence, int, int)}.
+	 */
+	@Test
+	public void testContainsRange () {
+		final SessionParameters sessionParameters = new SessionParameters();
+		sessionParameters.setLocale(Locale.FRENCH);
+		sessionParameters.addCustomDictionay(IOUtils.getFilename(pathToCustom1));
+		manager.startSession(sessionParameters);
+		final StringBuilder text = new StringBuilder("Le MOT helloworld, Helloworld zedzfrgtlermforopfy");
+		assertTrue(manager.contains(text, 3, 6));
+		assertTrue(manager.contains(text, 7, 17));
+		assertFalse(manager.contains(text, 19, 29));
+		assertFalse(manager.contains(text, 30, 49));
+		assertTrue(manager.addWord("zedzfrgtlermforopfy"));
+		assertTrue(manager.contains(text, 30, 49));
+		manager.stopSession();
+	}
+	
+	/**
+	 * Test method for {@link DictionaryManager#findFirst(List)}.
+	 */
+	@Test
+	public void testFindFirst () {
+		final SessionParameters sessionParameters = new SessionParameters();
+		sessionParameters.setLocale(Locale.FRENCH);
+		manager.startSession(sessionParameters);
+		assertEquals("maison", manager.findFirst(Arrays.asList("maixon", null, "maison", "mot")));
+		assertNull(manager.findFirst(Arrays.asList("maixon", "zedzfrgtlermforopfy")));
+		assertNull(manager.findFirst(new ArrayList<String>()));
+		assertTrue(manager.addWord("zedzfrgtlermforopfy"));
+		assertEquals("zedzfrgtlermforopfy", manager.findFirst(Arrays.asList("maixon", "zedzfrgtlermforopfy")));
+		manager.stopSession();
+	}
+	
+	/**
+	 * Test method for {@link DictionaryManager#findFirst(List)}.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testFindFirstNoSession () {
+		manager.findFirst(Arrays.asList("ldr"));
+	}
+	
+	/**
+	 * Test method for {@link DictionaryManager#suggest(String, int)}.
+	 */
+	@Test
+	public void testSuggest () {
+		final SessionParameters sessionParameters = new SessionParameters();
+		sessionParameters.setLocale(Locale.FRENCH);
+		sessionParameters.addCustomDictionay(IOUtils.getFilename(pathToCustom1));
+		manager.startSession(sessionParameters);
+		assertEquals(Arrays.asList("helloworld"), manager.suggest("helloworle", 1));
+		assertEquals("maison", manager.suggest("maixon", 3).get(0));
+		assertEquals(3, manager.suggest("maixon", 3).size());
+		assertEquals(Collections.emptyList(), manager.suggest("maixon", 0));
+		assertEquals(Collections.emptyList(), manager.suggest(null, 1));
+		assertEquals(Collections.emptyList(), manager.suggest("zedzfrgtlermforopfx", 1));
+		assertTrue(manager.addWord("zedzfrgtlermforopfy"));
+		assertEquals(Arrays.asList("zedzfrgtlermforopfy"), manager.suggest("zedzfrgtlermforopfx", 1));
+		manager.stopSession();
+	}
+	
+	/**
+	 * Test method for {@link DictionaryManager#getFilterHits()},
+	 * {@link DictionaryManager#getFilterMisses()},
+	 * {@link DictionaryManager#getFilterFalsePositives()} and
+	 * {@link DictionaryManager#resetFilterStatistics()}.
+	 */
+	@Test
+	public void testFilterStatistics () {
+		final SessionParameters sessionParameters = new SessionParameters();
+		sessionParameters.addCustomDictionay(IOUtils.getFilename(pathToCustom1));
+		manager.startSession(sessionParameters);
+		assertTrue(manager.contains("helloworld"));
+		assertFalse(manager.contains("zedzfrgtlermforopfy"));
+		manager.stopSession();
+		assertEquals(2, manager.getFilterHits() + manager.getFilterMisses());
+		assertTrue(manager.getFilterHits() >= 1);
+		assertTrue(manager.getFilterFalsePositives() <= 1);
+		assertEquals(manager.getFilterHits() - 1, manager.getFilterFalsePositives());
+		
+		// The filters do not cover the words of the locale dictionaries, they are not used
+		manager.resetFilterStatistics();
+		sessionParameters.setLocale(Locale.FRENCH);
+		manager.startSession(sessionParameters);
+		assertTrue(manager.contains("mot"));
+		assertFalse(manager.contains("zedzfrgtlermforopfy"));
+		manager.stopSession();
+		assertEquals(0, manager.getFilterHits());
+		assertEquals(0, manager.getFilterMisses());
+		assertEquals(0, manager.getFilterFalsePositives());
+		
+		manager.resetFilterStatistics();
+		assertEquals(0, manager.getFilterHits());
+		assertEquals(0, manager.getFilterMisses());
+		assertEquals(0, manager.getFilterFalsePositives());
+	}
+	
+	/**
+	 * Test that words added concurrently by several threads are visible to all of them.
+	 * @throws InterruptedException
+	 *         if the test was interrupted.
+	 * @throws ExecutionException
+	 *         if a thread failed.
+	 */
+	@Test
+	public void testConcurrentAddWord () throws InterruptedException, ExecutionException {
+		final SessionParameters sessionParameters = new SessionParameters();
+		sessionParameters.setLocale(Locale.FRENCH);
+		manager.startSession(sessionParameters);
+		final int threads = 4;
+		final int words = 2000;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final List<Future<Boolean>> results = new ArrayList<>();
+		for (int thread = 0; thread < threads; thread++) {
+			final int threadIndex = thread;
+			results.add(executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call () {
+					boolean success = manager.contains("mot");
+					for (int index = 0; index < words; index++) {
+						final String word = "zorglub" + threadIndex + "x" + index;
+						success &= manager.addWord(word) && manager.contains(word);
+					}
+					return success;
+				}
+			}));
+		}
+		for (final Future<Boolean> result : results) {
+			assertTrue(result.get());
+		}
+		executor.shutdown();
+		for (int thread = 0; thread < threads; thread++) {
+			for (int index = 0; index < words; index++) {
+				assertTrue(manager.contains("zorglub" + thread + "x" + index));
+			}
+		}
+		manager.stopSession();
+	}
+	
+	/**
+	 * Create a folder with a custom dictionary, for the tests which modify the dictionaries.
+	 * @param words
+	 *        the words of the custom dictionary.
+	 * @return the file of the custom dictionary.
+	 * @throws IOException
+	 *         if the dictionary could not be created.
+	 */
+	private static Path createCustomDictionary (final String... words) throws IOException {
+		final Path folder = Files.createTempDirectory("reloadedDictionaries");
+		folder.toFile().deleteOnExit();
+		final Path file = folder.resolve("reloaded" + DictionaryManager.DICTIONARY_EXTENSION);
+		Files.write(file, Arrays.asList(words), StandardCharsets.UTF_8);
+		file.toFile().deleteOnExit();
+		file.resolveSibling(file.getFileName() + ".journal").toFile().deleteOnExit();
+		return file;
+	}
+	
+	/**
+	 * Test method for {@link DictionaryManager#reloadCustomDictionary(Path)}.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 * @throws URISyntaxException
+	 *         if the URI is badly formatted.
+	 */
+	@Test
+	public void testReloadCustomDictionary () throws IOException, URISyntaxException {
+		final Path file = createCustomDictionary("abc");
+		final DictionaryManager reloadingManager = new DictionaryManager(
+				Paths.get(DictionaryManager.class.getResource("/dictionary").toURI()), file.getParent());
+		final Dictionary original = reloadingManager.getCustomDictionaries().get("reloaded");
+		final SessionParameters sessionParameters = new SessionParameters();
+		sessionParameters.setLocale(null);
+		sessionParameters.addCustomDictionay("reloaded");
+		reloadingManager.startSession(sessionParameters);
+		
+		// Appended words are added during the session
+		Files.write(file, Arrays.asList("def"), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		reloadingManager.reloadCustomDictionary(file);
+		assertTrue(reloadingManager.contains("def"));
+		assertEquals(original, reloadingManager.getCustomDictionaries().get("reloaded"));
+		
+		// Other modifications wait for the end of the session
+		Files.write(file, Arrays.asList("ghi"), StandardCharsets.UTF_8);
+		reloadingManager.reloadCustomDictionary(file);
+		assertTrue(reloadingManager.contains("abc"));
+		assertFalse(reloadingManager.contains("ghi"));
+		assertTrue(reloadingManager.addWord("reloaded", "jkl"));
+		reloadingManager.stopSession();
+		final Dictionary reloaded = reloadingManager.getCustomDictionaries().get("reloaded");
+		assertNotSame(original, reloaded);
+		assertTrue(reloaded.contains("ghi"));
+		assertTrue(reloaded.contains("jkl"));
+		assertFalse(reloaded.contains("abc"));
+		
+		// Removed dictionaries are removed from the manager, with their journal
+		final Path journal = file.resolveSibling(file.getFileName() + ".journal");
+		assertTrue(Files.exists(journal));
+		Files.delete(file);
+		reloadingManager.reloadCustomDictionary(file);
+		assertTrue(reloadingManager.getCustomDictionaries().isEmpty());
+		assertFalse(Files.exists(journal));
+		
+		// A dictionary created with the same name does not get the words of the removed one
+		Files.write(file, Arrays.asList("mno"), StandardCharsets.UTF_8);
+		reloadingManager.reloadCustomDictionary(file);
+		assertFalse(reloadingManager.getCustomDictionaries().get("reloaded").contains("jkl"));
+	}
+	
+	/**
+	 * Test method for {@link DictionaryManager#startWatching()} and
+	 * {@link DictionaryManager#stopWatching()}.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 * @throws URISyntaxException
+	 *         if the URI is badly formatted.
+	 * @throws InterruptedException
+	 *         if the test was interrupted.
+	 */
+	@Test
+	public void testWatching () throws IOException, URISyntaxException, InterruptedException {
+		final Path file = createCustomDictionary("abc");
+		final DictionaryManager watchingManager = new DictionaryManager(
+				Paths.get(DictionaryManager.class.getResource("/dictionary").toURI()), file.getParent());
+		watchingManager.startWatching();
+		try {
+			final Path added = file.resolveSibling("added" + DictionaryManager.DICTIONARY_EXTENSION);
+			added.toFile().deleteOnExit();
+			Files.write(added, Arrays.asList("xyz"), StandardCharsets.UTF_8);
+			final long timeout = System.currentTimeMillis() + WATCH_TIMEOUT;
+			// The file may be reported when it is created, and then when its content is written
+			Dictionary dictionary = null;
+			while ((dictionary == null || !dictionary.contains("xyz")) && System.currentTimeMillis() < timeout) {
+				Thread.sleep(50);
+				dictionary = watchingManager.getCustomDictionaries().get("added");
+			}
+			assertNotNull(dictionary);
+			assertTrue(dictionary.contains("xyz"));
+		} finally {
+			watchingManager.stopWatching();
+		}
+	}
+	
+	/**
+	 * Test that the locale dictionaries are read from the shared segment when it is provided.
+	 * @throws IOException
+	 *         if an IO operation fails.
+	 * @throws URISyntaxException
+	 *         if the URI is badly formatted.
+	 */
+	@Test
+	public void testSharedSegment () throws IOException, URISyntaxException {
+		final Path folder = Files.createTempDirectory("sharedSegment");
+		folder.toFile().deleteOnExit();
+		final Path italian = folder.resolve("it" + DictionaryManager.DICTIONARY_EXTENSION);
+		Files.write(italian, Arrays.asList("Parola"), StandardCharsets.UTF_8);
+		italian.toFile().deleteOnExit();
+		final Path segment = folder.resolve("dictionaries" + DictionarySegment.SEGMENT_EXTENSION);
+		segment.toFile().deleteOnExit();
+		DictionarySegment.write(segment, Collections.singletonMap(Locale.ITALIAN, italian), StandardCharsets.UTF_8);
+		
+		final Path pathToLocale = Paths.get(DictionaryManager.class.getResource("/dictionary").toURI());
+		final DictionaryManager sharedManager = new DictionaryManager(pathToLocale, pathToCustom,
+				DictionaryManager.DEFAULT_RESIDENT_LOCALE_DICTIONARIES, BloomFilter.DEFAULT_FALSE_POSITIVE_RATE, segment);
+		assertEquals(new HashSet<>(Arrays.asList(Locale.FRENCH, Locale.ENGLISH, Locale.ITALIAN)),
+				sharedManager.getAvailableLocales());
+		final SessionParameters sessionParameters = new SessionParameters();
+		sessionParameters.setLocale(Locale.ITALIAN);
+		sharedManager.startSession(sessionParameters);
+		assertTrue(sharedManager.contains("parola"));
+		assertFalse(sharedManager.contains("mot"));
+		sharedManager.stopSession();
+		
+		// Fall back on the text dictionaries when there is no segment
+		final DictionaryManager fallbackManager = new DictionaryManager(pathToLocale, pathToCustom,
+				DictionaryManager.DEFAULT_RESIDENT_LOCALE_DICTIONARIES, BloomFilter.DEFAULT_FALSE_POSITIVE_RATE,
+				folder.resolve("missing" + DictionarySegment.SEGMENT_EXTENSION));
+		assertEquals(manager.getAvailableLocales(), fallbackManager.getAvailableLocales());
+		sessionParameters.setLocale(Locale.FRENCH);
+		fallbackManager.startSession(sessionParameters);
+		assertTrue(fallbackManager.contains("mot"));
+		fallbackManager.stopSession();
+	}
+	
 	/**
 	 * Test method for {@link DictionaryManager#contains(String)}.
 	 */
@@ -148,4 +509,12 @@ public class DictionaryManagerTest {
 		manager.contains("ldr");
 	}
 	
+	/**
+	 * Test method for {@link DictionaryManager#suggest(String, int)}.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testSuggestNoSession () {
+		manager.suggest("ldr", 1);
+	}
+
 }
@@ -0,0 +1,130 @@
+package com.alexrnl.subtitlecorrector.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.alexrnl.commons.translation.Translatable;
+import com.alexrnl.commons.translation.Translator;
+import com.alexrnl.commons.utils.Word;
+
+/**
+ * Test suite for the {@link SerializedUserPrompt} class.
+ * @author Alex
+ */
+public class SerializedUserPromptTest {
+	/** The actual prompt */
+	@Mock
+	private UserPrompt				prompt;
+	/** The serialized prompt to test */
+	private SerializedUserPrompt	serializedPrompt;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		initMocks(this);
+		serializedPrompt = new SerializedUserPrompt(prompt);
+	}
+	
+	/**
+	 * Check that all the methods are forwarded to the actual prompt.
+	 */
+	@Test
+	public void testForward () {
+		final SessionParameters parameters = new SessionParameters();
+		final Translator translator = mock(Translator.class);
+		final Word word = new Word("wxrld", 7, 12);
+		final UserPromptAnswer answer = new UserPromptAnswer("world");
+		final Collection<Translatable> choices = new ArrayList<>();
+		when(prompt.confirm("Hello, wxrld!", word, "world")).thenReturn(answer);
+		when(prompt.confirm(word, "world")).thenReturn(answer);
+		
+		serializedPrompt.startSession(parameters);
+		serializedPrompt.setTranslator(translator);
+		serializedPrompt.information("info", 1);
+		serializedPrompt.warning("warning", 2);
+		serializedPrompt.error("error", 3);
+		serializedPrompt.askChoice(choices, "choice", 4);
+		assertSame(answer, serializedPrompt.confirm("Hello, wxrld!", word, "world"));
+		assertSame(answer, serializedPrompt.confirm(word, "world"));
+		serializedPrompt.stopSession();
+		
+		verify(prompt).startSession(parameters);
+		verify(prompt).setTranslator(translator);
+		verify(prompt).information("info", 1);
+		verify(prompt).warning("warning", 2);
+		verify(prompt).error("error", 3);
+		verify(prompt).askChoice(choices, "choice", 4);
+		verify(prompt).stopSession();
+	}
+	
+	/**
+	 * Check that the threads prompt the user one at a time.
+	 * @throws InterruptedException
+	 *         if the test is interrupted.
+	 */
+	@Test
+	public void testSerialized () throws InterruptedException {
+		final AtomicInteger current = new AtomicInteger();
+		final AtomicInteger maximum = new AtomicInteger();
+		when(prompt.confirm(anyString(), any(Word.class), anyString())).then(new Answer<UserPromptAnswer>() {
+			@Override
+			public UserPromptAnswer answer (final InvocationOnMock invocation) throws Throwable {
+				final int prompting = current.incrementAndGet();
+				synchronized (maximum) {
+					maximum.set(Math.max(maximum.get(), prompting));
+				}
+				Thread.sleep(5);
+				current.decrementAndGet();
+				return new UserPromptAnswer((String) invocation.getArguments()[2]);
+			}
+		});
+		
+		final List<Thread> threads = new ArrayList<>();
+		for (int index = 0; index < 8; index++) {
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run () {
+					for (int question = 0; question < 5; question++) {
+						serializedPrompt.confirm("context", new Word("word"), "replacement");
+					}
+				}
+			}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(1, maximum.get());
+		assertEquals(0, current.get());
+	}
+	
+	/**
+	 * Check that the actual prompt cannot be <code>null</code>.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = NullPointerException.class)
+	public void testNullPrompt () {
+		new SerializedUserPrompt(null);
+	}
+}
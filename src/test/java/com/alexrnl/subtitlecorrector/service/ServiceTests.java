@@ -11,7 +11,7 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ DictionaryManagerTest.class, SessionStateAdapterTest.class,
 		SessionManagerTest.class, SessionParametersTest.class, SubtitleProviderTest.class,
-		UserPromptAnswerTest.class })
+		UserPromptAnswerTest.class, SubtitleCorrectorTest.class, SerializedUserPromptTest.class })
 public class ServiceTests {
 	
 }
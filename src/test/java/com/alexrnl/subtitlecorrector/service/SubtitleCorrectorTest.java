@@ -0,0 +1,315 @@
+package com.alexrnl.subtitlecorrector.service;
+
+import static com.alexrnl.subtitlecorrector.common.TranslationKeys.KEYS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.subtitlecorrector.common.Subtitle;
+import com.alexrnl.subtitlecorrector.common.SubtitleFile;
+import com.alexrnl.subtitlecorrector.correctionstrategy.AbstractStrategy;
+import com.alexrnl.subtitlecorrector.correctionstrategy.Strategy;
+import com.alexrnl.subtitlecorrector.io.SubtitleFormat;
+import com.alexrnl.subtitlecorrector.io.subrip.SubRip;
+import com.alexrnl.subtitlecorrector.service.SubtitleCorrector.TargetResolver;
+
+/**
+ * Test suite for the {@link SubtitleCorrector} class.
+ * @author Alex
+ */
+public class SubtitleCorrectorTest {
+	/** The number of files to correct */
+	private static final int		FILES		= 20;
+	/** The number of subtitles in each file */
+	private static final int		SUBTITLES	= 50;
+	
+	/** The files to correct */
+	private List<SubtitleFile>		files;
+	/** The subtitles corrected in each file, in the order of correction */
+	private Map<String, List<Long>>	corrected;
+	/** The threads which corrected the subtitles */
+	private Set<Thread>				threads;
+	/** The strategy used, which records the subtitles corrected */
+	private Strategy				strategy;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		files = new ArrayList<>();
+		for (int file = 0; file < FILES; file++) {
+			final SubtitleFile subtitleFile = new SubtitleFile(Paths.get("file" + file + ".srt"));
+			for (int subtitle = 0; subtitle < SUBTITLES; subtitle++) {
+				subtitleFile.add(new Subtitle(1000 * subtitle, 1000 * subtitle + 500, "file" + file));
+			}
+			files.add(subtitleFile);
+		}
+		corrected = Collections.synchronizedMap(new HashMap<String, List<Long>>());
+		threads = Collections.synchronizedSet(new HashSet<Thread>());
+		strategy = new AbstractStrategy(KEYS.strategy().fixPunctuation()) {
+			@Override
+			public void correct (final Subtitle subtitle) {
+				threads.add(Thread.currentThread());
+				synchronized (corrected) {
+					if (!corrected.containsKey(subtitle.getContent())) {
+						corrected.put(subtitle.getContent(), new ArrayList<Long>());
+					}
+					corrected.get(subtitle.getContent()).add(subtitle.getBegin());
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Check that the subtitles of each file were all corrected, in order.
+	 */
+	private void checkCorrected () {
+		assertEquals(FILES, corrected.size());
+		for (int file = 0; file < FILES; file++) {
+			final List<Long> begins = corrected.get("file" + file);
+			assertEquals(SUBTITLES, begins.size());
+			for (int subtitle = 0; subtitle < SUBTITLES; subtitle++) {
+				assertEquals(Long.valueOf(1000 * subtitle), begins.get(subtitle));
+			}
+		}
+	}
+	
+	/**
+	 * Correct a folder by streaming the subtitles, overwriting the original files.<br />
+	 * The folder contains a file which cannot be read, which must be reported without preventing
+	 * the correction of the other files.
+	 * @param corrector
+	 *        the corrector to use.
+	 * @throws IOException
+	 *         if the test files could not be created.
+	 * @throws URISyntaxException
+	 *         if the path of the test files is not valid.
+	 */
+	private void checkCorrectStreaming (final SubtitleCorrector corrector) throws IOException, URISyntaxException {
+		final Path folder = Files.createTempDirectory("subtitles");
+		folder.toFile().deleteOnExit();
+		final SubtitleFormat subRip = new SubRip(StandardCharsets.UTF_8);
+		final Map<Path, SubtitleFormat> streamed = new TreeMap<>();
+		for (int file = 0; file < 4; file++) {
+			final Path copy = folder.resolve("file" + file + ".srt");
+			Files.copy(Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI()), copy);
+			copy.toFile().deleteOnExit();
+			streamed.put(copy, subRip);
+		}
+		final Path badDate = folder.resolve("badDate.srt");
+		Files.copy(Paths.get(getClass().getResource("/badDate.srt").toURI()), badDate);
+		badDate.toFile().deleteOnExit();
+		streamed.put(badDate, subRip);
+		final byte[] badDateContent = Files.readAllBytes(badDate);
+		
+		final Map<Path, IOException> failures = corrector.correct(new AbstractStrategy(KEYS.strategy().fixPunctuation()) {
+			@Override
+			public void correct (final Subtitle subtitle) {
+				subtitle.setContent(subtitle.getContent().toUpperCase());
+			}
+		}, streamed, new TargetResolver() {
+			@Override
+			public Path getTarget (final Path file) {
+				return file;
+			}
+		});
+		
+		assertEquals(Collections.singleton(badDate), failures.keySet());
+		assertArrayEquals(badDateContent, Files.readAllBytes(badDate));
+		for (final Path file : streamed.keySet()) {
+			if (file.equals(badDate)) {
+				continue;
+			}
+			final SubtitleFile subtitleFile = subRip.getReader().readFile(file);
+			assertEquals(1122, subtitleFile.size());
+			for (final Subtitle subtitle : subtitleFile) {
+				assertEquals(subtitle.getContent().toUpperCase(), subtitle.getContent());
+			}
+		}
+		try (final DirectoryStream<Path> files = Files.newDirectoryStream(folder)) {
+			for (final Path file : files) {
+				assertTrue(streamed.containsKey(file));
+			}
+		}
+	}
+	
+	/**
+	 * Check that the number of threads must be positive.
+	 */
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidThreads () {
+		new SubtitleCorrector(0);
+	}
+	
+	/**
+	 * Test method for {@link SubtitleCorrector#getThreads()}.
+	 */
+	@Test
+	public void testGetThreads () {
+		assertEquals(4, new SubtitleCorrector(4).getThreads());
+		assertEquals(SubtitleCorrector.DEFAULT_THREADS, new SubtitleCorrector().getThreads());
+	}
+	
+	/**
+	 * Test method for {@link SubtitleCorrector#correct(Strategy, java.util.Collection)} with a
+	 * single thread.
+	 */
+	@Test
+	public void testCorrectSingleThread () {
+		new SubtitleCorrector(1).correct(strategy, files);
+		checkCorrected();
+		assertEquals(Collections.singleton(Thread.currentThread()), threads);
+	}
+	
+	/**
+	 * Test method for {@link SubtitleCorrector#correct(Strategy, java.util.Collection)} with
+	 * several threads.
+	 */
+	@Test
+	public void testCorrectParallel () {
+		new SubtitleCorrector(4).correct(strategy, files);
+		checkCorrected();
+	}
+	
+	/**
+	 * Test method for {@link SubtitleCorrector#correct(Strategy, java.util.Collection)} when the
+	 * strategy fails.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testCorrectFailure () {
+		new SubtitleCorrector(4).correct(new AbstractStrategy(KEYS.strategy().fixPunctuation()) {
+			@Override
+			public void correct (final Subtitle subtitle) {
+				if ("file7".equals(subtitle.getContent())) {
+					throw new IllegalStateException("Strategy failed");
+				}
+			}
+		}, files);
+	}
+	
+	/**
+	 * Test method for {@link SubtitleCorrector#correct(Strategy, java.util.Collection)} when the
+	 * calling thread is interrupted.
+	 */
+	@Test
+	public void testCorrectInterrupted () {
+		Thread.currentThread().interrupt();
+		try {
+			new SubtitleCorrector(4).correct(new AbstractStrategy(KEYS.strategy().fixPunctuation()) {
+				@Override
+				public void correct (final Subtitle subtitle) {
+					try {
+						// Wait until the corrector stops its threads
+						new CountDownLatch(1).await();
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}, files);
+			fail("The interruption should be reported");
+		} catch (final IllegalStateException e) {
+			assertTrue(e.getCause() instanceof InterruptedException);
+			assertTrue(Thread.interrupted());
+		}
+	}
+	
+	/**
+	 * Test method for {@link SubtitleCorrector#correct(Strategy, Map, TargetResolver)} with a
+	 * single thread.
+	 * @throws IOException
+	 *         if the test files could not be created.
+	 * @throws URISyntaxException
+	 *         if the path of the test files is not valid.
+	 */
+	@Test
+	public void testCorrectStreamingSingleThread () throws IOException, URISyntaxException {
+		checkCorrectStreaming(new SubtitleCorrector(1));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleCorrector#correct(Strategy, Map, TargetResolver)} with
+	 * several threads.
+	 * @throws IOException
+	 *         if the test files could not be created.
+	 * @throws URISyntaxException
+	 *         if the path of the test files is not valid.
+	 */
+	@Test
+	public void testCorrectStreamingParallel () throws IOException, URISyntaxException {
+		checkCorrectStreaming(new SubtitleCorrector(4));
+	}
+	
+	/**
+	 * Test method for {@link SubtitleCorrector#correct(Strategy, Map, TargetResolver)}.<br />
+	 * The corrected files keep the permissions of the file they replace, and the new files take the
+	 * permissions of the original file.
+	 * @throws IOException
+	 *         if the test files could not be created.
+	 * @throws URISyntaxException
+	 *         if the path of the test files is not valid.
+	 */
+	@Test
+	public void testCorrectStreamingPermissions () throws IOException, URISyntaxException {
+		final Path folder = Files.createTempDirectory("subtitles");
+		folder.toFile().deleteOnExit();
+		assumeTrue(Files.getFileAttributeView(folder, PosixFileAttributeView.class) != null);
+		final SubtitleFormat subRip = new SubRip(StandardCharsets.UTF_8);
+		final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+		final Path original = folder.resolve("original.srt");
+		Files.copy(Paths.get(getClass().getResource("/Suits.S03E01.srt").toURI()), original);
+		original.toFile().deleteOnExit();
+		Files.setPosixFilePermissions(original, permissions);
+		final Path corrected = folder.resolve("original.corrected.srt");
+		corrected.toFile().deleteOnExit();
+		
+		final SubtitleCorrector corrector = new SubtitleCorrector(1);
+		final Strategy upperCase = new AbstractStrategy(KEYS.strategy().fixPunctuation()) {
+			@Override
+			public void correct (final Subtitle subtitle) {
+				subtitle.setContent(subtitle.getContent().toUpperCase());
+			}
+		};
+		assertTrue(corrector.correct(upperCase, Collections.singletonMap(original, subRip), new TargetResolver() {
+			@Override
+			public Path getTarget (final Path file) {
+				return file;
+			}
+		}).isEmpty());
+		assertEquals(permissions, Files.getPosixFilePermissions(original));
+		
+		assertTrue(corrector.correct(upperCase, Collections.singletonMap(original, subRip), new TargetResolver() {
+			@Override
+			public Path getTarget (final Path file) {
+				return corrected;
+			}
+		}).isEmpty());
+		assertEquals(permissions, Files.getPosixFilePermissions(corrected));
+	}
+}
@@ -5,18 +5,23 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -24,8 +29,10 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 
+import com.alexrnl.subtitlecorrector.common.Diagnostic;
 import com.alexrnl.subtitlecorrector.common.SubtitleFile;
 import com.alexrnl.subtitlecorrector.common.TranslationKeys;
+import com.alexrnl.subtitlecorrector.io.CharsetDetector;
 import com.alexrnl.subtitlecorrector.io.SubtitleFormat;
 import com.alexrnl.subtitlecorrector.io.SubtitleFormatManager;
 import com.alexrnl.subtitlecorrector.io.SubtitleReader;
@@ -90,6 +97,57 @@ public class SubtitleProviderTest {
 //		assertEquals(subtitleFormat, loaded.getValue());
 	}
 	
+	/**
+	 * Test method for {@link SubtitleProvider#loadSubtitles(Path, int)}.
+	 * Check that multiple subtitles are loaded on several threads, and that the files which cannot
+	 * be read are reported.
+	 * @throws IOException
+	 *         if there was an I/O error.
+	 */
+	@Test
+	public void testLoadSubtitlesParallel () throws IOException {
+		final SubtitleFormat subtitleFormat = mock(SubtitleFormat.class);
+		final SubtitleReader subtitleReader = mock(SubtitleReader.class);
+		final Path folder = subtitleFolder.newFolder().toPath();
+		for (int index = 0; index < 6; index++) {
+			final Path file = folder.resolve("file" + index + ".srt");
+			Files.createFile(file);
+			when(subtitleFormatManager.getFormatByPath(file)).thenReturn(new HashSet<>(Arrays.asList(subtitleFormat)));
+			when(subtitleReader.readFile(file)).thenReturn(new SubtitleFile(file));
+		}
+		final Path bad = folder.resolve("file3.srt");
+		when(subtitleReader.readFile(bad)).thenThrow(new IOException("Cannot read"));
+		when(subtitleFormat.getReader()).thenReturn(subtitleReader);
+		
+		final Map<SubtitleFile, SubtitleFormat> subtitles = subtitleProvider.loadSubtitles(folder, 4);
+		assertEquals(5, subtitles.size());
+		verify(userPrompt).warning(TRANSLATION_KEY.subtitleFileReadError(), bad);
+	}
+	
+	/**
+	 * Test method for {@link SubtitleProvider#findSubtitles(Path)}.
+	 * Check that the subtitles are found with their format, but not read.
+	 * @throws IOException
+	 *         if there was an I/O error.
+	 */
+	@Test
+	public void testFindSubtitles () throws IOException {
+		final SubtitleFormat subtitleFormat = mock(SubtitleFormat.class);
+		final Path folder = subtitleFolder.newFolder().toPath();
+		final Path file = folder.resolve("single.srt");
+		final Path second = folder.resolve("other.srt");
+		Files.createFile(file);
+		Files.createFile(second);
+		Files.createFile(folder.resolve("test.sub"));
+		
+		when(subtitleFormatManager.getFormatByPath(file)).thenReturn(new HashSet<>(Arrays.asList(subtitleFormat)));
+		when(subtitleFormatManager.getFormatByPath(second)).thenReturn(new HashSet<>(Arrays.asList(subtitleFormat)));
+		final Map<Path, SubtitleFormat> files = subtitleProvider.findSubtitles(folder);
+		assertEquals(Arrays.asList(second, file), new ArrayList<>(files.keySet()));
+		assertEquals(subtitleFormat, files.get(file));
+		verify(subtitleFormat, never()).getReader();
+	}
+	
 	/**
 	 * Test when a {@link SubtitleReader} throws an exception.
 	 * @throws IOException
@@ -109,6 +167,58 @@ public class SubtitleProviderTest {
 		verify(userPrompt).warning(TRANSLATION_KEY.subtitleFileReadError(), file);
 	}
 	
+	/**
+	 * Test that the user is warned when malformed subtitles were skipped in a file.
+	 * @throws IOException
+	 *         if there is an I/O error.
+	 */
+	@Test
+	public void testLoadSubtitleRecovered () throws IOException {
+		final SubtitleFormat subtitleFormat = mock(SubtitleFormat.class);
+		final SubtitleReader subtitleReader = mock(SubtitleReader.class);
+		final Path file = subtitleFolder.newFile("recovered.srt").toPath();
+		final SubtitleFile subtitleFile = new SubtitleFile(file);
+		subtitleFile.addDiagnostic(new Diagnostic(2, "Missing dates"));
+		subtitleFile.addDiagnostic(new Diagnostic(9, "Invalid number"));
+		
+		when(subtitleFormatManager.getFormatByPath(file)).thenReturn(new HashSet<>(Arrays.asList(subtitleFormat)));
+		when(subtitleFormat.getReader()).thenReturn(subtitleReader);
+		when(subtitleReader.readFile(file)).thenReturn(subtitleFile);
+		final Map<SubtitleFile, SubtitleFormat> subtitles = subtitleProvider.loadSubtitles(file);
+		assertEquals(1, subtitles.size());
+		verify(userPrompt).warning(TRANSLATION_KEY.subtitleFileRecovered(), file, 2);
+	}
+	
+	/**
+	 * Test that the files are read in their character set when a detector is set.
+	 * @throws IOException
+	 *         if there is an I/O error.
+	 */
+	@Test
+	public void testLoadSubtitlesCharset () throws IOException {
+		final SubtitleFormat subtitleFormat = mock(SubtitleFormat.class);
+		final SubtitleReader subtitleReader = mock(SubtitleReader.class);
+		final Path folder = subtitleFolder.newFolder().toPath();
+		final Path latin = folder.resolve("latin.srt");
+		final Path ascii = folder.resolve("ascii.srt");
+		final Charset windows1252 = Charset.forName("windows-1252");
+		Files.write(latin, "1\n00:00:01,000 --> 00:00:02,000\nÇa a été\n".getBytes(windows1252));
+		Files.write(ascii, "1\n00:00:01,000 --> 00:00:02,000\nHello\n".getBytes(StandardCharsets.US_ASCII));
+		final SubtitleFile latinSubtitles = mock(SubtitleFile.class);
+		final SubtitleFile asciiSubtitles = mock(SubtitleFile.class);
+		
+		when(subtitleFormatManager.getFormatByPath(latin)).thenReturn(new HashSet<>(Arrays.asList(subtitleFormat)));
+		when(subtitleFormatManager.getFormatByPath(ascii)).thenReturn(new HashSet<>(Arrays.asList(subtitleFormat)));
+		when(subtitleFormat.getReader()).thenReturn(subtitleReader);
+		when(subtitleReader.readFile(latin, windows1252)).thenReturn(latinSubtitles);
+		when(subtitleReader.readFile(ascii)).thenReturn(asciiSubtitles);
+		final Map<SubtitleFile, SubtitleFormat> subtitles = new SubtitleProvider(subtitleFormatManager, userPrompt,
+				new CharsetDetector()).loadSubtitles(folder);
+		assertEquals(2, subtitles.size());
+		assertEquals(subtitleFormat, subtitles.get(latinSubtitles));
+		assertEquals(subtitleFormat, subtitles.get(asciiSubtitles));
+	}
+	
 	/**
 	 * Test that no subtitles are loaded when the path does not exists.
 	 */
@@ -163,11 +273,43 @@ public class SubtitleProviderTest {
 		when(subtitleFormatManager.getFormatByPath(file)).thenReturn(new HashSet<SubtitleFormat>());
 		final Map<SubtitleFile, SubtitleFormat> subtitles = subtitleProvider.loadSubtitles(file);
 		assertTrue(subtitles.isEmpty());
+		verify(userPrompt).warning(TRANSLATION_KEY.unknownSubtitleFormat(), file);
+		verify(userPrompt, never()).askChoice(anyCollectionOf(SubtitleFormat.class), eq(TRANSLATION_KEY.chooseSubtitleFormat()), eq(file));
+	}
+	
+	/**
+	 * Test with a subtitle which has no proper format to read, when the user is asked the format.
+	 * @throws IOException
+	 *         if there was an I/O error.
+	 */
+	@Test
+	public void testSingleSubtitleWithBadFormatAsked () throws IOException {
+		final Path file = subtitleFolder.newFile("single.srt").toPath();
+		when(subtitleFormatManager.getFormatByPath(file)).thenReturn(new HashSet<SubtitleFormat>());
+		subtitleProvider.setAskFormat(true);
+		final Map<SubtitleFile, SubtitleFormat> subtitles = subtitleProvider.loadSubtitles(file);
+		assertTrue(subtitles.isEmpty());
 		verify(userPrompt).askChoice(anyCollectionOf(SubtitleFormat.class), eq(TRANSLATION_KEY.chooseSubtitleFormat()), eq(file));
 	}
 	
 	/**
-	 * Test with a subtitle with multiple format to read.
+	 * Test with a subtitle with multiple format to read, which is skipped when its content is not
+	 * recognized.
+	 * @throws IOException
+	 *         if there was an I/O error.
+	 */
+	@Test
+	public void testMultipleFormatSubtitleNotRecognized () throws IOException {
+		final Path file = subtitleFolder.newFile("single.srt").toPath();
+		when(subtitleFormatManager.getFormatByPath(file)).thenReturn(new HashSet<>(Arrays.asList(mock(SubtitleFormat.class), mock(SubtitleFormat.class))));
+		final Map<SubtitleFile, SubtitleFormat> subtitles = subtitleProvider.loadSubtitles(file);
+		assertTrue(subtitles.isEmpty());
+		verify(userPrompt).warning(TRANSLATION_KEY.unknownSubtitleFormat(), file);
+		verify(userPrompt, never()).askChoice(anyCollectionOf(SubtitleFormat.class), eq(TRANSLATION_KEY.chooseSubtitleFormat()), eq(file));
+	}
+	
+	/**
+	 * Test with a subtitle with multiple format to read, when the user is asked the format.
 	 * @throws IOException
 	 *         if there was an I/O error.
 	 */
@@ -182,6 +324,7 @@ public class SubtitleProviderTest {
 		when(userPrompt.askChoice(anyCollectionOf(SubtitleFormat.class), eq(TRANSLATION_KEY.chooseSubtitleFormat()), eq(file))).thenReturn(subtitleFormat);
 		when(subtitleFormat.getReader()).thenReturn(subtitleReader);
 		when(subtitleReader.readFile(file)).thenReturn(subtitleFile);
+		subtitleProvider.setAskFormat(true);
 		final Map<SubtitleFile, SubtitleFormat> subtitles = subtitleProvider.loadSubtitles(file);
 		assertEquals(1, subtitles.size());
 		final Entry<SubtitleFile, SubtitleFormat> loaded = subtitles.entrySet().iterator().next();
@@ -189,4 +332,27 @@ public class SubtitleProviderTest {
 		assertEquals(subtitleFormat, loaded.getValue());
 		verify(userPrompt).askChoice(anyCollectionOf(SubtitleFormat.class), eq(TRANSLATION_KEY.chooseSubtitleFormat()), eq(file));
 	}
+	
+	/**
+	 * Test with a subtitle which has several possible formats, recognized by its content.
+	 * @throws IOException
+	 *         if there was an I/O error.
+	 */
+	@Test
+	public void testMultipleFormatSubtitleProbed () throws IOException {
+		final SubtitleFormat subtitleFormat = mock(SubtitleFormat.class);
+		final SubtitleReader subtitleReader = mock(SubtitleReader.class);
+		final SubtitleFile subtitleFile = mock(SubtitleFile.class);
+		final Path file = subtitleFolder.newFile("probed.srt").toPath();
+		final Set<SubtitleFormat> candidates = new HashSet<>(Arrays.asList(subtitleFormat, mock(SubtitleFormat.class)));
+		
+		when(subtitleFormatManager.getFormatByPath(file)).thenReturn(candidates);
+		when(subtitleFormatManager.probeFormat(file, candidates)).thenReturn(subtitleFormat);
+		when(subtitleFormat.getReader()).thenReturn(subtitleReader);
+		when(subtitleReader.readFile(file)).thenReturn(subtitleFile);
+		final Map<SubtitleFile, SubtitleFormat> subtitles = subtitleProvider.loadSubtitles(file);
+		assertEquals(1, subtitles.size());
+		assertEquals(subtitleFormat, subtitles.get(subtitleFile));
+		verify(userPrompt, never()).askChoice(anyCollectionOf(SubtitleFormat.class), eq(TRANSLATION_KEY.chooseSubtitleFormat()), eq(file));
+	}
 }